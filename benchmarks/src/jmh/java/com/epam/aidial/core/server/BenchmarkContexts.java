@@ -0,0 +1,49 @@
+package com.epam.aidial.core.server;
+
+import com.epam.aidial.core.config.Key;
+import com.epam.aidial.core.server.data.ApiKeyData;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.http.HttpVersion;
+import lombok.experimental.UtilityClass;
+
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Creates proxy contexts for benchmarks. Only the HTTP request and response are mocked,
+ * so the code under test reads the context through its real getters.
+ */
+@UtilityClass
+public class BenchmarkContexts {
+
+    public static ProxyContext context(HttpMethod method, String path) {
+        HttpServerResponse response = mock(HttpServerResponse.class);
+        when(response.getStatusCode()).thenReturn(200);
+
+        HttpServerRequest request = mock(HttpServerRequest.class);
+        when(request.response()).thenReturn(response);
+        when(request.method()).thenReturn(method);
+        when(request.path()).thenReturn(path);
+        when(request.uri()).thenReturn(path);
+        when(request.version()).thenReturn(HttpVersion.HTTP_1_1);
+        when(request.getHeader(Proxy.HEADER_CONVERSATION_ID)).thenReturn("conversation-id");
+        when(request.getHeader(Proxy.HEADER_JOB_TITLE)).thenReturn("job-title");
+
+        Key key = new Key();
+        key.setKey("proxyKey1");
+        key.setProject("EPM-RTC-GPT");
+        key.setRoles(List.of("default"));
+
+        ApiKeyData apiKeyData = new ApiKeyData();
+        apiKeyData.setOriginalKey(key);
+
+        ProxyContext context = new ProxyContext(mock(Proxy.class), null, request, apiKeyData, null,
+                "4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7");
+        context.setUserHash("user-hash");
+        return context;
+    }
+}
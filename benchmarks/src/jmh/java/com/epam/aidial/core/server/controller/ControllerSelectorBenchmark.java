@@ -0,0 +1,53 @@
+package com.epam.aidial.core.server.controller;
+
+import com.epam.aidial.core.server.BenchmarkContexts;
+import com.epam.aidial.core.server.Proxy;
+import com.epam.aidial.core.server.ProxyContext;
+import io.vertx.core.http.HttpMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ControllerSelectorBenchmark {
+
+    /**
+     * Routes from the most frequent to the ones matched last.
+     */
+    @Param({
+        "POST /openai/deployments/gpt-4/chat/completions",
+        "GET /openai/deployments",
+        "GET /v1/metadata/conversations/bucket/folder/",
+        "PUT /v1/conversations/bucket/folder/conversation",
+        "POST /v1/ops/resource/move",
+        "GET /unknown/route"
+    })
+    private String route;
+
+    private Proxy proxy;
+
+    private ProxyContext context;
+
+    @Setup
+    public void setup() {
+        String[] parts = route.split(" ");
+        proxy = mock(Proxy.class);
+        context = BenchmarkContexts.context(HttpMethod.valueOf(parts[0]), parts[1]);
+    }
+
+    @Benchmark
+    public Controller select() {
+        return ControllerSelector.select(proxy, context);
+    }
+}
@@ -0,0 +1,101 @@
+package com.epam.aidial.core.server.controller;
+
+import com.epam.aidial.core.server.util.PathTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares matching the GET routes one by one with regular expressions, the way {@link ControllerSelector} used to,
+ * with the path trie it uses now.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RouteMatchingBenchmark {
+
+    private static final List<Pattern> PATTERNS = List.of(
+            Pattern.compile("^/+openai/deployments/(?<id>.+?)$"),
+            Pattern.compile("^/+openai/deployments$"),
+            Pattern.compile("^/+openai/models/(?<id>.+?)$"),
+            Pattern.compile("^/+openai/models$"),
+            Pattern.compile("^/+openai/addons/(?<id>.+?)$"),
+            Pattern.compile("^/+openai/addons$"),
+            Pattern.compile("^/+openai/assistants/(?<id>.+?)$"),
+            Pattern.compile("^/+openai/assistants$"),
+            Pattern.compile("^/+openai/applications/(?<id>.+?)$"),
+            Pattern.compile("^/+openai/applications$"),
+            Pattern.compile("^/v1/metadata/files/(?<bucket>[a-zA-Z0-9]+)/(?<path>.*)"),
+            Pattern.compile("^/v1/files/(?<bucket>[a-zA-Z0-9]+)/(?<path>.*)"),
+            Pattern.compile("^/v1/(conversations|prompts|applications)/(?<bucket>[a-zA-Z0-9]+)/(?<path>.*)"),
+            Pattern.compile("^/v1/metadata/(conversations|prompts|applications)/(?<bucket>[a-zA-Z0-9]+)/(?<path>.*)"),
+            Pattern.compile("^/v1/bucket$"),
+            Pattern.compile("^/v1/invitations/(?<id>[a-zA-Z0-9]+)$"),
+            Pattern.compile("^/v1/invitations$"),
+            Pattern.compile("^/v1/deployments/(?<id>.+?)/limits$"),
+            Pattern.compile("^/+v1/deployments/(?<id>.+?)/configuration$"),
+            Pattern.compile("^/v1/user/info$"));
+
+    private static final PathTrie<Integer> TRIE = new PathTrie<>();
+
+    static {
+        List<String> templates = List.of(
+                "/+openai/deployments/{id+}", "/+openai/deployments",
+                "/+openai/models/{id+}", "/+openai/models",
+                "/+openai/addons/{id+}", "/+openai/addons",
+                "/+openai/assistants/{id+}", "/+openai/assistants",
+                "/+openai/applications/{id+}", "/+openai/applications",
+                "/v1/metadata/files/{bucket:alnum}/{path*}", "/v1/files/{bucket:alnum}/{path*}",
+                "/v1/conversations/{bucket:alnum}/{path*}", "/v1/prompts/{bucket:alnum}/{path*}",
+                "/v1/applications/{bucket:alnum}/{path*}", "/v1/metadata/conversations/{bucket:alnum}/{path*}",
+                "/v1/metadata/prompts/{bucket:alnum}/{path*}", "/v1/metadata/applications/{bucket:alnum}/{path*}",
+                "/v1/bucket", "/v1/invitations/{id:alnum}", "/v1/invitations",
+                "/v1/deployments/{id+}/limits", "/+v1/deployments/{id+}/configuration", "/v1/user/info");
+
+        for (int i = 0; i < templates.size(); i++) {
+            TRIE.add(templates.get(i), i);
+        }
+    }
+
+    /**
+     * Routes from the first one to the ones matched last.
+     */
+    @Param({
+        "/openai/deployments/gpt-4",
+        "/v1/metadata/conversations/bucket/folder/",
+        "/v1/deployments/gpt-4/configuration",
+        "/unknown/route"
+    })
+    private String path;
+
+    @Benchmark
+    public String regex() {
+        for (Pattern pattern : PATTERNS) {
+            Matcher matcher = pattern.matcher(path);
+            if (matcher.find()) {
+                return (matcher.groupCount() > 0) ? matcher.group(matcher.groupCount()) : pattern.pattern();
+            }
+        }
+
+        return null;
+    }
+
+    @Benchmark
+    public String trie() {
+        PathTrie.Match<Integer> match = TRIE.match(path);
+        if (match == null) {
+            return null;
+        }
+
+        return match.captures().isEmpty() ? match.template() : match.get(match.captures().get(match.captures().size() - 1).name());
+    }
+}
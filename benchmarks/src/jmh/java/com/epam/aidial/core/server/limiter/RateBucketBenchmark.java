@@ -0,0 +1,43 @@
+package com.epam.aidial.core.server.limiter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RateBucketBenchmark {
+
+    @Param({"MINUTE", "HOUR", "DAY"})
+    private RateWindow window;
+
+    /**
+     * Time step between requests in milliseconds, the bigger one makes every request roll the window.
+     */
+    @Param({"1", "60000"})
+    private long step;
+
+    private RateBucket bucket;
+
+    private long timestamp;
+
+    @Setup
+    public void setup() {
+        bucket = new RateBucket(window);
+        timestamp = window.window();
+    }
+
+    @Benchmark
+    public long add() {
+        timestamp += step;
+        return bucket.add(timestamp, 100);
+    }
+}
@@ -0,0 +1,72 @@
+package com.epam.aidial.core.server.log;
+
+import com.epam.aidial.core.config.Model;
+import com.epam.aidial.core.server.BenchmarkContexts;
+import com.epam.aidial.core.server.ProxyContext;
+import com.epam.aidial.core.server.token.TokenUsageParser;
+import com.epam.aidial.core.server.util.SseFixtures;
+import com.epam.deltix.gflog.api.Log;
+import com.epam.deltix.gflog.api.LogEntry;
+import com.epam.deltix.gflog.api.LogFactory;
+import com.epam.deltix.gflog.api.LogLevel;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GfLogStoreBenchmark {
+
+    private static final Log LOGGER = LogFactory.getLog(GfLogStoreBenchmark.class);
+
+    @Param({"1000", "10000", "50000"})
+    private int chunks;
+
+    private GfLogStore store;
+
+    private ProxyContext context;
+
+    private Buffer stream;
+
+    @Setup
+    public void setup() {
+        Model model = new Model();
+        model.setName("gpt-4");
+
+        stream = SseFixtures.stream(chunks);
+        context = BenchmarkContexts.context(HttpMethod.POST, "/openai/deployments/gpt-4/chat/completions");
+        context.setDeployment(model);
+        context.setRequestBody(SseFixtures.request());
+        context.setResponseBody(stream);
+        context.setTokenUsage(TokenUsageParser.parse(stream));
+        store = new GfLogStore(null);
+    }
+
+    @Benchmark
+    public String assembleStreamingResponse() {
+        return GfLogStore.assembleStreamingResponse(stream);
+    }
+
+    /**
+     * Measures building the log entry only, the entry is aborted to keep appenders out of the measurement.
+     */
+    @Benchmark
+    public void append() throws Exception {
+        LogEntry entry = LOGGER.log(LogLevel.FATAL);
+        try {
+            store.append(context, entry);
+        } finally {
+            entry.abort();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.epam.aidial.core.server.security;
+
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EncryptionServiceBenchmark {
+
+    private static final String VALUE = "files/7G9WZNcoY26Vy9D7bEgbv6zqbJGfyDp9KZyEbJR4XMZt/folder/conversation.json";
+
+    private EncryptionService service;
+
+    private String encrypted;
+
+    @Setup
+    public void setup() {
+        service = new EncryptionService(new JsonObject().put("secret", "password").put("key", "salt"));
+        encrypted = service.encrypt(VALUE);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return service.encrypt(VALUE);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return service.decrypt(encrypted);
+    }
+}
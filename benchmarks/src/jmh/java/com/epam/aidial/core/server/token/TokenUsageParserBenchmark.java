@@ -0,0 +1,47 @@
+package com.epam.aidial.core.server.token;
+
+import com.epam.aidial.core.server.util.SseFixtures;
+import io.vertx.core.buffer.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TokenUsageParserBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    private int chunks;
+
+    private Buffer stream;
+
+    private Buffer response;
+
+    @Setup
+    public void setup() {
+        stream = SseFixtures.stream(chunks);
+        response = Buffer.buffer("""
+                {"id":"chatcmpl-1","object":"chat.completion","created":1700000000,"model":"gpt-4",
+                "choices":[{"index":0,"message":{"role":"assistant","content":%s},"finish_reason":"stop"}],
+                "usage":{"completion_tokens":%d,"prompt_tokens":%d,"total_tokens":%d}}"""
+                .formatted("\"" + "word ".repeat(chunks) + "\"", chunks, chunks / 2, chunks + chunks / 2));
+    }
+
+    @Benchmark
+    public TokenUsage parseStream() {
+        return TokenUsageParser.parse(stream);
+    }
+
+    @Benchmark
+    public TokenUsage parseResponse() {
+        return TokenUsageParser.parse(response);
+    }
+}
@@ -0,0 +1,47 @@
+package com.epam.aidial.core.server.upstream;
+
+import com.epam.aidial.core.config.Upstream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WeightedRoundRobinBalancerBenchmark {
+
+    @Param({"1", "4", "16"})
+    private int upstreams;
+
+    private WeightedRoundRobinBalancer balancer;
+
+    @Setup
+    public void setup() {
+        List<Upstream> list = new ArrayList<>(upstreams);
+        for (int i = 0; i < upstreams; i++) {
+            list.add(new Upstream("http://upstream-" + i + ":8080", "key-" + i, null, 1 + i % 3, 0));
+        }
+        balancer = new WeightedRoundRobinBalancer("model", list);
+    }
+
+    @Benchmark
+    public UpstreamState next() {
+        return balancer.next();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UpstreamState nextContended() {
+        return balancer.next();
+    }
+}
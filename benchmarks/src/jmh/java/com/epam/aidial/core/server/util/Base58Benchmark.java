@@ -0,0 +1,46 @@
+package com.epam.aidial.core.server.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class Base58Benchmark {
+
+    /**
+     * 32 bytes is a bucket hash, the bigger ones are encrypted resource paths.
+     */
+    @Param({"32", "96", "256"})
+    private int size;
+
+    private byte[] bytes;
+
+    private String encoded;
+
+    @Setup
+    public void setup() {
+        bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        encoded = Base58.encode(bytes);
+    }
+
+    @Benchmark
+    public String encode() {
+        return Base58.encode(bytes);
+    }
+
+    @Benchmark
+    public byte[] decode() {
+        return Base58.decode(encoded);
+    }
+}
@@ -0,0 +1,44 @@
+package com.epam.aidial.core.server.util;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EventStreamParserBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    private int chunks;
+
+    @Param({"1024", "16384"})
+    private int frameSize;
+
+    private List<Buffer> frames;
+
+    @Setup
+    public void setup() {
+        frames = SseFixtures.frames(chunks, frameSize);
+    }
+
+    @Benchmark
+    public Future<Boolean> parse() {
+        EventStreamParser parser = new EventStreamParser(frameSize, null);
+        Future<Boolean> result = null;
+        for (Buffer frame : frames) {
+            result = parser.parse(frame);
+        }
+        return result;
+    }
+}
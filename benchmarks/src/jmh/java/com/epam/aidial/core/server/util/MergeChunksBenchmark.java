@@ -0,0 +1,50 @@
+package com.epam.aidial.core.server.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MergeChunksBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    private int chunks;
+
+    private List<JsonNode> nodes;
+
+    private List<JsonNode> copies;
+
+    @Setup
+    public void setup() {
+        nodes = SseFixtures.nodes(chunks);
+    }
+
+    /**
+     * The merge mutates the chunks, so every invocation gets its own copies.
+     */
+    @Setup(Level.Invocation)
+    public void copy() {
+        copies = new ArrayList<>(nodes.size());
+        for (JsonNode node : nodes) {
+            copies.add(node.deepCopy());
+        }
+    }
+
+    @Benchmark
+    public JsonNode merge() {
+        return MergeChunks.merge(copies);
+    }
+}
@@ -0,0 +1,61 @@
+package com.epam.aidial.core.server.util;
+
+import com.epam.aidial.core.config.Model;
+import com.epam.aidial.core.config.ModelType;
+import com.epam.aidial.core.config.Pricing;
+import com.epam.aidial.core.server.BenchmarkContexts;
+import com.epam.aidial.core.server.ProxyContext;
+import com.epam.aidial.core.server.token.TokenUsage;
+import com.epam.aidial.core.server.token.TokenUsageParser;
+import io.vertx.core.http.HttpMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ModelCostCalculatorBenchmark {
+
+    @Param({"token", "char_without_whitespace"})
+    private String unit;
+
+    @Param({"1000", "10000", "50000"})
+    private int chunks;
+
+    private ProxyContext context;
+
+    @Setup
+    public void setup() {
+        Pricing pricing = new Pricing();
+        pricing.setUnit(unit);
+        pricing.setPrompt("0.00003");
+        pricing.setCompletion("0.00006");
+
+        Model model = new Model();
+        model.setName("gpt-4");
+        model.setType(ModelType.CHAT);
+        model.setPricing(pricing);
+
+        context = BenchmarkContexts.context(HttpMethod.POST, "/openai/deployments/gpt-4/chat/completions");
+        context.setDeployment(model);
+        context.setRequestBody(SseFixtures.request());
+        context.setResponseBody(SseFixtures.stream(chunks));
+
+        TokenUsage tokenUsage = TokenUsageParser.parse(context.getResponseBody());
+        context.setTokenUsage(tokenUsage);
+    }
+
+    @Benchmark
+    public BigDecimal calculate() {
+        return ModelCostCalculator.calculate(context);
+    }
+}
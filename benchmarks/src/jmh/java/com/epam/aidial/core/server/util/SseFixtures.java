@@ -0,0 +1,101 @@
+package com.epam.aidial.core.server.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.vertx.core.buffer.Buffer;
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates chat completion responses streamed by models: a role chunk, content deltas with occasional
+ * attachments and stages in custom content, a final chunk with usage and the done event.
+ * The generator is seeded, so every run measures the same data.
+ */
+@UtilityClass
+public class SseFixtures {
+
+    private static final String[] WORDS = {
+        "the", "model", "returns", "a", "streaming", "response", "with", "tokens", "and", "attachments",
+        "Привет", "数据", "über", "naïve", "\"quoted\"", "back\\slash", "tab\t", "new\nline", "emoji 🙂", "json {}"
+    };
+
+    /**
+     * @return the chunks as they are sent by a model, each one is a complete JSON object.
+     */
+    public static List<String> chunks(int count) {
+        Random random = new Random(count);
+        List<String> chunks = new ArrayList<>(count);
+        chunks.add(chunk("{\"role\":\"assistant\"}", null, null));
+
+        int stage = 0;
+        for (int i = 1; i < count - 1; i++) {
+            if (i % 500 == 0) {
+                chunks.add(chunk("{\"custom_content\":{\"attachments\":[{\"index\":" + (i / 500 - 1)
+                        + ",\"type\":\"image/png\",\"title\":\"Image " + i + "\",\"url\":\"files/bucket/image-" + i + ".png\"}]}}",
+                        null, null));
+            } else if (i % 100 == 0) {
+                chunks.add(chunk("{\"custom_content\":{\"stages\":[{\"index\":" + stage++
+                        + ",\"name\":\"Stage " + i + "\",\"status\":\"completed\"}]}}", null, null));
+            } else {
+                String word = WORDS[random.nextInt(WORDS.length)];
+                chunks.add(chunk("{\"content\":" + ProxyUtil.convertToString(word + " ") + "}", null, null));
+            }
+        }
+
+        chunks.add(chunk("{}", "\"stop\"", "{\"completion_tokens\":" + count
+                + ",\"prompt_tokens\":" + (count / 2) + ",\"total_tokens\":" + (count + count / 2) + "}"));
+        return chunks;
+    }
+
+    @SneakyThrows
+    public static List<JsonNode> nodes(int count) {
+        List<JsonNode> nodes = new ArrayList<>(count);
+        for (String chunk : chunks(count)) {
+            nodes.add(ProxyUtil.MAPPER.readTree(chunk));
+        }
+        return nodes;
+    }
+
+    /**
+     * @return the whole event stream body.
+     */
+    public static Buffer stream(int count) {
+        StringBuilder builder = new StringBuilder();
+        for (String chunk : chunks(count)) {
+            builder.append("data: ").append(chunk).append("\n\n");
+        }
+        builder.append("data: [DONE]\n\n");
+        return Buffer.buffer(builder.toString());
+    }
+
+    /**
+     * @return the event stream split into frames of the given size regardless of event boundaries,
+     *     as they are received from the network.
+     */
+    public static List<Buffer> frames(int count, int frameSize) {
+        Buffer stream = stream(count);
+        List<Buffer> frames = new ArrayList<>(stream.length() / frameSize + 1);
+        for (int i = 0; i < stream.length(); i += frameSize) {
+            frames.add(stream.getBuffer(i, Math.min(i + frameSize, stream.length())));
+        }
+        return frames;
+    }
+
+    public static Buffer request() {
+        return Buffer.buffer("""
+                {"messages":[{"role":"system","content":"You are a helpful assistant."},
+                {"role":"user","content":"Write a long story about streaming responses."}],
+                "stream":true,"temperature":0.7,"max_tokens":4096}""".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String chunk(String delta, String finishReason, String usage) {
+        return "{\"id\":\"chatcmpl-7Y0cQFg8bh3Xgv2Lo6ZW8R5HcVmTP\",\"object\":\"chat.completion.chunk\","
+                + "\"created\":1700000000,\"model\":\"gpt-4\",\"choices\":[{\"index\":0,\"delta\":" + delta
+                + ",\"finish_reason\":" + finishReason + "}]"
+                + ((usage == null) ? "" : ",\"usage\":" + usage) + "}";
+    }
+}
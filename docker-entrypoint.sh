@@ -5,6 +5,15 @@ set -Ee
 # then we assume the user is calling core
 if [ $# -lt 1 ]; then
 
+  # Use the class data sharing archive built into the image with `--build-arg CDS=true`
+  if [ "$USE_CDS" = "true" ]; then
+    if [ -f /app/cds/server.jsa ]; then
+      export JAVA_OPTS="-XX:SharedArchiveFile=/app/cds/server.jsa $JAVA_OPTS"
+    else
+      echo "USE_CDS is set, but the image has no class data sharing archive" >&2
+    fi
+  fi
+
   # If the container is run under the root user, update the ownership of directories
   # that may be mounted as volumes to ensure 'appuser' has the necessary access rights.
   if [ "$(id -u)" = '0' ]; then
@@ -1,11 +1,12 @@
 package com.epam.aidial.core.server;
 
 import com.epam.aidial.core.server.cache.CacheClientFactory;
-import com.epam.aidial.core.server.config.ConfigStore;
 import com.epam.aidial.core.server.config.FileConfigStore;
 import com.epam.aidial.core.server.limiter.RateLimiter;
 import com.epam.aidial.core.server.log.GfLogStore;
 import com.epam.aidial.core.server.log.LogStore;
+import com.epam.aidial.core.server.metric.IoMetrics;
+import com.epam.aidial.core.server.metric.StreamingMetrics;
 import com.epam.aidial.core.server.security.AccessService;
 import com.epam.aidial.core.server.security.AccessTokenValidator;
 import com.epam.aidial.core.server.security.ApiKeyStore;
@@ -16,9 +17,13 @@ import com.epam.aidial.core.server.service.InvitationService;
 import com.epam.aidial.core.server.service.LockService;
 import com.epam.aidial.core.server.service.NotificationService;
 import com.epam.aidial.core.server.service.PublicationService;
+import com.epam.aidial.core.server.service.ReadinessService;
+import com.epam.aidial.core.server.service.ResourceJobService;
 import com.epam.aidial.core.server.service.ResourceOperationService;
 import com.epam.aidial.core.server.service.ResourceService;
+import com.epam.aidial.core.server.service.ResourceSubscriptionHub;
 import com.epam.aidial.core.server.service.RuleService;
+import com.epam.aidial.core.server.service.ShareIndex;
 import com.epam.aidial.core.server.service.ShareService;
 import com.epam.aidial.core.server.service.TimerService;
 import com.epam.aidial.core.server.service.VertxTimerService;
@@ -27,6 +32,7 @@ import com.epam.aidial.core.server.storage.Storage;
 import com.epam.aidial.core.server.token.TokenStatsTracker;
 import com.epam.aidial.core.server.upstream.UpstreamRouteProvider;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.micrometer.core.instrument.Clock;
 import io.micrometer.registry.otlp.OtlpMeterRegistry;
 import io.opentelemetry.api.OpenTelemetry;
@@ -58,9 +64,13 @@ import java.util.Objects;
 import java.util.Properties;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
+import javax.annotation.Nullable;
 
 @Slf4j
 @Setter
@@ -74,11 +84,13 @@ public class AiDial {
 
     private RedissonClient redis;
     private Proxy proxy;
+    private FileConfigStore configStore;
 
     private AccessTokenValidator accessTokenValidator;
 
     private BlobStorage storage;
     private ResourceService resourceService;
+    private ResourceJobService resourceJobService;
 
     private LongSupplier clock = System::currentTimeMillis;
     private Supplier<String> generator = () -> UUID.randomUUID().toString().replace("-", "");
@@ -86,14 +98,32 @@ public class AiDial {
     @VisibleForTesting
     void start() throws Exception {
         System.setProperty("io.opentelemetry.context.contextStorageProvider", "io.vertx.tracing.opentelemetry.VertxContextStorageProvider");
+        ReadinessService readinessService = new ReadinessService();
+        ExecutorService executor = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setNameFormat("startup-%d").setDaemon(true).build());
+        CompletableFuture<BlobStorage> storageFuture = null;
+        CompletableFuture<RedissonClient> redisFuture = null;
+        CompletableFuture<FileConfigStore> configFuture = null;
+
         try {
             settings = (settings == null) ? settings() : settings;
-            VertxOptions vertxOptions = new VertxOptions(settings("vertx"));
-            setupMetrics(vertxOptions);
-            setupTracing(vertxOptions);
 
-            vertx = Vertx.vertx(vertxOptions);
-            client = vertx.createHttpClient(new HttpClientOptions(settings("client")));
+            // the clients connect to the remote services which takes most of the startup time, so they start in parallel
+            if (storage == null) {
+                Storage storageConfig = Json.decodeValue(settings("storage").toBuffer(), Storage.class);
+                storageFuture = readinessService.phaseAsync("storage", () -> new BlobStorage(storageConfig), executor);
+            }
+            redisFuture = readinessService.phaseAsync("redis", () -> CacheClientFactory.create(settings("redis")), executor);
+
+            readinessService.phase("vertx", () -> {
+                VertxOptions vertxOptions = new VertxOptions(settings("vertx"));
+                setupMetrics(vertxOptions);
+                setupTracing(vertxOptions);
+
+                vertx = Vertx.vertx(vertxOptions);
+                client = vertx.createHttpClient(new HttpClientOptions(settings("client")));
+                return null;
+            });
 
             LogStore logStore = new GfLogStore(vertx);
             UpstreamRouteProvider upstreamRouteProvider = new UpstreamRouteProvider();
@@ -102,57 +132,95 @@ public class AiDial {
                 accessTokenValidator = new AccessTokenValidator(settings("identityProviders"), vertx, client);
             }
 
-            if (storage == null) {
-                Storage storageConfig = Json.decodeValue(settings("storage").toBuffer(), Storage.class);
-                storage = new BlobStorage(storageConfig);
-            }
             EncryptionService encryptionService = new EncryptionService(settings("encryption"));
 
-            redis = CacheClientFactory.create(settings("redis"));
+            storage = (storageFuture == null) ? storage : await(storageFuture);
+            redis = await(redisFuture);
+            IoMetrics.setSpanAttributes(settings("metrics").getBoolean("ioSpanAttributes", false));
+            StreamingMetrics.setStallThreshold(settings("metrics").getLong("streamStallThreshold", 10000L));
 
             LockService lockService = new LockService(redis, storage.getPrefix());
             TimerService timerService = new VertxTimerService(vertx);
             resourceService = new ResourceService(timerService, redis, storage, lockService, settings("resources"), storage.getPrefix());
-            InvitationService invitationService = new InvitationService(resourceService, encryptionService, settings("invitations"));
-            ShareService shareService = new ShareService(resourceService, invitationService, encryptionService);
+
+            // the config is parsed while the rest of the services are created, they do not depend on it
+            ApiKeyStore apiKeyStore = new ApiKeyStore(resourceService, vertx);
+            configFuture = readinessService.phaseAsync("config",
+                    () -> new FileConfigStore(vertx, settings("config"), apiKeyStore, upstreamRouteProvider), executor);
+
+            InvitationService invitationService = new InvitationService(vertx, redis, resourceService, encryptionService,
+                    lockService, storage.getPrefix(), settings("invitations"));
+            ShareIndex shareIndex = settings("share").getBoolean("index", false)
+                    ? new ShareIndex(redis, storage.getPrefix(), settings("share").getLong("indexExpiration", 3600000L))
+                    : null;
+            ShareService shareService = new ShareService(resourceService, invitationService, encryptionService, shareIndex);
             RuleService ruleService = new RuleService(resourceService);
             AccessService accessService = new AccessService(encryptionService, shareService, ruleService, settings("access"));
-            NotificationService notificationService = new NotificationService(resourceService, encryptionService);
+            NotificationService notificationService = new NotificationService(vertx, redis, resourceService, encryptionService,
+                    lockService, storage.getPrefix(), settings("notifications"));
             ApplicationService applicationService = new ApplicationService(vertx, client, redis,
                     encryptionService, resourceService, lockService, generator, settings("applications"));
             PublicationService publicationService = new PublicationService(encryptionService, resourceService, accessService,
                     ruleService, notificationService, applicationService, generator, clock);
             RateLimiter rateLimiter = new RateLimiter(vertx, resourceService);
 
-            ApiKeyStore apiKeyStore = new ApiKeyStore(resourceService, vertx);
-            ConfigStore configStore = new FileConfigStore(vertx, settings("config"), apiKeyStore, upstreamRouteProvider);
-
             TokenStatsTracker tokenStatsTracker = new TokenStatsTracker(vertx, resourceService);
             ResourceOperationService resourceOperationService = new ResourceOperationService(applicationService, resourceService, invitationService, shareService);
+            resourceJobService = new ResourceJobService(redis, notificationService, lockService, timerService,
+                    settings("resources"), storage.getPrefix());
 
             HeartbeatService heartbeatService = new HeartbeatService(
                     vertx, settings("resources").getLong("heartbeatPeriod"));
+            ResourceSubscriptionHub subscriptionHub = new ResourceSubscriptionHub(
+                    vertx, resourceService, heartbeatService, settings("resources"));
+            configStore = await(configFuture);
             proxy = new Proxy(vertx, client, configStore, logStore,
                     rateLimiter, upstreamRouteProvider, accessTokenValidator,
                     storage, encryptionService, apiKeyStore, tokenStatsTracker, resourceService, invitationService,
-                    shareService, publicationService, accessService, lockService, resourceOperationService, ruleService,
-                    notificationService, applicationService, heartbeatService, version());
+                    shareService, publicationService, accessService, lockService, resourceOperationService, resourceJobService, ruleService,
+                    notificationService, applicationService, subscriptionHub, readinessService, version());
+
+            if (settings("startup").getBoolean("warmUp", false)) {
+                warmUp(readinessService);
+            }
 
             server = vertx.createHttpServer(new HttpServerOptions(settings("server"))).requestHandler(proxy);
-            open(server, HttpServer::listen);
+            readinessService.phase("server", () -> {
+                open(server, HttpServer::listen);
+                return null;
+            });
+            readinessService.started();
             log.info("Proxy started on {}", server.actualPort());
         } catch (Throwable e) {
             log.error("Proxy failed to start:", e);
+            // the clients started in parallel are closed too
+            storage = (storage == null) ? awaitQuietly(storageFuture) : storage;
+            redis = (redis == null) ? awaitQuietly(redisFuture) : redis;
+            configStore = (configStore == null) ? awaitQuietly(configFuture) : configStore;
             stop();
             throw e;
+        } finally {
+            executor.shutdown();
         }
     }
 
+    /**
+     * Fetches the keys of the identity providers and makes the first calls to the storage and Redis,
+     * so the first requests do not pay for the lazy initialization of the clients.
+     */
+    private void warmUp(ReadinessService readinessService) {
+        readinessService.warmUp("jwks", accessTokenValidator.prefetchJwks());
+        readinessService.warmUp("storageWarmUp", vertx.executeBlocking(() -> storage.exists("warm-up"), false));
+        readinessService.warmUp("redisWarmUp", Future.fromCompletionStage(redis.getKeys().countAsync()));
+    }
+
     @VisibleForTesting
     void stop() throws Exception {
         try {
             close(server, HttpServer::close);
             close(client, HttpClient::close);
+            close(configStore);
+            close(resourceJobService);
             close(resourceService);
             close(vertx, Vertx::close);
             close(storage);
@@ -235,6 +303,19 @@ public class AiDial {
         startup.get(15, TimeUnit.SECONDS);
     }
 
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof Exception cause) ? cause : e;
+        }
+    }
+
+    @Nullable
+    private static <T> T awaitQuietly(@Nullable CompletableFuture<T> future) {
+        return (future == null) ? null : future.handle((result, error) -> result).join();
+    }
+
     private static <R> void close(R resource, AsyncCloser<R> closer) throws Exception {
         if (resource != null) {
             CompletableFuture<Void> shutdown = new CompletableFuture<>();
@@ -7,19 +7,22 @@ import com.epam.aidial.core.server.controller.ControllerSelector;
 import com.epam.aidial.core.server.data.ApiKeyData;
 import com.epam.aidial.core.server.limiter.RateLimiter;
 import com.epam.aidial.core.server.log.LogStore;
+import com.epam.aidial.core.server.metric.RequestMetrics;
 import com.epam.aidial.core.server.security.AccessService;
 import com.epam.aidial.core.server.security.AccessTokenValidator;
 import com.epam.aidial.core.server.security.ApiKeyStore;
 import com.epam.aidial.core.server.security.EncryptionService;
 import com.epam.aidial.core.server.security.ExtractedClaims;
 import com.epam.aidial.core.server.service.ApplicationService;
-import com.epam.aidial.core.server.service.HeartbeatService;
 import com.epam.aidial.core.server.service.InvitationService;
 import com.epam.aidial.core.server.service.LockService;
 import com.epam.aidial.core.server.service.NotificationService;
 import com.epam.aidial.core.server.service.PublicationService;
+import com.epam.aidial.core.server.service.ReadinessService;
+import com.epam.aidial.core.server.service.ResourceJobService;
 import com.epam.aidial.core.server.service.ResourceOperationService;
 import com.epam.aidial.core.server.service.ResourceService;
+import com.epam.aidial.core.server.service.ResourceSubscriptionHub;
 import com.epam.aidial.core.server.service.RuleService;
 import com.epam.aidial.core.server.service.ShareService;
 import com.epam.aidial.core.server.storage.BlobStorage;
@@ -44,8 +47,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
 import java.util.Set;
 
 @Slf4j
@@ -55,6 +56,7 @@ public class Proxy implements Handler<HttpServerRequest> {
 
     public static final String HEALTH_CHECK_PATH = "/health";
     public static final String VERSION_PATH = "/version";
+    public static final String READY_PATH = "/ready";
 
     public static final String HEADER_API_KEY = "API-KEY";
     public static final String HEADER_JOB_TITLE = "X-JOB-TITLE";
@@ -88,10 +90,12 @@ public class Proxy implements Handler<HttpServerRequest> {
     private final AccessService accessService;
     private final LockService lockService;
     private final ResourceOperationService resourceOperationService;
+    private final ResourceJobService resourceJobService;
     private final RuleService ruleService;
     private final NotificationService notificationService;
     private final ApplicationService applicationService;
-    private final HeartbeatService heartbeatService;
+    private final ResourceSubscriptionHub subscriptionHub;
+    private final ReadinessService readinessService;
     private final String version;
 
     @Override
@@ -158,12 +162,18 @@ public class Proxy implements Handler<HttpServerRequest> {
             }
         }
 
-        String path = URLDecoder.decode(request.path(), StandardCharsets.UTF_8);
+        // the service paths have no escaped characters, so the path is compared as is without decoding
+        String path = request.path();
         if (request.method() == HttpMethod.GET && path.equals(HEALTH_CHECK_PATH)) {
             respond(request, HttpStatus.OK);
             return;
         }
 
+        if (request.method() == HttpMethod.GET && path.equals(READY_PATH)) {
+            respond(request, readinessService.isReady() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE);
+            return;
+        }
+
         if (request.method() == HttpMethod.GET && path.equals(VERSION_PATH)) {
             respond(request, HttpStatus.OK, version);
             return;
@@ -175,7 +185,9 @@ public class Proxy implements Handler<HttpServerRequest> {
         String spanId = spanContext.getSpanId();
 
         request.pause();
-        Future<AuthorizationResult> authorizationResultFuture = authorizeRequest(request);
+        long authStart = System.nanoTime();
+        Future<AuthorizationResult> authorizationResultFuture = authorizeRequest(request)
+                .onComplete(ignore -> RequestMetrics.record(RequestMetrics.Phase.AUTH, null, authStart));
         authorizationResultFuture.compose(result -> processAuthorizationResult(result.extractedClaims, config, request, result.apiKeyData, traceId, spanId))
                 .onFailure(error -> handleError(error, request))
                 .onComplete(ignore -> request.resume());
@@ -5,6 +5,7 @@ import com.epam.aidial.core.config.Deployment;
 import com.epam.aidial.core.config.Key;
 import com.epam.aidial.core.server.data.ApiKeyData;
 import com.epam.aidial.core.server.security.ExtractedClaims;
+import com.epam.aidial.core.server.security.PermissionMemo;
 import com.epam.aidial.core.server.token.TokenUsage;
 import com.epam.aidial.core.server.upstream.UpstreamRoute;
 import com.epam.aidial.core.server.util.HttpException;
@@ -89,6 +90,8 @@ public class ProxyContext {
     // List of interceptors copied from the deployment config
     private List<String> interceptors;
     private boolean isStreamingRequest;
+    // permissions looked up during the request, null if they must not be memoized
+    private PermissionMemo permissionMemo = new PermissionMemo();
 
     public ProxyContext(Proxy proxy, Config config, HttpServerRequest request, ApiKeyData apiKeyData, ExtractedClaims extractedClaims, String traceId, String spanId) {
         this.proxy = proxy;
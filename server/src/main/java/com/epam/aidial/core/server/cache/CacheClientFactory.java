@@ -2,6 +2,7 @@ package com.epam.aidial.core.server.cache;
 
 import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
+import com.epam.aidial.core.server.metric.InstrumentedRedis;
 import io.vertx.core.json.JsonObject;
 import lombok.SneakyThrows;
 import lombok.experimental.UtilityClass;
@@ -40,7 +41,7 @@ public class CacheClientFactory {
                 config.useSingleServer().setCredentialsResolver(credentialsResolver);
             }
         }
-        return Redisson.create(config);
+        return Redisson.create(InstrumentedRedis.instrument(config));
     }
 
     private CredentialsResolver createElastiCacheCredResolver(JsonObject providerSettings) {
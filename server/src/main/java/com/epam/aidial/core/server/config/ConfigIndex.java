@@ -0,0 +1,158 @@
+package com.epam.aidial.core.server.config;
+
+import com.epam.aidial.core.config.Config;
+import com.epam.aidial.core.config.Deployment;
+import com.epam.aidial.core.config.Limit;
+import com.epam.aidial.core.config.Role;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * Lookup indexes of a loaded config: deployments by id and the limits of roles by deployment.
+ * Also memoizes the effective limits and access decisions of the user role sets for the config deployments,
+ * since users share a few role combinations only.
+ * Built once per config, the config must not be changed after that.
+ */
+public class ConfigIndex {
+
+    public static final String DEFAULT_USER_ROLE = "default";
+
+    private static final Limit DEFAULT_LIMIT = new Limit();
+    // protects from unbounded growth if the identity provider issues too many role combinations
+    private static final int MAX_RESOLVED = 10_000;
+
+    // the configs are compared by identity, the indexes of the replaced configs are dropped by GC
+    private static final LoadingCache<Config, ConfigIndex> INDEXES = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(CacheLoader.from(ConfigIndex::new));
+
+    private final Map<String, Deployment> deployments;
+    private final Map<String, Map<String, Limit>> limits;
+    private final Map<Key, Limit> userLimits = new ConcurrentHashMap<>();
+    private final Map<Key, Boolean> userAccess = new ConcurrentHashMap<>();
+
+    private ConfigIndex(Config config) {
+        Map<String, Deployment> deployments = new HashMap<>();
+        // the same precedence as Config.selectDeployment: applications, models, assistants
+        deployments.putAll(config.getAssistant().getAssistants());
+        deployments.putAll(config.getModels());
+        deployments.putAll(config.getApplications());
+        this.deployments = Collections.unmodifiableMap(deployments);
+
+        Map<String, Map<String, Limit>> limits = new HashMap<>();
+        for (Map.Entry<String, Role> entry : config.getRoles().entrySet()) {
+            Map<String, Limit> roleLimits = entry.getValue().getLimits();
+            if (roleLimits != null) {
+                limits.put(entry.getKey(), Collections.unmodifiableMap(new HashMap<>(roleLimits)));
+            }
+        }
+        this.limits = Collections.unmodifiableMap(limits);
+    }
+
+    public static ConfigIndex of(Config config) {
+        return INDEXES.getUnchecked(config);
+    }
+
+    /**
+     * @return the application, model or assistant defined in the config or null if not found.
+     */
+    @Nullable
+    public Deployment deployment(String id) {
+        return deployments.get(id);
+    }
+
+    /**
+     * @return the limit of the role for the deployment or null if the role has no limit for it.
+     */
+    @Nullable
+    public Limit limit(String role, String deployment) {
+        Map<String, Limit> roleLimits = limits.get(role);
+        return (roleLimits == null) ? null : roleLimits.get(deployment);
+    }
+
+    /**
+     * Resolves the effective limit of the user: the maximum of the limits of the user roles allowed by the deployment
+     * or the limit of the default role if none of them has a limit.
+     *
+     * @return the limit which must not be changed.
+     */
+    public Limit limit(List<String> userRoles, Deployment deployment) {
+        return resolve(userLimits, userRoles, deployment, () -> resolveLimit(userRoles, deployment));
+    }
+
+    public boolean hasAccess(List<String> userRoles, Deployment deployment) {
+        return resolve(userAccess, userRoles, deployment, () -> resolveAccess(userRoles, deployment));
+    }
+
+    private static boolean resolveAccess(List<String> userRoles, Deployment deployment) {
+        Set<String> expectedUserRoles = deployment.getUserRoles();
+
+        if (expectedUserRoles == null) {
+            return true;
+        }
+
+        return !expectedUserRoles.isEmpty()
+                && userRoles.stream().anyMatch(expectedUserRoles::contains);
+    }
+
+    private <T> T resolve(Map<Key, T> cache, List<String> userRoles, Deployment deployment, Supplier<T> resolver) {
+        String name = deployment.getName();
+        // the custom applications are not memoized, they are not bound to the config and can be changed any time
+        if (name == null || deployments.get(name) != deployment) {
+            return resolver.get();
+        }
+
+        T result = cache.get(new Key(userRoles, name));
+        if (result == null) {
+            result = resolver.get();
+            if (cache.size() < MAX_RESOLVED) {
+                cache.putIfAbsent(new Key(new ArrayList<>(userRoles), name), result);
+            }
+        }
+
+        return result;
+    }
+
+    private Limit resolveLimit(List<String> userRoles, Deployment deployment) {
+        String deploymentName = deployment.getName();
+        Set<String> allowedRoles = deployment.getUserRoles();
+        Limit defaultUserLimit = Objects.requireNonNullElse(limit(DEFAULT_USER_ROLE, deploymentName), DEFAULT_LIMIT);
+        Limit limit = null;
+
+        for (String userRole : userRoles) {
+            // find limits for user roles which match to deployment required roles if any
+            Limit candidate = (allowedRoles == null || allowedRoles.contains(userRole)) ? limit(userRole, deploymentName) : null;
+            if (candidate != null) {
+                if (limit == null) {
+                    limit = new Limit();
+                    limit.setMinute(candidate.getMinute());
+                    limit.setRequestHour(candidate.getRequestHour());
+                    limit.setRequestDay(candidate.getRequestDay());
+                    limit.setDay(candidate.getDay());
+                } else {
+                    limit.setMinute(Math.max(candidate.getMinute(), limit.getMinute()));
+                    limit.setDay(Math.max(candidate.getDay(), limit.getDay()));
+                    limit.setRequestDay(Math.max(candidate.getRequestDay(), limit.getRequestDay()));
+                    limit.setRequestHour(Math.max(candidate.getRequestHour(), limit.getRequestHour()));
+                }
+            }
+        }
+
+        return limit == null ? defaultUserLimit : limit;
+    }
+
+    private record Key(List<String> userRoles, String deployment) {
+    }
+}
@@ -15,29 +15,58 @@ import com.epam.aidial.core.server.security.ApiKeyStore;
 import com.epam.aidial.core.server.upstream.UpstreamRouteProvider;
 import com.epam.aidial.core.server.util.ProxyUtil;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.epam.aidial.core.config.Config.ASSISTANT;
 
 
+/**
+ * Loads the config from the files and reloads it periodically and on the file changes if watching is enabled.
+ * The files are parsed only if their modification time or size has changed and their content is different,
+ * so the services are updated only when the config is actually changed.
+ */
 @Slf4j
-public final class FileConfigStore implements ConfigStore {
+public final class FileConfigStore implements ConfigStore, AutoCloseable {
 
+    private static final long WATCH_DELAY = 100;
+
+    private final Vertx vertx;
     private final String[] paths;
     private volatile Config config;
     private final ApiKeyStore apiKeyStore;
     private final UpstreamRouteProvider upstreamRouteProvider;
+    private final AtomicBoolean watchReload = new AtomicBoolean();
+    private final long reloadTimer;
+
+    private String stamps;
+    private HashCode hash;
+    private WatchService watcher;
 
     public FileConfigStore(Vertx vertx, JsonObject settings, ApiKeyStore apiKeyStore, UpstreamRouteProvider upstreamRouteProvider) {
+        this.vertx = vertx;
         this.apiKeyStore = apiKeyStore;
         this.upstreamRouteProvider = upstreamRouteProvider;
         this.paths = settings.getJsonArray("files")
@@ -45,7 +74,20 @@ public final class FileConfigStore implements ConfigStore {
 
         long period = settings.getLong("reload");
         load(true);
-        vertx.setPeriodic(period, period, event -> load(false));
+        reloadTimer = vertx.setPeriodic(period, period, event -> load(false));
+
+        if (settings.getBoolean("watch", true)) {
+            watch();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        vertx.cancelTimer(reloadTimer);
+
+        if (watcher != null) {
+            watcher.close();
+        }
     }
 
     @Override
@@ -54,9 +96,22 @@ public final class FileConfigStore implements ConfigStore {
     }
 
     @SneakyThrows
-    private void load(boolean fail) {
+    private synchronized void load(boolean fail) {
         try {
-            Config config = loadConfig();
+            // the stamps are taken before reading, so a change made while reading is picked up next time
+            String stamps = stamps();
+            if (stamps.equals(this.stamps)) {
+                return;
+            }
+
+            byte[][] contents = readFiles();
+            HashCode hash = hash(contents);
+            if (hash.equals(this.hash)) {
+                this.stamps = stamps;
+                return;
+            }
+
+            Config config = loadConfig(contents);
 
             for (Map.Entry<String, Route> entry : config.getRoutes().entrySet()) {
                 String name = entry.getKey();
@@ -117,8 +172,12 @@ public final class FileConfigStore implements ConfigStore {
                 interceptor.setName(name);
             }
 
+            ConfigIndex.of(config);
             this.config = config;
+            this.stamps = stamps;
+            this.hash = hash;
             upstreamRouteProvider.onUpdate(config);
+            log.info("Config is loaded");
         } catch (Throwable e) {
             if (fail) {
                 throw e;
@@ -128,16 +187,101 @@ public final class FileConfigStore implements ConfigStore {
         }
     }
 
-    private Config loadConfig() throws Exception {
+    private Config loadConfig(byte[][] contents) throws Exception {
         JsonNode tree = ProxyUtil.MAPPER.createObjectNode();
 
+        for (byte[] content : contents) {
+            tree = ProxyUtil.MAPPER.readerForUpdating(tree).readTree(content);
+        }
+
+        return ProxyUtil.MAPPER.convertValue(tree, Config.class);
+    }
+
+    private byte[][] readFiles() throws Exception {
+        byte[][] contents = new byte[paths.length][];
+
+        for (int i = 0; i < paths.length; i++) {
+            try (InputStream stream = openStream(paths[i])) {
+                contents[i] = stream.readAllBytes();
+            }
+        }
+
+        return contents;
+    }
+
+    private static HashCode hash(byte[][] contents) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (byte[] content : contents) {
+            hasher.putInt(content.length).putBytes(content);
+        }
+        return hasher.hash();
+    }
+
+    /**
+     * @return the modification times and sizes of the files, the resources from the classpath never change.
+     */
+    private String stamps() {
+        StringBuilder stamps = new StringBuilder();
+
         for (String path : paths) {
-            try (InputStream stream = openStream(path)) {
-                tree = ProxyUtil.MAPPER.readerForUpdating(tree).readTree(stream);
+            File file = new File(path);
+            stamps.append(file.lastModified()).append(':').append(file.length()).append(';');
+        }
+
+        return stamps.toString();
+    }
+
+    /**
+     * Watches the directories of the files and reloads the config shortly after any change in them.
+     * The whole directory is watched, because mounted configs are often replaced by switching a symlink.
+     */
+    private void watch() {
+        Set<Path> directories = new HashSet<>();
+        for (String path : paths) {
+            File file = new File(path);
+            if (file.isFile()) {
+                directories.add(file.getAbsoluteFile().getParentFile().toPath());
             }
         }
 
-        return ProxyUtil.MAPPER.convertValue(tree, Config.class);
+        if (directories.isEmpty()) {
+            return;
+        }
+
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+            for (Path directory : directories) {
+                directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        } catch (Throwable e) {
+            log.warn("Failed to watch config files, the config is reloaded periodically only: {}", e.getMessage());
+            return;
+        }
+
+        Thread thread = new Thread(() -> watch(watcher), "config-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watch(WatchService watcher) {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                key.pollEvents();
+                key.reset();
+
+                // a file is usually changed by a few writes, they are reloaded at once
+                if (watchReload.compareAndSet(false, true)) {
+                    vertx.setTimer(WATCH_DELAY, ignore -> {
+                        watchReload.set(false);
+                        load(false);
+                    });
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            log.debug("Config watcher is stopped");
+        }
     }
 
     @SneakyThrows
@@ -59,6 +59,10 @@ public class ApplicationController {
     }
 
     public Future<?> getApplications() {
+        if (context.getRequest().getParam("limit") != null) {
+            return getApplicationPage();
+        }
+
         Config config = context.getConfig();
         List<ApplicationData> list = new ArrayList<>();
 
@@ -130,6 +134,57 @@ public class ApplicationController {
         return Future.succeededFuture();
     }
 
+    /**
+     * Lists the applications page by page. The applications from the config are listed in the first page,
+     * the custom applications are limited and listed only by their identifiers if the metadata is requested.
+     */
+    private Future<?> getApplicationPage() {
+        String token;
+        int limit;
+
+        try {
+            token = context.getRequest().getParam("token");
+            limit = Integer.parseInt(context.getRequest().getParam("limit"));
+            if (limit <= 0 || limit > 1000) {
+                throw new IllegalArgumentException("Limit is out of allowed range");
+            }
+        } catch (Throwable error) {
+            return context.respond(HttpStatus.BAD_REQUEST, "Bad query parameters. Limit must be in [1, 1000] range");
+        }
+
+        boolean metadata = context.getBooleanRequestQueryParam("metadata");
+        List<ApplicationData> list = new ArrayList<>();
+
+        if (token == null) {
+            for (Application application : context.getConfig().getApplications().values()) {
+                if (DeploymentController.hasAccess(context, application)) {
+                    list.add(ApplicationUtil.mapApplication(application));
+                }
+            }
+        }
+
+        if (!applicationService.isIncludeCustomApps()) {
+            return context.respond(HttpStatus.OK, new ListData<>(list));
+        }
+
+        // the page is listed and loaded by a single worker task, the applications are read on the bulk executor
+        vertx.executeBlocking(() -> {
+            ApplicationService.ApplicationPage page = applicationService.listApplications(context, token, limit);
+            List<ApplicationData> apps = metadata
+                    ? page.items().stream().map(ApplicationUtil::mapApplicationMetadata).toList()
+                    : applicationService.loadApplications(page.items()).stream().map(ApplicationUtil::mapApplication).toList();
+
+            list.addAll(apps);
+            ListData<ApplicationData> data = new ListData<>(list);
+            data.setNextToken(page.nextToken());
+            return data;
+        }, false)
+                .onSuccess(data -> context.respond(HttpStatus.OK, data))
+                .onFailure(this::respondError);
+
+        return Future.succeededFuture();
+    }
+
     private ResourceDescriptor decodeUrl(String url) {
         ResourceDescriptor resource;
         try {
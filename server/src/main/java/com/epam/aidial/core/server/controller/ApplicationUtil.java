@@ -2,6 +2,7 @@ package com.epam.aidial.core.server.controller;
 
 import com.epam.aidial.core.config.Application;
 import com.epam.aidial.core.server.data.ApplicationData;
+import com.epam.aidial.core.server.data.MetadataBase;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 
@@ -32,6 +33,17 @@ public class ApplicationUtil {
         return data;
     }
 
+    /**
+     * Maps the metadata of a custom application without loading it, so only the identifiers are known.
+     */
+    public ApplicationData mapApplicationMetadata(MetadataBase metadata) {
+        ApplicationData data = new ApplicationData();
+        data.setId(metadata.getUrl());
+        data.setApplication(metadata.getUrl());
+        data.setFeatures(null);
+        return data;
+    }
+
     public String generateReference() {
         return UUID.randomUUID().toString();
     }
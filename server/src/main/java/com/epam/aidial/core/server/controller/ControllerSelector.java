@@ -4,395 +4,272 @@ import com.epam.aidial.core.config.Deployment;
 import com.epam.aidial.core.config.Features;
 import com.epam.aidial.core.server.Proxy;
 import com.epam.aidial.core.server.ProxyContext;
+import com.epam.aidial.core.server.util.PathTrie;
 import com.epam.aidial.core.server.util.SpanUtil;
 import com.epam.aidial.core.server.util.UrlUtil;
 import io.vertx.core.http.HttpMethod;
 import lombok.experimental.UtilityClass;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+/**
+ * Selects the controller by the request method and path. The API routes are compiled into a trie per method,
+ * so the path is matched in a single pass. The rest of the requests go to {@link RouteController}.
+ */
 @UtilityClass
 public class ControllerSelector {
 
-    private static final Pattern PATTERN_POST_DEPLOYMENT = Pattern.compile("^/+openai/deployments/(?<id>.+?)/(completions|chat/completions|embeddings)$");
-    private static final Pattern PATTERN_DEPLOYMENT = Pattern.compile("^/+openai/deployments/(?<id>.+?)$");
-    private static final Pattern PATTERN_DEPLOYMENTS = Pattern.compile("^/+openai/deployments$");
+    private static final List<String> RESOURCE_TYPES = List.of("conversations", "prompts", "applications");
 
-    private static final Pattern PATTERN_MODEL = Pattern.compile("^/+openai/models/(?<id>.+?)$");
-    private static final Pattern PATTERN_MODELS = Pattern.compile("^/+openai/models$");
+    private static final PathTrie<Factory> GET = new PathTrie<>();
+    private static final PathTrie<Factory> POST = new PathTrie<>();
+    private static final PathTrie<Factory> DELETE = new PathTrie<>();
+    private static final PathTrie<Factory> PUT = new PathTrie<>();
 
-    private static final Pattern PATTERN_ADDON = Pattern.compile("^/+openai/addons/(?<id>.+?)$");
-    private static final Pattern PATTERN_ADDONS = Pattern.compile("^/+openai/addons$");
-
-    private static final Pattern PATTERN_ASSISTANT = Pattern.compile("^/+openai/assistants/(?<id>.+?)$");
-    private static final Pattern PATTERN_ASSISTANTS = Pattern.compile("^/+openai/assistants$");
-
-    private static final Pattern PATTERN_APPLICATION = Pattern.compile("^/+openai/applications/(?<id>.+?)$");
-    private static final Pattern PATTERN_APPLICATIONS = Pattern.compile("^/+openai/applications$");
-    private static final Pattern APPLICATIONS = Pattern.compile("^/v1/ops/application/(start|stop|logs)$");
-
-    private static final Pattern PATTERN_BUCKET = Pattern.compile("^/v1/bucket$");
-
-    private static final Pattern PATTERN_FILES = Pattern.compile("^/v1/files/(?<bucket>[a-zA-Z0-9]+)/(?<path>.*)");
-    private static final Pattern PATTERN_FILES_METADATA = Pattern.compile("^/v1/metadata/files/(?<bucket>[a-zA-Z0-9]+)/(?<path>.*)");
-
-    private static final Pattern PATTERN_RESOURCE = Pattern.compile("^/v1/(conversations|prompts|applications)/(?<bucket>[a-zA-Z0-9]+)/(?<path>.*)");
-    private static final Pattern PATTERN_RESOURCE_METADATA = Pattern.compile("^/v1/metadata/(conversations|prompts|applications)/(?<bucket>[a-zA-Z0-9]+)/(?<path>.*)");
-
-    // deployment feature patterns
-    private static final Pattern PATTERN_RATE_RESPONSE = Pattern.compile("^/+v1/(?<id>.+?)/rate$");
-    private static final Pattern PATTERN_TOKENIZE = Pattern.compile("^/+v1/deployments/(?<id>.+?)/tokenize$");
-    private static final Pattern PATTERN_TRUNCATE_PROMPT = Pattern.compile("^/+v1/deployments/(?<id>.+?)/truncate_prompt$");
-    private static final Pattern PATTERN_CONFIGURATION = Pattern.compile("^/+v1/deployments/(?<id>.+?)/configuration$");
-
-    private static final Pattern SHARE_RESOURCE_OPERATIONS = Pattern.compile("^/v1/ops/resource/share/(create|list|discard|revoke|copy)$");
-    private static final Pattern INVITATIONS = Pattern.compile("^/v1/invitations$");
-    private static final Pattern INVITATION = Pattern.compile("^/v1/invitations/(?<id>[a-zA-Z0-9]+)$");
-    private static final Pattern PUBLICATIONS = Pattern.compile("^/v1/ops/publication/(list|get|create|delete|approve|reject)$");
-    private static final Pattern PUBLISHED_RESOURCES = Pattern.compile("^/v1/ops/publication/resource/list$");
-    private static final Pattern PUBLICATION_RULES = Pattern.compile("^/v1/ops/publication/rule/list$");
-
-    private static final Pattern RESOURCE_OPERATIONS = Pattern.compile("^/v1/ops/resource/(move|subscribe)$");
-
-    private static final Pattern DEPLOYMENT_LIMITS = Pattern.compile("^/v1/deployments/(?<id>.+?)/limits$");
-
-    private static final Pattern NOTIFICATIONS = Pattern.compile("^/v1/ops/notification/(list|delete)$");
-
-    private static final Pattern USER_INFO = Pattern.compile("^/v1/user/info$");
-
-    public Controller select(Proxy proxy, ProxyContext context) {
-        String path = context.getRequest().path();
-        HttpMethod method = context.getRequest().method();
-        Controller controller = null;
-
-        if (method == HttpMethod.GET) {
-            controller = selectGet(proxy, context, path);
-        } else if (method == HttpMethod.POST) {
-            controller = selectPost(proxy, context, path);
-        } else if (method == HttpMethod.DELETE) {
-            controller = selectDelete(proxy, context, path);
-        } else if (method == HttpMethod.PUT) {
-            controller = selectPut(proxy, context, path);
-        }
-
-        return (controller == null) ? new RouteController(proxy, context) : controller;
-    }
-
-    private static Controller selectGet(Proxy proxy, ProxyContext context, String path) {
-        Matcher match;
-
-        match = match(PATTERN_DEPLOYMENT, path, context);
-        if (match != null) {
+    static {
+        GET.add("/+openai/deployments/{id+}", (proxy, context, match) -> {
             DeploymentController controller = new DeploymentController(context);
-            String deploymentId = UrlUtil.decodePath(match.group(1));
+            String deploymentId = UrlUtil.decodePath(match.get("id"));
             return () -> controller.getDeployment(deploymentId);
-        }
+        });
 
-        match = match(PATTERN_DEPLOYMENTS, path, context);
-        if (match != null) {
+        GET.add("/+openai/deployments", (proxy, context, match) -> {
             DeploymentController controller = new DeploymentController(context);
             return controller::getDeployments;
-        }
+        });
 
-        match = match(PATTERN_MODEL, path, context);
-        if (match != null) {
+        GET.add("/+openai/models/{id+}", (proxy, context, match) -> {
             ModelController controller = new ModelController(context);
-            String modelId = UrlUtil.decodePath(match.group(1));
+            String modelId = UrlUtil.decodePath(match.get("id"));
             return () -> controller.getModel(modelId);
-        }
+        });
 
-        match = match(PATTERN_MODELS, path, context);
-        if (match != null) {
+        GET.add("/+openai/models", (proxy, context, match) -> {
             ModelController controller = new ModelController(context);
             return controller::getModels;
-        }
+        });
 
-        match = match(PATTERN_ADDON, path, context);
-        if (match != null) {
+        GET.add("/+openai/addons/{id+}", (proxy, context, match) -> {
             AddonController controller = new AddonController(context);
-            String addonId = UrlUtil.decodePath(match.group(1));
+            String addonId = UrlUtil.decodePath(match.get("id"));
             return () -> controller.getAddon(addonId);
-        }
+        });
 
-        match = match(PATTERN_ADDONS, path, context);
-        if (match != null) {
+        GET.add("/+openai/addons", (proxy, context, match) -> {
             AddonController controller = new AddonController(context);
             return controller::getAddons;
-        }
+        });
 
-        match = match(PATTERN_ASSISTANT, path, context);
-        if (match != null) {
+        GET.add("/+openai/assistants/{id+}", (proxy, context, match) -> {
             AssistantController controller = new AssistantController(context);
-            String assistantId = UrlUtil.decodePath(match.group(1));
+            String assistantId = UrlUtil.decodePath(match.get("id"));
             return () -> controller.getAssistant(assistantId);
-        }
+        });
 
-        match = match(PATTERN_ASSISTANTS, path, context);
-        if (match != null) {
+        GET.add("/+openai/assistants", (proxy, context, match) -> {
             AssistantController controller = new AssistantController(context);
             return controller::getAssistants;
-        }
+        });
 
-        match = match(PATTERN_APPLICATION, path, context);
-        if (match != null) {
+        GET.add("/+openai/applications/{id+}", (proxy, context, match) -> {
             ApplicationController controller = new ApplicationController(context);
-            String application = UrlUtil.decodePath(match.group(1));
+            String application = UrlUtil.decodePath(match.get("id"));
             return () -> controller.getApplication(application);
-        }
+        });
 
-        match = match(PATTERN_APPLICATIONS, path, context);
-        if (match != null) {
+        GET.add("/+openai/applications", (proxy, context, match) -> {
             ApplicationController controller = new ApplicationController(context);
             return controller::getApplications;
-        }
+        });
 
-        match = match(PATTERN_FILES_METADATA, path, context);
-        if (match != null) {
+        GET.add("/v1/metadata/files/{bucket:alnum}/{path*}", (proxy, context, match) -> {
             FileMetadataController controller = new FileMetadataController(proxy, context);
+            String path = match.path();
             return () -> controller.handle(resourcePath(path));
-        }
+        });
 
-        match = match(PATTERN_FILES, path, context);
-        if (match != null) {
+        GET.add("/v1/files/{bucket:alnum}/{path*}", (proxy, context, match) -> {
             DownloadFileController controller = new DownloadFileController(proxy, context);
+            String path = match.path();
             return () -> controller.handle(resourcePath(path));
-        }
+        });
 
-        match = match(PATTERN_RESOURCE, path, context);
-        if (match != null) {
-            ResourceController controller = new ResourceController(proxy, context, false);
-            return () -> controller.handle(resourcePath(path));
-        }
+        for (String type : RESOURCE_TYPES) {
+            GET.add("/v1/" + type + "/{bucket:alnum}/{path*}", (proxy, context, match) -> {
+                ResourceController controller = new ResourceController(proxy, context, false);
+                String path = match.path();
+                return () -> controller.handle(resourcePath(path));
+            });
 
-        match = match(PATTERN_RESOURCE_METADATA, path, context);
-        if (match != null) {
-            ResourceController controller = new ResourceController(proxy, context, true);
-            return () -> controller.handle(resourcePath(path));
+            GET.add("/v1/metadata/" + type + "/{bucket:alnum}/{path*}", (proxy, context, match) -> {
+                ResourceController controller = new ResourceController(proxy, context, true);
+                String path = match.path();
+                return () -> controller.handle(resourcePath(path));
+            });
         }
 
-        match = match(PATTERN_BUCKET, path, context);
-        if (match != null) {
+        GET.add("/v1/bucket", (proxy, context, match) -> {
             BucketController controller = new BucketController(proxy, context);
             return controller::getBucket;
-        }
+        });
 
-        match = match(INVITATION, path, context);
-        if (match != null) {
-            String invitationId = UrlUtil.decodePath(match.group(1));
+        GET.add("/v1/invitations/{id:alnum}", (proxy, context, match) -> {
+            String invitationId = UrlUtil.decodePath(match.get("id"));
             InvitationController controller = new InvitationController(proxy, context);
             return () -> controller.getOrAcceptInvitation(invitationId);
-        }
+        });
 
-        match = match(INVITATIONS, path, context);
-        if (match != null) {
+        GET.add("/v1/invitations", (proxy, context, match) -> {
             InvitationController controller = new InvitationController(proxy, context);
             return controller::getInvitations;
-        }
+        });
 
-        match = match(DEPLOYMENT_LIMITS, path, context);
-        if (match != null) {
-            String deploymentId = UrlUtil.decodePath(match.group(1));
+        GET.add("/v1/deployments/{id+}/limits", (proxy, context, match) -> {
+            String deploymentId = UrlUtil.decodePath(match.get("id"));
             LimitController controller = new LimitController(proxy, context);
             return () -> controller.getLimits(deploymentId);
-        }
-
-        match = match(PATTERN_CONFIGURATION, path, context);
-        if (match != null) {
-            String deploymentId = UrlUtil.decodePath(match.group(1));
-            Function<Deployment, String> getter = (model) -> Optional.ofNullable(model)
-                    .map(Deployment::getFeatures)
-                    .map(Features::getConfigurationEndpoint)
-                    .orElse(null);
-
-            DeploymentFeatureController controller = new DeploymentFeatureController(proxy, context);
-            return () -> controller.handle(deploymentId, getter, false);
-        }
+        });
 
-        match = match(USER_INFO, path, context);
-        if (match != null) {
-            return new UserInfoController(context);
-        }
+        GET.add("/+v1/deployments/{id+}/configuration", feature(Features::getConfigurationEndpoint, false));
 
-        return null;
-    }
+        GET.add("/v1/user/info", (proxy, context, match) -> new UserInfoController(context));
 
-    private static Controller selectPost(Proxy proxy, ProxyContext context, String path) {
-        Matcher match = match(PATTERN_POST_DEPLOYMENT, path, context);
-        if (match != null) {
-            String deploymentId = UrlUtil.decodePath(match.group(1));
-            String deploymentApi = UrlUtil.decodePath(match.group(2));
-            DeploymentPostController controller = new DeploymentPostController(proxy, context);
-            return () -> controller.handle(deploymentId, deploymentApi);
-        }
-
-        match = match(PATTERN_RATE_RESPONSE, path, context);
-        if (match != null) {
-            String deploymentId = UrlUtil.decodePath(match.group(1));
-
-            Function<Deployment, String> getter = (model) -> Optional.ofNullable(model)
-                    .map(Deployment::getFeatures)
-                    .map(Features::getRateEndpoint)
-                    .orElse(null);
-
-            DeploymentFeatureController controller = new DeploymentFeatureController(proxy, context);
-            return () -> controller.handle(deploymentId, getter, false);
+        for (String api : List.of("completions", "chat/completions", "embeddings")) {
+            POST.add("/+openai/deployments/{id+}/" + api, (proxy, context, match) -> {
+                String deploymentId = UrlUtil.decodePath(match.get("id"));
+                DeploymentPostController controller = new DeploymentPostController(proxy, context);
+                return () -> controller.handle(deploymentId, api);
+            });
         }
 
-        match = match(PATTERN_TOKENIZE, path, context);
-        if (match != null) {
-            String deploymentId = UrlUtil.decodePath(match.group(1));
+        POST.add("/+v1/{id+}/rate", feature(Features::getRateEndpoint, false));
+        POST.add("/+v1/deployments/{id+}/tokenize", feature(Features::getTokenizeEndpoint, true));
+        POST.add("/+v1/deployments/{id+}/truncate_prompt", feature(Features::getTruncatePromptEndpoint, true));
 
-            Function<Deployment, String> getter = (model) -> Optional.ofNullable(model)
-                    .map(Deployment::getFeatures)
-                    .map(Features::getTokenizeEndpoint)
-                    .orElse(null);
-
-            DeploymentFeatureController controller = new DeploymentFeatureController(proxy, context);
-            return () -> controller.handle(deploymentId, getter, true);
+        for (ShareController.Operation op : ShareController.Operation.values()) {
+            POST.add("/v1/ops/resource/share/" + op.name().toLowerCase(), (proxy, context, match) -> {
+                ShareController controller = new ShareController(proxy, context);
+                return () -> controller.handle(op);
+            });
         }
 
-        match = match(PATTERN_TRUNCATE_PROMPT, path, context);
-        if (match != null) {
-            String deploymentId = UrlUtil.decodePath(match.group(1));
-
-            Function<Deployment, String> getter = (model) -> Optional.ofNullable(model)
-                    .map(Deployment::getFeatures)
-                    .map(Features::getTruncatePromptEndpoint)
-                    .orElse(null);
+        POST.add("/v1/ops/publication/list", publication(controller -> controller::listPublications));
+        POST.add("/v1/ops/publication/get", publication(controller -> controller::getPublication));
+        POST.add("/v1/ops/publication/create", publication(controller -> controller::createPublication));
+        POST.add("/v1/ops/publication/delete", publication(controller -> controller::deletePublication));
+        POST.add("/v1/ops/publication/approve", publication(controller -> controller::approvePublication));
+        POST.add("/v1/ops/publication/reject", publication(controller -> controller::rejectPublication));
+        POST.add("/v1/ops/publication/rule/list", publication(controller -> controller::listRules));
+        POST.add("/v1/ops/publication/resource/list", publication(controller -> controller::listPublishedResources));
 
-            DeploymentFeatureController controller = new DeploymentFeatureController(proxy, context);
-            return () -> controller.handle(deploymentId, getter, true);
-        }
+        POST.add("/v1/ops/resource/move", resourceOperation(controller -> controller::move));
+        POST.add("/v1/ops/resource/delete", resourceOperation(controller -> controller::delete));
+        POST.add("/v1/ops/resource/job", resourceOperation(controller -> controller::getJob));
+        POST.add("/v1/ops/resource/subscribe", resourceOperation(controller -> controller::subscribe));
 
-        match = match(SHARE_RESOURCE_OPERATIONS, path, context);
-        if (match != null) {
-            String operation = match.group(1);
-            ShareController.Operation op = ShareController.Operation.valueOf(operation.toUpperCase());
+        POST.add("/v1/ops/notification/list", (proxy, context, match) -> {
+            NotificationController controller = new NotificationController(proxy, context);
+            return controller::listNotifications;
+        });
 
-            ShareController controller = new ShareController(proxy, context);
-            return () -> controller.handle(op);
-        }
+        POST.add("/v1/ops/notification/delete", (proxy, context, match) -> {
+            NotificationController controller = new NotificationController(proxy, context);
+            return controller::deleteNotification;
+        });
 
-        match = match(PUBLICATIONS, path, context);
-        if (match != null) {
-            String operation = match.group(1);
-            PublicationController controller = new PublicationController(proxy, context);
-
-            return switch (operation) {
-                case "list" -> controller::listPublications;
-                case "get" -> controller::getPublication;
-                case "create" -> controller::createPublication;
-                case "delete" -> controller::deletePublication;
-                case "approve" -> controller::approvePublication;
-                case "reject" -> controller::rejectPublication;
-                default -> null;
-            };
-        }
+        POST.add("/v1/ops/application/start", (proxy, context, match) -> {
+            ApplicationController controller = new ApplicationController(context);
+            return controller::startApplication;
+        });
 
-        match = match(PUBLICATION_RULES, path, context);
-        if (match != null) {
-            PublicationController controller = new PublicationController(proxy, context);
-            return controller::listRules;
-        }
+        POST.add("/v1/ops/application/stop", (proxy, context, match) -> {
+            ApplicationController controller = new ApplicationController(context);
+            return controller::stopApplication;
+        });
 
-        match = match(RESOURCE_OPERATIONS, path, context);
-        if (match != null) {
-            String operation = match.group(1);
-            ResourceOperationController controller = new ResourceOperationController(proxy, context);
+        POST.add("/v1/ops/application/logs", (proxy, context, match) -> {
+            ApplicationController controller = new ApplicationController(context);
+            return controller::getApplicationLogs;
+        });
 
-            return switch (operation) {
-                case "move" -> controller::move;
-                case "subscribe" -> controller::subscribe;
-                default -> null;
-            };
-        }
+        DELETE.add("/v1/files/{bucket:alnum}/{path*}", (proxy, context, match) -> {
+            DeleteFileController controller = new DeleteFileController(proxy, context);
+            String path = match.path();
+            return () -> controller.handle(resourcePath(path));
+        });
 
-        match = match(PUBLISHED_RESOURCES, path, context);
-        if (match != null) {
-            PublicationController controller = new PublicationController(proxy, context);
-            return controller::listPublishedResources;
-        }
+        DELETE.add("/v1/invitations/{id:alnum}", (proxy, context, match) -> {
+            String invitationId = UrlUtil.decodePath(match.get("id"));
+            InvitationController controller = new InvitationController(proxy, context);
+            return () -> controller.deleteInvitation(invitationId);
+        });
 
-        match = match(NOTIFICATIONS, path, context);
-        if (match != null) {
-            String operation = match.group(1);
-            NotificationController controller = new NotificationController(proxy, context);
+        PUT.add("/v1/files/{bucket:alnum}/{path*}", (proxy, context, match) -> {
+            UploadFileController controller = new UploadFileController(proxy, context);
+            String path = match.path();
+            return () -> controller.handle(resourcePath(path));
+        });
 
-            return switch (operation) {
-                case "list" -> controller::listNotifications;
-                case "delete" -> controller::deleteNotification;
-                default -> null;
+        for (String type : RESOURCE_TYPES) {
+            Factory resource = (proxy, context, match) -> {
+                ResourceController controller = new ResourceController(proxy, context, false);
+                String path = match.path();
+                return () -> controller.handle(resourcePath(path));
             };
-        }
 
-        match = match(APPLICATIONS, path, context);
-        if (match != null) {
-            String operation = match.group(1);
-            ApplicationController controller = new ApplicationController(context);
-
-            return switch (operation) {
-                case "start" -> controller::startApplication;
-                case "stop" -> controller::stopApplication;
-                case "logs" -> controller::getApplicationLogs;
-                default -> null;
-            };
+            DELETE.add("/v1/" + type + "/{bucket:alnum}/{path*}", resource);
+            PUT.add("/v1/" + type + "/{bucket:alnum}/{path*}", resource);
         }
-
-        return null;
     }
 
-    private static Controller selectDelete(Proxy proxy, ProxyContext context, String path) {
-        Matcher match = match(PATTERN_FILES, path, context);
-        if (match != null) {
-            DeleteFileController controller = new DeleteFileController(proxy, context);
-            return () -> controller.handle(resourcePath(path));
-        }
+    public Controller select(Proxy proxy, ProxyContext context) {
+        String path = context.getRequest().path();
+        HttpMethod method = context.getRequest().method();
+        PathTrie<Factory> routes = null;
 
-        match = match(PATTERN_RESOURCE, path, context);
-        if (match != null) {
-            ResourceController controller = new ResourceController(proxy, context, false);
-            return () -> controller.handle(resourcePath(path));
+        if (method == HttpMethod.GET) {
+            routes = GET;
+        } else if (method == HttpMethod.POST) {
+            routes = POST;
+        } else if (method == HttpMethod.DELETE) {
+            routes = DELETE;
+        } else if (method == HttpMethod.PUT) {
+            routes = PUT;
         }
 
-        match = match(INVITATION, path, context);
-        if (match != null) {
-            String invitationId = UrlUtil.decodePath(match.group(1));
-            InvitationController controller = new InvitationController(proxy, context);
-            return () -> controller.deleteInvitation(invitationId);
+        PathTrie.Match<Factory> match = (routes == null) ? null : routes.match(path);
+        if (match == null) {
+            return new RouteController(proxy, context);
         }
 
-        return null;
+        SpanUtil.updateName(match.name(), method.name());
+        return match.value().create(proxy, context, match);
     }
 
-    private static Controller selectPut(Proxy proxy, ProxyContext context, String path) {
-        Matcher match = match(PATTERN_FILES, path, context);
-        if (match != null) {
-            UploadFileController controller = new UploadFileController(proxy, context);
-            return () -> controller.handle(resourcePath(path));
-        }
+    private static Factory feature(Function<Features, String> endpoint, boolean requireEndpoint) {
+        return (proxy, context, match) -> {
+            String deploymentId = UrlUtil.decodePath(match.get("id"));
+            Function<Deployment, String> getter = (model) -> Optional.ofNullable(model)
+                    .map(Deployment::getFeatures)
+                    .map(endpoint)
+                    .orElse(null);
 
-        match = match(PATTERN_RESOURCE, path, context);
-        if (match != null) {
-            ResourceController controller = new ResourceController(proxy, context, false);
-            return () -> controller.handle(resourcePath(path));
-        }
+            DeploymentFeatureController controller = new DeploymentFeatureController(proxy, context);
+            return () -> controller.handle(deploymentId, getter, requireEndpoint);
+        };
+    }
 
-        return null;
+    private static Factory publication(Function<PublicationController, Controller> operation) {
+        return (proxy, context, match) -> operation.apply(new PublicationController(proxy, context));
     }
 
-    private Matcher match(Pattern pattern, String path, ProxyContext context) {
-        Matcher matcher = pattern.matcher(path);
-        if (matcher.find()) {
-            SpanUtil.updateName(pattern, path, context.getRequest().method().name());
-            return matcher;
-        }
-        return null;
+    private static Factory resourceOperation(Function<ResourceOperationController, Controller> operation) {
+        return (proxy, context, match) -> operation.apply(new ResourceOperationController(proxy, context));
     }
 
-    private String resourcePath(String url) {
+    private static String resourcePath(String url) {
         String prefix = "/v1/";
 
         if (!url.startsWith(prefix)) {
@@ -405,4 +282,9 @@ public class ControllerSelector {
 
         return url.substring(prefix.length());
     }
-}
\ No newline at end of file
+
+    @FunctionalInterface
+    private interface Factory {
+        Controller create(Proxy proxy, ProxyContext context, PathTrie.Match<Factory> match);
+    }
+}
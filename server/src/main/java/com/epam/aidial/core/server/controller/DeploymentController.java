@@ -1,11 +1,13 @@
 package com.epam.aidial.core.server.controller;
 
+import com.epam.aidial.core.config.Application;
 import com.epam.aidial.core.config.Config;
 import com.epam.aidial.core.config.Deployment;
 import com.epam.aidial.core.config.Features;
 import com.epam.aidial.core.config.Model;
 import com.epam.aidial.core.server.Proxy;
 import com.epam.aidial.core.server.ProxyContext;
+import com.epam.aidial.core.server.config.ConfigIndex;
 import com.epam.aidial.core.server.data.DeploymentData;
 import com.epam.aidial.core.server.data.FeaturesData;
 import com.epam.aidial.core.server.data.ListData;
@@ -21,7 +23,7 @@ import lombok.RequiredArgsConstructor;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
+import javax.annotation.Nullable;
 
 @RequiredArgsConstructor
 public class DeploymentController {
@@ -62,7 +64,7 @@ public class DeploymentController {
     }
 
     public static Future<Deployment> selectDeployment(ProxyContext context, String id) {
-        Deployment deployment = context.getConfig().selectDeployment(id);
+        Deployment deployment = ConfigIndex.of(context.getConfig()).deployment(id);
 
         if (deployment != null) {
             if (!DeploymentController.hasAccess(context, deployment)) {
@@ -73,6 +75,12 @@ public class DeploymentController {
         }
 
         Proxy proxy = context.getProxy();
+        // the cached application of the user is dispatched without the worker thread
+        Application cached = peekCachedApplication(context, id);
+        if (cached != null) {
+            return Future.succeededFuture(cached);
+        }
+
         return proxy.getVertx().executeBlocking(() -> {
             String url;
             ResourceDescriptor resource;
@@ -92,20 +100,34 @@ public class DeploymentController {
                 throw new PermissionDeniedException();
             }
 
-            return proxy.getApplicationService().getApplication(resource).getValue();
+            return proxy.getApplicationService().getCachedApplication(resource);
         }, false);
     }
 
     public static boolean hasAccess(ProxyContext context, Deployment deployment) {
-        Set<String> expectedUserRoles = deployment.getUserRoles();
-        List<String> actualUserRoles = context.getUserRoles();
+        return ConfigIndex.of(context.getConfig()).hasAccess(context.getUserRoles(), deployment);
+    }
+
+    /**
+     * @return the cached application if the user has access to it without looking up the storage or null otherwise.
+     */
+    @Nullable
+    private static Application peekCachedApplication(ProxyContext context, String id) {
+        Proxy proxy = context.getProxy();
+        ResourceDescriptor resource;
+
+        try {
+            resource = ResourceDescriptorFactory.fromAnyUrl(UrlUtil.encodePath(id), proxy.getEncryptionService());
+        } catch (Throwable ignore) {
+            return null;
+        }
 
-        if (expectedUserRoles == null) {
-            return true;
+        if (resource.isFolder() || resource.getType() != ResourceTypes.APPLICATION) {
+            return null;
         }
 
-        return !expectedUserRoles.isEmpty()
-                && actualUserRoles.stream().anyMatch(expectedUserRoles::contains);
+        Application cached = proxy.getApplicationService().peekCachedApplication(resource);
+        return (cached != null && proxy.getAccessService().hasLocalReadAccess(resource, context)) ? cached : null;
     }
 
     private static DeploymentData createDeployment(Model model) {
@@ -19,6 +19,8 @@ import com.epam.aidial.core.server.function.enhancement.ApplyDefaultDeploymentSe
 import com.epam.aidial.core.server.function.enhancement.EnhanceAssistantRequestFn;
 import com.epam.aidial.core.server.function.enhancement.EnhanceModelRequestFn;
 import com.epam.aidial.core.server.limiter.RateLimitResult;
+import com.epam.aidial.core.server.metric.RequestMetrics;
+import com.epam.aidial.core.server.metric.StreamingMetrics;
 import com.epam.aidial.core.server.service.PermissionDeniedException;
 import com.epam.aidial.core.server.service.ResourceNotFoundException;
 import com.epam.aidial.core.server.token.TokenUsage;
@@ -107,7 +109,9 @@ public class DeploymentPostController {
                 })
                 .compose(dep -> {
                     if (dep instanceof Model && !context.hasNextInterceptor()) {
-                        return proxy.getRateLimiter().limit(context);
+                        long start = System.nanoTime();
+                        return proxy.getRateLimiter().limit(context)
+                                .onComplete(ignore -> RequestMetrics.record(RequestMetrics.Phase.RATE_LIMIT, context, start));
                     } else {
                         return Future.succeededFuture(RateLimitResult.SUCCESS);
                     }
@@ -193,7 +197,9 @@ public class DeploymentPostController {
         }
 
         setupProxyApiKeyData(new ApiKeyData());
+        long start = System.nanoTime();
         return proxy.getTokenStatsTracker().startSpan(context).map(ignore -> {
+            RequestMetrics.record(RequestMetrics.Phase.TOKEN_STATS, context, start);
             context.getRequest().body()
                     .onSuccess(body -> proxy.getVertx().executeBlocking(() -> {
                         handleRequestBody(body);
@@ -247,8 +253,12 @@ public class DeploymentPostController {
                 .setAbsoluteURI(uri)
                 .setMethod(request.method());
 
+        long start = System.nanoTime();
         proxy.getClient().request(options)
-                .onSuccess(this::handleProxyRequest)
+                .onSuccess(proxyRequest -> {
+                    RequestMetrics.record(RequestMetrics.Phase.UPSTREAM_CONNECT, context, start);
+                    handleProxyRequest(proxyRequest);
+                })
                 .onFailure(this::handleProxyConnectionError);
     }
 
@@ -263,8 +273,10 @@ public class DeploymentPostController {
         context.setRequestBodyTimestamp(System.currentTimeMillis());
 
         try (InputStream stream = new ByteBufInputStream(requestBody.getByteBuf())) {
+            long start = System.nanoTime();
             ObjectNode tree = (ObjectNode) ProxyUtil.MAPPER.readTree(stream);
             Throwable error = ProxyUtil.processChain(tree, enhancementFunctions);
+            RequestMetrics.record(RequestMetrics.Phase.ENHANCEMENT, context, start);
             if (error != null) {
                 finalizeRequest();
                 return;
@@ -315,15 +327,21 @@ public class DeploymentPostController {
         proxyRequest.putHeader(HttpHeaders.CONTENT_LENGTH, Integer.toString(requestBody.length()));
         context.getRequestHeaders().forEach(proxyRequest::putHeader);
 
+        long start = System.nanoTime();
         proxyRequest.send(requestBody)
-                .onSuccess(this::handleProxyResponse)
+                .onSuccess(proxyResponse -> {
+                    RequestMetrics.record(RequestMetrics.Phase.UPSTREAM_TTFB, context, start);
+                    handleProxyResponse(proxyResponse, start);
+                })
                 .onFailure(this::handleProxyResponseError);
     }
 
     /**
      * Called when proxy received the response headers from the origin.
+     *
+     * @param sentNanos - {@link System#nanoTime()} when the request was sent to the origin.
      */
-    private void handleProxyResponse(HttpClientResponse proxyResponse) {
+    private void handleProxyResponse(HttpClientResponse proxyResponse, long sentNanos) {
         UpstreamRoute upstreamRoute = context.getUpstreamRoute();
         Upstream currentUpstream = upstreamRoute.get();
         log.info("Received header from origin. Trace: {}. Span: {}. Key: {}. Deployment: {}. Endpoint: {}. Upstream: {}. Status: {}. Headers: {}",
@@ -349,8 +367,11 @@ public class DeploymentPostController {
 
         CollectResponseAttachmentsFn handler = context.isStreamingRequest() ? new CollectResponseAttachmentsFn(proxy, context) : null;
 
+        StreamingMetrics streamingMetrics = (context.isStreamingRequest() && responseStatusCode == 200)
+                ? new StreamingMetrics(proxy.getVertx(), context, sentNanos) : null;
+
         BufferingReadStream responseStream = new BufferingReadStream(proxyResponse,
-                ProxyUtil.contentLength(proxyResponse, 1024), handler);
+                ProxyUtil.contentLength(proxyResponse, 1024), handler, streamingMetrics);
 
         context.setProxyResponse(proxyResponse);
         context.setProxyResponseTimestamp(System.currentTimeMillis());
@@ -364,11 +385,15 @@ public class DeploymentPostController {
         ProxyUtil.copyHeaders(proxyResponse.headers(), response.headers());
         response.putHeader(Proxy.HEADER_UPSTREAM_ATTEMPTS, Integer.toString(upstreamRoute.used()));
 
+        long start = System.nanoTime();
         responseStream.pipe()
                 .endOnFailure(false)
                 .endOnSuccess(false)
                 .to(response)
-                .onSuccess(ignored -> handleResponse(responseStream))
+                .onSuccess(ignored -> {
+                    RequestMetrics.record(RequestMetrics.Phase.STREAMING, context, start);
+                    handleResponse(responseStream);
+                })
                 .onFailure(this::handleResponseError);
     }
 
@@ -385,6 +410,7 @@ public class DeploymentPostController {
      */
     @VisibleForTesting
     void handleResponse(BufferingReadStream responseStream) {
+        long start = System.nanoTime();
         Buffer responseBody = context.getResponseStream().getContent();
         context.setResponseBody(responseBody);
         context.setResponseBodyTimestamp(System.currentTimeMillis());
@@ -403,7 +429,11 @@ public class DeploymentPostController {
                 log.warn("Failed to collect attachments from response. Trace: {}. Span: {}",
                         context.getTraceId(), context.getSpanId(), result.cause());
             }
+            if (responseStream.getStreamingMetrics() != null) {
+                responseStream.getStreamingMetrics().onEnd(context.getTokenUsage());
+            }
             completeProxyResponse(responseStream);
+            RequestMetrics.record(RequestMetrics.Phase.POST_PROCESSING, context, start);
         });
     }
 
@@ -2,11 +2,13 @@ package com.epam.aidial.core.server.controller;
 
 import com.epam.aidial.core.server.Proxy;
 import com.epam.aidial.core.server.ProxyContext;
+import com.epam.aidial.core.server.data.ApprovePublicationRequest;
 import com.epam.aidial.core.server.data.ListPublishedResourcesRequest;
 import com.epam.aidial.core.server.data.MetadataBase;
 import com.epam.aidial.core.server.data.Publication;
 import com.epam.aidial.core.server.data.Publications;
 import com.epam.aidial.core.server.data.RejectPublicationRequest;
+import com.epam.aidial.core.server.data.ResourceJob;
 import com.epam.aidial.core.server.data.ResourceLink;
 import com.epam.aidial.core.server.data.ResourceTypes;
 import com.epam.aidial.core.server.data.Rules;
@@ -17,6 +19,7 @@ import com.epam.aidial.core.server.security.EncryptionService;
 import com.epam.aidial.core.server.service.LockService;
 import com.epam.aidial.core.server.service.PermissionDeniedException;
 import com.epam.aidial.core.server.service.PublicationService;
+import com.epam.aidial.core.server.service.ResourceJobService;
 import com.epam.aidial.core.server.service.ResourceNotFoundException;
 import com.epam.aidial.core.server.service.RuleService;
 import com.epam.aidial.core.server.util.BucketBuilder;
@@ -29,6 +32,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Collection;
+import java.util.List;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -40,6 +44,7 @@ public class PublicationController {
     private final EncryptionService encryptService;
     private final PublicationService publicationService;
     private final RuleService ruleService;
+    private final ResourceJobService resourceJobService;
     private final ProxyContext context;
 
     public PublicationController(Proxy proxy, ProxyContext context) {
@@ -49,6 +54,7 @@ public class PublicationController {
         this.encryptService = proxy.getEncryptionService();
         this.publicationService = proxy.getPublicationService();
         this.ruleService = proxy.getRuleService();
+        this.resourceJobService = proxy.getResourceJobService();
         this.context = context;
     }
 
@@ -114,14 +120,23 @@ public class PublicationController {
         context.getRequest()
                 .body()
                 .compose(body -> {
-                    String url = ProxyUtil.convertToObject(body, ResourceLink.class).url();
-                    ResourceDescriptor resource = decodePublication(url, false);
+                    ApprovePublicationRequest request = ProxyUtil.convertToObject(body, ApprovePublicationRequest.class);
+                    ResourceDescriptor resource = decodePublication(request.getUrl(), false);
                     checkAccess(resource, false);
-                    return vertx.executeBlocking(() ->
+
+                    if (request.isAsync()) {
+                        String bucketLocation = BucketBuilder.buildInitiatorBucket(context);
+                        String bucketName = encryptService.encrypt(bucketLocation);
+                        return vertx.<Object>executeBlocking(() -> resourceJobService.start(bucketName, bucketLocation,
+                                ResourceJob.Operation.PUBLISH, resource.getUrl(), null, List.of(ResourceDescriptor.PUBLIC_LOCATION),
+                                progress -> publicationService.approvePublication(resource, progress)), false);
+                    }
+
+                    return vertx.<Object>executeBlocking(() ->
                             lockService.underBucketLock(ResourceDescriptor.PUBLIC_LOCATION,
                                     () -> publicationService.approvePublication(resource)), false);
                 })
-                .onSuccess(publication -> context.respond(HttpStatus.OK, publication))
+                .onSuccess(result -> context.respond(HttpStatus.OK, result))
                 .onFailure(error -> respondError("Can't approve publication", error));
 
         return Future.succeededFuture();
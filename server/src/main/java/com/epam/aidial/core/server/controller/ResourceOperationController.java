@@ -2,20 +2,25 @@ package com.epam.aidial.core.server.controller;
 
 import com.epam.aidial.core.server.Proxy;
 import com.epam.aidial.core.server.ProxyContext;
+import com.epam.aidial.core.server.data.DeleteResourcesRequest;
+import com.epam.aidial.core.server.data.GetResourceJobRequest;
 import com.epam.aidial.core.server.data.MoveResourcesRequest;
 import com.epam.aidial.core.server.data.ResourceAccessType;
 import com.epam.aidial.core.server.data.ResourceEvent;
+import com.epam.aidial.core.server.data.ResourceJob;
 import com.epam.aidial.core.server.data.ResourceTypes;
 import com.epam.aidial.core.server.data.SubscribeResourcesRequest;
 import com.epam.aidial.core.server.resource.ResourceDescriptor;
 import com.epam.aidial.core.server.resource.ResourceDescriptorFactory;
 import com.epam.aidial.core.server.security.AccessService;
 import com.epam.aidial.core.server.security.EncryptionService;
-import com.epam.aidial.core.server.service.HeartbeatService;
 import com.epam.aidial.core.server.service.LockService;
 import com.epam.aidial.core.server.service.PermissionDeniedException;
+import com.epam.aidial.core.server.service.ResourceJobService;
+import com.epam.aidial.core.server.service.ResourceNotFoundException;
 import com.epam.aidial.core.server.service.ResourceOperationService;
-import com.epam.aidial.core.server.service.ResourceTopic;
+import com.epam.aidial.core.server.service.ResourceSubscriptionHub;
+import com.epam.aidial.core.server.util.BucketBuilder;
 import com.epam.aidial.core.server.util.HttpException;
 import com.epam.aidial.core.server.util.HttpStatus;
 import com.epam.aidial.core.server.util.ProxyUtil;
@@ -42,18 +47,20 @@ public class ResourceOperationController {
     private final Vertx vertx;
     private final EncryptionService encryptionService;
     private final ResourceOperationService resourceOperationService;
+    private final ResourceJobService resourceJobService;
     private final LockService lockService;
     private final AccessService accessService;
-    private final HeartbeatService heartbeatService;
+    private final ResourceSubscriptionHub subscriptionHub;
 
     public ResourceOperationController(Proxy proxy, ProxyContext context) {
         this.context = context;
         this.vertx = proxy.getVertx();
         this.encryptionService = proxy.getEncryptionService();
         this.resourceOperationService = proxy.getResourceOperationService();
+        this.resourceJobService = proxy.getResourceJobService();
         this.lockService = proxy.getLockService();
         this.accessService = proxy.getAccessService();
-        this.heartbeatService = proxy.getHeartbeatService();
+        this.subscriptionHub = proxy.getSubscriptionHub();
     }
 
     public Future<?> move() {
@@ -102,20 +109,117 @@ public class ResourceOperationController {
                     }
 
                     List<String> buckets = List.of(source.getBucketLocation(), destination.getBucketLocation());
-                    return vertx.executeBlocking(() -> lockService.underBucketLocks(buckets, () -> {
+
+                    if (request.isAsync()) {
+                        resourceOperationService.verifyMove(source, destination);
+                        return startJob(ResourceJob.Operation.MOVE, source, destination, buckets, progress ->
+                                resourceOperationService.moveResource(source, destination, request.isOverwrite(), progress));
+                    }
+
+                    return vertx.<ResourceJob>executeBlocking(() -> lockService.underBucketLocks(buckets, () -> {
                         resourceOperationService.moveResource(source, destination, request.isOverwrite());
                         return null;
                     }), false);
                 })
-                .onSuccess(ignore -> context.respond(HttpStatus.OK))
+                .onSuccess(this::respondOperation)
                 .onFailure(this::handleServiceError);
 
         return Future.succeededFuture();
     }
 
+    public Future<?> delete() {
+        context.getRequest()
+                .body()
+                .compose(buffer -> {
+                    DeleteResourcesRequest request;
+                    try {
+                        request = ProxyUtil.convertToObject(buffer, DeleteResourcesRequest.class);
+                    } catch (Exception e) {
+                        log.error("Invalid request body provided", e);
+                        throw new IllegalArgumentException("Can't initiate delete resource request. Incorrect body provided");
+                    }
+
+                    String url = request.getUrl();
+                    if (url == null) {
+                        throw new IllegalArgumentException("url must be provided");
+                    }
+
+                    ResourceDescriptor resource = ResourceDescriptorFactory.fromAnyUrl(url, encryptionService);
+                    Set<ResourceAccessType> permissions = accessService.lookupPermissions(Set.of(resource), context).get(resource);
+                    if (!permissions.contains(ResourceAccessType.WRITE)) {
+                        throw new PermissionDeniedException("no write access to resource");
+                    }
+
+                    if (request.isAsync()) {
+                        return startJob(ResourceJob.Operation.DELETE, resource, null, List.of(resource.getBucketLocation()),
+                                progress -> resourceOperationService.deleteResource(resource, progress));
+                    }
+
+                    return vertx.<ResourceJob>executeBlocking(() -> lockService.underBucketLock(resource.getBucketLocation(), () -> {
+                        resourceOperationService.deleteResource(resource);
+                        return null;
+                    }), false);
+                })
+                .onSuccess(this::respondOperation)
+                .onFailure(this::handleServiceError);
+
+        return Future.succeededFuture();
+    }
+
+    public Future<?> getJob() {
+        context.getRequest()
+                .body()
+                .compose(buffer -> {
+                    GetResourceJobRequest request;
+                    try {
+                        request = ProxyUtil.convertToObject(buffer, GetResourceJobRequest.class);
+                    } catch (Exception e) {
+                        log.error("Invalid request body provided", e);
+                        throw new IllegalArgumentException("Can't get resource job. Incorrect body provided");
+                    }
+
+                    if (request == null || request.id() == null) {
+                        throw new IllegalArgumentException("id must be provided");
+                    }
+
+                    String bucketName = encryptionService.encrypt(BucketBuilder.buildInitiatorBucket(context));
+                    return vertx.executeBlocking(() -> resourceJobService.getJob(bucketName, request.id()), false);
+                })
+                .onSuccess(job -> {
+                    if (job == null) {
+                        context.respond(HttpStatus.NOT_FOUND, "Resource job is not found");
+                    } else {
+                        context.respond(HttpStatus.OK, job);
+                    }
+                })
+                .onFailure(this::handleServiceError);
+
+        return Future.succeededFuture();
+    }
+
+    private Future<ResourceJob> startJob(ResourceJob.Operation type, ResourceDescriptor source, ResourceDescriptor destination,
+                                         List<String> lockedBuckets, Consumer<Runnable> operation) {
+        String bucketLocation = BucketBuilder.buildInitiatorBucket(context);
+        String bucketName = encryptionService.encrypt(bucketLocation);
+        String destinationUrl = (destination == null) ? null : destination.getUrl();
+
+        return vertx.executeBlocking(() -> resourceJobService.start(bucketName, bucketLocation, type,
+                source.getUrl(), destinationUrl, lockedBuckets, operation), false);
+    }
+
+    private void respondOperation(ResourceJob job) {
+        if (job == null) {
+            context.respond(HttpStatus.OK);
+        } else {
+            context.respond(HttpStatus.OK, job);
+        }
+    }
+
     public Future<?> subscribe() {
+        // the subscription lives long, the permissions of the events are checked each time
+        context.setPermissionMemo(null);
         HttpServerResponse response = context.getResponse();
-        Consumer<ResourceEvent> subscriber = this::sendSubscriptionEvent;
+        Consumer<List<ResourceEvent>> subscriber = this::sendSubscriptionEvents;
         Runnable heartbeat = this::sendHeartbeat;
 
         context.getRequest()
@@ -128,17 +232,9 @@ public class ResourceOperationController {
                             .putHeader(HttpHeaders.CONTENT_TYPE, "text/event-stream")
                             .write(""); // to force writing header
 
-                    return vertx.executeBlocking(() -> {
-                        ResourceTopic.Subscription subscription =
-                                resourceOperationService.subscribeResources(resources, subscriber);
-                        heartbeatService.subscribe(heartbeat);
-                        return subscription;
-                    }, false);
+                    return vertx.executeBlocking(() -> subscriptionHub.subscribe(resources, subscriber, heartbeat), false);
                 })
-                .onSuccess(subscription -> response.closeHandler(event -> {
-                    heartbeatService.unsubscribe(heartbeat);
-                    subscription.close();
-                }))
+                .onSuccess(subscription -> response.closeHandler(event -> subscription.close()))
                 .onFailure(this::handleServiceError);
 
         return Future.succeededFuture();
@@ -159,10 +255,6 @@ public class ResourceOperationController {
         Set<ResourceDescriptor> resources = request.getResources().stream()
                 .map(link -> ResourceDescriptorFactory.fromAnyUrl(link.url(), encryptionService))
                 .peek(resource -> {
-                    if (resource.isFolder()) {
-                        throw new IllegalArgumentException("resource folder is not supported: " + resource.getUrl());
-                    }
-
                     if (!SUBSCRIPTION_ALLOWED_TYPES.contains(resource.getType())) {
                         throw new IllegalArgumentException("resource type is not supported: " + resource.getUrl());
                     }
@@ -178,15 +270,22 @@ public class ResourceOperationController {
         return resources;
     }
 
-    private void sendSubscriptionEvent(ResourceEvent event) {
+    private void sendSubscriptionEvents(List<ResourceEvent> events) {
         HttpServerResponse response = context.getResponse();
 
         try {
-            ResourceDescriptor resource = ResourceDescriptorFactory.fromAnyUrl(event.getUrl(), encryptionService);
+            StringBuilder chunk = new StringBuilder();
+            for (ResourceEvent event : events) {
+                ResourceDescriptor resource = ResourceDescriptorFactory.fromAnyUrl(event.getUrl(), encryptionService);
+
+                if (accessService.hasReadAccess(resource, context)) {
+                    String json = ProxyUtil.convertToString(event);
+                    chunk.append("data: ").append(json).append("\n\n");
+                }
+            }
 
-            if (accessService.hasReadAccess(resource, context)) {
-                String json = ProxyUtil.convertToString(event);
-                response.write("data: " + json + "\n\n");
+            if (!chunk.isEmpty()) {
+                response.write(chunk.toString());
             }
         } catch (Throwable e) {
             log.warn("Can't send resource event", e);
@@ -210,6 +309,8 @@ public class ResourceOperationController {
             context.respond(HttpStatus.BAD_REQUEST, error.getMessage());
         } else if (error instanceof PermissionDeniedException httpException) {
             context.respond(HttpStatus.FORBIDDEN, httpException.getMessage());
+        } else if (error instanceof ResourceNotFoundException) {
+            context.respond(HttpStatus.NOT_FOUND, error.getMessage());
         } else if (error instanceof HttpException httpException) {
             context.respond(httpException.getStatus(), httpException.getMessage());
         } else {
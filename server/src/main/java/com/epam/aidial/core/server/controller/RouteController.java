@@ -1,6 +1,5 @@
 package com.epam.aidial.core.server.controller;
 
-import com.epam.aidial.core.config.Config;
 import com.epam.aidial.core.config.Route;
 import com.epam.aidial.core.config.Upstream;
 import com.epam.aidial.core.server.Proxy;
@@ -27,7 +26,6 @@ import org.apache.http.client.utils.URIBuilder;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -223,30 +221,8 @@ public class RouteController implements Controller {
     }
 
     private Route selectRoute() {
-        Config config = context.getConfig();
         HttpServerRequest request = context.getRequest();
-        String uri = request.uri();
-
-        for (Route route : config.getRoutes().values()) {
-            List<Pattern> paths = route.getPaths();
-            Set<String> methods = route.getMethods();
-
-            if (!methods.isEmpty() && !methods.contains(request.method().name())) {
-                continue;
-            }
-
-            if (paths.isEmpty()) {
-                return route;
-            }
-
-            for (Pattern path : route.getPaths()) {
-                if (path.matcher(uri).matches()) {
-                    return route;
-                }
-            }
-        }
-
-        return null;
+        return RouteIndex.of(context.getConfig()).select(request.method().name(), request.uri());
     }
 
     @SneakyThrows
@@ -0,0 +1,131 @@
+package com.epam.aidial.core.server.controller;
+
+import com.epam.aidial.core.config.Config;
+import com.epam.aidial.core.config.Route;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * Index of the config routes by the first path segment of the literal prefix of their path patterns.
+ * A request is matched against the routes with its first path segment and the routes without the prefix only,
+ * in the order of the config. The index is built once per config.
+ */
+class RouteIndex {
+
+    private static final String META_CHARACTERS = "\\.[]{}()*+?^$|";
+
+    private static volatile RouteIndex last;
+
+    private final Config config;
+    private final Map<String, List<Candidate>> segments = new HashMap<>();
+    private final List<Candidate> rest = new ArrayList<>();
+
+    private RouteIndex(Config config) {
+        this.config = config;
+        int order = 0;
+
+        for (Route route : config.getRoutes().values()) {
+            if (route.getPaths().isEmpty()) {
+                rest.add(new Candidate(order++, route, null, ""));
+                continue;
+            }
+
+            for (Pattern path : route.getPaths()) {
+                String prefix = literalPrefix(path);
+                int slash = prefix.indexOf('/', 1);
+                Candidate candidate = new Candidate(order++, route, path, prefix);
+
+                if (prefix.startsWith("/") && slash > 0) {
+                    segments.computeIfAbsent(prefix.substring(1, slash), key -> new ArrayList<>()).add(candidate);
+                } else {
+                    rest.add(candidate);
+                }
+            }
+        }
+    }
+
+    static RouteIndex of(Config config) {
+        RouteIndex index = last;
+
+        if (index == null || index.config != config) {
+            index = new RouteIndex(config);
+            last = index;
+        }
+
+        return index;
+    }
+
+    /**
+     * @return the first route in the config order which matches the request or null if none.
+     */
+    @Nullable
+    Route select(String method, String uri) {
+        List<Candidate> matched = segments.getOrDefault(firstSegment(uri), List.of());
+        int i = 0;
+        int j = 0;
+
+        while (i < matched.size() || j < rest.size()) {
+            Candidate candidate = (j == rest.size() || (i < matched.size() && matched.get(i).order < rest.get(j).order))
+                    ? matched.get(i++)
+                    : rest.get(j++);
+
+            if (candidate.matches(method, uri)) {
+                return candidate.route;
+            }
+        }
+
+        return null;
+    }
+
+    private static String firstSegment(String uri) {
+        int end = 1;
+        while (end < uri.length() && uri.charAt(end) != '/' && uri.charAt(end) != '?') {
+            end++;
+        }
+
+        return uri.startsWith("/") ? uri.substring(1, end) : "";
+    }
+
+    /**
+     * @return the beginning of the pattern every matched string starts with, empty if it is unknown.
+     */
+    static String literalPrefix(Pattern pattern) {
+        String regex = pattern.pattern();
+        if (regex.indexOf('|') >= 0 || pattern.flags() != 0) {
+            return "";
+        }
+
+        StringBuilder prefix = new StringBuilder();
+        for (int i = regex.startsWith("^") ? 1 : 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+
+            if (META_CHARACTERS.indexOf(c) >= 0) {
+                // the previous character is optional
+                if ((c == '?' || c == '*' || c == '{') && !prefix.isEmpty()) {
+                    prefix.setLength(prefix.length() - 1);
+                }
+                break;
+            }
+
+            prefix.append(c);
+        }
+
+        return prefix.toString();
+    }
+
+    private record Candidate(int order, Route route, @Nullable Pattern path, String prefix) {
+
+        boolean matches(String method, String uri) {
+            if (!route.getMethods().isEmpty() && !route.getMethods().contains(method)) {
+                return false;
+            }
+
+            return path == null || (uri.startsWith(prefix) && path.matcher(uri).matches());
+        }
+    }
+}
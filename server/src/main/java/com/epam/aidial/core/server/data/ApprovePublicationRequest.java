@@ -0,0 +1,16 @@
+package com.epam.aidial.core.server.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApprovePublicationRequest {
+    String url;
+    /**
+     * Run the approval in background and respond with the job to track the copied resources.
+     */
+    boolean async;
+}
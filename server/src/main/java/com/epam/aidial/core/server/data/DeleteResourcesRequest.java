@@ -0,0 +1,16 @@
+package com.epam.aidial.core.server.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeleteResourcesRequest {
+    String url;
+    /**
+     * Run the operation in background and respond with the job to track it.
+     */
+    boolean async;
+}
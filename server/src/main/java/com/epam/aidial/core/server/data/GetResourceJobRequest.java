@@ -0,0 +1,4 @@
+package com.epam.aidial.core.server.data;
+
+public record GetResourceJobRequest(String id) {
+}
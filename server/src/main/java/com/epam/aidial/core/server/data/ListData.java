@@ -15,6 +15,7 @@ import java.util.List;
 public class ListData<T> {
     private List<T> data = List.of();
     private String object = "list";
+    private String nextToken;
 
     public ListData(List<T> data) {
         this.data = data;
@@ -18,4 +18,12 @@ public class ListSharedResourcesRequest {
      * Shared resource direction. Can be either with - me or others.
      */
     String with;
+    /**
+     * Page size hint. Lists all resources at once if not set.
+     */
+    Integer limit;
+    /**
+     * Token of the next page from the previous response.
+     */
+    String nextToken;
 }
@@ -11,4 +11,8 @@ public class MoveResourcesRequest {
     String sourceUrl;
     String destinationUrl;
     boolean overwrite;
+    /**
+     * Run the operation in background and respond with the job to track it.
+     */
+    boolean async;
 }
@@ -34,11 +34,15 @@ public class Notification implements Comparable<Notification> {
         return new Notification(generateNotificationId(), url, NotificationType.PUBLICATION, message, System.currentTimeMillis());
     }
 
+    public static Notification getResourceJobNotification(String url, String message) {
+        return new Notification(generateNotificationId(), url, NotificationType.RESOURCE_JOB, message, System.currentTimeMillis());
+    }
+
     public static String generateNotificationId() {
         return UUID.randomUUID().toString();
     }
 
     public enum NotificationType {
-        PUBLICATION
+        PUBLICATION, RESOURCE_JOB
     }
 }
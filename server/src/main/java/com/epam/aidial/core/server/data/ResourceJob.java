@@ -0,0 +1,41 @@
+package com.epam.aidial.core.server.data;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * Asynchronous resource operation, e.g. a move of a folder.
+ */
+@Data
+@Accessors(chain = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResourceJob {
+    String id;
+    /**
+     * Bucket of the user who initiated the operation. Only the user can get the job.
+     */
+    String bucket;
+    Operation operation;
+    Status status;
+    String sourceUrl;
+    String destinationUrl;
+    /**
+     * How many resources are processed so far.
+     */
+    long processed;
+    /**
+     * Failure reason if the job is failed.
+     */
+    String error;
+    long createdAt;
+    Long finishedAt;
+
+    public enum Operation {
+        MOVE, DELETE, PUBLISH
+    }
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+}
@@ -1,5 +1,6 @@
 package com.epam.aidial.core.server.data;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,4 +12,10 @@ import java.util.Set;
 @NoArgsConstructor
 public class SharedResourcesResponse {
     Set<MetadataBase> resources;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    String nextToken;
+
+    public SharedResourcesResponse(Set<MetadataBase> resources) {
+        this(resources, null);
+    }
 }
@@ -5,6 +5,7 @@ import com.epam.aidial.core.server.ProxyContext;
 import com.epam.aidial.core.server.data.ApiKeyData;
 import com.epam.aidial.core.server.data.AutoSharedData;
 import com.epam.aidial.core.server.data.ResourceAccessType;
+import com.epam.aidial.core.server.metric.RequestMetrics;
 import com.epam.aidial.core.server.resource.ResourceDescriptor;
 import com.epam.aidial.core.server.security.AccessService;
 import com.epam.aidial.core.server.util.HttpException;
@@ -13,6 +14,11 @@ import com.epam.aidial.core.server.util.ProxyUtil;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 /**
  * Collects attached files from the chat completion request and puts the result to API key data.
  * <p>
@@ -28,10 +34,14 @@ public class CollectRequestAttachmentsFn extends BaseRequestFunction<ObjectNode>
     @Override
     public Throwable apply(ObjectNode tree) {
         try {
-            ProxyUtil.collectAttachedFilesFromRequest(tree, this::processAttachedFile);
+            Map<ResourceDescriptor, String> resources = new LinkedHashMap<>();
+            ProxyUtil.collectAttachedFilesFromRequest(tree, url -> collectAttachedFile(url, resources));
+            processAttachedFiles(resources);
             // assign api key data after processing attachments
             ApiKeyData destApiKeyData = context.getProxyApiKeyData();
+            long start = System.nanoTime();
             proxy.getApiKeyStore().assignPerRequestApiKey(destApiKeyData);
+            RequestMetrics.record(RequestMetrics.Phase.API_KEY, context, start);
             return null;
         } catch (HttpException e) {
             context.respond(e.getStatus(), e.getMessage());
@@ -46,24 +56,36 @@ public class CollectRequestAttachmentsFn extends BaseRequestFunction<ObjectNode>
         }
     }
 
-    private void processAttachedFile(String url) {
+    private void collectAttachedFile(String url, Map<ResourceDescriptor, String> resources) {
         ResourceDescriptor resource = fromAnyUrl(url, proxy.getEncryptionService());
-        if (resource == null) {
-            return;
+        if (resource != null) {
+            resources.putIfAbsent(resource, url);
         }
-        String resourceUrl = resource.getUrl();
+    }
+
+    private void processAttachedFiles(Map<ResourceDescriptor, String> resources) {
         ApiKeyData sourceApiKeyData = context.getApiKeyData();
         ApiKeyData destApiKeyData = context.getProxyApiKeyData();
         AccessService accessService = proxy.getAccessService();
-        if (sourceApiKeyData.getAttachedFiles().containsKey(resourceUrl) || accessService.hasReadAccess(resource, context)) {
-            if (resource.isFolder()) {
-                destApiKeyData.getAttachedFolders().put(resourceUrl, new AutoSharedData(ResourceAccessType.READ_ONLY));
+
+        // the access is checked at once for all the attachments
+        Set<ResourceDescriptor> toCheck = resources.keySet().stream()
+                .filter(resource -> !sourceApiKeyData.getAttachedFiles().containsKey(resource.getUrl()))
+                .collect(Collectors.toSet());
+        Set<ResourceDescriptor> readable = toCheck.isEmpty() ? Set.of() : accessService.filterReadable(toCheck, context);
+
+        resources.forEach((resource, url) -> {
+            String resourceUrl = resource.getUrl();
+            if (!toCheck.contains(resource) || readable.contains(resource)) {
+                if (resource.isFolder()) {
+                    destApiKeyData.getAttachedFolders().put(resourceUrl, new AutoSharedData(ResourceAccessType.READ_ONLY));
+                } else {
+                    destApiKeyData.getAttachedFiles().put(resourceUrl, new AutoSharedData(ResourceAccessType.READ_ONLY));
+                }
             } else {
-                destApiKeyData.getAttachedFiles().put(resourceUrl, new AutoSharedData(ResourceAccessType.READ_ONLY));
+                throw new HttpException(HttpStatus.FORBIDDEN, "Access denied to the file %s".formatted(url));
             }
-        } else {
-            throw new HttpException(HttpStatus.FORBIDDEN, "Access denied to the file %s".formatted(url));
-        }
+        });
     }
 
 }
@@ -2,8 +2,8 @@ package com.epam.aidial.core.server.limiter;
 
 import com.epam.aidial.core.config.Deployment;
 import com.epam.aidial.core.config.Limit;
-import com.epam.aidial.core.config.Role;
 import com.epam.aidial.core.server.ProxyContext;
+import com.epam.aidial.core.server.config.ConfigIndex;
 import com.epam.aidial.core.server.data.ItemLimitStats;
 import com.epam.aidial.core.server.data.LimitStats;
 import com.epam.aidial.core.server.data.ResourceTypes;
@@ -19,17 +19,10 @@ import io.vertx.core.Vertx;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-
 @Slf4j
 @RequiredArgsConstructor
 public class RateLimiter {
 
-    private static final Limit DEFAULT_LIMIT = new Limit();
-    private static final String DEFAULT_USER_ROLE = "default";
-
     private final Vertx vertx;
 
     private final ResourceService resourceService;
@@ -62,7 +55,7 @@ public class RateLimiter {
                 return Future.succeededFuture(RateLimitResult.SUCCESS);
             }
             String deploymentName = context.getDeployment().getName();
-            Limit limit = getLimitByUser(context, context.getDeployment());
+            Limit limit = ConfigIndex.of(context.getConfig()).limit(context.getUserRoles(), context.getDeployment());
 
             if (limit == null || !limit.isPositive()) {
                 if (limit == null) {
@@ -85,7 +78,7 @@ public class RateLimiter {
             if (resourceService == null) {
                 return Future.succeededFuture();
             }
-            Limit limit = getLimitByUser(context, deployment);
+            Limit limit = ConfigIndex.of(context.getConfig()).limit(context.getUserRoles(), deployment);
             return vertx.executeBlocking(() -> getLimitStats(context, limit, deployment.getName()), false);
         } catch (Throwable e) {
             return Future.failedFuture(e);
@@ -205,42 +198,6 @@ public class RateLimiter {
         return ProxyUtil.convertToString(rateLimit);
     }
 
-    private Limit getLimitByUser(ProxyContext context, Deployment deployment) {
-        String deploymentName = deployment.getName();
-        List<String> userRoles;
-        if (deployment.getUserRoles() == null) {
-            // find limits for all user roles
-            userRoles = context.getUserRoles();
-        } else {
-            // find limits for user roles which match to deployment required roles
-            userRoles = context.getUserRoles().stream().filter(role -> deployment.getUserRoles().contains(role)).toList();
-        }
-        Map<String, Role> roles = context.getConfig().getRoles();
-        Limit defaultUserLimit = getLimit(roles, DEFAULT_USER_ROLE, deploymentName, DEFAULT_LIMIT);
-        if (userRoles.isEmpty()) {
-            return defaultUserLimit;
-        }
-        Limit limit = null;
-        for (String userRole : userRoles) {
-            Limit candidate = getLimit(roles, userRole, deploymentName, null);
-            if (candidate != null) {
-                if (limit == null) {
-                    limit = new Limit();
-                    limit.setMinute(candidate.getMinute());
-                    limit.setRequestHour(candidate.getRequestHour());
-                    limit.setRequestDay(candidate.getRequestDay());
-                    limit.setDay(candidate.getDay());
-                } else {
-                    limit.setMinute(Math.max(candidate.getMinute(), limit.getMinute()));
-                    limit.setDay(Math.max(candidate.getDay(), limit.getDay()));
-                    limit.setRequestDay(Math.max(candidate.getRequestDay(), limit.getRequestDay()));
-                    limit.setRequestHour(Math.max(candidate.getRequestHour(), limit.getRequestHour()));
-                }
-            }
-        }
-        return limit == null ? defaultUserLimit : limit;
-    }
-
     private static String getPathToTokens(String deploymentName) {
         return String.format("%s/tokens", deploymentName);
     }
@@ -249,10 +206,4 @@ public class RateLimiter {
         return String.format("%s/requests", deploymentName);
     }
 
-    private static Limit getLimit(Map<String, Role> roles, String userRole, String deploymentName, Limit defaultLimit) {
-        return Optional.ofNullable(roles.get(userRole))
-                .map(role -> role.getLimits().get(deploymentName))
-                .orElse(defaultLimit);
-    }
-
 }
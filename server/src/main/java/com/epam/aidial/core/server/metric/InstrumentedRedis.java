@@ -0,0 +1,64 @@
+package com.epam.aidial.core.server.metric;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import lombok.experimental.UtilityClass;
+import org.redisson.client.NettyHook;
+import org.redisson.client.protocol.CommandData;
+import org.redisson.client.protocol.CommandsData;
+import org.redisson.config.Config;
+
+/**
+ * Records every Redis command to {@link IoMetrics} with the operation named after the command, e.g. "HGETALL" or "EVAL".
+ * The commands are timed in the Netty pipeline of the Redis connections from the write till the response,
+ * so the services use the client as is and the calls are not intercepted on the caller side.
+ * The pipelined commands are recorded as one "BATCH" operation.
+ */
+@UtilityClass
+public class InstrumentedRedis {
+
+    public static final String BATCH = "BATCH";
+
+    private static final CommandTimer TIMER = new CommandTimer();
+
+    /**
+     * Adds the timer to the connections of the clients created with the config.
+     */
+    public static Config instrument(Config config) {
+        return config.setNettyHook(new Hook(config.getNettyHook()));
+    }
+
+    private record Hook(NettyHook delegate) implements NettyHook {
+
+        @Override
+        public void afterBoostrapInitialization(Bootstrap bootstrap) {
+            delegate.afterBoostrapInitialization(bootstrap);
+        }
+
+        @Override
+        public void afterChannelInitialization(Channel channel) {
+            delegate.afterChannelInitialization(channel);
+            // the last handler is the first one to see the outbound commands
+            channel.pipeline().addLast(TIMER);
+        }
+    }
+
+    @ChannelHandler.Sharable
+    private static class CommandTimer extends ChannelOutboundHandlerAdapter {
+
+        @Override
+        public void write(ChannelHandlerContext context, Object message, ChannelPromise promise) throws Exception {
+            if (message instanceof CommandData<?, ?> command) {
+                IoMetrics.recordAsync(IoMetrics.REDIS, command.getCommand().getName(), command.getPromise());
+            } else if (message instanceof CommandsData commands) {
+                IoMetrics.recordAsync(IoMetrics.REDIS, BATCH, commands.getPromise());
+            }
+
+            super.write(context, message, promise);
+        }
+    }
+}
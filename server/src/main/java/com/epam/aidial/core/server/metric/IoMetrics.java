@@ -0,0 +1,184 @@
+package com.epam.aidial.core.server.metric;
+
+import com.epam.aidial.core.server.util.MetricUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.vertx.core.impl.ContextInternal;
+import lombok.Setter;
+import lombok.experimental.UtilityClass;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * Latency histograms and counts of Redis and blob store calls, lock wait time and contention.
+ * Optionally attaches the number and the duration of the calls made by a request to its trace span,
+ * except the calls recorded outside the request context, e.g. Redis commands timed on the connections.
+ */
+@UtilityClass
+public class IoMetrics {
+
+    public static final String IO_NAME = "aidial.io";
+    public static final String LOCK_WAIT_NAME = "aidial.lock.wait";
+    public static final String LOCK_CONTENTION_NAME = "aidial.lock.contention";
+
+    public static final String REDIS = "redis";
+    public static final String BLOB = "blob";
+
+    @Setter
+    private static volatile boolean spanAttributes;
+
+    private static volatile Meters meters;
+
+    public static <T> T record(String system, String operation, Supplier<T> call) {
+        Counters counters = counters();
+        long start = System.nanoTime();
+        boolean success = false;
+
+        try {
+            T result = call.get();
+            success = true;
+            return result;
+        } finally {
+            complete(system, operation, success, System.nanoTime() - start, counters);
+        }
+    }
+
+    public static void record(String system, String operation, Runnable call) {
+        record(system, operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Records the asynchronous call once it is completed.
+     */
+    public static <T extends CompletionStage<?>> T recordAsync(String system, String operation, T call) {
+        Counters counters = counters();
+        long start = System.nanoTime();
+        call.whenComplete((result, error) -> complete(system, operation, error == null, System.nanoTime() - start, counters));
+        return call;
+    }
+
+    /**
+     * Records the time spent to acquire a lock.
+     *
+     * @param attempts - the number of attempts, more than one means the lock was held by someone else.
+     */
+    public static void recordLock(long waitNanos, int attempts, boolean acquired) {
+        Meters current = meters();
+        current.lockWait.record(waitNanos, TimeUnit.NANOSECONDS);
+
+        if (attempts > 1 || !acquired) {
+            current.lockContention.increment();
+        }
+    }
+
+    private static void complete(String system, String operation, boolean success, long nanos, @Nullable Counters counters) {
+        meters().timer(system, operation, success).record(nanos, TimeUnit.NANOSECONDS);
+
+        if (counters != null) {
+            counters.add(system, nanos);
+        }
+    }
+
+    /**
+     * @return the I/O counters of the current request or null if they are not attached to the span.
+     */
+    @Nullable
+    private static Counters counters() {
+        if (!spanAttributes) {
+            return null;
+        }
+
+        // every request is handled in its own duplicated context, the blocking code runs on it as well
+        ContextInternal context = ContextInternal.current();
+        Span span = Span.current();
+        if (context == null || !context.isDuplicate() || !span.isRecording()) {
+            return null;
+        }
+
+        return (Counters) context.localContextData().computeIfAbsent(Counters.class, key -> new Counters(span));
+    }
+
+    private static Meters meters() {
+        MeterRegistry registry = MetricUtil.registry();
+        Meters current = meters;
+
+        if (current == null || current.registry != registry) {
+            current = new Meters(registry);
+            meters = current;
+        }
+
+        return current;
+    }
+
+    private static class Meters {
+
+        private final MeterRegistry registry;
+        private final Map<Key, Timer> timers = new ConcurrentHashMap<>();
+        private final Timer lockWait;
+        private final Counter lockContention;
+
+        Meters(MeterRegistry registry) {
+            this.registry = registry;
+            this.lockWait = Timer.builder(LOCK_WAIT_NAME)
+                    .description("Time spent to acquire a resource lock")
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.lockContention = Counter.builder(LOCK_CONTENTION_NAME)
+                    .description("Number of lock acquisitions which had to wait or failed")
+                    .register(registry);
+        }
+
+        Timer timer(String system, String operation, boolean success) {
+            return timers.computeIfAbsent(new Key(system, operation, success), this::create);
+        }
+
+        private Timer create(Key key) {
+            return Timer.builder(IO_NAME)
+                    .description("Latency of Redis and blob store calls")
+                    .tag("system", key.system())
+                    .tag("operation", key.operation())
+                    .tag("outcome", key.success() ? "success" : "error")
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(Duration.ofMinutes(1))
+                    .register(registry);
+        }
+    }
+
+    private record Key(String system, String operation, boolean success) {
+    }
+
+    private static class Counters {
+
+        private final Span span;
+        private final AtomicLong redisCount = new AtomicLong();
+        private final AtomicLong redisNanos = new AtomicLong();
+        private final AtomicLong blobCount = new AtomicLong();
+        private final AtomicLong blobNanos = new AtomicLong();
+
+        Counters(Span span) {
+            this.span = span;
+        }
+
+        void add(String system, long nanos) {
+            boolean redis = REDIS.equals(system);
+            long count = (redis ? redisCount : blobCount).incrementAndGet();
+            long total = (redis ? redisNanos : blobNanos).addAndGet(nanos);
+
+            // the span keeps the last values, so it ends up with the totals of the request
+            span.setAttribute("aidial.io." + system + ".count", count);
+            span.setAttribute("aidial.io." + system + ".duration_ms", TimeUnit.NANOSECONDS.toMillis(total));
+        }
+    }
+}
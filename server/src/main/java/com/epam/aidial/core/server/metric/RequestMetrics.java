@@ -0,0 +1,178 @@
+package com.epam.aidial.core.server.metric;
+
+import com.epam.aidial.core.config.Deployment;
+import com.epam.aidial.core.config.Upstream;
+import com.epam.aidial.core.server.ProxyContext;
+import com.epam.aidial.core.server.upstream.UpstreamRoute;
+import com.epam.aidial.core.server.util.MetricUtil;
+import com.google.common.annotations.VisibleForTesting;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.experimental.UtilityClass;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Timers of the phases a deployment request goes through inside the core, tagged by deployment.
+ * The number of distinct tag values is limited, the rest are reported as "other".
+ * Only the upstream time to first byte publishes the percentile histogram, the other phases report the count, total and max,
+ * so the number of the series stays bounded.
+ */
+@UtilityClass
+public class RequestMetrics {
+
+    public static final String NAME = "aidial.request.phase";
+    public static final String NONE = "none";
+    public static final String OTHER = "other";
+    public static final int MAX_TAG_VALUES = 256;
+
+    private static volatile Timers timers;
+
+    /**
+     * Records the phase which started at the given {@link System#nanoTime()}.
+     */
+    public static void record(Phase phase, @Nullable ProxyContext context, long startNanos) {
+        record(phase, context, System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void record(Phase phase, @Nullable ProxyContext context, long duration, TimeUnit unit) {
+        Timers current = timers();
+        current.get(phase, current.deployment(context)).record(duration, unit);
+    }
+
+    /**
+     * @return the deployment and upstream tags of the request with the same cardinality limit as the phase timers.
+     */
+    static Tags tags(@Nullable ProxyContext context) {
+        return timers().tags(context);
+    }
+
+    /**
+     * Drops the cached timers along with the tag values seen so far.
+     */
+    @VisibleForTesting
+    static void reset() {
+        timers = null;
+    }
+
+    private static Timers timers() {
+        MeterRegistry registry = MetricUtil.registry();
+        Timers current = timers;
+
+        if (current == null || current.registry != registry) {
+            current = new Timers(registry);
+            timers = current;
+        }
+
+        return current;
+    }
+
+    /**
+     * @return host and port of the upstream, the path is dropped to keep the cardinality low.
+     */
+    private static String upstream(String endpoint) {
+        try {
+            URI uri = URI.create(endpoint);
+            String host = uri.getHost();
+            return (host == null) ? OTHER : (uri.getPort() < 0 ? host : host + ":" + uri.getPort());
+        } catch (Throwable e) {
+            return OTHER;
+        }
+    }
+
+    public enum Phase {
+        AUTH("auth"),
+        RATE_LIMIT("rate_limit"),
+        TOKEN_STATS("token_stats"),
+        API_KEY("api_key"),
+        ENHANCEMENT("enhancement"),
+        UPSTREAM_CONNECT("upstream_connect"),
+        UPSTREAM_TTFB("upstream_ttfb", true),
+        STREAMING("streaming"),
+        POST_PROCESSING("post_processing");
+
+        private final String tag;
+        private final boolean histogram;
+
+        Phase(String tag) {
+            this(tag, false);
+        }
+
+        Phase(String tag, boolean histogram) {
+            this.tag = tag;
+            this.histogram = histogram;
+        }
+    }
+
+    private static class Timers {
+
+        private final MeterRegistry registry;
+        private final Map<Key, Timer> timers = new ConcurrentHashMap<>();
+        private final Set<String> deployments = ConcurrentHashMap.newKeySet();
+        private final Set<String> upstreams = ConcurrentHashMap.newKeySet();
+
+        Timers(MeterRegistry registry) {
+            this.registry = registry;
+        }
+
+        Tags tags(@Nullable ProxyContext context) {
+            UpstreamRoute route = (context == null) ? null : context.getUpstreamRoute();
+            Upstream upstream = (route == null) ? null : route.get();
+
+            String upstreamTag = (upstream == null || upstream.getEndpoint() == null) ? NONE : upstream(upstream.getEndpoint());
+            return Tags.of("deployment", deployment(context), "upstream", guard(upstreams, upstreamTag));
+        }
+
+        String deployment(@Nullable ProxyContext context) {
+            Deployment deployment = (context == null) ? null : context.getDeployment();
+            return guard(deployments, (deployment == null || deployment.getName() == null) ? NONE : deployment.getName());
+        }
+
+        Timer get(Phase phase, String deployment) {
+            return timers.computeIfAbsent(new Key(phase, deployment), this::create);
+        }
+
+        private Timer create(Key key) {
+            Timer.Builder builder = Timer.builder(NAME)
+                    .description("Time spent by the core in the request phase")
+                    .tag("phase", key.phase().tag)
+                    .tag("deployment", key.deployment());
+
+            if (key.phase().histogram) {
+                builder.publishPercentileHistogram().maximumExpectedValue(Duration.ofMinutes(10));
+            }
+
+            return builder.register(registry);
+        }
+
+        private static String guard(Set<String> values, String value) {
+            if (values.contains(value)) {
+                return value;
+            }
+
+            if (values.size() >= MAX_TAG_VALUES) {
+                return OTHER;
+            }
+
+            // the new values are added one at a time, so the concurrent ones do not exceed the limit
+            synchronized (values) {
+                if (values.size() < MAX_TAG_VALUES) {
+                    values.add(value);
+                    return value;
+                }
+
+                return values.contains(value) ? value : OTHER;
+            }
+        }
+    }
+
+    private record Key(Phase phase, String deployment) {
+    }
+}
@@ -0,0 +1,218 @@
+package com.epam.aidial.core.server.metric;
+
+import com.epam.aidial.core.server.ProxyContext;
+import com.epam.aidial.core.server.token.TokenUsage;
+import com.epam.aidial.core.server.util.MetricUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import lombok.Setter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Tracks a streaming response from an upstream as its events arrive: time to the first event,
+ * gaps between events, stalls and tokens per second once the usage is known.
+ * The events are the "data:" lines of the event stream except the final "[DONE]" one, so the keep-alive comments
+ * and the way the upstream splits the stream into network buffers do not affect the meters.
+ * Nothing is buffered, every chunk is scanned once and only updates the timestamps and the meters.
+ * A stall is counted by a timer once no event arrives within the threshold, even if the stream never resumes.
+ * The meters are tagged by deployment and upstream the same way as {@link RequestMetrics}.
+ */
+public class StreamingMetrics {
+
+    public static final String TTFT_NAME = "aidial.streaming.ttft";
+    public static final String GAP_NAME = "aidial.streaming.chunk.gap";
+    public static final String STALL_NAME = "aidial.streaming.stalls";
+    public static final String TOKENS_PER_SECOND_NAME = "aidial.streaming.tokens.per.second";
+
+    private static final byte[] DATA_FIELD = "data:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DONE_VALUE = "[DONE]".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The gap between events in milliseconds after which the stream is considered stalled.
+     */
+    @Setter
+    private static volatile long stallThreshold = 10000;
+
+    private final Vertx vertx;
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final long startNanos;
+    private final long stallNanos;
+    private final Timer gap;
+
+    private long firstEventNanos = -1;
+    private long lastEventNanos = -1;
+    private long stallTimer = -1;
+    private boolean stalled;
+    private boolean ended;
+    private boolean recorded;
+
+    // the state of the line scanned: the matched bytes of the field name and of the value, the value is -1 until the field is matched
+    private int fieldPos;
+    private int valuePos = -1;
+    private boolean valueSpace;
+    private boolean skipLine;
+
+    /**
+     * @param startNanos - {@link System#nanoTime()} when the request was sent to the upstream.
+     */
+    public StreamingMetrics(Vertx vertx, ProxyContext context, long startNanos) {
+        this.vertx = vertx;
+        this.registry = MetricUtil.registry();
+        this.tags = RequestMetrics.tags(context);
+        this.startNanos = startNanos;
+        this.stallNanos = TimeUnit.MILLISECONDS.toNanos(stallThreshold);
+        this.gap = Timer.builder(GAP_NAME)
+                .description("Time between events of a streaming response")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofMinutes(1))
+                .register(registry);
+    }
+
+    /**
+     * Scans the chunk for the events, a chunk might contain a part of an event or several events.
+     */
+    public synchronized void onChunk(Buffer chunk) {
+        if (ended) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        for (int i = 0; i < chunk.length(); i++) {
+            byte b = chunk.getByte(i);
+
+            if (b == '\n' || b == '\r') {
+                endLine(now);
+            } else if (!skipLine) {
+                scan(b, now);
+            }
+        }
+    }
+
+    private void scan(byte b, long now) {
+        if (valuePos < 0) {
+            if (b == DATA_FIELD[fieldPos]) {
+                fieldPos++;
+                valuePos = (fieldPos == DATA_FIELD.length) ? 0 : -1;
+            } else {
+                skipLine = true;
+            }
+        } else if (valuePos == 0 && b == ' ' && !valueSpace) {
+            valueSpace = true;
+        } else if (valuePos < DONE_VALUE.length && b == DONE_VALUE[valuePos]) {
+            valuePos++;
+        } else {
+            // the value is known not to be [DONE] before the line is completed
+            onEvent(now);
+            valuePos = -1;
+            skipLine = true;
+        }
+    }
+
+    private void endLine(long now) {
+        if (valuePos >= 0 && valuePos < DONE_VALUE.length) {
+            onEvent(now);
+        }
+
+        fieldPos = 0;
+        valuePos = -1;
+        valueSpace = false;
+        skipLine = false;
+    }
+
+    private void onEvent(long now) {
+        if (lastEventNanos < 0) {
+            firstEventNanos = now;
+            Timer.builder(TTFT_NAME)
+                    .description("Time from sending a streaming request to the upstream to its first event")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(Duration.ofMinutes(10))
+                    .register(registry)
+                    .record(now - startNanos, TimeUnit.NANOSECONDS);
+        } else {
+            gap.record(now - lastEventNanos, TimeUnit.NANOSECONDS);
+        }
+
+        lastEventNanos = now;
+        stalled = false;
+        if (stallTimer < 0) {
+            scheduleStallCheck(stallNanos);
+        }
+    }
+
+    private void scheduleStallCheck(long delayNanos) {
+        stallTimer = vertx.setTimer(Math.max(1, TimeUnit.NANOSECONDS.toMillis(delayNanos)), ignore -> checkStall());
+    }
+
+    /**
+     * The timer is not rescheduled on every event, but checks the time since the last event once it fires.
+     */
+    private synchronized void checkStall() {
+        stallTimer = -1;
+        if (ended || stalled) {
+            return;
+        }
+
+        long elapsed = System.nanoTime() - lastEventNanos;
+        if (elapsed < stallNanos) {
+            scheduleStallCheck(stallNanos - elapsed);
+            return;
+        }
+
+        // the next check is scheduled once the stream resumes
+        stalled = true;
+        Counter.builder(STALL_NAME)
+                .description("Number of gaps between events of a streaming response longer than the stall threshold")
+                .tags(tags)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Stops the stall detection once the stream is ended or failed.
+     */
+    public synchronized void stop() {
+        ended = true;
+        if (stallTimer >= 0) {
+            vertx.cancelTimer(stallTimer);
+            stallTimer = -1;
+        }
+    }
+
+    /**
+     * Records the generation speed from the first to the last event.
+     *
+     * @param usage - the usage of the response or null if the upstream did not report it.
+     */
+    public synchronized void onEnd(@Nullable TokenUsage usage) {
+        stop();
+        if (recorded) {
+            return;
+        }
+
+        recorded = true;
+
+        long duration = lastEventNanos - firstEventNanos;
+        if (usage == null || usage.getCompletionTokens() <= 0 || firstEventNanos < 0 || duration <= 0) {
+            return;
+        }
+
+        DistributionSummary.builder(TOKENS_PER_SECOND_NAME)
+                .description("Completion tokens per second of a streaming response")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(usage.getCompletionTokens() * 1e9 / duration);
+    }
+}
@@ -35,6 +35,12 @@ public class AccessService {
     private final ShareService shareService;
     private final RuleService ruleService;
     private final List<Rule> adminRules;
+    // the rules which do not access the storage
+    private final List<PermissionRule> localPermissionRules = List.of(
+            AccessService::getOwnResourcesAccess,
+            this::getAdminAccess,
+            AccessService::getAutoSharedAccess,
+            AccessService::getAppResourceAccess);
     private final List<PermissionRule> permissionRules = List.of(
             AccessService::getOwnResourcesAccess,
             this::getAdminAccess,
@@ -61,6 +67,36 @@ public class AccessService {
         return permissions.get(resource).contains(ResourceAccessType.READ);
     }
 
+    /**
+     * Checks the read access with the rules which do not access the storage, so it can be called from the event loop.
+     *
+     * @return true if the user has read access, false if the access is not granted by these rules.
+     */
+    public boolean hasLocalReadAccess(ResourceDescriptor resource, ProxyContext context) {
+        Set<ResourceDescriptor> resources = Set.of(resource);
+        for (PermissionRule permissionRule : localPermissionRules) {
+            Set<ResourceAccessType> permissions = permissionRule.apply(resources, context).get(resource);
+            if (permissions != null && permissions.contains(ResourceAccessType.READ)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks the read access to the resources at once, so the shared resources are fetched once per resource type.
+     *
+     * @return the resources the user has read access to.
+     */
+    public Set<ResourceDescriptor> filterReadable(Set<ResourceDescriptor> resources, ProxyContext context) {
+        Map<ResourceDescriptor, Set<ResourceAccessType>> permissions =
+                lookupPermissions(resources, context, Set.of(ResourceAccessType.READ));
+        return resources.stream()
+                .filter(resource -> permissions.get(resource).contains(ResourceAccessType.READ))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
     /**
      * Checks if USER has public access to the provided resources.
      * This method also checks admin privileges.
@@ -98,6 +134,34 @@ public class AccessService {
 
     private Map<ResourceDescriptor, Set<ResourceAccessType>> lookupPermissions(
             Set<ResourceDescriptor> resources, ProxyContext context, Set<ResourceAccessType> toLookup) {
+        PermissionMemo memo = context.getPermissionMemo();
+        if (memo == null) {
+            return evaluatePermissions(resources, context, toLookup);
+        }
+
+        Map<ResourceDescriptor, Set<ResourceAccessType>> result = new HashMap<>();
+        Set<ResourceDescriptor> missingResources = new HashSet<>();
+        for (ResourceDescriptor resource : resources) {
+            Set<ResourceAccessType> permissions = memo.get(resource, toLookup);
+            if (permissions == null) {
+                missingResources.add(resource);
+            } else {
+                result.put(resource, permissions);
+            }
+        }
+
+        if (!missingResources.isEmpty()) {
+            evaluatePermissions(missingResources, context, toLookup).forEach((resource, permissions) -> {
+                memo.put(resource, permissions, toLookup);
+                result.put(resource, permissions);
+            });
+        }
+
+        return result;
+    }
+
+    private Map<ResourceDescriptor, Set<ResourceAccessType>> evaluatePermissions(
+            Set<ResourceDescriptor> resources, ProxyContext context, Set<ResourceAccessType> toLookup) {
         Map<ResourceDescriptor, Set<ResourceAccessType>> result = new HashMap<>();
         Set<ResourceDescriptor> remainingResources = new HashSet<>(resources);
         for (PermissionRule permissionRule : permissionRules) {
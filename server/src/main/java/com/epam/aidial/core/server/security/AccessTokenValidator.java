@@ -60,6 +60,13 @@ public class AccessTokenValidator {
         }
     }
 
+    /**
+     * Fetches the keys of the identity providers verifying JWT with JWKS.
+     */
+    public Future<Void> prefetchJwks() {
+        return Future.all(providers.stream().map(IdentityProvider::prefetchJwks).toList()).mapEmpty();
+    }
+
     public Future<ExtractedClaims> extractClaims(String authHeader) {
         String accessToken = null;
         try {
@@ -3,6 +3,7 @@ package com.epam.aidial.core.server.security;
 import com.auth0.jwk.Jwk;
 import com.auth0.jwk.JwkException;
 import com.auth0.jwk.JwkProvider;
+import com.auth0.jwk.UrlJwkProvider;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.Claim;
@@ -195,6 +196,25 @@ public class IdentityProvider {
         }, false));
     }
 
+    /**
+     * Fetches all the keys of the JWKS endpoint at once, so the first requests do not wait for them.
+     */
+    Future<Void> prefetchJwks() {
+        if (!(jwkProvider instanceof UrlJwkProvider provider)) {
+            return Future.succeededFuture();
+        }
+
+        return vertx.executeBlocking(() -> {
+            long expirationTime = System.currentTimeMillis() + positiveCacheExpirationMs;
+            for (Jwk jwk : provider.getAll()) {
+                if (jwk.getId() != null) {
+                    cache.putIfAbsent(jwk.getId(), Future.succeededFuture(new JwkResult(jwk, null, expirationTime)));
+                }
+            }
+            return null;
+        }, false);
+    }
+
     private Future<DecodedJWT> verifyJwt(DecodedJWT jwt) {
         String kid = jwt.getKeyId();
         Future<JwkResult> future = getJwk(kid);
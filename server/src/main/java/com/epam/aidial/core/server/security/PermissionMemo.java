@@ -0,0 +1,43 @@
+package com.epam.aidial.core.server.security;
+
+import com.epam.aidial.core.server.data.ResourceAccessType;
+import com.epam.aidial.core.server.resource.ResourceDescriptor;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+
+/**
+ * Permissions looked up during a request, so the repeated checks of the same resources
+ * do not walk the permission rules and fetch the shared resources again.
+ * Must not outlive the request, because the permissions might be changed meanwhile.
+ */
+public class PermissionMemo {
+
+    private final Map<ResourceDescriptor, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @return the permissions if they are enough to answer the lookup or null otherwise.
+     */
+    @Nullable
+    Set<ResourceAccessType> get(ResourceDescriptor resource, Set<ResourceAccessType> toLookup) {
+        Entry entry = entries.get(resource);
+        if (entry == null) {
+            return null;
+        }
+
+        return (entry.complete() || entry.permissions().containsAll(toLookup)) ? entry.permissions() : null;
+    }
+
+    /**
+     * @param toLookup - the permissions the lookup stopped at, the result is partial if it collected exactly them.
+     */
+    void put(ResourceDescriptor resource, Set<ResourceAccessType> permissions, Set<ResourceAccessType> toLookup) {
+        boolean complete = toLookup.equals(ResourceAccessType.ALL) || !permissions.equals(toLookup);
+        entries.merge(resource, new Entry(permissions, complete), (current, update) -> current.complete() ? current : update);
+    }
+
+    private record Entry(Set<ResourceAccessType> permissions, boolean complete) {
+    }
+}
@@ -7,6 +7,7 @@ import com.epam.aidial.core.server.controller.ApplicationUtil;
 import com.epam.aidial.core.server.data.ListSharedResourcesRequest;
 import com.epam.aidial.core.server.data.MetadataBase;
 import com.epam.aidial.core.server.data.NodeType;
+import com.epam.aidial.core.server.data.ResourceEvent;
 import com.epam.aidial.core.server.data.ResourceFolderMetadata;
 import com.epam.aidial.core.server.data.ResourceItemMetadata;
 import com.epam.aidial.core.server.data.ResourceTypes;
@@ -22,11 +23,15 @@ import com.epam.aidial.core.server.util.HttpException;
 import com.epam.aidial.core.server.util.HttpStatus;
 import com.epam.aidial.core.server.util.ProxyUtil;
 import com.epam.aidial.core.server.util.UrlUtil;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
 import io.vertx.core.Vertx;
 import io.vertx.core.http.HttpClient;
 import io.vertx.core.json.JsonObject;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.mutable.MutableObject;
 import org.apache.commons.lang3.tuple.Pair;
 import org.redisson.api.RScoredSortedSet;
@@ -34,12 +39,17 @@ import org.redisson.api.RedissonClient;
 import org.redisson.client.codec.StringCodec;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import javax.annotation.Nullable;
 
 @Slf4j
 public class ApplicationService {
@@ -58,6 +68,8 @@ public class ApplicationService {
     private final int checkSize;
     @Getter
     private final boolean includeCustomApps;
+    // parsed applications for the deployment lookup, invalidated by the resource events
+    private final Cache<String, CachedApplication> cachedApplications;
 
     public ApplicationService(Vertx vertx,
                               HttpClient httpClient,
@@ -79,6 +91,10 @@ public class ApplicationService {
         this.checkDelay = settings.getLong("checkDelay", 300000L);
         this.checkSize = settings.getInteger("checkSize", 64);
         this.includeCustomApps = settings.getBoolean("includeCustomApps", false);
+        this.cachedApplications = CacheBuilder.newBuilder()
+                .maximumSize(settings.getLong("cacheSize", 10000L))
+                .removalListener((RemovalListener<String, CachedApplication>) removal -> removal.getValue().subscription().close())
+                .build();
 
         if (controller.isActive()) {
             long checkPeriod = settings.getLong("checkPeriod", 300000L);
@@ -144,6 +160,136 @@ public class ApplicationService {
         return getApplications(folder, page -> accessService.filterForbidden(context, folder, page));
     }
 
+    /**
+     * Lists a page of the custom applications available to the user: the private ones, then the shared and the public ones.
+     * Only the metadata is listed, the applications themselves are loaded with {@link #loadApplications}.
+     *
+     * @param token - the token of the previous page or null for the first page.
+     * @param limit - the maximum number of applications in the page.
+     */
+    public ApplicationPage listApplications(ProxyContext context, @Nullable String token, int limit) {
+        ApplicationSource source = ApplicationSource.PRIVATE;
+        String cursor = null;
+
+        if (token != null) {
+            int separator = token.indexOf(':');
+            try {
+                source = ApplicationSource.valueOf(token.substring(0, Math.max(separator, 0)).toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid token: " + token);
+            }
+            cursor = StringUtils.defaultIfEmpty(token.substring(separator + 1), null);
+        }
+
+        List<MetadataBase> items = new ArrayList<>();
+
+        while (source != null && items.size() < limit) {
+            ApplicationPage page = switch (source) {
+                case PRIVATE -> listPrivateApplications(context, cursor, limit - items.size());
+                case SHARED -> listSharedApplications(context, cursor, limit - items.size());
+                case PUBLIC -> listPublicApplications(context, cursor, limit - items.size());
+            };
+
+            items.addAll(page.items());
+            cursor = page.nextToken();
+
+            if (cursor == null) {
+                source = source.next();
+            }
+        }
+
+        String nextToken = (source == null) ? null : source.name().toLowerCase() + ":" + Objects.requireNonNullElse(cursor, "");
+        return new ApplicationPage(items, nextToken);
+    }
+
+    private ApplicationPage listPrivateApplications(ProxyContext context, @Nullable String cursor, int limit) {
+        String location = BucketBuilder.buildInitiatorBucket(context);
+        String bucket = encryptionService.encrypt(location);
+
+        ResourceDescriptor folder = ResourceDescriptorFactory.fromDecoded(ResourceTypes.APPLICATION, bucket, location, null);
+        return listFolderApplications(folder, cursor, limit, ignore -> {
+        });
+    }
+
+    private ApplicationPage listSharedApplications(ProxyContext context, @Nullable String cursor, int limit) {
+        String location = BucketBuilder.buildInitiatorBucket(context);
+        String bucket = encryptionService.encrypt(location);
+
+        ListSharedResourcesRequest request = new ListSharedResourcesRequest();
+        request.setResourceTypes(Set.of(ResourceTypes.APPLICATION));
+        request.setLimit(limit);
+        request.setNextToken(cursor);
+
+        ShareService shares = context.getProxy().getShareService();
+        SharedResourcesResponse response = shares.listSharedWithMe(bucket, location, request);
+        List<MetadataBase> items = new ArrayList<>();
+
+        for (MetadataBase meta : response.getResources()) {
+            if (meta instanceof ResourceItemMetadata) {
+                items.add(meta);
+            } else {
+                // the shared folders are rare, so each one is listed at once
+                ResourceDescriptor folder = ResourceDescriptorFactory.fromAnyUrl(meta.getUrl(), encryptionService);
+                String nextToken = null;
+                do {
+                    ApplicationPage page = listFolderApplications(folder, nextToken, PAGE_SIZE, ignore -> {
+                    });
+                    items.addAll(page.items());
+                    nextToken = page.nextToken();
+                } while (nextToken != null);
+            }
+        }
+
+        return new ApplicationPage(items, response.getNextToken());
+    }
+
+    private ApplicationPage listPublicApplications(ProxyContext context, @Nullable String cursor, int limit) {
+        ResourceDescriptor folder = ResourceDescriptorFactory.fromDecoded(ResourceTypes.APPLICATION, ResourceDescriptor.PUBLIC_BUCKET, ResourceDescriptor.PUBLIC_LOCATION, null);
+        AccessService accessService = context.getProxy().getAccessService();
+        return listFolderApplications(folder, cursor, limit, page -> accessService.filterForbidden(context, folder, page));
+    }
+
+    private ApplicationPage listFolderApplications(ResourceDescriptor folder, @Nullable String cursor, int limit, Consumer<ResourceFolderMetadata> filter) {
+        ResourceFolderMetadata page = resourceService.getFolderMetadata(folder, cursor, limit, true);
+        if (page == null) {
+            return new ApplicationPage(List.of(), null);
+        }
+
+        filter.accept(page);
+
+        List<MetadataBase> items = new ArrayList<>();
+        for (MetadataBase meta : page.getItems()) {
+            if (meta.getNodeType() == NodeType.ITEM && meta.getResourceType() == ResourceTypes.APPLICATION) {
+                items.add(meta);
+            }
+        }
+
+        return new ApplicationPage(items, page.getNextToken());
+    }
+
+    /**
+     * Loads the listed applications in parallel on the bulk executor. The applications are taken from the cache if present,
+     * but the loaded ones are not cached, so a listing does not evict the applications cached for the requests.
+     *
+     * @return the applications in the order of the items without the ones deleted since the listing.
+     */
+    public List<Application> loadApplications(List<MetadataBase> items) {
+        Application[] applications = new Application[items.size()];
+        List<Integer> indexes = IntStream.range(0, items.size()).boxed().toList();
+
+        resourceService.forEachParallel(indexes, index -> {
+            ResourceDescriptor resource = ResourceDescriptorFactory.fromAnyUrl(items.get(index).getUrl(), encryptionService);
+            Application application = peekCachedApplication(resource);
+            try {
+                applications[index] = (application == null) ? getApplication(resource).getValue() : application;
+            } catch (ResourceNotFoundException ignore) {
+                // deleted since the listing
+            }
+        });
+
+        return Arrays.stream(applications).filter(Objects::nonNull).toList();
+    }
+
     public Pair<ResourceItemMetadata, Application> getApplication(ResourceDescriptor resource) {
         verifyApplication(resource);
         Pair<ResourceItemMetadata, String> result = resourceService.getResourceWithMetadata(resource);
@@ -162,6 +308,65 @@ public class ApplicationService {
         return Pair.of(meta, application);
     }
 
+    /**
+     * Returns the cached application without blocking. The application must not be changed.
+     *
+     * @return the application or null if it is not cached.
+     */
+    @Nullable
+    public Application peekCachedApplication(ResourceDescriptor resource) {
+        CachedApplication cached = cachedApplications.getIfPresent(resource.getUrl());
+        return (cached == null) ? null : cached.application();
+    }
+
+    /**
+     * Returns the application from the cache or loads and caches it. The application must not be changed.
+     */
+    public Application getCachedApplication(ResourceDescriptor resource) {
+        String url = resource.getUrl();
+        CachedApplication cached = cachedApplications.getIfPresent(url);
+        if (cached != null) {
+            return cached.application();
+        }
+
+        // subscribed before loading, so the changes made meanwhile are not missed
+        AtomicBoolean changed = new AtomicBoolean();
+        AtomicReference<CachedApplication> entry = new AtomicReference<>();
+        ResourceTopic.Subscription subscription = resourceService.subscribeResources(List.of(resource), event -> {
+            CachedApplication current = entry.get();
+            // the event of the same version is skipped
+            if (current == null || event.getAction() == ResourceEvent.Action.DELETE || !Objects.equals(current.etag(), event.getEtag())) {
+                changed.set(true);
+                if (current != null) {
+                    cachedApplications.asMap().remove(url, current);
+                }
+            }
+        });
+
+        CachedApplication loaded;
+        try {
+            Pair<ResourceItemMetadata, Application> result = getApplication(resource);
+            loaded = new CachedApplication(result.getKey().getEtag(), result.getValue(), subscription);
+            entry.set(loaded);
+        } catch (Throwable e) {
+            subscription.close();
+            throw e;
+        }
+
+        if (changed.get()) {
+            subscription.close();
+            return loaded.application();
+        }
+
+        cachedApplications.put(url, loaded);
+        // the change might be received right before caching
+        if (changed.get()) {
+            cachedApplications.asMap().remove(url, loaded);
+        }
+
+        return loaded.application();
+    }
+
     public List<Application> getApplications(ResourceDescriptor resource) {
         Consumer<ResourceFolderMetadata> noop = ignore -> {
         };
@@ -240,6 +445,8 @@ public class ApplicationService {
             return ProxyUtil.convertToString(application);
         });
 
+        // the resource event is delivered asynchronously, so the local cache is invalidated right away
+        cachedApplications.invalidate(resource.getUrl());
         return Pair.of(meta, application);
     }
 
@@ -262,6 +469,7 @@ public class ApplicationService {
             return null;
         });
 
+        cachedApplications.invalidate(resource.getUrl());
         Application application = reference.getValue();
 
         if (isPublicOrReview(resource) && application.getFunction() != null) {
@@ -622,6 +830,26 @@ public class ApplicationService {
         return application != null && application.getFunction() != null && application.getFunction().getStatus().isPending();
     }
 
+    /**
+     * @param items     - the metadata of the applications.
+     * @param nextToken - the token of the next page or null if it is the last page.
+     */
+    public record ApplicationPage(List<MetadataBase> items, @Nullable String nextToken) {
+    }
+
+    private enum ApplicationSource {
+        PRIVATE, SHARED, PUBLIC;
+
+        @Nullable
+        ApplicationSource next() {
+            ApplicationSource[] sources = values();
+            return (ordinal() + 1 < sources.length) ? sources[ordinal() + 1] : null;
+        }
+    }
+
+    private record CachedApplication(String etag, Application application, ResourceTopic.Subscription subscription) {
+    }
+
     private static void verifyApplication(ResourceDescriptor resource) {
         if (resource.isFolder() || resource.getType() != ResourceTypes.APPLICATION) {
             throw new IllegalArgumentException("Invalid application url: " + resource.getUrl());
@@ -4,42 +4,60 @@ import io.vertx.core.Vertx;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.Closeable;
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Sends the heartbeats with a timing wheel: the period is split into the slots and every tick visits a single slot,
+ * so a tick touches only the subscribers due to a heartbeat instead of all of them.
+ */
 @Slf4j
 public class HeartbeatService implements Closeable {
+
+    private static final int WHEEL_SIZE = 64;
+
     private final Vertx vertx;
-    private final long heartbeatPeriod;
     private final long timer;
-    private final ConcurrentMap<Runnable, Long> subscribers = new ConcurrentHashMap<>();
+    private final List<Set<Runnable>> wheel = new ArrayList<>(WHEEL_SIZE);
+    private final ConcurrentMap<Runnable, Set<Runnable>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong ticks = new AtomicLong();
 
     public HeartbeatService(Vertx vertx, long heartbeatPeriod) {
         this.vertx = vertx;
-        this.heartbeatPeriod = heartbeatPeriod;
-        this.timer = vertx.setPeriodic(heartbeatPeriod / 2, ignore -> vertx.executeBlocking(this::sendHeartbeats));
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(ConcurrentHashMap.newKeySet());
+        }
+
+        long tickPeriod = Math.max(1, heartbeatPeriod / WHEEL_SIZE);
+        this.timer = vertx.setPeriodic(tickPeriod, ignore -> vertx.executeBlocking(this::sendHeartbeats));
     }
 
     public void subscribe(Runnable subscriber) {
-        subscribers.put(subscriber, System.currentTimeMillis());
+        // the slot visited last, so the first heartbeat is sent after the whole period
+        Set<Runnable> slot = wheel.get((int) ((ticks.get() + WHEEL_SIZE - 1) % WHEEL_SIZE));
+        if (subscribers.putIfAbsent(subscriber, slot) == null) {
+            slot.add(subscriber);
+        }
     }
 
     public void unsubscribe(Runnable subscriber) {
-        subscribers.remove(subscriber);
+        Set<Runnable> slot = subscribers.remove(subscriber);
+        if (slot != null) {
+            slot.remove(subscriber);
+        }
     }
 
     private Void sendHeartbeats() {
-        long now = System.currentTimeMillis();
-        for (Runnable subscriber : subscribers.keySet()) {
-            Long newValue = subscribers.computeIfPresent(subscriber, (key, previousTime) ->
-                    now - previousTime < heartbeatPeriod ? previousTime : now);
-            if (Objects.equals(newValue, now)) {
-                try {
-                    subscriber.run();
-                } catch (Exception e) {
-                    log.warn("Can't send a heartbeat", e);
-                }
+        Set<Runnable> slot = wheel.get((int) (ticks.getAndIncrement() % WHEEL_SIZE));
+        for (Runnable subscriber : slot) {
+            try {
+                subscriber.run();
+            } catch (Exception e) {
+                log.warn("Can't send a heartbeat", e);
             }
         }
 
@@ -48,7 +66,8 @@ public class HeartbeatService implements Closeable {
 
     @Override
     public void close() {
-        subscribers.clear();
         vertx.cancelTimer(timer);
+        subscribers.clear();
+        wheel.forEach(Set::clear);
     }
 }
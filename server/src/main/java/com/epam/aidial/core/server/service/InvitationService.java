@@ -10,9 +10,15 @@ import com.epam.aidial.core.server.resource.ResourceDescriptor;
 import com.epam.aidial.core.server.resource.ResourceDescriptorFactory;
 import com.epam.aidial.core.server.security.ApiKeyGenerator;
 import com.epam.aidial.core.server.security.EncryptionService;
+import com.epam.aidial.core.server.storage.BlobStorageUtil;
+import com.epam.aidial.core.server.util.EtagHeader;
 import com.epam.aidial.core.server.util.ProxyUtil;
+import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -23,9 +29,15 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
+/**
+ * Keeps the invitations of a user in the shards by the expiration time, so a new invitation rewrites only its shard.
+ * Every shard expires as a whole once its last invitation expires: the shards are registered in a Redis sorted set
+ * by the expiration time and deleted by a periodic sweeper. The invitations written before the shards are cleaned up lazily on read.
+ */
 @Slf4j
 public class InvitationService {
 
@@ -37,29 +49,48 @@ public class InvitationService {
 
     private final ResourceService resourceService;
     private final EncryptionService encryptionService;
+    private final LockService lockService;
+    private final ResourceShards shards;
+    private final RScoredSortedSet<String> expiringShards;
+    private final String sweepLockKey;
     private final int expirationInSeconds;
-
-    public InvitationService(ResourceService resourceService, EncryptionService encryptionService, JsonObject settings) {
+    private final long shardPeriod;
+    private final int sweepSize;
+
+    public InvitationService(Vertx vertx,
+                             RedissonClient redis,
+                             ResourceService resourceService,
+                             EncryptionService encryptionService,
+                             LockService lockService,
+                             String prefix,
+                             JsonObject settings) {
         this.resourceService = resourceService;
         this.encryptionService = encryptionService;
+        this.lockService = lockService;
+        this.shards = new ResourceShards(resourceService, ResourceTypes.INVITATION, INVITATION_RESOURCE_FILENAME);
+        this.expiringShards = redis.getScoredSortedSet(BlobStorageUtil.toStoragePath(prefix, "expiring-invitations"), StringCodec.INSTANCE);
+        this.sweepLockKey = BlobStorageUtil.toStoragePath(prefix, "sweep-invitations");
         this.expirationInSeconds = settings.getInteger("ttlInSeconds", DEFAULT_INVITATION_TTL_IN_SECONDS);
+        this.shardPeriod = settings.getLong("shardPeriod", 86400000L);
+        this.sweepSize = settings.getInteger("sweepSize", 256);
+
+        long sweepPeriod = settings.getLong("sweepPeriod", 300000L);
+        vertx.setPeriodic(sweepPeriod, sweepPeriod, ignore -> vertx.executeBlocking(this::sweepInvitations));
     }
 
     public Invitation createInvitation(String bucket, String location, List<SharedResource> resources) {
-        ResourceDescriptor resource = ResourceDescriptorFactory.fromDecoded(ResourceTypes.INVITATION, bucket, location, INVITATION_RESOURCE_FILENAME);
-        String invitationId = generateInvitationId(resource);
         Instant creationTime = Instant.now();
         Instant expirationTime = Instant.now().plus(expirationInSeconds, ChronoUnit.SECONDS);
+        long shard = expirationTime.toEpochMilli() / shardPeriod;
+        ResourceDescriptor resource = shards.getShard(bucket, location, shard);
+        String invitationId = generateInvitationId(resource);
         Invitation invitation = new Invitation(invitationId, resources, creationTime.toEpochMilli(), expirationTime.toEpochMilli());
 
-        resourceService.computeResource(resource, state -> {
-            InvitationsMap invitations = ProxyUtil.convertToObject(state, InvitationsMap.class);
-            if (invitations == null) {
-                invitations = new InvitationsMap(new HashMap<>());
-            }
-            invitations.getInvitations().put(invitationId, invitation);
-
-            return ProxyUtil.convertToString(invitations);
+        // registered before writing, so the shard is swept even if the write is interrupted
+        expiringShards.add((shard + 1) * shardPeriod, resource.getUrl());
+        computeInvitations(resource, invitations -> {
+            invitations.put(invitationId, invitation);
+            return invitations;
         });
 
         return invitation;
@@ -105,26 +136,38 @@ public class InvitationService {
     }
 
     public InvitationCollection getMyInvitations(String bucket, String location) {
-        ResourceDescriptor resource = ResourceDescriptorFactory.fromDecoded(ResourceTypes.INVITATION, bucket, location, INVITATION_RESOURCE_FILENAME);
-        String state = resourceService.getResource(resource);
-        InvitationsMap invitationMap = ProxyUtil.convertToObject(state, InvitationsMap.class);
-        if (invitationMap == null || invitationMap.getInvitations().isEmpty()) {
-            return EMPTY_INVITATION_COLLECTION;
-        }
-
-        Collection<Invitation> invitations = invitationMap.getInvitations().values();
         Instant currentTime = Instant.now();
-        Set<String> invitationsToEvict = invitations.stream()
-                .filter(invitation -> currentTime.isAfter(Instant.ofEpochMilli(invitation.getExpireAt())))
-                .map(Invitation::getId)
-                .collect(Collectors.toSet());
-
-        if (!invitationsToEvict.isEmpty()) {
-            cleanUpExpiredInvitations(resource, invitationsToEvict);
-            invitationsToEvict.forEach(invitationToEvict -> invitationMap.getInvitations().remove(invitationToEvict));
+        Set<Invitation> result = new HashSet<>();
+
+        for (ResourceDescriptor resource : shards.list(bucket, location)) {
+            Long shard = shards.getShardNumber(resource);
+            if (shard != null && (shard + 1) * shardPeriod <= currentTime.toEpochMilli()) {
+                // expired as a whole and waits for the sweeper
+                continue;
+            }
+
+            InvitationsMap invitationMap = ProxyUtil.convertToObject(resourceService.getResource(resource), InvitationsMap.class);
+            if (invitationMap == null || invitationMap.getInvitations().isEmpty()) {
+                continue;
+            }
+
+            Collection<Invitation> invitations = invitationMap.getInvitations().values();
+            Set<String> invitationsToEvict = invitations.stream()
+                    .filter(invitation -> currentTime.isAfter(Instant.ofEpochMilli(invitation.getExpireAt())))
+                    .map(Invitation::getId)
+                    .collect(Collectors.toSet());
+
+            // the shards are swept as a whole, only the document written before the shards is cleaned up
+            if (!invitationsToEvict.isEmpty() && shard == null) {
+                cleanUpExpiredInvitations(resource, invitationsToEvict);
+            }
+
+            invitations.stream()
+                    .filter(invitation -> !invitationsToEvict.contains(invitation.getId()))
+                    .forEach(result::add);
         }
 
-        return new InvitationCollection(new HashSet<>(invitationMap.getInvitations().values()));
+        return result.isEmpty() ? EMPTY_INVITATION_COLLECTION : new InvitationCollection(result);
     }
 
     public void cleanUpResourceLink(String bucket, String location, ResourceDescriptor resource) {
@@ -133,77 +176,108 @@ public class InvitationService {
 
     public void cleanUpPermissions(
             String bucket, String location, Map<ResourceDescriptor, Set<ResourceAccessType>> permissionsToCleanUp) {
-        ResourceDescriptor resource = ResourceDescriptorFactory.fromDecoded(ResourceTypes.INVITATION, bucket, location, INVITATION_RESOURCE_FILENAME);
-        resourceService.computeResource(resource, state -> {
-            InvitationsMap invitations = ProxyUtil.convertToObject(state, InvitationsMap.class);
-            if (invitations == null) {
-                return null;
-            }
-            Map<String, Invitation> invitationMap = invitations.getInvitations();
-            List<String> invitationsToRemove = new ArrayList<>();
-            Map<String, Set<ResourceAccessType>> linkToPermissions = permissionsToCleanUp.keySet().stream()
-                    .collect(Collectors.toUnmodifiableMap(ResourceDescriptor::getUrl, permissionsToCleanUp::get));
-            for (Invitation invitation : invitationMap.values()) {
-                List<SharedResource> updatedResources = new ArrayList<>();
-                for (SharedResource sharedResource : invitation.getResources()) {
-                    Set<ResourceAccessType> permissions = linkToPermissions.get(sharedResource.url());
-                    if (permissions == null) {
-                        updatedResources.add(sharedResource);
-                    } else {
-                        sharedResource.permissions().removeAll(permissions);
-                        if (!sharedResource.permissions().isEmpty()) {
+        Map<String, Set<ResourceAccessType>> linkToPermissions = permissionsToCleanUp.keySet().stream()
+                .collect(Collectors.toUnmodifiableMap(ResourceDescriptor::getUrl, permissionsToCleanUp::get));
+
+        for (ResourceDescriptor resource : shards.list(bucket, location)) {
+            computeInvitations(resource, invitationMap -> {
+                List<String> invitationsToRemove = new ArrayList<>();
+                for (Invitation invitation : invitationMap.values()) {
+                    List<SharedResource> updatedResources = new ArrayList<>();
+                    for (SharedResource sharedResource : invitation.getResources()) {
+                        Set<ResourceAccessType> permissions = linkToPermissions.get(sharedResource.url());
+                        if (permissions == null) {
                             updatedResources.add(sharedResource);
+                        } else {
+                            sharedResource.permissions().removeAll(permissions);
+                            if (!sharedResource.permissions().isEmpty()) {
+                                updatedResources.add(sharedResource);
+                            }
                         }
                     }
+
+                    if (updatedResources.isEmpty()) {
+                        invitationsToRemove.add(invitation.getId());
+                    } else {
+                        invitation.setResources(updatedResources);
+                    }
                 }
 
-                if (updatedResources.isEmpty()) {
-                    invitationsToRemove.add(invitation.getId());
-                } else {
-                    invitation.setResources(updatedResources);
+                invitationsToRemove.forEach(invitationMap::remove);
+                return invitationMap;
+            });
+        }
+    }
+
+    /**
+     * Moves the links of the invitations from the source resources to the destination ones in one pass over the shards.
+     *
+     * @param resources - the destination resources by the source ones.
+     */
+    public void moveResources(String bucket, String location, Map<ResourceDescriptor, ResourceDescriptor> resources) {
+        if (resources.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> sourceToDestination = resources.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(entry -> entry.getKey().getUrl(), entry -> entry.getValue().getUrl()));
+
+        for (ResourceDescriptor resource : shards.list(bucket, location)) {
+            computeInvitations(resource, invitationMap -> {
+                for (Invitation invitation : invitationMap.values()) {
+                    invitation.getResources().replaceAll(sharedResource -> {
+                        String destinationUrl = sourceToDestination.get(sharedResource.url());
+                        return (destinationUrl == null) ? sharedResource : sharedResource.withUrl(destinationUrl);
+                    });
                 }
-            }
 
-            invitationsToRemove.forEach(invitationMap::remove);
+                return invitationMap;
+            });
+        }
+    }
 
-            return ProxyUtil.convertToString(invitations);
+    private void cleanUpExpiredInvitations(ResourceDescriptor resource, Collection<String> idsToEvict) {
+        computeInvitations(resource, invitationMap -> {
+            idsToEvict.forEach(invitationMap::remove);
+            return invitationMap;
         });
     }
 
-    public void moveResource(String bucket, String location, ResourceDescriptor source, ResourceDescriptor destination) {
-        ResourceDescriptor resource = ResourceDescriptorFactory.fromDecoded(ResourceTypes.INVITATION, bucket, location, INVITATION_RESOURCE_FILENAME);
+    /**
+     * Updates the invitations of the document or shard. The emptied one is deleted.
+     */
+    private void computeInvitations(ResourceDescriptor resource, Function<Map<String, Invitation>, Map<String, Invitation>> fn) {
         resourceService.computeResource(resource, state -> {
             InvitationsMap invitations = ProxyUtil.convertToObject(state, InvitationsMap.class);
-            if (invitations == null) {
-                return null;
-            }
-            Map<String, Invitation> invitationMap = invitations.getInvitations();
-            for (Invitation invitation : invitationMap.values()) {
-                List<SharedResource> invitationResourceLinks = invitation.getResources();
-                Set<SharedResource> toMove = invitationResourceLinks.stream()
-                        .filter(sharedResource -> source.getUrl().equals(sharedResource.url()))
-                        .collect(Collectors.toUnmodifiableSet());
-                for (SharedResource sharedResource : toMove) {
-                    invitationResourceLinks.remove(sharedResource);
-                    invitationResourceLinks.add(sharedResource.withUrl(destination.getUrl()));
-                }
-            }
-
-            return ProxyUtil.convertToString(invitations);
+            Map<String, Invitation> invitationMap = fn.apply((invitations == null) ? new HashMap<>() : invitations.getInvitations());
+            return invitationMap.isEmpty() ? null : ProxyUtil.convertToString(new InvitationsMap(invitationMap));
         });
     }
 
-    private void cleanUpExpiredInvitations(ResourceDescriptor resource, Collection<String> idsToEvict) {
-        resourceService.computeResource(resource, state -> {
-            InvitationsMap invitations = ProxyUtil.convertToObject(state, InvitationsMap.class);
-            if (invitations == null) {
+    private Void sweepInvitations() {
+        // the nodes sweep in turn, so the same shards are not deleted by every node
+        try (var lock = lockService.tryLock(sweepLockKey)) {
+            if (lock == null) {
                 return null;
             }
-            Map<String, Invitation> invitationMap = invitations.getInvitations();
-            idsToEvict.forEach(invitationMap::remove);
 
-            return ProxyUtil.convertToString(invitations);
-        });
+            long now = System.currentTimeMillis();
+
+            for (String url : expiringShards.valueRange(Double.NEGATIVE_INFINITY, true, now, true, 0, sweepSize)) {
+                log.debug("Sweeping expired invitations: {}", url);
+                try {
+                    ResourceDescriptor resource = ResourceDescriptorFactory.fromAnyUrl(url, encryptionService);
+                    resourceService.deleteResource(resource, EtagHeader.ANY);
+                    expiringShards.remove(url);
+                } catch (Throwable e) {
+                    log.warn("Failed to sweep expired invitations: {}", url, e);
+                }
+            }
+        } catch (Throwable e) {
+            log.warn("Failed to sweep expired invitations:", e);
+        }
+
+        return null;
     }
 
     @Nullable
@@ -221,8 +295,11 @@ public class InvitationService {
         }
         String location = parts[0] + ResourceDescriptor.PATH_SEPARATOR + parts[1] + ResourceDescriptor.PATH_SEPARATOR;
         String bucket = encryptionService.encrypt(location);
-        ResourceTypes resourceType = ResourceTypes.of(parts[2]);
-        return ResourceDescriptorFactory.fromDecoded(resourceType, bucket, location, INVITATION_RESOURCE_FILENAME);
+        if (ResourceTypes.of(parts[2]) != ResourceTypes.INVITATION) {
+            return null;
+        }
+
+        return shards.fromName(bucket, location, parts[3]);
     }
 
     private String generateInvitationId(ResourceDescriptor resource) {
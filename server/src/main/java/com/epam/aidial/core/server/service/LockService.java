@@ -1,5 +1,6 @@
 package com.epam.aidial.core.server.service;
 
+import com.epam.aidial.core.server.metric.IoMetrics;
 import com.epam.aidial.core.server.storage.BlobStorageUtil;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -7,6 +8,7 @@ import org.redisson.api.RScript;
 import org.redisson.api.RedissonClient;
 import org.redisson.client.codec.StringCodec;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -18,11 +20,14 @@ import javax.annotation.Nullable;
 
 /**
  * Simple spin-lock implementation which works with Redis as cache. Supports volatile-* eviction policies.
+ * A lock is leased for {@link #LEASE_PERIOD}, the operations which might take longer must renew the lease.
  */
 @Slf4j
 public class LockService {
 
-    private static final long PERIOD = TimeUnit.SECONDS.toMicros(300);
+    public static final Duration LEASE_PERIOD = Duration.ofSeconds(300);
+
+    private static final long PERIOD = TimeUnit.NANOSECONDS.toMicros(LEASE_PERIOD.toNanos());
     private static final long WAIT_MIN = TimeUnit.MILLISECONDS.toNanos(1);
     private static final long WAIT_MAX = TimeUnit.MILLISECONDS.toNanos(128);
 
@@ -38,16 +43,20 @@ public class LockService {
     public Lock lock(String key) {
         String id = id(key);
         long owner = ThreadLocalRandom.current().nextLong();
+        long start = System.nanoTime();
         long ttl = tryLock(id, owner);
         long interval = WAIT_MIN;
+        int attempts = 1;
 
         while (ttl > 0) {
             LockSupport.parkNanos(interval);
             interval = Math.min(2 * interval, Math.min(WAIT_MAX, ttl + 1));
             ttl = tryLock(id, owner);
+            attempts++;
         }
 
-        return () -> unlock(id, owner);
+        IoMetrics.recordLock(System.nanoTime() - start, attempts, true);
+        return new RedisLock(id, owner);
     }
 
     public <T> T underBucketLock(String bucketLocation, Supplier<T> function) {
@@ -58,6 +67,20 @@ public class LockService {
     }
 
     public <T> T underBucketLocks(Collection<String> bucketLocations, Supplier<T> function) {
+        Lock lock = lockBuckets(bucketLocations);
+        try {
+            return function.get();
+        } finally {
+            lock.close();
+        }
+    }
+
+    /**
+     * Takes the locks of the buckets in the same order as {@link #underBucketLocks(Collection, Supplier)}.
+     *
+     * @return the lock which renews and releases all the bucket locks.
+     */
+    public Lock lockBuckets(Collection<String> bucketLocations) {
         List<String> keys = bucketLocations.stream()
                 .map(bucketLocation -> BlobStorageUtil.toStoragePath(prefix, bucketLocation))
                 .distinct()
@@ -71,21 +94,22 @@ public class LockService {
                 Lock lock = lock(key);
                 locks.add(lock);
             }
-
-            return function.get();
-        } finally {
-            for (Lock lock : locks) {
-                lock.close();
-            }
+        } catch (Throwable e) {
+            locks.forEach(Lock::close);
+            throw e;
         }
+
+        return new MultiLock(locks);
     }
 
     @Nullable
     public Lock tryLock(String key) {
         String id = id(key);
         long owner = ThreadLocalRandom.current().nextLong();
+        long start = System.nanoTime();
         long ttl = tryLock(id, owner);
-        return (ttl == 0) ? () -> unlock(id, owner) : null;
+        IoMetrics.recordLock(System.nanoTime() - start, 1, ttl == 0);
+        return (ttl == 0) ? new RedisLock(id, owner) : null;
     }
 
     private long tryLock(String id, long owner) {
@@ -104,6 +128,27 @@ public class LockService {
                         """, RScript.ReturnType.INTEGER, List.of(id), String.valueOf(owner), String.valueOf(PERIOD));
     }
 
+    private boolean renew(String id, long owner) {
+        try {
+            return script.eval(RScript.Mode.READ_WRITE,
+                    """
+                            local owner = redis.call('hget', KEYS[1], 'owner')
+                            
+                            if (owner ~= ARGV[1]) then
+                              return false
+                            end
+                            
+                            local time = redis.call('time')
+                            local now = time[1] * 1000000 + time[2]
+                            redis.call('hset', KEYS[1], 'deadline', now + ARGV[2])
+                            return true
+                            """, RScript.ReturnType.BOOLEAN, List.of(id), String.valueOf(owner), String.valueOf(PERIOD));
+        } catch (Throwable e) {
+            log.warn("Lock service failed to renew: {}", id, e);
+            return false;
+        }
+    }
+
     private void unlock(String id, long owner) {
         boolean ok = tryUnlock(id, owner);
         if (!ok) {
@@ -135,7 +180,54 @@ public class LockService {
     }
 
     public interface Lock extends AutoCloseable {
+        /**
+         * Extends the lease of the lock for another {@link #LEASE_PERIOD}.
+         *
+         * @return false if the lock is not owned anymore, e.g. it expired and was taken by another owner.
+         */
+        boolean renew();
+
         @Override
         void close();
     }
+
+    private class RedisLock implements Lock {
+
+        private final String id;
+        private final long owner;
+
+        RedisLock(String id, long owner) {
+            this.id = id;
+            this.owner = owner;
+        }
+
+        @Override
+        public boolean renew() {
+            return LockService.this.renew(id, owner);
+        }
+
+        @Override
+        public void close() {
+            unlock(id, owner);
+        }
+    }
+
+    private record MultiLock(List<Lock> locks) implements Lock {
+
+        @Override
+        public boolean renew() {
+            boolean renewed = true;
+            for (Lock lock : locks) {
+                renewed &= lock.renew();
+            }
+            return renewed;
+        }
+
+        @Override
+        public void close() {
+            for (Lock lock : locks) {
+                lock.close();
+            }
+        }
+    }
 }
\ No newline at end of file
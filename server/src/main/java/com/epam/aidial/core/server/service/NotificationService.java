@@ -5,51 +5,121 @@ import com.epam.aidial.core.server.data.DeleteNotificationRequest;
 import com.epam.aidial.core.server.data.Notification;
 import com.epam.aidial.core.server.data.ResourceTypes;
 import com.epam.aidial.core.server.resource.ResourceDescriptor;
-import com.epam.aidial.core.server.resource.ResourceDescriptorFactory;
 import com.epam.aidial.core.server.security.EncryptionService;
+import com.epam.aidial.core.server.storage.BlobStorageUtil;
 import com.epam.aidial.core.server.util.BucketBuilder;
+import com.epam.aidial.core.server.util.EtagHeader;
 import com.epam.aidial.core.server.util.ProxyUtil;
 import com.fasterxml.jackson.core.type.TypeReference;
-import lombok.AllArgsConstructor;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
 
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
-
-@AllArgsConstructor
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the notifications of a user in the shards by the expiration time. The shard is encoded in the notification id,
+ * so a delete rewrites only the shards of its notifications. Every shard expires as a whole: the shards are registered
+ * in a Redis sorted set by the expiration time and deleted by a periodic sweeper.
+ * The notifications written before the shards expire by their timestamps and are cleaned up lazily on read.
+ */
 @Slf4j
 public class NotificationService {
 
     private static final String NOTIFICATION_RESOURCE_FILENAME = "notifications";
+    private static final char SHARD_SEPARATOR = ':';
 
     private static final TypeReference<Map<String, Notification>> NOTIFICATIONS_TYPE = new TypeReference<>() {
     };
 
     private final ResourceService resourceService;
     private final EncryptionService encryptionService;
+    private final LockService lockService;
+    private final ResourceShards shards;
+    private final RScoredSortedSet<String> expiringShards;
+    private final String sweepLockKey;
+    private final long expiration;
+    private final long shardPeriod;
+    private final int sweepSize;
+
+    public NotificationService(Vertx vertx,
+                               RedissonClient redis,
+                               ResourceService resourceService,
+                               EncryptionService encryptionService,
+                               LockService lockService,
+                               String prefix,
+                               JsonObject settings) {
+        this.resourceService = resourceService;
+        this.encryptionService = encryptionService;
+        this.lockService = lockService;
+        this.shards = new ResourceShards(resourceService, ResourceTypes.NOTIFICATION, NOTIFICATION_RESOURCE_FILENAME);
+        this.expiringShards = redis.getScoredSortedSet(BlobStorageUtil.toStoragePath(prefix, "expiring-notifications"), StringCodec.INSTANCE);
+        this.sweepLockKey = BlobStorageUtil.toStoragePath(prefix, "sweep-notifications");
+        this.expiration = settings.getLong("ttlInSeconds", 2_592_000L) * 1000;
+        this.shardPeriod = settings.getLong("shardPeriod", 604800000L);
+        this.sweepSize = settings.getInteger("sweepSize", 256);
+
+        long sweepPeriod = settings.getLong("sweepPeriod", 300000L);
+        vertx.setPeriodic(sweepPeriod, sweepPeriod, ignore -> vertx.executeBlocking(this::sweepNotifications));
+    }
 
-
+    /**
+     * Creates the notification. The id of the notification is prefixed with its shard.
+     */
     public Notification createNotification(String bucketName, String bucketLocation, Notification notification) {
-        ResourceDescriptor notificationResource = getNotificationResource(bucketName, bucketLocation);
+        long shard = (System.currentTimeMillis() + expiration) / shardPeriod;
+        ResourceDescriptor resource = shards.getShard(bucketName, bucketLocation, shard);
+        notification.setId(shard + String.valueOf(SHARD_SEPARATOR) + notification.getId());
 
-        resourceService.computeResource(notificationResource, body -> {
-            Map<String, Notification> notifications = decodeNotifications(body);
-            notifications.put(notification.getId(), notification);
-
-            return ProxyUtil.convertToString(notifications);
-        });
+        // registered before writing, so the shard is swept even if the write is interrupted
+        expiringShards.add((shard + 1) * shardPeriod, bucketName + ResourceDescriptor.PATH_SEPARATOR + resource.getName());
+        computeNotifications(resource, notifications -> notifications.put(notification.getId(), notification));
 
         return notification;
     }
 
     public Set<Notification> listNotification(ProxyContext context) {
-        ResourceDescriptor notificationResource = getNotificationResource(context, encryptionService);
-        Map<String, Notification> notifications = decodeNotifications(resourceService.getResource(notificationResource));
+        String bucketLocation = BucketBuilder.buildInitiatorBucket(context);
+        String bucketName = encryptionService.encrypt(bucketLocation);
+        long now = System.currentTimeMillis();
+        Set<Notification> notifications = new TreeSet<>();
+
+        for (ResourceDescriptor resource : shards.list(bucketName, bucketLocation)) {
+            Long shard = shards.getShardNumber(resource);
+            if (shard != null && (shard + 1) * shardPeriod <= now) {
+                // expired as a whole and waits for the sweeper
+                continue;
+            }
+
+            Map<String, Notification> shardNotifications = decodeNotifications(resourceService.getResource(resource));
+
+            // the shards are swept as a whole, only the document written before the shards is cleaned up
+            if (shard == null) {
+                Set<String> expired = shardNotifications.values().stream()
+                        .filter(notification -> notification.getTimestamp() + expiration <= now)
+                        .map(Notification::getId)
+                        .collect(Collectors.toSet());
+
+                if (!expired.isEmpty()) {
+                    computeNotifications(resource, document -> document.keySet().removeAll(expired));
+                    shardNotifications.keySet().removeAll(expired);
+                }
+            }
+
+            notifications.addAll(shardNotifications.values());
+        }
 
-        return new TreeSet<>(notifications.values());
+        return notifications;
     }
 
     public void deleteNotification(ProxyContext context, DeleteNotificationRequest request) {
@@ -57,23 +127,81 @@ public class NotificationService {
         if (ids.isEmpty()) {
             throw new IllegalArgumentException("Notification IDs cannot be empty");
         }
-        ResourceDescriptor notificationResource = getNotificationResource(context, encryptionService);
-        resourceService.computeResource(notificationResource, state -> {
-            Map<String, Notification> notifications = decodeNotifications(state);
-            ids.forEach(notifications::remove);
 
-            return ProxyUtil.convertToString(notifications);
-        });
-    }
-
-    private static ResourceDescriptor getNotificationResource(ProxyContext context, EncryptionService encryptionService) {
         String bucketLocation = BucketBuilder.buildInitiatorBucket(context);
         String bucketName = encryptionService.encrypt(bucketLocation);
-        return getNotificationResource(bucketName, bucketLocation);
+
+        Map<ResourceDescriptor, Set<String>> idsByResource = ids.stream().collect(Collectors.groupingBy(
+                id -> getNotificationResource(bucketName, bucketLocation, id), Collectors.toCollection(HashSet::new)));
+
+        idsByResource.forEach((resource, toDelete) ->
+                computeNotifications(resource, notifications -> notifications.keySet().removeAll(toDelete)));
     }
 
-    private static ResourceDescriptor getNotificationResource(String bucketName, String bucketLocation) {
-        return ResourceDescriptorFactory.fromDecoded(ResourceTypes.NOTIFICATION, bucketName, bucketLocation, NOTIFICATION_RESOURCE_FILENAME);
+    /**
+     * @return the shard of the notification by its id or the whole document if the id has no shard.
+     */
+    private ResourceDescriptor getNotificationResource(String bucketName, String bucketLocation, String id) {
+        int separator = id.indexOf(SHARD_SEPARATOR);
+        if (separator > 0) {
+            try {
+                long shard = Long.parseLong(id.substring(0, separator));
+                if (shard >= 0) {
+                    return shards.getShard(bucketName, bucketLocation, shard);
+                }
+            } catch (NumberFormatException ignore) {
+                // the id of the notification written before the shards
+            }
+        }
+
+        return shards.getDocument(bucketName, bucketLocation);
+    }
+
+    /**
+     * Updates the notifications of the document or shard. The emptied one is deleted.
+     */
+    private void computeNotifications(ResourceDescriptor notificationResource, Consumer<Map<String, Notification>> fn) {
+        resourceService.computeResource(notificationResource, body -> {
+            Map<String, Notification> notifications = decodeNotifications(body);
+            fn.accept(notifications);
+
+            return notifications.isEmpty() ? null : ProxyUtil.convertToString(notifications);
+        });
+    }
+
+    private Void sweepNotifications() {
+        // the nodes sweep in turn, so the same shards are not deleted by every node
+        try (var lock = lockService.tryLock(sweepLockKey)) {
+            if (lock == null) {
+                return null;
+            }
+
+            long now = System.currentTimeMillis();
+
+            // the shards are registered as "<bucket>/<shard name>", since the notification urls are not resolved
+            for (String shard : expiringShards.valueRange(Double.NEGATIVE_INFINITY, true, now, true, 0, sweepSize)) {
+                log.debug("Sweeping expired notifications: {}", shard);
+                try {
+                    int separator = shard.indexOf(ResourceDescriptor.PATH_SEPARATOR);
+                    String bucketName = shard.substring(0, separator);
+                    String bucketLocation = encryptionService.decrypt(bucketName);
+                    ResourceDescriptor resource = (bucketLocation == null)
+                            ? null : shards.fromName(bucketName, bucketLocation, shard.substring(separator + 1));
+
+                    if (resource != null) {
+                        resourceService.deleteResource(resource, EtagHeader.ANY);
+                    }
+
+                    expiringShards.remove(shard);
+                } catch (Throwable e) {
+                    log.warn("Failed to sweep expired notifications: {}", shard, e);
+                }
+            }
+        } catch (Throwable e) {
+            log.warn("Failed to sweep expired notifications:", e);
+        }
+
+        return null;
     }
 
     private static Map<String, Notification> decodeNotifications(String json) {
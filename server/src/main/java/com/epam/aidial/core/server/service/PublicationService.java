@@ -24,7 +24,9 @@ import com.epam.aidial.core.server.util.UrlUtil;
 import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.mutable.MutableObject;
+import org.apache.commons.lang3.tuple.Pair;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -212,6 +214,15 @@ public class PublicationService {
 
     @Nullable
     public Publication approvePublication(ResourceDescriptor resource) {
+        return approvePublication(resource, () -> {
+        });
+    }
+
+    /**
+     * @param progress - the callback to report each copied or deleted resource to.
+     */
+    @Nullable
+    public Publication approvePublication(ResourceDescriptor resource, Runnable progress) {
         Publication publication = getPublication(resource);
         if (publication.getStatus() != Publication.Status.PENDING) {
             throw new ResourceNotFoundException("Publication is already finalized: " + resource.getUrl());
@@ -249,9 +260,9 @@ public class PublicationService {
 
         ruleService.storeRules(publication);
 
-        copyReviewToTargetResources(resourcesToAdd);
-        deleteReviewResources(resourcesToAdd);
-        deletePublicResources(resourcesToDelete);
+        copyReviewToTargetResources(resourcesToAdd, progress);
+        deleteReviewResources(resourcesToAdd, progress);
+        deletePublicResources(resourcesToDelete, progress);
 
         String notificationMessage = "Your request has been approved by admin";
         Notification notification = Notification.getPublicationNotification(resource.getUrl(), notificationMessage);
@@ -510,101 +521,97 @@ public class PublicationService {
     }
 
     private void copySourceToReviewResources(List<Publication.Resource> resources) {
-        Map<String, String> replacementLinks = new HashMap<>();
-
-        for (Publication.Resource resource : resources) {
-            String sourceUrl = resource.getSourceUrl();
-            String reviewUrl = resource.getReviewUrl();
-
-            ResourceDescriptor from = ResourceDescriptorFactory.fromPrivateUrl(sourceUrl, encryption);
-            ResourceDescriptor to = ResourceDescriptorFactory.fromPrivateUrl(reviewUrl, encryption);
-
-            verifyResourceType(from);
+        List<Pair<ResourceDescriptor, ResourceDescriptor>> copies = resources.stream()
+                .map(resource -> Pair.of(
+                        ResourceDescriptorFactory.fromPrivateUrl(resource.getSourceUrl(), encryption),
+                        ResourceDescriptorFactory.fromPrivateUrl(resource.getReviewUrl(), encryption)))
+                .toList();
 
-            if (from.getType() == ResourceTypes.FILE) {
-                String decodedUrl = UrlUtil.decodePath(from.getUrl());
-                replacementLinks.put(decodedUrl, to.getUrl());
-            }
-        }
+        copyResources(copies, () -> {
+        });
+    }
 
-        for (Publication.Resource resource : resources) {
-            String sourceUrl = resource.getSourceUrl();
-            String reviewUrl = resource.getReviewUrl();
-
-            ResourceDescriptor from = ResourceDescriptorFactory.fromPrivateUrl(sourceUrl, encryption);
-            ResourceDescriptor to = ResourceDescriptorFactory.fromPrivateUrl(reviewUrl, encryption);
-
-            if (from.getType() == ResourceTypes.APPLICATION) {
-                applicationService.copyApplication(from, to, false, app -> {
-                    app.setReference(ApplicationUtil.generateReference());
-                    app.setIconUrl(replaceLink(replacementLinks, app.getIconUrl()));
-                });
-            } else if (!resourceService.copyResource(from, to)) {
-                throw new IllegalStateException("Can't copy source resource from: " + from.getUrl() + " to review: " + to.getUrl());
-            }
+    private void copyReviewToTargetResources(List<Publication.Resource> resources, Runnable progress) {
+        List<Pair<ResourceDescriptor, ResourceDescriptor>> copies = resources.stream()
+                .map(resource -> Pair.of(
+                        ResourceDescriptorFactory.fromPrivateUrl(resource.getReviewUrl(), encryption),
+                        ResourceDescriptorFactory.fromPublicUrl(resource.getTargetUrl())))
+                .toList();
 
-            if (from.getType() == ResourceTypes.CONVERSATION) {
-                this.resourceService.computeResource(to, body -> PublicationUtil.replaceConversationLinks(body, to, replacementLinks));
-            }
-        }
+        copyResources(copies, progress);
     }
 
-    private void copyReviewToTargetResources(List<Publication.Resource> resources) {
+    /**
+     * Copies the resources in parallel and replaces the links to the copied files.
+     * Every conversation is written once with the links already replaced.
+     */
+    private void copyResources(List<Pair<ResourceDescriptor, ResourceDescriptor>> copies, Runnable progress) {
         Map<String, String> replacementLinks = new HashMap<>();
 
-        for (Publication.Resource resource : resources) {
-            String reviewUrl = resource.getReviewUrl();
-            String targetUrl = resource.getTargetUrl();
-
-            ResourceDescriptor from = ResourceDescriptorFactory.fromPrivateUrl(reviewUrl, encryption);
-            ResourceDescriptor to = ResourceDescriptorFactory.fromPublicUrl(targetUrl);
-
+        for (Pair<ResourceDescriptor, ResourceDescriptor> copy : copies) {
+            ResourceDescriptor from = copy.getLeft();
             verifyResourceType(from);
 
             if (from.getType() == ResourceTypes.FILE) {
                 String decodedUrl = UrlUtil.decodePath(from.getUrl());
-                replacementLinks.put(decodedUrl, to.getUrl());
+                replacementLinks.put(decodedUrl, copy.getRight().getUrl());
             }
         }
 
-        for (Publication.Resource resource : resources) {
-            String reviewUrl = resource.getReviewUrl();
-            String targetUrl = resource.getTargetUrl();
-
-            ResourceDescriptor from = ResourceDescriptorFactory.fromPrivateUrl(reviewUrl, encryption);
-            ResourceDescriptor to = ResourceDescriptorFactory.fromPublicUrl(targetUrl);
-
-            if (from.getType() == ResourceTypes.APPLICATION) {
-                applicationService.copyApplication(from, to, false, app -> {
-                    app.setReference(ApplicationUtil.generateReference());
-                    app.setIconUrl(replaceLink(replacementLinks, app.getIconUrl()));
-                });
-            } else if (!resourceService.copyResource(from, to)) {
-                throw new IllegalStateException("Can't copy source resource from: " + from.getUrl() + " to review: " + to.getUrl());
-            }
+        resourceService.forEachParallel(copies, copy -> {
+            copyResource(copy.getLeft(), copy.getRight(), replacementLinks);
+            progress.run();
+        });
+    }
 
-            if (from.getType() == ResourceTypes.CONVERSATION) {
-                resourceService.computeResource(to, body -> PublicationUtil.replaceConversationLinks(body, to, replacementLinks));
+    private void copyResource(ResourceDescriptor from, ResourceDescriptor to, Map<String, String> replacementLinks) {
+        if (from.getType() == ResourceTypes.APPLICATION) {
+            applicationService.copyApplication(from, to, false, app -> {
+                app.setReference(ApplicationUtil.generateReference());
+                app.setIconUrl(replaceLink(replacementLinks, app.getIconUrl()));
+            });
+        } else if (from.getType() == ResourceTypes.CONVERSATION) {
+            boolean copied = resourceService.copyResource(from, to,
+                    body -> PublicationUtil.replaceConversationLinks(body, to, replacementLinks));
+            if (!copied) {
+                throw new IllegalStateException("Can't copy resource from: " + from.getUrl() + " to: " + to.getUrl());
             }
+        } else if (!resourceService.copyResource(from, to)) {
+            throw new IllegalStateException("Can't copy resource from: " + from.getUrl() + " to: " + to.getUrl());
         }
     }
 
     private void deleteReviewResources(List<Publication.Resource> resources) {
+        deleteReviewResources(resources, () -> {
+        });
+    }
+
+    private void deleteReviewResources(List<Publication.Resource> resources, Runnable progress) {
+        List<ResourceDescriptor> descriptors = new ArrayList<>();
         for (Publication.Resource resource : resources) {
-            String url = resource.getReviewUrl();
-            ResourceDescriptor descriptor = ResourceDescriptorFactory.fromPrivateUrl(url, encryption);
+            ResourceDescriptor descriptor = ResourceDescriptorFactory.fromPrivateUrl(resource.getReviewUrl(), encryption);
             verifyResourceType(descriptor);
-            resourceService.deleteResource(descriptor, EtagHeader.ANY);
+            descriptors.add(descriptor);
         }
+
+        resourceService.forEachParallel(descriptors, descriptor -> {
+            resourceService.deleteResource(descriptor, EtagHeader.ANY);
+            progress.run();
+        });
     }
 
-    private void deletePublicResources(List<Publication.Resource> resources) {
+    private void deletePublicResources(List<Publication.Resource> resources, Runnable progress) {
+        List<ResourceDescriptor> descriptors = new ArrayList<>();
         for (Publication.Resource resource : resources) {
-            String url = resource.getTargetUrl();
-            ResourceDescriptor descriptor = ResourceDescriptorFactory.fromPublicUrl(url);
+            ResourceDescriptor descriptor = ResourceDescriptorFactory.fromPublicUrl(resource.getTargetUrl());
             verifyResourceType(descriptor);
-            resourceService.deleteResource(descriptor, EtagHeader.ANY);
+            descriptors.add(descriptor);
         }
+
+        resourceService.forEachParallel(descriptors, descriptor -> {
+            resourceService.deleteResource(descriptor, EtagHeader.ANY);
+            progress.run();
+        });
     }
 
     private void verifyResourceType(ResourceDescriptor descriptor) {
@@ -0,0 +1,117 @@
+package com.epam.aidial.core.server.service;
+
+import com.epam.aidial.core.server.util.MetricUtil;
+import io.micrometer.core.instrument.Timer;
+import io.vertx.core.Future;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the startup phases and tells whether the server is ready to serve the traffic.
+ * Unlike the health check, the server is ready only when it is started and the warm-ups are completed,
+ * so the traffic is not routed to the instance which is still cold.
+ * The failed warm-ups are logged and do not block the readiness.
+ */
+@Slf4j
+public class ReadinessService {
+
+    public static final String STARTUP_NAME = "aidial.startup";
+
+    private final long start = System.nanoTime();
+    private final Map<String, Long> timings = new LinkedHashMap<>();
+    private final List<Future<?>> warmUps = new ArrayList<>();
+    // the metrics registry is set up during the startup, so the timings are exported once started
+    private boolean reported;
+    private volatile boolean ready;
+
+    public <T> T phase(String name, Callable<T> task) throws Exception {
+        long phaseStart = System.nanoTime();
+        try {
+            return task.call();
+        } finally {
+            record(name, System.nanoTime() - phaseStart);
+        }
+    }
+
+    public <T> CompletableFuture<T> phaseAsync(String name, Callable<T> task, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return phase(name, task);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Registers the warm-up the readiness waits for. Must be called before {@link #started()}.
+     */
+    public void warmUp(String name, Future<?> warmUp) {
+        long warmUpStart = System.nanoTime();
+        warmUps.add(warmUp.andThen(result -> {
+            record(name, System.nanoTime() - warmUpStart);
+            if (result.failed()) {
+                log.warn("Warm-up {} failed: {}", name, result.cause().getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Reports the startup timings and becomes ready once the warm-ups are completed.
+     */
+    public void started() {
+        long startup = System.nanoTime() - start;
+        record("total", startup);
+
+        synchronized (timings) {
+            reported = true;
+            timings.forEach(ReadinessService::report);
+        }
+
+        log.info("Startup took {} ms, phases: {}", TimeUnit.NANOSECONDS.toMillis(startup), timings());
+
+        Future.join(warmUps).onComplete(ignore -> {
+            ready = true;
+            log.info("Ready in {} ms, phases: {}", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), timings());
+        });
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void record(String phase, long nanos) {
+        synchronized (timings) {
+            timings.put(phase, nanos);
+            if (reported) {
+                report(phase, nanos);
+            }
+        }
+    }
+
+    private static void report(String phase, long nanos) {
+        Timer.builder(STARTUP_NAME)
+                .description("Duration of the startup phases")
+                .tag("phase", phase)
+                .register(MetricUtil.registry())
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private String timings() {
+        StringBuilder builder = new StringBuilder();
+        synchronized (timings) {
+            timings.forEach((phase, nanos) -> builder.append(builder.isEmpty() ? "" : ", ")
+                    .append(phase).append('=').append(TimeUnit.NANOSECONDS.toMillis(nanos)).append(" ms"));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,365 @@
+package com.epam.aidial.core.server.service;
+
+import com.epam.aidial.core.server.data.ResourceTypes;
+import com.epam.aidial.core.server.resource.ResourceDescriptor;
+import com.epam.aidial.core.server.storage.BlobStorage;
+import com.epam.aidial.core.server.storage.BlobStorageUtil;
+import com.epam.aidial.core.server.util.ProxyUtil;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.PageSet;
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.domain.StorageType;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+
+/**
+ * Listing index of resource folders. Keeps one lexicographically ordered sorted set per bucket resource root,
+ * e.g. Users/user/conversations/, with the relative paths of all items and their listing metadata.
+ * So any folder can be listed in O(page) with range queries instead of object store LIST calls.
+ *
+ * <p>The index is built from the blob store in background on the first listing, updated on every change
+ * and rebuilt once it expires, which reconciles it with the blob store.
+ * Listings fall back to the blob store until the index is ready.
+ * Only the types listed as folders are indexed, the other types are always listed from the blob store.
+ */
+@Slf4j
+public class ResourceIndex {
+
+    private static final String LIST_SCRIPT = """
+            if not redis.call('zscore', KEYS[1], '\\0ready') then
+              return false
+            end
+
+            local prefix = ARGV[1]
+            local token = ARGV[2]
+            local limit = tonumber(ARGV[3])
+            local recursive = ARGV[4] == '1'
+            local min
+
+            if token == '' then
+              min = (prefix == '') and '(\\0\\255' or ('[' .. prefix)
+            elseif string.sub(token, -1) == '/' then
+              min = '(' .. token .. '\\255'
+            else
+              min = '(' .. token .. '\\0\\255'
+            end
+
+            local max = '[' .. prefix .. '\\255'
+            local result = {}
+            local count = 0
+
+            while count < limit do
+              local members = redis.call('zrangebylex', KEYS[1], min, max, 'LIMIT', 0, limit - count)
+              if #members == 0 then
+                break
+              end
+
+              for _, member in ipairs(members) do
+                local separator = string.find(member, '\\0', 1, true)
+                local path = string.sub(member, 1, separator - 1)
+                local slash = (not recursive) and string.find(path, '/', #prefix + 1, true)
+                count = count + 1
+
+                if slash then
+                  local folder = string.sub(path, 1, slash)
+                  table.insert(result, folder)
+                  table.insert(result, '')
+                  min = '(' .. folder .. '\\255'
+                  break
+                end
+
+                table.insert(result, path)
+                table.insert(result, string.sub(member, separator + 1))
+                min = '(' .. member
+              end
+            end
+
+            return result
+            """;
+
+    private static final String UPDATE_SCRIPT = """
+            local ready = redis.call('zscore', KEYS[1], '\\0ready')
+            local building = redis.call('zscore', KEYS[1], '\\0building')
+
+            if not ready and not building then
+              return 0
+            end
+
+            local members = redis.call('zrangebylex', KEYS[1], '[' .. ARGV[1] .. '\\0', '[' .. ARGV[1] .. '\\0\\255')
+            for _, member in ipairs(members) do
+              redis.call('zrem', KEYS[1], member)
+            end
+
+            if ARGV[2] ~= '' then
+              redis.call('zadd', KEYS[1], 0, ARGV[1] .. '\\0' .. ARGV[2])
+              if building then
+                redis.call('zrem', KEYS[1], '\\0deleted\\0' .. ARGV[1])
+              end
+            elseif building then
+              redis.call('zadd', KEYS[1], 0, '\\0deleted\\0' .. ARGV[1])
+            end
+
+            return 1
+            """;
+
+    private static final String BUILD_START_SCRIPT = """
+            if redis.call('zscore', KEYS[1], '\\0ready') then
+              return 0
+            end
+
+            redis.call('del', KEYS[1])
+            redis.call('zadd', KEYS[1], 0, '\\0building')
+            redis.call('pexpire', KEYS[1], ARGV[1])
+            return 1
+            """;
+
+    private static final String BUILD_PAGE_SCRIPT = """
+            if not redis.call('zscore', KEYS[1], '\\0building') then
+              return 0
+            end
+
+            for i = 1, #ARGV, 2 do
+              local path = ARGV[i]
+              if not redis.call('zscore', KEYS[1], '\\0deleted\\0' .. path) then
+                local members = redis.call('zrangebylex', KEYS[1], '[' .. path .. '\\0', '[' .. path .. '\\0\\255', 'LIMIT', 0, 1)
+                if #members == 0 then
+                  redis.call('zadd', KEYS[1], 0, path .. '\\0' .. ARGV[i + 1])
+                end
+              end
+            end
+
+            return 1
+            """;
+
+    private static final String BUILD_FINISH_SCRIPT = """
+            if not redis.call('zscore', KEYS[1], '\\0building') then
+              return 0
+            end
+
+            redis.call('zremrangebylex', KEYS[1], '[\\0', '[\\0\\255')
+            redis.call('zadd', KEYS[1], 0, '\\0ready')
+            redis.call('pexpire', KEYS[1], ARGV[1])
+            return 1
+            """;
+
+    private static final int BUILD_PAGE_SIZE = 1000;
+
+    private static final Set<ResourceTypes> INDEXED_TYPES = Set.of(
+            ResourceTypes.FILE, ResourceTypes.CONVERSATION, ResourceTypes.PROMPT, ResourceTypes.APPLICATION,
+            ResourceTypes.PUBLICATION, ResourceTypes.INVITATION, ResourceTypes.NOTIFICATION);
+
+    private final RScript script;
+    private final BlobStorage blobStore;
+    private final LockService lockService;
+    private final String prefix;
+    private final long expiration;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final TimerService.Timer buildTimer;
+
+    /**
+     * @param expiration  - expiration in milliseconds for an index, the index is rebuilt from the blob store after that.
+     * @param buildPeriod - period in milliseconds, how frequently check for indexes to build.
+     */
+    public ResourceIndex(TimerService timerService,
+                         RedissonClient redis,
+                         BlobStorage blobStore,
+                         LockService lockService,
+                         String prefix,
+                         long expiration,
+                         long buildPeriod) {
+        this.script = redis.getScript(StringCodec.INSTANCE);
+        this.blobStore = blobStore;
+        this.lockService = lockService;
+        this.prefix = prefix;
+        this.expiration = expiration;
+        this.buildTimer = timerService.scheduleWithFixedDelay(buildPeriod, buildPeriod, this::build);
+    }
+
+    @SneakyThrows
+    public void close() {
+        buildTimer.close();
+    }
+
+    /**
+     * Lists the folder from the index.
+     *
+     * @param token - the storage path of the last item from the previous page, the same as blob store markers.
+     * @return the page or null if the type is not indexed or the index is not ready yet. The index is scheduled to build then.
+     */
+    @Nullable
+    public Page list(ResourceDescriptor folder, @Nullable String token, int limit, boolean recursive) {
+        if (!isIndexed(folder)) {
+            return null;
+        }
+
+        String root = root(folder);
+        String folderPath = folder.getAbsoluteFilePath().substring(root.length());
+        String rootStoragePath = BlobStorageUtil.toStoragePath(prefix, root);
+
+        if (token != null && !token.startsWith(rootStoragePath)) {
+            return null;
+        }
+
+        String after = (token == null) ? "" : token.substring(rootStoragePath.length());
+        List<String> result = script.eval(RScript.Mode.READ_ONLY, LIST_SCRIPT, RScript.ReturnType.MULTI,
+                List.of(key(root)), folderPath, after, String.valueOf(limit + 1), recursive ? "1" : "0");
+
+        if (result == null) {
+            pending.add(root);
+            return null;
+        }
+
+        List<Item> items = new ArrayList<>(result.size() / 2);
+        for (int i = 0; i < result.size() && items.size() < limit; i += 2) {
+            String path = result.get(i);
+            String entry = result.get(i + 1);
+            items.add(new Item(root + path, entry.isEmpty() ? null : ProxyUtil.convertToObject(entry, Entry.class)));
+        }
+
+        String nextToken = (result.size() / 2 > limit)
+                ? BlobStorageUtil.toStoragePath(prefix, items.get(items.size() - 1).path())
+                : null;
+
+        return new Page(items, nextToken);
+    }
+
+    /**
+     * Puts the item into the index if the index is built or being built.
+     *
+     * @param entry - listing metadata of the item or null if the item is deleted.
+     */
+    public void update(ResourceDescriptor item, @Nullable Entry entry) {
+        if (!isIndexed(item)) {
+            return;
+        }
+
+        String root = root(item);
+        String path = item.getAbsoluteFilePath().substring(root.length());
+        String value = (entry == null) ? "" : ProxyUtil.convertToString(entry);
+
+        try {
+            script.eval(RScript.Mode.READ_WRITE, UPDATE_SCRIPT, RScript.ReturnType.INTEGER,
+                    List.of(key(root)), path, value);
+        } catch (Throwable e) {
+            // the index is expired to be rebuilt from the blob store, because it might miss the update
+            log.warn("Failed to update resource index: {}", item.getUrl(), e);
+            script.eval(RScript.Mode.READ_WRITE, "return redis.call('del', KEYS[1])", RScript.ReturnType.INTEGER, List.of(key(root)));
+        }
+    }
+
+    private void build() {
+        for (String root : pending) {
+            pending.remove(root);
+            String key = key(root);
+
+            try (var lock = lockService.tryLock(key)) {
+                if (lock == null) {
+                    continue;
+                }
+
+                build(root, key);
+            } catch (Throwable e) {
+                log.warn("Failed to build resource index: {}", root, e);
+            }
+        }
+    }
+
+    private void build(String root, String key) {
+        log.debug("Building resource index: {}", root);
+        String expire = String.valueOf(expiration);
+        long started = script.eval(RScript.Mode.READ_WRITE, BUILD_START_SCRIPT, RScript.ReturnType.INTEGER, List.of(key), expire);
+
+        if (started == 0) {
+            log.debug("Resource index is already built: {}", root);
+            return;
+        }
+
+        String marker = null;
+        do {
+            PageSet<? extends StorageMetadata> set = blobStore.list(root, marker, BUILD_PAGE_SIZE, true);
+            List<Object> values = new ArrayList<>();
+
+            for (StorageMetadata meta : set) {
+                if (meta.getType() == StorageType.BLOB) {
+                    values.add(meta.getName().substring(root.length()));
+                    values.add(ProxyUtil.convertToString(Entry.fromStorage(meta)));
+                }
+            }
+
+            if (!values.isEmpty()) {
+                long built = script.eval(RScript.Mode.READ_WRITE, BUILD_PAGE_SCRIPT, RScript.ReturnType.INTEGER,
+                        List.of(key), values.toArray());
+
+                if (built == 0) {
+                    log.warn("Resource index is evicted while building: {}", root);
+                    return;
+                }
+            }
+
+            marker = set.getNextMarker();
+        } while (marker != null);
+
+        script.eval(RScript.Mode.READ_WRITE, BUILD_FINISH_SCRIPT, RScript.ReturnType.INTEGER, List.of(key), expire);
+        log.debug("Built resource index: {}", root);
+    }
+
+    private static boolean isIndexed(ResourceDescriptor descriptor) {
+        return INDEXED_TYPES.contains(descriptor.getType());
+    }
+
+    private String key(String root) {
+        return "index:" + BlobStorageUtil.toStoragePath(prefix, root);
+    }
+
+    private static String root(ResourceDescriptor descriptor) {
+        return descriptor.getBucketLocation() + descriptor.getType().group() + ResourceDescriptor.PATH_SEPARATOR;
+    }
+
+    /**
+     * @param path  - absolute path of the item, ends with the path separator for folders.
+     * @param entry - listing metadata of the item or null for folders.
+     */
+    public record Item(String path, @Nullable Entry entry) {
+    }
+
+    public record Page(List<Item> items, @Nullable String nextToken) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Entry(Long createdAt, Long updatedAt, Long contentLength, String contentType) {
+
+        public static Entry fromStorage(StorageMetadata meta) {
+            Map<String, String> metadata = meta.getUserMetadata();
+            Long createdAt = null;
+            Long updatedAt = null;
+
+            if (metadata != null) {
+                createdAt = metadata.containsKey(ResourceService.CREATED_AT_ATTRIBUTE)
+                        ? Long.parseLong(metadata.get(ResourceService.CREATED_AT_ATTRIBUTE)) : null;
+                updatedAt = metadata.containsKey(ResourceService.UPDATED_AT_ATTRIBUTE)
+                        ? Long.parseLong(metadata.get(ResourceService.UPDATED_AT_ATTRIBUTE)) : null;
+            }
+
+            if (createdAt == null && meta.getCreationDate() != null) {
+                createdAt = meta.getCreationDate().getTime();
+            }
+
+            if (updatedAt == null && meta.getLastModified() != null) {
+                updatedAt = meta.getLastModified().getTime();
+            }
+
+            return new Entry(createdAt, updatedAt, meta.getSize(), BlobStorage.resolveContentType((BlobMetadata) meta));
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.epam.aidial.core.server.service;
+
+import com.epam.aidial.core.server.data.Notification;
+import com.epam.aidial.core.server.data.ResourceJob;
+import com.epam.aidial.core.server.storage.BlobStorageUtil;
+import com.epam.aidial.core.server.util.HttpException;
+import com.epam.aidial.core.server.util.HttpStatus;
+import com.epam.aidial.core.server.util.ProxyUtil;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.vertx.core.json.JsonObject;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+
+/**
+ * Runs resource operations in background and keeps their progress in Redis, so any instance can report it.
+ * The initiator is notified once the operation is completed or failed.
+ * The jobs run on a bounded pool with a bounded queue and a bucket can have a limited number of jobs queued or running,
+ * a job over the limits is rejected with 429.
+ * A job holds the locks of its buckets till it is completed and renews their leases, because it might outlive the lease period.
+ * The job fails at its next processed resource once a lease is lost, so it does not interleave with another writer.
+ */
+@Slf4j
+public class ResourceJobService implements AutoCloseable {
+
+    private static final long RENEWAL_PERIOD = LockService.LEASE_PERIOD.toMillis() / 3;
+
+    private final RedissonClient redis;
+    private final NotificationService notificationService;
+    private final LockService lockService;
+    private final TimerService timerService;
+    private final String prefix;
+    private final Duration expiration;
+    private final int progressPeriod;
+    private final int maxBucketJobs;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Integer> bucketJobs = new ConcurrentHashMap<>();
+
+    public ResourceJobService(RedissonClient redis, NotificationService notificationService, LockService lockService,
+                              TimerService timerService, JsonObject settings, String prefix) {
+        this(redis, notificationService, lockService, timerService, prefix,
+                settings.getLong("jobExpiration", 86400000L),
+                settings.getInteger("jobProgressPeriod", 100),
+                settings.getInteger("jobParallelism", 4),
+                settings.getInteger("jobQueueSize", 64),
+                settings.getInteger("jobsPerBucket", 2));
+    }
+
+    /**
+     * @param expiration     - expiration in milliseconds for a job to keep after it is finished.
+     * @param progressPeriod - how many processed resources to save the progress of a job after.
+     * @param parallelism    - how many jobs run at the same time.
+     * @param queueSize      - how many jobs wait to run.
+     * @param maxBucketJobs  - how many jobs a bucket can have queued or running at the same time.
+     */
+    public ResourceJobService(RedissonClient redis, NotificationService notificationService, LockService lockService,
+                              TimerService timerService, String prefix,
+                              long expiration, int progressPeriod, int parallelism, int queueSize, int maxBucketJobs) {
+        this.redis = redis;
+        this.notificationService = notificationService;
+        this.lockService = lockService;
+        this.timerService = timerService;
+        this.prefix = prefix;
+        this.expiration = Duration.ofMillis(expiration);
+        this.progressPeriod = progressPeriod;
+        this.maxBucketJobs = maxBucketJobs;
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(queueSize),
+                new ThreadFactoryBuilder().setNameFormat("resource-job-%d").setDaemon(true).build());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Starts the job in background.
+     *
+     * @param lockedBuckets - the locations of the buckets to lock for the job.
+     * @param task          - the operation, accepts a callback to report each processed resource to.
+     * @return the started job.
+     * @throws HttpException with 429 if the bucket has too many jobs or the queue is full.
+     */
+    public ResourceJob start(String bucketName, String bucketLocation, ResourceJob.Operation operation,
+                             String sourceUrl, @Nullable String destinationUrl, Collection<String> lockedBuckets,
+                             Consumer<Runnable> task) {
+        ResourceJob job = new ResourceJob()
+                .setId(UUID.randomUUID().toString())
+                .setBucket(bucketName)
+                .setOperation(operation)
+                .setStatus(ResourceJob.Status.RUNNING)
+                .setSourceUrl(sourceUrl)
+                .setDestinationUrl(destinationUrl)
+                .setCreatedAt(System.currentTimeMillis());
+
+        if (!acquire(bucketName)) {
+            throw new HttpException(HttpStatus.TOO_MANY_REQUESTS, "Too many resource jobs are running for the bucket");
+        }
+
+        save(job);
+        // the running job is updated in background, so the caller gets its own copy
+        ResourceJob running = ProxyUtil.convertToObject(ProxyUtil.convertToString(job), ResourceJob.class);
+
+        try {
+            executor.execute(() -> {
+                try {
+                    run(running, bucketLocation, lockedBuckets, task);
+                } finally {
+                    release(bucketName);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            release(bucketName);
+            bucket(job.getId()).delete();
+            throw new HttpException(HttpStatus.TOO_MANY_REQUESTS, "Too many resource jobs are running");
+        }
+
+        return job;
+    }
+
+    /**
+     * @return the job or null if the job is not found or belongs to another bucket.
+     */
+    @Nullable
+    public ResourceJob getJob(String bucketName, String id) {
+        String json = bucket(id).get();
+        ResourceJob job = (json == null) ? null : ProxyUtil.convertToObject(json, ResourceJob.class);
+        return (job == null || !bucketName.equals(job.getBucket())) ? null : job;
+    }
+
+    private boolean acquire(String bucketName) {
+        int jobs = bucketJobs.merge(bucketName, 1, Integer::sum);
+        if (jobs > maxBucketJobs) {
+            release(bucketName);
+            return false;
+        }
+
+        return true;
+    }
+
+    private void release(String bucketName) {
+        bucketJobs.computeIfPresent(bucketName, (key, jobs) -> (jobs > 1) ? jobs - 1 : null);
+    }
+
+    private void run(ResourceJob job, String bucketLocation, Collection<String> lockedBuckets, Consumer<Runnable> task) {
+        log.info("Resource job started: {} {}", job.getId(), job.getOperation());
+        AtomicLong processed = new AtomicLong();
+        AtomicBoolean lost = new AtomicBoolean();
+
+        try (LockService.Lock lock = lockService.lockBuckets(lockedBuckets)) {
+            TimerService.Timer renewal = timerService.scheduleWithFixedDelay(RENEWAL_PERIOD, RENEWAL_PERIOD,
+                    () -> renew(job, lock, lost));
+            try {
+                task.accept(() -> {
+                    if (lost.get()) {
+                        throw new IllegalStateException("Lock of the job is lost");
+                    }
+
+                    if (processed.incrementAndGet() % progressPeriod == 0) {
+                        progress(job, processed);
+                    }
+                });
+                job.setStatus(ResourceJob.Status.COMPLETED);
+            } finally {
+                renewal.close();
+            }
+        } catch (Throwable e) {
+            log.warn("Resource job failed: {}", job.getId(), e);
+            job.setStatus(ResourceJob.Status.FAILED).setError(e.getMessage());
+        }
+
+        job.setFinishedAt(System.currentTimeMillis());
+        progress(job, processed);
+        log.info("Resource job finished: {} {}. Processed: {}", job.getId(), job.getStatus(), job.getProcessed());
+
+        try {
+            String url = (job.getDestinationUrl() == null) ? job.getSourceUrl() : job.getDestinationUrl();
+            String message = "Resource %s %s is %s".formatted(job.getOperation().name().toLowerCase(), job.getId(),
+                    job.getStatus().name().toLowerCase());
+            message = (job.getError() == null) ? message : message + ": " + job.getError();
+
+            Notification notification = Notification.getResourceJobNotification(url, message);
+            notificationService.createNotification(job.getBucket(), bucketLocation, notification);
+        } catch (Throwable e) {
+            log.warn("Failed to notify about resource job: {}", job.getId(), e);
+        }
+    }
+
+    private static void renew(ResourceJob job, LockService.Lock lock, AtomicBoolean lost) {
+        if (!lost.get() && !lock.renew()) {
+            log.warn("Resource job lost its lock: {}", job.getId());
+            lost.set(true);
+        }
+    }
+
+    private void progress(ResourceJob job, AtomicLong processed) {
+        // the counter is read under the lock, so the saved progress never goes back
+        synchronized (job) {
+            job.setProcessed(processed.get());
+            save(job);
+        }
+    }
+
+    private void save(ResourceJob job) {
+        try {
+            bucket(job.getId()).set(ProxyUtil.convertToString(job), expiration);
+        } catch (Throwable e) {
+            log.warn("Failed to save resource job: {}", job.getId(), e);
+        }
+    }
+
+    private RBucket<String> bucket(String id) {
+        return redis.getBucket("job:" + BlobStorageUtil.toStoragePath(prefix, id), StringCodec.INSTANCE);
+    }
+}
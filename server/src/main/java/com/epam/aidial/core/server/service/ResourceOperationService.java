@@ -10,14 +10,19 @@ import com.epam.aidial.core.server.util.HttpStatus;
 import lombok.AllArgsConstructor;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 @AllArgsConstructor
 public class ResourceOperationService {
     private static final Set<ResourceTypes> ALLOWED_RESOURCES = Set.of(ResourceTypes.FILE, ResourceTypes.CONVERSATION,
             ResourceTypes.PROMPT, ResourceTypes.APPLICATION);
+    private static final Runnable NO_PROGRESS = () -> {
+    };
 
     private final ApplicationService applicationService;
     private final ResourceService resourceService;
@@ -30,20 +35,115 @@ public class ResourceOperationService {
     }
 
     public void moveResource(ResourceDescriptor source, ResourceDescriptor destination, boolean overwriteIfExists) {
-        if (source.isFolder() || destination.isFolder()) {
-            throw new IllegalArgumentException("Moving folders is not supported");
+        moveResource(source, destination, overwriteIfExists, NO_PROGRESS);
+    }
+
+    /**
+     * Moves the resource or all resources of the folder. Resources of a folder are moved in parallel.
+     * Shared access to the resources is moved as well, but shared access to the source folder itself is revoked.
+     * The shared access of a folder is moved once for all the moved resources, even if the folder is moved partially.
+     *
+     * @param progress - called for every moved resource.
+     */
+    public void moveResource(ResourceDescriptor source, ResourceDescriptor destination, boolean overwriteIfExists,
+                             Runnable progress) {
+        verifyMove(source, destination);
+
+        if (!source.isFolder()) {
+            moveItem(source, destination, overwriteIfExists);
+            moveAccess(Map.of(source, destination));
+            progress.run();
+            return;
         }
 
-        String sourceResourceUrl = source.getUrl();
-        String destinationResourceUrl = destination.getUrl();
+        Map<ResourceDescriptor, ResourceDescriptor> moved = new ConcurrentHashMap<>();
+        boolean found = false;
+        try {
+            found = resourceService.forEachResource(source, sourceItem -> {
+                String destinationItemUrl = destination.getUrl() + sourceItem.getUrl().substring(source.getUrl().length());
+                ResourceDescriptor destinationItem = destination.resolveByUrl(destinationItemUrl);
+                moveItem(sourceItem, destinationItem, overwriteIfExists);
+                moved.put(sourceItem, destinationItem);
+                progress.run();
+            });
+        } finally {
+            moveAccess(moved);
+        }
 
-        if (!resourceService.hasResource(source)) {
-            throw new IllegalArgumentException("Source resource %s does not exist".formatted(sourceResourceUrl));
+        if (!found) {
+            throw new IllegalArgumentException("Source folder %s does not exist".formatted(source.getUrl()));
+        }
+
+        // shared access is moved for the resources of the folder, the folder itself doesn't exist anymore
+        cleanUpAccess(List.of(source));
+    }
+
+    public void verifyMove(ResourceDescriptor source, ResourceDescriptor destination) {
+        if (source.isFolder() != destination.isFolder()) {
+            throw new IllegalArgumentException("Source and destination resources must be both folders or files");
+        }
+
+        if (source.isFolder() && destination.getUrl().startsWith(source.getUrl())) {
+            throw new IllegalArgumentException("Destination folder cannot be inside the source folder");
         }
 
         if (!ALLOWED_RESOURCES.contains(source.getType())) {
             throw new IllegalStateException("Unsupported type: " + source.getType());
         }
+    }
+
+    public void deleteResource(ResourceDescriptor resource) {
+        deleteResource(resource, NO_PROGRESS);
+    }
+
+    /**
+     * Deletes the resource or all resources of the folder. Resources of a folder are deleted in parallel.
+     * The shared access of a folder is cleaned up once for all the deleted resources, even if the folder is deleted partially.
+     *
+     * @param progress - called for every deleted resource.
+     */
+    public void deleteResource(ResourceDescriptor resource, Runnable progress) {
+        if (!ALLOWED_RESOURCES.contains(resource.getType())) {
+            throw new IllegalArgumentException("Unsupported type: " + resource.getType());
+        }
+
+        if (!resource.isFolder()) {
+            cleanUpAccess(List.of(resource));
+            if (!deleteItem(resource)) {
+                throw new ResourceNotFoundException("Resource %s does not exist".formatted(resource.getUrl()));
+            }
+            progress.run();
+            return;
+        }
+
+        Set<ResourceDescriptor> deleted = ConcurrentHashMap.newKeySet();
+        boolean found = false;
+        try {
+            found = resourceService.forEachResource(resource, item -> {
+                // the item might be deleted since the folder is listed, so it is treated as deleted
+                deleteItem(item);
+                deleted.add(item);
+                progress.run();
+            });
+        } finally {
+            if (found) {
+                deleted.add(resource);
+            }
+            cleanUpAccess(deleted);
+        }
+
+        if (!found) {
+            throw new ResourceNotFoundException("Folder %s does not exist".formatted(resource.getUrl()));
+        }
+    }
+
+    private void moveItem(ResourceDescriptor source, ResourceDescriptor destination, boolean overwriteIfExists) {
+        String sourceResourceUrl = source.getUrl();
+        String destinationResourceUrl = destination.getUrl();
+
+        if (!resourceService.hasResource(source)) {
+            throw new IllegalArgumentException("Source resource %s does not exist".formatted(sourceResourceUrl));
+        }
 
         if (destination.getType() == ResourceTypes.APPLICATION) {
             applicationService.copyApplication(source, destination, overwriteIfExists, app -> {
@@ -59,25 +159,71 @@ public class ResourceOperationService {
             }
         }
 
+        if (destination.getType() == ResourceTypes.APPLICATION) {
+            applicationService.deleteApplication(source, EtagHeader.ANY);
+        } else {
+            resourceService.deleteResource(source, EtagHeader.ANY);
+        }
+    }
+
+    /**
+     * Moves shared access of the resources of the same buckets at once, so the share and invitation documents are updated once.
+     *
+     * @param resources - the destination resources by the source ones.
+     */
+    private void moveAccess(Map<ResourceDescriptor, ResourceDescriptor> resources) {
+        if (resources.isEmpty()) {
+            return;
+        }
+
+        Map.Entry<ResourceDescriptor, ResourceDescriptor> any = resources.entrySet().iterator().next();
+        ResourceDescriptor source = any.getKey();
         if (source.isPrivate()) {
             String bucketName = source.getBucketName();
             String bucketLocation = source.getBucketLocation();
-            boolean isSameBucket = source.getBucketName().equals(destination.getBucketName());
+            boolean isSameBucket = source.getBucketName().equals(any.getValue().getBucketName());
 
             if (isSameBucket) {
-                invitationService.moveResource(bucketName, bucketLocation, source, destination);
-                shareService.moveSharedAccess(bucketName, bucketLocation, source, destination);
+                invitationService.moveResources(bucketName, bucketLocation, resources);
+                shareService.moveSharedAccess(bucketName, bucketLocation, resources);
             } else {
-                Map<ResourceDescriptor, Set<ResourceAccessType>> resources = Map.of(source, ResourceAccessType.ALL);
-                invitationService.cleanUpPermissions(bucketName, bucketLocation, resources);
-                shareService.revokeSharedAccess(bucketName, bucketLocation, resources);
+                cleanUpAccess(resources.keySet());
             }
         }
+    }
 
-        if (destination.getType() == ResourceTypes.APPLICATION) {
-            applicationService.deleteApplication(source, EtagHeader.ANY);
-        } else {
-            resourceService.deleteResource(source, EtagHeader.ANY);
+    /**
+     * @return false if the resource does not exist.
+     */
+    private boolean deleteItem(ResourceDescriptor resource) {
+        if (resource.getType() != ResourceTypes.APPLICATION) {
+            return resourceService.deleteResource(resource, EtagHeader.ANY);
+        }
+
+        try {
+            applicationService.deleteApplication(resource, EtagHeader.ANY);
+            return true;
+        } catch (ResourceNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Revokes shared access to the resources of the same bucket at once, so the share and invitation documents are updated once.
+     */
+    private void cleanUpAccess(Collection<ResourceDescriptor> resources) {
+        if (resources.isEmpty()) {
+            return;
+        }
+
+        ResourceDescriptor resource = resources.iterator().next();
+        if (resource.isPrivate()) {
+            String bucketName = resource.getBucketName();
+            String bucketLocation = resource.getBucketLocation();
+            Map<ResourceDescriptor, Set<ResourceAccessType>> permissions = new HashMap<>();
+            resources.forEach(item -> permissions.put(item, ResourceAccessType.ALL));
+            invitationService.cleanUpPermissions(bucketName, bucketLocation, permissions);
+            shareService.revokeSharedAccess(bucketName, bucketLocation, permissions);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,50 @@
+package com.epam.aidial.core.server.service;
+
+import com.epam.aidial.core.server.data.ResourceTypes;
+import com.epam.aidial.core.server.resource.ResourceType;
+import io.vertx.core.json.JsonObject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * How the resources of a type are persisted.
+ *
+ * @param expiration - expiration in milliseconds since the last write for {@link Policy#REDIS_ONLY}.
+ */
+public record ResourcePersistence(Policy policy, long expiration) {
+
+    public static final ResourcePersistence WRITE_BEHIND = new ResourcePersistence(Policy.WRITE_BEHIND, 0);
+
+    public enum Policy {
+        /**
+         * Kept in Redis and written back to the blob store after the sync delay.
+         */
+        WRITE_BEHIND,
+        /**
+         * Written to the blob store and cached in Redis on read.
+         */
+        WRITE_THROUGH,
+        /**
+         * Kept in Redis only and deleted once expired. Never listed and never written to the blob store.
+         */
+        REDIS_ONLY
+    }
+
+    /**
+     * Parses the policies by the resource type names, e.g. {"LIMIT": {"policy": "REDIS_ONLY", "expiration": 172800000}}.
+     * The types not mentioned are written behind.
+     */
+    public static Map<ResourceType, ResourcePersistence> fromSettings(JsonObject settings) {
+        Map<ResourceType, ResourcePersistence> policies = new HashMap<>();
+
+        for (String type : settings.fieldNames()) {
+            JsonObject policy = settings.getJsonObject(type);
+            ResourcePersistence persistence = new ResourcePersistence(
+                    Policy.valueOf(policy.getString("policy")), policy.getLong("expiration", 86400000L));
+            policies.put(ResourceTypes.valueOf(type), persistence);
+        }
+
+        return policies;
+    }
+}
@@ -6,13 +6,20 @@ import com.epam.aidial.core.server.data.ResourceEvent;
 import com.epam.aidial.core.server.data.ResourceFolderMetadata;
 import com.epam.aidial.core.server.data.ResourceItemMetadata;
 import com.epam.aidial.core.server.resource.ResourceDescriptor;
+import com.epam.aidial.core.server.resource.ResourceType;
 import com.epam.aidial.core.server.storage.BlobStorage;
 import com.epam.aidial.core.server.storage.BlobStorageUtil;
 import com.epam.aidial.core.server.util.Compression;
+import com.epam.aidial.core.server.util.CompressionCodec;
 import com.epam.aidial.core.server.util.EtagBuilder;
 import com.epam.aidial.core.server.util.EtagHeader;
+import com.epam.aidial.core.server.util.MetricUtil;
 import com.epam.aidial.core.server.util.RedisUtil;
 import com.google.common.collect.Sets;
+import com.google.common.io.ByteSource;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import lombok.Builder;
 import lombok.Getter;
@@ -41,16 +48,26 @@ import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
 @Slf4j
@@ -58,6 +75,7 @@ public class ResourceService implements AutoCloseable {
     // Default ETag for old records
     public static final String DEFAULT_ETAG = "0";
     private static final String BODY_ATTRIBUTE = "body";
+    private static final String BODY_ENCODING_ATTRIBUTE = "body_encoding";
     private static final String CONTENT_TYPE_ATTRIBUTE = "content_type";
     private static final String CONTENT_LENGTH_ATTRIBUTE = "content_length";
     private static final String SYNCED_ATTRIBUTE = "synced";
@@ -78,11 +96,12 @@ public class ResourceService implements AutoCloseable {
             SYNCED_ATTRIBUTE,
             EXISTS_ATTRIBUTE);
     private static final Set<String> REDIS_FIELDS = Sets.union(
-            Set.of(BODY_ATTRIBUTE),
+            Set.of(BODY_ATTRIBUTE, BODY_ENCODING_ATTRIBUTE),
             REDIS_FIELDS_NO_BODY);
     private static final Codec REDIS_MAP_CODEC = new CompositeCodec(
             StringCodec.INSTANCE,
             ByteArrayCodec.INSTANCE);
+    private static final int BULK_PAGE_SIZE = 1000;
 
     private final RedissonClient redis;
     private final BlobStorage blobStore;
@@ -95,8 +114,17 @@ public class ResourceService implements AutoCloseable {
     private final int syncBatch;
     private final Duration cacheExpiration;
     private final int compressionMinSize;
+    private final CompressionCodec compressionCodec;
+    private final Map<String, CompressionCodec> decompressionCodecs;
+    private final boolean cacheCompression;
+    private final DistributionSummary cacheCompressionRatio;
+    private final ExecutorService bulkExecutor;
+    private final ThreadLocal<Boolean> bulkThread = ThreadLocal.withInitial(() -> false);
     private final String prefix;
     private final String resourceQueue;
+    private final Map<ResourceType, ResourcePersistence> persistence;
+    @Nullable
+    private final ResourceIndex index;
 
     public ResourceService(TimerService timerService,
                            RedissonClient redis,
@@ -111,7 +139,18 @@ public class ResourceService implements AutoCloseable {
                 settings.getInteger("syncBatch"),
                 settings.getLong("cacheExpiration"),
                 settings.getInteger("compressionMinSize"),
-                prefix
+                compressionCodec(settings),
+                decompressionCodecs(settings),
+                settings.getBoolean("cacheCompression", false),
+                settings.getInteger("bulkParallelism", 8),
+                settings.getInteger("topicShards", 16),
+                ResourcePersistence.fromSettings(settings.getJsonObject("persistence", new JsonObject())),
+                prefix,
+                settings.getBoolean("listingIndex", false)
+                        ? new ResourceIndex(timerService, redis, blobStore, lockService, prefix,
+                        settings.getLong("listingIndexExpiration", 3600000L),
+                        settings.getLong("listingIndexBuildPeriod", 1000L))
+                        : null
         );
     }
 
@@ -121,7 +160,14 @@ public class ResourceService implements AutoCloseable {
      * @param syncDelay          - delay in milliseconds for a resource to be written back in object storage after last modification.
      * @param syncBatch          - how many resources to sync in one go.
      * @param cacheExpiration    - expiration in milliseconds for synced resources in Redis.
-     * @param compressionMinSize - compress resources with gzip if their size in bytes more or equal to this value.
+     * @param compressionMinSize - compress resources if their size in bytes more or equal to this value.
+     * @param compressionCodec   - codec to compress resources with, any supported codec is accepted on read.
+     * @param decompressionCodecs - codecs of the zstd dictionaries used before, to read the resources compressed with them.
+     * @param cacheCompression   - keep resource bodies compressed in Redis and decompress them only when requested.
+     * @param bulkParallelism    - how many resources of folder operations are processed in parallel.
+     * @param topicShards        - how many shards the topic of resource events is split into by the bucket.
+     * @param persistence        - persistence policies by the resource type, write-behind is used for the types not mentioned.
+     * @param index              - listing index to serve folder listings from, the blob store is listed if null.
      */
     public ResourceService(TimerService timerService,
                            RedissonClient redis,
@@ -133,18 +179,40 @@ public class ResourceService implements AutoCloseable {
                            int syncBatch,
                            long cacheExpiration,
                            int compressionMinSize,
-                           String prefix) {
+                           CompressionCodec compressionCodec,
+                           List<CompressionCodec> decompressionCodecs,
+                           boolean cacheCompression,
+                           int bulkParallelism,
+                           int topicShards,
+                           Map<ResourceType, ResourcePersistence> persistence,
+                           String prefix,
+                           @Nullable ResourceIndex index) {
         this.redis = redis;
         this.blobStore = blobStore;
         this.lockService = lockService;
-        this.topic = new ResourceTopic(redis, "resource:" + BlobStorageUtil.toStoragePath(prefix, "topic"));
+        this.topic = new ResourceTopic(redis, "resource:" + BlobStorageUtil.toStoragePath(prefix, "topic"), topicShards);
         this.maxSize = maxSize;
         this.syncDelay = syncDelay;
         this.syncBatch = syncBatch;
         this.cacheExpiration = Duration.ofMillis(cacheExpiration);
         this.compressionMinSize = compressionMinSize;
+        this.compressionCodec = compressionCodec;
+        this.decompressionCodecs = decompressionCodecs.stream()
+                .collect(Collectors.toUnmodifiableMap(CompressionCodec::encoding, Function.identity(), (first, second) -> first));
+        this.cacheCompression = cacheCompression;
+        this.cacheCompressionRatio = DistributionSummary.builder("aidial.resource.cache.compression.ratio")
+                .description("Ratio of original to compressed size of resource bodies stored in Redis")
+                .tag("codec", compressionCodec.encoding())
+                .register(MetricUtil.registry());
         this.prefix = prefix;
         this.resourceQueue = "resource:" + BlobStorageUtil.toStoragePath(prefix, "queue");
+        this.persistence = persistence;
+        this.index = index;
+        ThreadFactory bulkThreadFactory = new ThreadFactoryBuilder().setNameFormat("resource-bulk-%d").setDaemon(true).build();
+        this.bulkExecutor = Executors.newFixedThreadPool(bulkParallelism, task -> bulkThreadFactory.newThread(() -> {
+            bulkThread.set(true);
+            task.run();
+        }));
 
         this.syncTimer = timerService.scheduleWithFixedDelay(syncPeriod, syncPeriod, this::sync);
     }
@@ -153,6 +221,10 @@ public class ResourceService implements AutoCloseable {
     @Override
     public void close() {
         syncTimer.close();
+        bulkExecutor.shutdown();
+        if (index != null) {
+            index.close();
+        }
     }
 
     public ResourceTopic.Subscription subscribeResources(Collection<ResourceDescriptor> resources,
@@ -161,42 +233,47 @@ public class ResourceService implements AutoCloseable {
     }
 
     public void copyFolder(ResourceDescriptor sourceFolder, ResourceDescriptor targetFolder, boolean overwrite) {
-        String token = null;
-        do {
-            ResourceFolderMetadata folder = getFolderMetadata(sourceFolder, token, 1000, true);
-            if (folder == null) {
-                throw new IllegalArgumentException("Source folder is empty");
-            }
-
-            for (MetadataBase item : folder.getItems()) {
-                String sourceFileUrl = item.getUrl();
-                String targetFileUrl = targetFolder + sourceFileUrl.substring(sourceFolder.getUrl().length());
-
-                ResourceDescriptor sourceFile = sourceFolder.resolveByUrl(sourceFileUrl);
-                ResourceDescriptor targetFile = targetFolder.resolveByUrl(targetFileUrl);
-
-                if (!copyResource(sourceFile, targetFile, overwrite)) {
-                    throw new IllegalArgumentException("Can't copy source file: " + sourceFileUrl
-                                                       + " to target file: " + targetFileUrl);
-                }
+        boolean found = forEachResource(sourceFolder, sourceFile -> {
+            String sourceFileUrl = sourceFile.getUrl();
+            String targetFileUrl = targetFolder.getUrl() + sourceFileUrl.substring(sourceFolder.getUrl().length());
+            ResourceDescriptor targetFile = targetFolder.resolveByUrl(targetFileUrl);
+
+            if (!copyResource(sourceFile, targetFile, overwrite)) {
+                throw new IllegalArgumentException("Can't copy source file: " + sourceFileUrl
+                                                   + " to target file: " + targetFileUrl);
             }
+        });
 
-            token = folder.getNextToken();
-        } while (token != null);
+        if (!found) {
+            throw new IllegalArgumentException("Source folder is empty");
+        }
     }
 
     public boolean deleteFolder(ResourceDescriptor folder) {
+        return forEachResource(folder, file -> deleteResource(file, EtagHeader.ANY));
+    }
+
+    /**
+     * Applies the action to all resources of the folder recursively. Resources of a listing page are processed
+     * in parallel with {@link #forEachParallel(Collection, Consumer)}, each action takes the locks of its resources
+     * in the same order as single resource operations.
+     * Pages are processed one by one, so the next page is listed once the previous one is completed.
+     *
+     * @return false if the folder is empty.
+     * @throws RuntimeException the first failure of the action once the page is completed.
+     */
+    public boolean forEachResource(ResourceDescriptor folder, Consumer<ResourceDescriptor> action) {
         String token = null;
         do {
-            ResourceFolderMetadata metadata = getFolderMetadata(folder, token, 1000, true);
+            ResourceFolderMetadata metadata = getFolderMetadata(folder, token, BULK_PAGE_SIZE, true);
             if (metadata == null) {
                 return false;
             }
 
-            for (MetadataBase item : metadata.getItems()) {
-                ResourceDescriptor file = folder.resolveByUrl(item.getUrl());
-                deleteResource(file, EtagHeader.ANY);
-            }
+            List<ResourceDescriptor> resources = metadata.getItems().stream()
+                    .map(item -> folder.resolveByUrl(item.getUrl()))
+                    .toList();
+            forEachParallel(resources, action);
 
             token = metadata.getNextToken();
         } while (token != null);
@@ -204,6 +281,45 @@ public class ResourceService implements AutoCloseable {
         return true;
     }
 
+    /**
+     * Applies the action to the items in parallel on the bulk executor.
+     * A nested bulk operation, called by an action on a bulk thread, applies its action on that thread one item at a time,
+     * so the bulk threads never wait for the tasks queued behind them.
+     *
+     * @throws RuntimeException the first failure of the action once all the items are processed.
+     */
+    public <T> void forEachParallel(Collection<T> items, Consumer<T> action) {
+        if (bulkThread.get()) {
+            RuntimeException failure = null;
+            for (T item : items) {
+                try {
+                    action.accept(item);
+                } catch (RuntimeException e) {
+                    failure = (failure == null) ? e : failure;
+                }
+            }
+
+            if (failure != null) {
+                throw failure;
+            }
+
+            return;
+        }
+
+        CompletableFuture<?>[] futures = items.stream()
+                .map(item -> CompletableFuture.runAsync(() -> action.accept(item), bulkExecutor))
+                .toArray(CompletableFuture[]::new);
+
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
     @Nullable
     public MetadataBase getMetadata(ResourceDescriptor descriptor, String token, int limit, boolean recursive) {
         return descriptor.isFolder()
@@ -212,48 +328,44 @@ public class ResourceService implements AutoCloseable {
     }
 
     public ResourceFolderMetadata getFolderMetadata(ResourceDescriptor descriptor, String token, int limit, boolean recursive) {
-        String blobKey = blobKey(descriptor);
-        PageSet<? extends StorageMetadata> set = blobStore.list(blobKey, token, limit, recursive);
+        ResourceIndex.Page page = (index == null) ? null : index.list(descriptor, token, limit, recursive);
+        if (page == null) {
+            page = blobList(descriptor, token, limit, recursive);
+        }
 
-        if (set.isEmpty() && !descriptor.isRootFolder()) {
+        if (page.items().isEmpty() && !descriptor.isRootFolder()) {
             return null;
         }
 
-        List<MetadataBase> resources = set.stream().map(meta -> {
-            Map<String, String> metadata = meta.getUserMetadata();
-            String path = meta.getName();
-            ResourceDescriptor description = descriptor.resolveByPath(path);
+        List<MetadataBase> resources = page.items().stream().map(item -> {
+            ResourceDescriptor description = descriptor.resolveByPath(item.path());
+            ResourceIndex.Entry entry = item.entry();
 
-            if (meta.getType() != StorageType.BLOB) {
+            if (entry == null) {
                 return new ResourceFolderMetadata(description);
             }
 
-            Long createdAt = null;
-            Long updatedAt = null;
-
-            if (metadata != null) {
-                createdAt = metadata.containsKey(CREATED_AT_ATTRIBUTE) ? Long.parseLong(metadata.get(CREATED_AT_ATTRIBUTE)) : null;
-                updatedAt = metadata.containsKey(UPDATED_AT_ATTRIBUTE) ? Long.parseLong(metadata.get(UPDATED_AT_ATTRIBUTE)) : null;
+            if (description.getType().requireCompression()) {
+                return new ResourceItemMetadata(description).setCreatedAt(entry.createdAt()).setUpdatedAt(entry.updatedAt());
             }
 
-            if (createdAt == null && meta.getCreationDate() != null) {
-                createdAt = meta.getCreationDate().getTime();
-            }
+            return new FileMetadata(description, entry.contentLength(), entry.contentType())
+                    .setCreatedAt(entry.createdAt())
+                    .setUpdatedAt(entry.updatedAt());
+        }).toList();
 
-            if (updatedAt == null && meta.getLastModified() != null) {
-                updatedAt = meta.getLastModified().getTime();
-            }
+        return new ResourceFolderMetadata(descriptor, resources, page.nextToken());
+    }
 
-            if (description.getType().requireCompression()) {
-                return new ResourceItemMetadata(description).setCreatedAt(createdAt).setUpdatedAt(updatedAt);
-            }
+    private ResourceIndex.Page blobList(ResourceDescriptor descriptor, String token, int limit, boolean recursive) {
+        String blobKey = blobKey(descriptor);
+        PageSet<? extends StorageMetadata> set = blobStore.list(blobKey, token, limit, recursive);
 
-            return new FileMetadata(description, meta.getSize(), BlobStorage.resolveContentType((BlobMetadata) meta))
-                    .setCreatedAt(createdAt)
-                    .setUpdatedAt(updatedAt);
-        }).toList();
+        List<ResourceIndex.Item> items = set.stream().map(meta -> meta.getType() == StorageType.BLOB
+                ? new ResourceIndex.Item(meta.getName(), ResourceIndex.Entry.fromStorage(meta))
+                : new ResourceIndex.Item(meta.getName(), null)).toList();
 
-        return new ResourceFolderMetadata(descriptor, resources, set.getNextMarker());
+        return new ResourceIndex.Page(items, set.getNextMarker());
     }
 
     @Nullable
@@ -267,7 +379,7 @@ public class ResourceService implements AutoCloseable {
 
         if (result == null) {
             String blobKey = blobKey(descriptor);
-            result = blobGet(blobKey, false);
+            result = isRedisOnly(descriptor) ? Result.DELETED_SYNCED : blobGet(blobKey, false);
         }
 
         if (!result.exists()) {
@@ -301,7 +413,7 @@ public class ResourceService implements AutoCloseable {
 
         if (result == null) {
             String blobKey = blobKey(descriptor);
-            return blobExists(blobKey);
+            return !isRedisOnly(descriptor) && blobExists(blobKey);
         }
 
         return result.exists();
@@ -321,7 +433,9 @@ public class ResourceService implements AutoCloseable {
             try (var ignore = lock ? lockService.lock(redisKey) : null) {
                 result = redisGet(redisKey, true);
 
-                if (result == null) {
+                if (result == null && isRedisOnly(descriptor)) {
+                    result = Result.DELETED_SYNCED;
+                } else if (result == null) {
                     String blobKey = blobKey(descriptor);
                     result = blobGet(blobKey, true);
                     redisPut(redisKey, result);
@@ -332,7 +446,7 @@ public class ResourceService implements AutoCloseable {
         if (result.exists()) {
             return Pair.of(
                     toResourceItemMetadata(descriptor, result),
-                    new String(result.body, StandardCharsets.UTF_8));
+                    new String(body(result), StandardCharsets.UTF_8));
         }
 
         return null;
@@ -357,13 +471,13 @@ public class ResourceService implements AutoCloseable {
         String key = redisKey(resource);
         Result result = redisGet(key, true);
         if (result != null) {
-            return ResourceStream.fromResult(result);
+            return toResourceStream(result);
         }
 
         try (LockService.Lock ignored = lockService.lock(key)) {
             result = redisGet(key, true);
             if (result != null) {
-                return ResourceStream.fromResult(result);
+                return toResourceStream(result);
             }
 
             Blob blob = blobStore.load(resource.getAbsoluteFilePath());
@@ -379,9 +493,9 @@ public class ResourceService implements AutoCloseable {
             Long length = metadata.getContentMetadata().getContentLength();
 
             if (length <= maxSize) {
-                result = blobToResult(blob, metadata);
+                result = blobToResult(blob, metadata, false);
                 redisPut(key, result);
-                return ResourceStream.fromResult(result);
+                return toResourceStream(result);
             }
 
             return new ResourceStream(payload.openStream(), etag, contentType, length);
@@ -396,14 +510,18 @@ public class ResourceService implements AutoCloseable {
     public ResourceItemMetadata putResource(
             ResourceDescriptor descriptor, String body, EtagHeader etag, boolean lock) {
         byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
-        return putResource(descriptor, bytes, etag, "application/json", lock);
+        return putResource(descriptor, bytes, etag, "application/json", null, lock);
     }
 
+    /**
+     * @param createdAt - the creation time of the resource or null to keep the one of the existing resource.
+     */
     private ResourceItemMetadata putResource(
             ResourceDescriptor descriptor,
             byte[] body,
             EtagHeader etag,
             String contentType,
+            @Nullable Long createdAt,
             boolean lock) {
         String redisKey = redisKey(descriptor);
 
@@ -415,11 +533,16 @@ public class ResourceService implements AutoCloseable {
             }
 
             Long updatedAt = time();
-            Long createdAt = metadata == null ? updatedAt : metadata.getCreatedAt();
+            if (createdAt == null) {
+                createdAt = metadata == null ? updatedAt : metadata.getCreatedAt();
+            }
             String newEtag = EtagBuilder.generateEtag(body);
             Result result = new Result(body, newEtag, createdAt, updatedAt, contentType,
-                    descriptor.getType().requireCompression(), (long) body.length, descriptor.getType().name(), false);
-            if (body.length <= maxSize) {
+                    descriptor.getType().requireCompression(), (long) body.length, descriptor.getType().name(), false, null);
+            ResourcePersistence policy = getPersistence(descriptor);
+            if (policy.policy() == ResourcePersistence.Policy.REDIS_ONLY) {
+                redisPutExpiring(redisKey, result, Duration.ofMillis(policy.expiration()));
+            } else if (body.length <= maxSize && policy.policy() == ResourcePersistence.Policy.WRITE_BEHIND) {
                 redisPut(redisKey, result);
                 if (metadata == null) {
                     String blobKey = blobKey(descriptor);
@@ -435,9 +558,11 @@ public class ResourceService implements AutoCloseable {
                     ? ResourceEvent.Action.CREATE
                     : ResourceEvent.Action.UPDATE;
             publishEvent(descriptor, action, updatedAt, newEtag);
-            return descriptor.getType().requireCompression()
+            ResourceItemMetadata newMetadata = descriptor.getType().requireCompression()
                     ? toResourceItemMetadata(descriptor, result)
                     : toFileMetadata(descriptor, result);
+            updateIndex(descriptor, newMetadata);
+            return newMetadata;
         }
     }
 
@@ -446,7 +571,7 @@ public class ResourceService implements AutoCloseable {
             throw new IllegalArgumentException("Resource must be uncompressed, got %s".formatted(descriptor.getType()));
         }
 
-        return (FileMetadata) putResource(descriptor, body, etag, contentType, true);
+        return (FileMetadata) putResource(descriptor, body, etag, contentType, null, true);
     }
 
     public FileMetadata finishFileUpload(
@@ -471,11 +596,13 @@ public class ResourceService implements AutoCloseable {
                     : ResourceEvent.Action.UPDATE;
             publishEvent(descriptor, action, updatedAt, multipartData.etag);
 
-            return (FileMetadata) new FileMetadata(
+            FileMetadata newMetadata = (FileMetadata) new FileMetadata(
                     descriptor, multipartData.contentLength, multipartData.contentType)
                     .setCreatedAt(createdAt)
                     .setUpdatedAt(updatedAt)
                     .setEtag(multipartData.etag);
+            updateIndex(descriptor, newMetadata);
+            return newMetadata;
         }
     }
 
@@ -529,11 +656,16 @@ public class ResourceService implements AutoCloseable {
 
             etag.validate(metadata.getEtag());
 
-            redisPut(redisKey, Result.DELETED_NOT_SYNCED);
-            blobDelete(blobKey(descriptor));
-            redisSync(redisKey);
+            if (isRedisOnly(descriptor)) {
+                redis.getMap(redisKey, REDIS_MAP_CODEC).delete();
+            } else {
+                redisPut(redisKey, Result.DELETED_NOT_SYNCED);
+                blobDelete(blobKey(descriptor));
+                redisSync(redisKey);
+            }
 
             publishEvent(descriptor, ResourceEvent.Action.DELETE, time(), null);
+            updateIndex(descriptor, null);
             return true;
         }
     }
@@ -547,6 +679,10 @@ public class ResourceService implements AutoCloseable {
             return overwrite;
         }
 
+        if (isRedisOnly(from) || isRedisOnly(to)) {
+            throw new IllegalArgumentException("Copy is not supported for Redis only resources: " + from.getUrl());
+        }
+
         String fromRedisKey = redisKey(from);
         String toRedisKey = redisKey(to);
         Pair<String, String> sortedPair = toOrderedPair(fromRedisKey, toRedisKey);
@@ -559,14 +695,26 @@ public class ResourceService implements AutoCloseable {
 
             ResourceItemMetadata toMetadata = getResourceMetadata(to);
             if (toMetadata == null || overwrite) {
-                flushToBlobStore(fromRedisKey);
-                flushToBlobStore(toRedisKey);
-                blobStore.copy(blobKey(from), blobKey(to));
+                // files are copied in the blob store, so listings report their actual size instead of the stub one
+                boolean writeBehind = getPersistence(to).policy() == ResourcePersistence.Policy.WRITE_BEHIND;
+                Result cached = (to.getType().requireCompression() && writeBehind) ? redisGet(fromRedisKey, true) : null;
+                if (cached != null && cached.exists() && length(cached) <= maxSize) {
+                    // small cached resources are copied within Redis and written back to the blob store by sync
+                    redisPut(toRedisKey, cached.toNotSynced());
+                    if (toMetadata == null) {
+                        blobPut(blobKey(to), cached.toStub()); // create an empty object for listing
+                    }
+                } else {
+                    flushToBlobStore(fromRedisKey);
+                    flushToBlobStore(toRedisKey);
+                    blobStore.copy(blobKey(from), blobKey(to));
+                }
 
                 ResourceEvent.Action action = toMetadata == null
                         ? ResourceEvent.Action.CREATE
                         : ResourceEvent.Action.UPDATE;
                 publishEvent(to, action, time(), fromMetadata.getEtag());
+                updateIndex(to, fromMetadata);
                 return true;
             }
 
@@ -574,14 +722,51 @@ public class ResourceService implements AutoCloseable {
         }
     }
 
+    /**
+     * Copies the resource with the body transformed, e.g. with the links replaced.
+     * The copy keeps the creation time of the source like the plain copy does.
+     *
+     * @return false if the source resource does not exist.
+     */
+    public boolean copyResource(ResourceDescriptor from, ResourceDescriptor to, Function<String, String> fn) {
+        Pair<ResourceItemMetadata, String> source = getResourceWithMetadata(from);
+        if (source == null) {
+            return false;
+        }
+
+        byte[] body = fn.apply(source.getValue()).getBytes(StandardCharsets.UTF_8);
+        putResource(to, body, EtagHeader.ANY, "application/json", source.getKey().getCreatedAt(), true);
+        return true;
+    }
+
     private void publishEvent(ResourceDescriptor descriptor, ResourceEvent.Action action, long timestamp, String etag) {
+        if (!topic.isPublished(descriptor)) {
+            return;
+        }
+
         ResourceEvent event = new ResourceEvent()
                 .setUrl(descriptor.getUrl())
                 .setAction(action)
                 .setTimestamp(timestamp)
                 .setEtag(etag);
 
-        topic.publish(event);
+        topic.publish(descriptor, event);
+    }
+
+    private void updateIndex(ResourceDescriptor descriptor, @Nullable ResourceItemMetadata metadata) {
+        if (index == null || isRedisOnly(descriptor)) {
+            return;
+        }
+
+        // creation time is omitted to match listings from object stores, which don't return user metadata
+        ResourceIndex.Entry entry = null;
+        if (metadata instanceof FileMetadata file) {
+            entry = new ResourceIndex.Entry(null, file.getUpdatedAt(), file.getContentLength(), file.getContentType());
+        } else if (metadata != null) {
+            entry = new ResourceIndex.Entry(null, metadata.getUpdatedAt(), null, null);
+        }
+
+        index.update(descriptor, entry);
     }
 
     private Pair<String, String> toOrderedPair(String a, String b) {
@@ -659,14 +844,23 @@ public class ResourceService implements AutoCloseable {
             return Result.DELETED_SYNCED;
         }
 
-        return blobToResult(blob, meta);
+        return blobToResult(blob, meta, cacheCompression);
     }
 
+    /**
+     * @param keepEncoded - keep the body compressed as it is stored, so it can be put into Redis without recompression.
+     */
     @SneakyThrows
-    private static Result blobToResult(Blob blob, BlobMetadata meta) {
+    private Result blobToResult(Blob blob, BlobMetadata meta, boolean keepEncoded) {
         String etag = extractEtag(meta.getUserMetadata());
         String contentType = meta.getContentMetadata().getContentType();
-        Long contentLength = meta.getContentMetadata().getContentLength();
+        String encoding = meta.getContentMetadata().getContentEncoding();
+        boolean encoded = !StringUtils.isBlank(encoding);
+        // the blob store reports the stored size, while the results keep the size of the decompressed body
+        String decodedLength = meta.getUserMetadata().get(CONTENT_LENGTH_ATTRIBUTE);
+        Long contentLength = (encoded && decodedLength != null)
+                ? Long.valueOf(decodedLength)
+                : meta.getContentMetadata().getContentLength();
         Long createdAt = meta.getUserMetadata().containsKey(CREATED_AT_ATTRIBUTE)
                 ? Long.parseLong(meta.getUserMetadata().get(CREATED_AT_ATTRIBUTE))
                 : null;
@@ -685,29 +879,60 @@ public class ResourceService implements AutoCloseable {
         }
 
         byte[] body = ArrayUtils.EMPTY_BYTE_ARRAY;
+        String bodyEncoding = null;
 
         if (blob != null) {
-            String encoding = meta.getContentMetadata().getContentEncoding();
-            try (InputStream stream = blob.getPayload().openStream()) {
-                body = stream.readAllBytes();
-                if (!StringUtils.isBlank(encoding)) {
-                    body = Compression.decompress(encoding, body);
+            if (encoded && keepEncoded) {
+                try (InputStream payload = blob.getPayload().openStream()) {
+                    body = payload.readAllBytes();
                 }
+
+                if (Compression.isDecoded(encoding, body)) {
+                    // the raw body must not be labelled as encoded, or it is uploaded back as such
+                    contentLength = (long) body.length;
+                } else {
+                    bodyEncoding = encoding;
+                    if (decodedLength == null) {
+                        contentLength = decodedLength(encoding, body);
+                    }
+                }
+            } else {
+                // the payload is closed even if the codec fails to decompress it
+                try (InputStream payload = blob.getPayload().openStream();
+                        InputStream stream = encoded ? compressionCodec(encoding).decompress(payload) : payload) {
+                    body = stream.readAllBytes();
+                }
+                contentLength = (long) body.length;
             }
         }
 
-        return new Result(body, etag, createdAt, updatedAt, contentType, null, contentLength, resourceType, true);
+        return new Result(body, etag, createdAt, updatedAt, contentType, null, contentLength, resourceType, true, bodyEncoding);
     }
 
     private void blobPut(String key, Result result) {
         String encoding = null;
-        byte[] bytes = result.body;
-        if (bytes.length >= compressionMinSize && Boolean.TRUE.equals(result.compress)) {
-            encoding = "gzip";
-            bytes = Compression.compress(encoding, bytes);
+        long length;
+        ByteSource bytes;
+        if (compressionCodec.encoding().equals(result.bodyEncoding) && !Compression.isDecoded(result.bodyEncoding, result.body)) {
+            // the body is already compressed in Redis with the same codec
+            encoding = result.bodyEncoding;
+            length = (result.contentLength == null) ? decodedLength(encoding, result.body) : result.contentLength;
+            bytes = ByteSource.wrap(result.body);
+        } else {
+            byte[] body = body(result);
+            length = body.length;
+            bytes = ByteSource.wrap(body);
+            if (body.length >= compressionMinSize && Boolean.TRUE.equals(result.compress)) {
+                encoding = compressionCodec.encoding();
+                bytes = Compression.compress(compressionCodec, body);
+            }
         }
 
         Map<String, String> metadata = toUserMetadata(result.etag, result.createdAt, result.updatedAt, result.resourceType);
+        if (encoding != null) {
+            metadata.put(CONTENT_LENGTH_ATTRIBUTE, Long.toString(length));
+        }
+
         blobStore.store(key, result.contentType, encoding, metadata, bytes);
     }
 
@@ -715,6 +940,70 @@ public class ResourceService implements AutoCloseable {
         blobStore.delete(key);
     }
 
+    /**
+     * Returns the decompressed body. Bodies are decompressed lazily since metadata requests don't need them.
+     */
+    @SneakyThrows
+    private byte[] body(Result result) {
+        if (result.bodyEncoding == null) {
+            return result.body;
+        }
+
+        try (InputStream stream = compressionCodec(result.bodyEncoding).decompress(new ByteArrayInputStream(result.body))) {
+            return stream.readAllBytes();
+        }
+    }
+
+    /**
+     * Returns the size of the decompressed body, for the blobs stored without it.
+     */
+    @SneakyThrows
+    private long decodedLength(String encoding, byte[] body) {
+        try (InputStream stream = compressionCodec(encoding).decompress(new ByteArrayInputStream(body))) {
+            return stream.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    @Nullable
+    private ResourceStream toResourceStream(Result result) {
+        if (!result.exists()) {
+            return null;
+        }
+
+        byte[] body = body(result);
+        return new ResourceStream(
+                new ByteArrayInputStream(body),
+                result.etag(),
+                result.contentType(),
+                body.length);
+    }
+
+    private CompressionCodec compressionCodec(String encoding) {
+        if (encoding.equals(compressionCodec.encoding())) {
+            return compressionCodec;
+        }
+
+        CompressionCodec codec = decompressionCodecs.get(encoding);
+        return (codec == null) ? Compression.codec(encoding) : codec;
+    }
+
+    @SneakyThrows
+    private static CompressionCodec compressionCodec(JsonObject settings) {
+        String type = settings.getString("compressionType", Compression.GZIP);
+        Integer level = settings.getInteger("compressionLevel");
+        String dictionary = settings.getString("compressionDictionary");
+        return Compression.codec(type, level, dictionary == null ? null : Files.readAllBytes(Path.of(dictionary)));
+    }
+
+    @SneakyThrows
+    private static List<CompressionCodec> decompressionCodecs(JsonObject settings) {
+        List<CompressionCodec> codecs = new ArrayList<>();
+        for (Object dictionary : settings.getJsonArray("compressionDictionaries", new JsonArray())) {
+            codecs.add(Compression.codec(Compression.ZSTD, null, Files.readAllBytes(Path.of((String) dictionary))));
+        }
+        return codecs;
+    }
+
     private static String blobKey(ResourceDescriptor descriptor) {
         return descriptor.getAbsoluteFilePath();
     }
@@ -748,10 +1037,11 @@ public class ResourceService implements AutoCloseable {
         Long createdAt = RedisUtil.redisToLong(fields.get(CREATED_AT_ATTRIBUTE));
         Long updatedAt = RedisUtil.redisToLong(fields.get(UPDATED_AT_ATTRIBUTE));
         String resourceType = RedisUtil.redisToString(fields.get(RESOURCE_TYPE_ATTRIBUTE), null);
+        String bodyEncoding = RedisUtil.redisToString(fields.get(BODY_ENCODING_ATTRIBUTE), null);
         // we have to maintain historical data which are already in the cache, but they don't have the field
         Boolean compress = RedisUtil.redisToBoolean(fields.get(COMPRESS_ATTRIBUTE), !key.startsWith("file:"));
 
-        return new Result(body, etag, createdAt, updatedAt, contentType, compress, contentLength, resourceType, synced);
+        return new Result(body, etag, createdAt, updatedAt, contentType, compress, contentLength, resourceType, synced, bodyEncoding);
     }
 
     private void redisPut(String key, Result result) {
@@ -764,9 +1054,37 @@ public class ResourceService implements AutoCloseable {
             map.clearExpire();
         }
 
+        map.putAll(redisFields(result));
+
+        if (result.synced) { // cleanup because it is already synced
+            map.expire(cacheExpiration);
+            set.remove(key);
+        }
+    }
+
+    /**
+     * Puts the resource kept in Redis only. It is never synced to the blob store and expires since the last write.
+     */
+    private void redisPutExpiring(String key, Result result, Duration expiration) {
+        RMap<String, byte[]> map = redis.getMap(key, REDIS_MAP_CODEC);
+        map.putAll(redisFields(result.toSynced()));
+        map.expire(expiration);
+    }
+
+    @SneakyThrows
+    private Map<String, byte[]> redisFields(Result result) {
         Map<String, byte[]> fields = new HashMap<>();
         if (result.exists()) {
-            fields.put(BODY_ATTRIBUTE, result.body);
+            byte[] body = result.body;
+            String bodyEncoding = result.bodyEncoding;
+            if (bodyEncoding == null && cacheCompression && body.length >= compressionMinSize && Boolean.TRUE.equals(result.compress)) {
+                body = Compression.compress(compressionCodec, body).read();
+                bodyEncoding = compressionCodec.encoding();
+                cacheCompressionRatio.record((double) result.body.length / body.length);
+            }
+
+            fields.put(BODY_ATTRIBUTE, body);
+            fields.put(BODY_ENCODING_ATTRIBUTE, RedisUtil.stringToRedis(bodyEncoding));
             fields.put(ETAG_ATTRIBUTE, RedisUtil.stringToRedis(result.etag));
             fields.put(CREATED_AT_ATTRIBUTE, RedisUtil.longToRedis(result.createdAt));
             fields.put(UPDATED_AT_ATTRIBUTE, RedisUtil.longToRedis(result.updatedAt));
@@ -779,12 +1097,7 @@ public class ResourceService implements AutoCloseable {
             fields.put(EXISTS_ATTRIBUTE, RedisUtil.BOOLEAN_FALSE_ARRAY);
         }
         fields.put(SYNCED_ATTRIBUTE, RedisUtil.booleanToRedis(result.synced));
-        map.putAll(fields);
-
-        if (result.synced) { // cleanup because it is already synced
-            map.expire(cacheExpiration);
-            set.remove(key);
-        }
+        return fields;
     }
 
     private RMap<String, byte[]> redisSync(String key) {
@@ -798,6 +1111,14 @@ public class ResourceService implements AutoCloseable {
         return map;
     }
 
+    private ResourcePersistence getPersistence(ResourceDescriptor descriptor) {
+        return persistence.getOrDefault(descriptor.getType(), ResourcePersistence.WRITE_BEHIND);
+    }
+
+    private boolean isRedisOnly(ResourceDescriptor descriptor) {
+        return getPersistence(descriptor).policy() == ResourcePersistence.Policy.REDIS_ONLY;
+    }
+
     private String redisKey(ResourceDescriptor descriptor) {
         String resourcePath = BlobStorageUtil.toStoragePath(prefix, descriptor.getAbsoluteFilePath());
         return descriptor.getType().name().toLowerCase() + ":" + resourcePath;
@@ -807,6 +1128,11 @@ public class ResourceService implements AutoCloseable {
         return System.currentTimeMillis();
     }
 
+    private static long length(Result result) {
+        // the body might be kept compressed
+        return (result.contentLength == null) ? result.body.length : result.contentLength;
+    }
+
     private void flushToBlobStore(String redisKey) {
         RMap<String, byte[]> map = sync(redisKey);
         map.delete();
@@ -851,16 +1177,25 @@ public class ResourceService implements AutoCloseable {
             Boolean compress,
             Long contentLength,
             String resourceType,
-            boolean synced) {
-        public static final Result DELETED_SYNCED = new Result(null, null, null, null, null, null, null, null, true);
-        public static final Result DELETED_NOT_SYNCED = new Result(null, null, null, null, null, null, null, null, false);
+            boolean synced,
+            String bodyEncoding) {
+        public static final Result DELETED_SYNCED = new Result(null, null, null, null, null, null, null, null, true, null);
+        public static final Result DELETED_NOT_SYNCED = new Result(null, null, null, null, null, null, null, null, false, null);
 
         public boolean exists() {
             return body != null;
         }
 
+        public Result toSynced() {
+            return new Result(body, etag, createdAt, updatedAt, contentType, compress, contentLength, resourceType, true, bodyEncoding);
+        }
+
+        public Result toNotSynced() {
+            return new Result(body, etag, createdAt, updatedAt, contentType, compress, contentLength, resourceType, false, bodyEncoding);
+        }
+
         public Result toStub() {
-            return new Result(ArrayUtils.EMPTY_BYTE_ARRAY, etag, createdAt, updatedAt, contentType, false, 0L, resourceType, synced);
+            return new Result(ArrayUtils.EMPTY_BYTE_ARRAY, etag, createdAt, updatedAt, contentType, false, 0L, resourceType, synced, null);
         }
     }
 
@@ -871,19 +1206,6 @@ public class ResourceService implements AutoCloseable {
         public void close() throws IOException {
             inputStream.close();
         }
-
-        @Nullable
-        private static ResourceStream fromResult(Result item) {
-            if (!item.exists()) {
-                return null;
-            }
-
-            return new ResourceStream(
-                    new ByteArrayInputStream(item.body),
-                    item.etag(),
-                    item.contentType(),
-                    item.body.length);
-        }
     }
 
     public record MultipartData(
@@ -0,0 +1,105 @@
+package com.epam.aidial.core.server.service;
+
+import com.epam.aidial.core.server.data.MetadataBase;
+import com.epam.aidial.core.server.data.NodeType;
+import com.epam.aidial.core.server.data.ResourceFolderMetadata;
+import com.epam.aidial.core.server.data.ResourceTypes;
+import com.epam.aidial.core.server.resource.ResourceDescriptor;
+import com.epam.aidial.core.server.resource.ResourceDescriptorFactory;
+import lombok.AllArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Layout of a per-user document split into the shards: "&lt;name&gt;-&lt;shard&gt;" resources next to the whole "&lt;name&gt;" document,
+ * so a change rewrites a small shard instead of the whole document.
+ *
+ * <p>The whole document is written before the shards and is still read and updated, so it fades out once its entries are removed.
+ */
+@AllArgsConstructor
+public class ResourceShards {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final ResourceService resourceService;
+    private final ResourceTypes type;
+    private final String name;
+
+    /**
+     * @return the whole document written before the shards.
+     */
+    public ResourceDescriptor getDocument(String bucket, String location) {
+        return ResourceDescriptorFactory.fromDecoded(type, bucket, location, name);
+    }
+
+    public ResourceDescriptor getShard(String bucket, String location, long shard) {
+        return ResourceDescriptorFactory.fromDecoded(type, bucket, location, name + "-" + shard);
+    }
+
+    /**
+     * @return the document or the shard by its name or null if the name is neither.
+     */
+    @Nullable
+    public ResourceDescriptor fromName(String bucket, String location, String resourceName) {
+        if (resourceName.equals(name)) {
+            return getDocument(bucket, location);
+        }
+
+        Long shard = parseShard(resourceName);
+        return (shard == null) ? null : getShard(bucket, location, shard);
+    }
+
+    /**
+     * @return the number of the shard or null if it is the whole document.
+     */
+    @Nullable
+    public Long getShardNumber(ResourceDescriptor resource) {
+        return parseShard(resource.getName());
+    }
+
+    /**
+     * Lists the existing document and shards of the user. The document is always listed first, even if it does not exist.
+     */
+    public List<ResourceDescriptor> list(String bucket, String location) {
+        ResourceDescriptor folder = ResourceDescriptorFactory.fromDecoded(type, bucket, location, null);
+        List<ResourceDescriptor> resources = new ArrayList<>();
+        resources.add(getDocument(bucket, location));
+
+        String token = null;
+        do {
+            ResourceFolderMetadata page = resourceService.getFolderMetadata(folder, token, PAGE_SIZE, false);
+            if (page == null) {
+                break;
+            }
+
+            for (MetadataBase meta : page.getItems()) {
+                if (meta.getNodeType() == NodeType.ITEM) {
+                    Long shard = parseShard(meta.getName());
+                    if (shard != null) {
+                        resources.add(getShard(bucket, location, shard));
+                    }
+                }
+            }
+
+            token = page.getNextToken();
+        } while (token != null);
+
+        return resources;
+    }
+
+    @Nullable
+    private Long parseShard(String resourceName) {
+        if (!resourceName.startsWith(name + "-")) {
+            return null;
+        }
+
+        try {
+            long shard = Long.parseLong(resourceName.substring(name.length() + 1));
+            return (shard < 0) ? null : shard;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.epam.aidial.core.server.service;
+
+import com.epam.aidial.core.server.data.ResourceEvent;
+import com.epam.aidial.core.server.resource.ResourceDescriptor;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Fans out the resource events to the long-living subscriptions of the clients, e.g. the browser tabs.
+ *
+ * <p>The events of a subscription are coalesced within the window: only the latest event of a resource is delivered,
+ * and the events collected within the window are delivered in one batch, so a burst of updates of a shared resource
+ * results in a single write per subscriber.
+ */
+@Slf4j
+public class ResourceSubscriptionHub {
+
+    private final Vertx vertx;
+    private final ResourceService resourceService;
+    private final HeartbeatService heartbeatService;
+    private final long window;
+
+    public ResourceSubscriptionHub(Vertx vertx,
+                                   ResourceService resourceService,
+                                   HeartbeatService heartbeatService,
+                                   JsonObject settings) {
+        this.vertx = vertx;
+        this.resourceService = resourceService;
+        this.heartbeatService = heartbeatService;
+        this.window = settings.getLong("subscriptionWindow", 100L);
+    }
+
+    /**
+     * Subscribes to the events of the resources and of the resources in the folders.
+     *
+     * @param subscriber - receives the coalesced events in batches, one batch at a time.
+     * @param heartbeat - keeps the connection alive.
+     */
+    public Subscription subscribe(Collection<ResourceDescriptor> resources,
+                                  Consumer<List<ResourceEvent>> subscriber,
+                                  Runnable heartbeat) {
+        Subscription subscription = new Subscription(subscriber, heartbeat);
+        subscription.topicSubscription = resourceService.subscribeResources(resources, subscription::add);
+        heartbeatService.subscribe(heartbeat);
+        return subscription;
+    }
+
+    public class Subscription implements AutoCloseable {
+
+        private final Map<String, ResourceEvent> events = new LinkedHashMap<>();
+        private final Consumer<List<ResourceEvent>> subscriber;
+        private final Runnable heartbeat;
+        private ResourceTopic.Subscription topicSubscription;
+        private boolean scheduled;
+        private boolean closed;
+
+        private Subscription(Consumer<List<ResourceEvent>> subscriber, Runnable heartbeat) {
+            this.subscriber = subscriber;
+            this.heartbeat = heartbeat;
+        }
+
+        private void add(ResourceEvent event) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+
+                events.merge(event.getUrl(), event, (previous, next) ->
+                        (next.getTimestamp() >= previous.getTimestamp()) ? next : previous);
+
+                if (scheduled) {
+                    return;
+                }
+
+                scheduled = true;
+            }
+
+            schedule();
+        }
+
+        private void schedule() {
+            if (window > 0) {
+                vertx.setTimer(window, ignore -> flush());
+            } else {
+                flush();
+            }
+        }
+
+        private void flush() {
+            vertx.executeBlocking(() -> {
+                List<ResourceEvent> batch;
+                synchronized (this) {
+                    batch = new ArrayList<>(events.values());
+                    events.clear();
+                }
+
+                try {
+                    if (!batch.isEmpty()) {
+                        subscriber.accept(batch);
+                    }
+                } catch (Throwable e) {
+                    log.warn("Can't notify subscriber", e);
+                }
+
+                synchronized (this) {
+                    // the next batch is delivered after this one to keep the order of the events
+                    if (closed || events.isEmpty()) {
+                        scheduled = false;
+                        return null;
+                    }
+                }
+
+                schedule();
+                return null;
+            }, false);
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+
+                closed = true;
+                events.clear();
+            }
+
+            heartbeatService.unsubscribe(heartbeat);
+            topicSubscription.close();
+        }
+    }
+}
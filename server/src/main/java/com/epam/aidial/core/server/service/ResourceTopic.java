@@ -1,6 +1,7 @@
 package com.epam.aidial.core.server.service;
 
 import com.epam.aidial.core.server.data.ResourceEvent;
+import com.epam.aidial.core.server.data.ResourceTypes;
 import com.epam.aidial.core.server.resource.ResourceDescriptor;
 import io.vertx.core.impl.ConcurrentHashSet;
 import lombok.Value;
@@ -12,32 +13,68 @@ import org.redisson.codec.TypedJsonJacksonCodec;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
-
-
+import java.util.stream.Collectors;
+
+/**
+ * Delivers the resource events of the Redis topic to the subscriptions of the resources and of the folders containing them.
+ *
+ * <p>The topic is sharded by the bucket. A node listens to a shard only while it has a subscription to a bucket of the shard,
+ * so it does not receive the events nobody is interested in. The events of the types nobody can subscribe to are not published.
+ */
 @Slf4j
 public class ResourceTopic {
 
+    private static final Set<ResourceTypes> PUBLISHED_TYPES = Set.of(
+            ResourceTypes.FILE, ResourceTypes.CONVERSATION, ResourceTypes.PROMPT, ResourceTypes.APPLICATION, ResourceTypes.RULES);
+
     private final Map<String, Set<Subscription>> urlToSubscriptions = new ConcurrentHashMap<>();
-    private final RTopic topic;
+    private final Map<String, Set<Subscription>> folderToSubscriptions = new ConcurrentHashMap<>();
+    private final RTopic[] topics;
+    private final int[] shardSubscriptions;
+    private final CompletableFuture<?>[] shardListeners;
+
+    public ResourceTopic(RedissonClient redis, String topicKey, int shards) {
+        TypedJsonJacksonCodec codec = new TypedJsonJacksonCodec(ResourceEvent.class);
+        this.topics = new RTopic[shards];
+        this.shardSubscriptions = new int[shards];
+        this.shardListeners = new CompletableFuture<?>[shards];
+
+        for (int i = 0; i < shards; i++) {
+            topics[i] = redis.getTopic(topicKey + ":" + i, codec);
+        }
+    }
 
-    public ResourceTopic(RedissonClient redis, String topicKey) {
-        this.topic = redis.getTopic(topicKey, new TypedJsonJacksonCodec(ResourceEvent.class));
-        topic.addListener(ResourceEvent.class, (channel, event) -> handle(event));
+    public boolean isPublished(ResourceDescriptor resource) {
+        return PUBLISHED_TYPES.contains(resource.getType());
     }
 
-    public void publish(ResourceEvent event) {
-        topic.publish(event);
+    public void publish(ResourceDescriptor resource, ResourceEvent event) {
+        if (isPublished(resource)) {
+            topics[getShard(resource)].publish(event);
+        }
     }
 
+    /**
+     * Subscribes to the events of the resources and of the resources in the folders.
+     * The events are delivered once the method returns.
+     */
     public Subscription subscribe(Collection<ResourceDescriptor> resources, Consumer<ResourceEvent> subscriber) {
-        Subscription subscription = new Subscription(resources, subscriber);
+        for (ResourceDescriptor resource : resources) {
+            if (!isPublished(resource)) {
+                throw new IllegalArgumentException("Resource events are not published: " + resource.getUrl());
+            }
+        }
+
+        Set<Integer> shards = resources.stream().map(this::getShard).collect(Collectors.toUnmodifiableSet());
+        Subscription subscription = new Subscription(resources, shards, subscriber);
 
         for (ResourceDescriptor resource : resources) {
             String url = resource.getUrl();
-            urlToSubscriptions.compute(url, (key, subs) -> {
+            getSubscriptions(resource).compute(url, (key, subs) -> {
                 if (subs == null) {
                     subs = new ConcurrentHashSet<>();
                 }
@@ -47,21 +84,73 @@ public class ResourceTopic {
             });
         }
 
+        try {
+            CompletableFuture.allOf(shards.stream().map(this::listen).toArray(CompletableFuture[]::new)).join();
+        } catch (Throwable e) {
+            subscription.close();
+            throw e;
+        }
+
         return subscription;
     }
 
     private void unsubscribe(Subscription subscription) {
+        subscription.shards.forEach(this::unlisten);
+
         for (ResourceDescriptor resource : subscription.resources) {
             String url = resource.getUrl();
-            urlToSubscriptions.computeIfPresent(url, (key, subs) -> {
+            getSubscriptions(resource).computeIfPresent(url, (key, subs) -> {
                 subs.remove(subscription);
                 return subs.isEmpty() ? null : subs;
             });
         }
     }
 
+    private synchronized CompletableFuture<?> listen(int shard) {
+        if (shardSubscriptions[shard]++ == 0) {
+            shardListeners[shard] = topics[shard]
+                    .addListenerAsync(ResourceEvent.class, (channel, event) -> handle(event))
+                    .toCompletableFuture();
+        }
+
+        return shardListeners[shard];
+    }
+
+    /**
+     * Stops listening to the shard without the subscriptions. Does not block, since it is called on the connection close.
+     */
+    private synchronized void unlisten(int shard) {
+        if (--shardSubscriptions[shard] == 0) {
+            RTopic topic = topics[shard];
+            shardListeners[shard].thenAccept(listener -> topic.removeListenerAsync((Integer) listener));
+            shardListeners[shard] = null;
+        }
+    }
+
+    private int getShard(ResourceDescriptor resource) {
+        return Math.floorMod(resource.getBucketName().hashCode(), topics.length);
+    }
+
+    private Map<String, Set<Subscription>> getSubscriptions(ResourceDescriptor resource) {
+        return resource.isFolder() ? folderToSubscriptions : urlToSubscriptions;
+    }
+
     private void handle(ResourceEvent event) {
-        for (Subscription subscription : urlToSubscriptions.getOrDefault(event.getUrl(), Set.of())) {
+        String url = event.getUrl();
+        notifySubscriptions(urlToSubscriptions.getOrDefault(url, Set.of()), event);
+
+        if (!folderToSubscriptions.isEmpty()) {
+            // the folder urls end with the separator, so every parent folder is a prefix ending with it
+            int end = url.indexOf(ResourceDescriptor.PATH_SEPARATOR);
+            while (end >= 0 && end < url.length() - 1) {
+                notifySubscriptions(folderToSubscriptions.getOrDefault(url.substring(0, end + 1), Set.of()), event);
+                end = url.indexOf(ResourceDescriptor.PATH_SEPARATOR, end + 1);
+            }
+        }
+    }
+
+    private static void notifySubscriptions(Set<Subscription> subscriptions, ResourceEvent event) {
+        for (Subscription subscription : subscriptions) {
             try {
                 subscription.subscriber.accept(event);
             } catch (Throwable e) {
@@ -75,6 +164,7 @@ public class ResourceTopic {
 
         AtomicBoolean active = new AtomicBoolean(true);
         Collection<ResourceDescriptor> resources;
+        Set<Integer> shards;
         Consumer<ResourceEvent> subscriber;
 
         @Override
@@ -9,19 +9,27 @@ import com.epam.aidial.core.server.data.ResourceTypes;
 import com.epam.aidial.core.server.data.Rule;
 import com.epam.aidial.core.server.resource.ResourceDescriptor;
 import com.epam.aidial.core.server.resource.ResourceDescriptorFactory;
+import com.epam.aidial.core.server.security.ExtractedClaims;
 import com.epam.aidial.core.server.security.RuleMatcher;
 import com.epam.aidial.core.server.util.ProxyUtil;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 
 public class RuleService {
 
@@ -33,15 +41,19 @@ public class RuleService {
     private static final ResourceDescriptor PUBLIC_RULES = ResourceDescriptorFactory.fromDecoded(
             ResourceTypes.RULES, ResourceDescriptor.PUBLIC_BUCKET, ResourceDescriptor.PUBLIC_LOCATION, RULES_NAME);
 
-    /**
-     * Key is updated time from the metadata. Value is decoded map (folder path, list of rules).
-     */
-    private final AtomicReference<Pair<Long, Map<String, List<Rule>>>> cachedRules = new AtomicReference<>();
+    // the rules are reloaded on the change events, the check protects from the lost ones
+    private static final long REVALIDATE_PERIOD = 60_000;
+    private static final int MAX_DECISIONS = 10_000;
+
+    private final AtomicReference<CompiledRules> cachedRules = new AtomicReference<>();
+    // incremented on every change of the rules, so the rules loaded before are not cached
+    private final AtomicLong version = new AtomicLong();
 
     private final ResourceService resources;
 
     public RuleService(ResourceService resourceService) {
         this.resources = resourceService;
+        resourceService.subscribeResources(List.of(PUBLIC_RULES), event -> version.incrementAndGet());
     }
 
     public void storeRules(Publication publication) {
@@ -57,6 +69,8 @@ public class RuleService {
             List<Rule> previous = rulesMap.put(targetFolder, rules);
             return (rules.equals(previous)) ? body : encodeRules(rulesMap);
         });
+        // the change event is delivered asynchronously
+        version.incrementAndGet();
     }
 
     public Map<String, List<Rule>> listRules(ResourceDescriptor resource) {
@@ -64,7 +78,7 @@ public class RuleService {
             throw new IllegalArgumentException("Bad rule url: " + resource.getUrl());
         }
 
-        Map<String, List<Rule>> rules = getCachedRules();
+        Map<String, List<Rule>> rules = getCachedRules().rules();
         Map<String, List<Rule>> result = new TreeMap<>();
 
         while (resource != null) {
@@ -91,17 +105,9 @@ public class RuleService {
             return Set.of();
         }
 
-        Map<String, List<Rule>> rules = getCachedRules();
-        Map<String, Boolean> cache = new HashMap<>();
-        for (ResourceDescriptor resource : resources) {
-            evaluate(context, resource, rules, cache);
-        }
-
+        CompiledRules rules = getCachedRules();
         return resources.stream()
-                .filter(resource -> {
-                    resource = resource.isFolder() ? resource : resource.getParent();
-                    return resource == null || cache.get(ruleUrl(resource));
-                })
+                .filter(resource -> rules.evaluate(context, resource))
                 .collect(Collectors.toUnmodifiableSet());
     }
 
@@ -110,78 +116,184 @@ public class RuleService {
             return;
         }
 
-        Map<String, List<Rule>> rules = getCachedRules();
-        Map<String, Boolean> cache = new HashMap<>();
-        cache.put(ruleUrl(folder), true);
+        CompiledRules rules = getCachedRules();
+        if (rules.root().isEmpty()) {
+            return;
+        }
 
         List<? extends MetadataBase> filtered = metadata.getItems().stream().filter(item -> {
             ResourceDescriptor resource = ResourceDescriptorFactory.fromPublicUrl(item.getUrl());
-            return evaluate(context, resource, rules, cache);
+            return rules.evaluate(context, resource);
         }).toList();
 
         metadata.setItems(filtered);
     }
 
-    private Map<String, List<Rule>> getCachedRules() {
-        ResourceItemMetadata meta = resources.getResourceMetadata(PUBLIC_RULES);
-        long key = (meta == null) ? Long.MIN_VALUE : meta.getUpdatedAt();
-        Pair<Long, Map<String, List<Rule>>> current = cachedRules.get();
+    private CompiledRules getCachedRules() {
+        long currentVersion = version.get();
+        CompiledRules current = cachedRules.get();
 
-        if (current == null || current.getKey() != key) {
-            Pair<ResourceItemMetadata, String> resource = resources.getResourceWithMetadata(PUBLIC_RULES);
-            Pair<Long, Map<String, List<Rule>>> next = (resource == null)
-                    ? Pair.of(Long.MIN_VALUE, decodeRules(null))
-                    : Pair.of(resource.getKey().getUpdatedAt(), decodeRules(resource.getValue()));
+        if (current != null && current.version() == currentVersion) {
+            if (System.currentTimeMillis() - current.validatedAt() < REVALIDATE_PERIOD) {
+                return current;
+            }
 
-            cachedRules.compareAndSet(current, next);
-            current = next;
+            ResourceItemMetadata meta = resources.getResourceMetadata(PUBLIC_RULES);
+            long updatedAt = (meta == null) ? Long.MIN_VALUE : meta.getUpdatedAt();
+            if (updatedAt == current.updatedAt()) {
+                CompiledRules next = current.validated(System.currentTimeMillis());
+                cachedRules.compareAndSet(current, next);
+                return next;
+            }
         }
 
-        return current.getValue();
+        Pair<ResourceItemMetadata, String> resource = resources.getResourceWithMetadata(PUBLIC_RULES);
+        CompiledRules next = (resource == null)
+                ? CompiledRules.compile(currentVersion, Long.MIN_VALUE, decodeRules(null))
+                : CompiledRules.compile(currentVersion, resource.getKey().getUpdatedAt(), decodeRules(resource.getValue()));
+
+        cachedRules.compareAndSet(current, next);
+        return next;
     }
 
-    private static boolean evaluate(ProxyContext context,
-                                    ResourceDescriptor resource,
-                                    Map<String, List<Rule>> rules,
-                                    Map<String, Boolean> cache) {
+    private static String ruleUrl(ResourceDescriptor resource) {
+        String prefix = resource.getType().group();
+        return resource.getUrl().substring(prefix.length() + 1);
+    }
 
-        if (resource != null && !resource.isFolder()) {
-            resource = resource.getParent();
+    private static Map<String, List<Rule>> decodeRules(String json) {
+        Map<String, List<Rule>> rules = ProxyUtil.convertToObject(json, RULES_TYPE);
+        return (rules == null) ? new LinkedHashMap<>() : rules;
+    }
+
+    private static String encodeRules(Map<String, List<Rule>> rules) {
+        return ProxyUtil.convertToString(rules);
+    }
+
+    /**
+     * The rules compiled into the prefix tree of the folder path segments.
+     * Memoizes the decisions per the rule folder and the values of the claims the rules check,
+     * since users share a few claim combinations only.
+     *
+     * @param rules     - decoded map (folder path, list of rules).
+     * @param updatedAt - updated time from the metadata.
+     * @param sources   - the claims the rules check, sorted.
+     */
+    private record CompiledRules(long version, long updatedAt, long validatedAt,
+                                 Map<String, List<Rule>> rules, Node root, List<String> sources,
+                                 Cache<Decision, Boolean> decisions) {
+
+        static CompiledRules compile(long version, long updatedAt, Map<String, List<Rule>> rules) {
+            Node root = new Node();
+            Set<String> sources = new TreeSet<>();
+
+            rules.forEach((folder, folderRules) -> {
+                Node node = root;
+                for (String segment : folder.split(ResourceDescriptor.PATH_SEPARATOR)) {
+                    node = node.child(segment);
+                }
+
+                node.rules = folderRules;
+                folderRules.forEach(rule -> sources.add(rule.getSource()));
+            });
+
+            root.link(null);
+            Cache<Decision, Boolean> decisions = CacheBuilder.newBuilder().maximumSize(MAX_DECISIONS).build();
+            return new CompiledRules(version, updatedAt, System.currentTimeMillis(),
+                    rules, root, List.copyOf(sources), decisions);
         }
 
-        if (resource == null) {
-            return true;
+        CompiledRules validated(long time) {
+            return new CompiledRules(version, updatedAt, time, rules, root, sources, decisions);
         }
 
-        String folderUrl = ruleUrl(resource);
-        Boolean evaluated = cache.get(folderUrl);
+        /**
+         * @return true if the folder of the resource and all its parents are allowed.
+         */
+        boolean evaluate(ProxyContext context, ResourceDescriptor resource) {
+            ResourceDescriptor folder = resource.isFolder() ? resource : resource.getParent();
+            if (folder == null) {
+                return true;
+            }
 
-        if (evaluated != null) {
-            return evaluated;
+            // the deepest folder with the rules on the path decides
+            Node node = root;
+            Node decider = null;
+            for (String segment : ruleUrl(folder).split(ResourceDescriptor.PATH_SEPARATOR)) {
+                node = node.children.get(segment);
+                if (node == null) {
+                    break;
+                }
+
+                if (node.rules != null) {
+                    decider = node;
+                }
+            }
+
+            return decider == null || evaluate(context, decider, fingerprint(context));
         }
 
-        evaluated = evaluate(context, resource.getParent(), rules, cache);
+        private boolean evaluate(ProxyContext context, Node node, @Nullable List<List<String>> fingerprint) {
+            if (node == null) {
+                return true;
+            }
+
+            if (fingerprint == null) {
+                return evaluate(context, node.parent, null) && RuleMatcher.match(context, node.rules);
+            }
+
+            Decision key = new Decision(fingerprint, node);
+            Boolean allowed = decisions.getIfPresent(key);
+            if (allowed == null) {
+                allowed = evaluate(context, node.parent, fingerprint) && RuleMatcher.match(context, node.rules);
+                decisions.put(key, allowed);
+            }
 
-        if (evaluated) {
-            List<Rule> folderRules = rules.get(folderUrl);
-            evaluated = folderRules == null || RuleMatcher.match(context, folderRules);
+            return allowed;
         }
 
-        cache.put(folderUrl, evaluated);
-        return evaluated;
-    }
+        /**
+         * @return the values of the claims the rules check or null if the user has no claims.
+         */
+        @Nullable
+        private List<List<String>> fingerprint(ProxyContext context) {
+            ExtractedClaims claims = context.getExtractedClaims();
+            if (claims == null) {
+                return null;
+            }
 
-    private static String ruleUrl(ResourceDescriptor resource) {
-        String prefix = resource.getType().group();
-        return resource.getUrl().substring(prefix.length() + 1);
+            Map<String, List<String>> userClaims = Objects.requireNonNullElse(claims.userClaims(), Map.of());
+            List<List<String>> fingerprint = new ArrayList<>(sources.size());
+            for (String source : sources) {
+                List<String> values = "roles".equals(source) ? claims.userRoles() : userClaims.get(source);
+                fingerprint.add(values == null ? null : List.copyOf(values));
+            }
+
+            return fingerprint;
+        }
     }
 
-    private static Map<String, List<Rule>> decodeRules(String json) {
-        Map<String, List<Rule>> rules = ProxyUtil.convertToObject(json, RULES_TYPE);
-        return (rules == null) ? new LinkedHashMap<>() : rules;
+    private static class Node {
+        final Map<String, Node> children = new HashMap<>();
+        List<Rule> rules;
+        // the nearest parent with the rules
+        Node parent;
+
+        boolean isEmpty() {
+            return children.isEmpty() && rules == null;
+        }
+
+        Node child(String segment) {
+            return children.computeIfAbsent(segment, key -> new Node());
+        }
+
+        void link(Node parent) {
+            this.parent = parent;
+            Node next = (rules == null) ? parent : this;
+            children.values().forEach(child -> child.link(next));
+        }
     }
 
-    private static String encodeRules(Map<String, List<Rule>> rules) {
-        return ProxyUtil.convertToString(rules);
+    private record Decision(List<List<String>> fingerprint, Node node) {
     }
 }
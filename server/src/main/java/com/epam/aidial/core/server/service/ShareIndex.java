@@ -0,0 +1,225 @@
+package com.epam.aidial.core.server.service;
+
+import com.epam.aidial.core.server.resource.ResourceDescriptor;
+import com.epam.aidial.core.server.storage.BlobStorageUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Index of the share documents: the resources shared with a user and the resources shared by a user per resource type.
+ * Keeps one Redis hash per document with the resource urls as the fields, so the permissions for a resource
+ * and its parent folders or the users of a shared resource are looked up with a single script of batched HMGETs
+ * instead of parsing the whole document, and a document is listed page by page with HSCAN.
+ *
+ * <p>The documents stay the source of truth. The index of a document is built from it under the document lock
+ * on the first lookup, which migrates the existing documents, updated under the same lock on every change
+ * and rebuilt once it expires.
+ */
+@Slf4j
+public class ShareIndex {
+
+    private static final String GET_SCRIPT = """
+            if redis.call('hexists', KEYS[1], '\\0ready') == 0 then
+              return false
+            end
+
+            -- unpack is limited by the Lua stack, so the fields are looked up in batches
+            local result = {}
+            for i = 1, #ARGV, 1000 do
+              local values = redis.call('hmget', KEYS[1], unpack(ARGV, i, math.min(i + 999, #ARGV)))
+              for j = 1, #values do
+                result[i + j - 1] = values[j]
+              end
+            end
+
+            return result
+            """;
+
+    private static final String SCAN_SCRIPT = """
+            if redis.call('hexists', KEYS[1], '\\0ready') == 0 then
+              return false
+            end
+
+            local cursor = ARGV[1]
+            local limit = tonumber(ARGV[2])
+            local result = {''}
+
+            repeat
+              local scan = redis.call('hscan', KEYS[1], cursor, 'COUNT', limit)
+              cursor = scan[1]
+              for i = 1, #scan[2], 2 do
+                if scan[2][i] ~= '\\0ready' then
+                  table.insert(result, scan[2][i])
+                  table.insert(result, scan[2][i + 1])
+                end
+              end
+            until cursor == '0' or #result > limit * 2
+
+            result[1] = cursor
+            return result
+            """;
+
+    private static final String UPDATE_SCRIPT = """
+            if redis.call('hexists', KEYS[1], '\\0ready') == 0 then
+              return 0
+            end
+
+            for i = 1, #ARGV, 2 do
+              if ARGV[i + 1] == '' then
+                redis.call('hdel', KEYS[1], ARGV[i])
+              else
+                redis.call('hset', KEYS[1], ARGV[i], ARGV[i + 1])
+              end
+            end
+
+            return 1
+            """;
+
+    private static final String BUILD_SCRIPT = """
+            redis.call('del', KEYS[1])
+            for i = 2, #ARGV, 2 do
+              redis.call('hset', KEYS[1], ARGV[i], ARGV[i + 1])
+            end
+
+            redis.call('hset', KEYS[1], '\\0ready', '1')
+            redis.call('pexpire', KEYS[1], ARGV[1])
+            return 1
+            """;
+
+    private static final String EVICT_SCRIPT = "return redis.call('del', KEYS[1])";
+
+    private final RScript script;
+    private final String prefix;
+    private final long expiration;
+
+    /**
+     * @param expiration - expiration in milliseconds for an index, the index is rebuilt from the document after that.
+     */
+    public ShareIndex(RedissonClient redis, String prefix, long expiration) {
+        this.script = redis.getScript(StringCodec.INSTANCE);
+        this.prefix = prefix;
+        this.expiration = expiration;
+    }
+
+    /**
+     * Looks up the values of the resources in the index of the document.
+     *
+     * @return the values of the found resources or null if the index is not built.
+     */
+    @Nullable
+    public Map<String, String> get(ResourceDescriptor document, Collection<String> urls) {
+        if (urls.isEmpty()) {
+            return Map.of();
+        }
+
+        List<String> fields = List.copyOf(urls);
+        List<String> values = script.eval(RScript.Mode.READ_ONLY, GET_SCRIPT, RScript.ReturnType.MULTI,
+                List.of(key(document)), fields.toArray());
+
+        if (values == null) {
+            return null;
+        }
+
+        Map<String, String> result = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            String value = values.get(i);
+            if (value != null) {
+                result.put(fields.get(i), value);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Lists the index of the document page by page.
+     * The limit is a hint, a page might contain more resources if they are stored together.
+     *
+     * @param token - the token of the previous page or null for the first page.
+     * @return the page or null if the index is not built.
+     */
+    @Nullable
+    public Page scan(ResourceDescriptor document, @Nullable String token, int limit) {
+        List<String> result = script.eval(RScript.Mode.READ_ONLY, SCAN_SCRIPT, RScript.ReturnType.MULTI,
+                List.of(key(document)), (token == null) ? "0" : token, String.valueOf(limit));
+
+        if (result == null) {
+            return null;
+        }
+
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (int i = 1; i < result.size(); i += 2) {
+            entries.put(result.get(i), result.get(i + 1));
+        }
+
+        String cursor = result.get(0);
+        return new Page(entries, "0".equals(cursor) ? null : cursor);
+    }
+
+    /**
+     * Replaces the index of the document with the entries. Must be called under the document lock.
+     */
+    public void build(ResourceDescriptor document, Map<String, String> entries) {
+        List<Object> values = new ArrayList<>(entries.size() * 2 + 1);
+        values.add(String.valueOf(expiration));
+        entries.forEach((url, value) -> {
+            values.add(url);
+            values.add(value);
+        });
+
+        script.eval(RScript.Mode.READ_WRITE, BUILD_SCRIPT, RScript.ReturnType.INTEGER,
+                List.of(key(document)), values.toArray());
+    }
+
+    /**
+     * Puts the changed resources into the index of the document if the index is built.
+     * Must be called under the document lock.
+     *
+     * @param entries - the new values of the resources, null if a resource is removed from the document.
+     */
+    public void update(ResourceDescriptor document, Map<String, String> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        List<Object> values = new ArrayList<>(entries.size() * 2);
+        entries.forEach((url, value) -> {
+            values.add(url);
+            values.add((value == null) ? "" : value);
+        });
+
+        try {
+            script.eval(RScript.Mode.READ_WRITE, UPDATE_SCRIPT, RScript.ReturnType.INTEGER,
+                    List.of(key(document)), values.toArray());
+        } catch (Throwable e) {
+            // the index is rebuilt from the document, because it might miss the update
+            log.warn("Failed to update share index: {}", document.getUrl(), e);
+            evict(document);
+        }
+    }
+
+    public void evict(ResourceDescriptor document) {
+        script.eval(RScript.Mode.READ_WRITE, EVICT_SCRIPT, RScript.ReturnType.INTEGER, List.of(key(document)));
+    }
+
+    private String key(ResourceDescriptor document) {
+        return "share:" + BlobStorageUtil.toStoragePath(prefix, document.getAbsoluteFilePath());
+    }
+
+    /**
+     * @param entries   - the resource urls with their values.
+     * @param nextToken - the token of the next page or null if it is the last page.
+     */
+    public record Page(Map<String, String> entries, @Nullable String nextToken) {
+    }
+}
@@ -20,18 +20,25 @@ import com.epam.aidial.core.server.resource.ResourceDescriptorFactory;
 import com.epam.aidial.core.server.resource.ResourceType;
 import com.epam.aidial.core.server.security.EncryptionService;
 import com.epam.aidial.core.server.util.ProxyUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.collect.Sets;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 
 
 @Slf4j
@@ -39,10 +46,14 @@ import java.util.stream.Collectors;
 public class ShareService {
 
     private static final String SHARE_RESOURCE_FILENAME = "share";
+    private static final TypeReference<Map<String, Set<ResourceAccessType>>> USER_PERMISSIONS_TYPE = new TypeReference<>() {
+    };
 
     private final ResourceService resourceService;
     private final InvitationService invitationService;
     private final EncryptionService encryptionService;
+    @Nullable
+    private final ShareIndex index;
 
     /**
      * Returns a list of resources shared with user.
@@ -53,25 +64,7 @@ public class ShareService {
      * @return list of shared with user resources
      */
     public SharedResourcesResponse listSharedWithMe(String bucket, String location, ListSharedResourcesRequest request) {
-        Set<ResourceTypes> requestedResourceType = request.getResourceTypes();
-
-        Set<ResourceDescriptor> shareResources = new HashSet<>();
-        for (ResourceTypes resourceType : requestedResourceType) {
-            ResourceDescriptor sharedResource = getShareResource(ResourceTypes.SHARED_WITH_ME, resourceType, bucket, location);
-            shareResources.add(sharedResource);
-        }
-
-        Set<MetadataBase> resultMetadata = new HashSet<>();
-        for (ResourceDescriptor resource : shareResources) {
-            String sharedResource = resourceService.getResource(resource);
-            SharedResources sharedResources = ProxyUtil.convertToObject(sharedResource, SharedResources.class);
-            if (sharedResources != null) {
-                Map<String, Set<ResourceAccessType>> links = sharedResourcesToMap(sharedResources.getResources());
-                resultMetadata.addAll(linksToMetadata(links));
-            }
-        }
-
-        return new SharedResourcesResponse(resultMetadata);
+        return listSharedResources(ResourceTypes.SHARED_WITH_ME, bucket, location, request);
     }
 
     /**
@@ -83,21 +76,64 @@ public class ShareService {
      * @return list of shared with user resources
      */
     public SharedResourcesResponse listSharedByMe(String bucket, String location, ListSharedResourcesRequest request) {
+        return listSharedResources(ResourceTypes.SHARED_BY_ME, bucket, location, request);
+    }
+
+    private SharedResourcesResponse listSharedResources(
+            ResourceTypes shareType, String bucket, String location, ListSharedResourcesRequest request) {
         Set<ResourceTypes> requestedResourceTypes = request.getResourceTypes();
+        Integer limit = request.getLimit();
+
+        if (index == null || limit == null) {
+            Set<MetadataBase> resultMetadata = new HashSet<>();
+            for (ResourceTypes resourceType : requestedResourceTypes) {
+                ResourceDescriptor shareResource = getShareResource(shareType, resourceType, bucket, location);
+                String state = resourceService.getResource(shareResource);
+                resultMetadata.addAll(linksToMetadata(toPermissions(shareType, state)));
+            }
 
-        Set<ResourceDescriptor> shareResources = new HashSet<>();
-        for (ResourceTypes resourceType : requestedResourceTypes) {
-            ResourceDescriptor shareResource = getShareResource(ResourceTypes.SHARED_BY_ME, resourceType, bucket, location);
-            shareResources.add(shareResource);
+            return new SharedResourcesResponse(resultMetadata);
+        }
+
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+
+        // the resource types are listed one by one, the token points to the resource type and its index cursor
+        List<ResourceTypes> resourceTypes = requestedResourceTypes.stream().sorted().toList();
+        String token = request.getNextToken();
+        String cursor = null;
+        int start = 0;
+
+        if (token != null) {
+            int separator = token.indexOf(':');
+            start = (separator < 0) ? -1 : resourceTypes.indexOf(getResourceTypeOrNull(token.substring(0, separator)));
+            if (start < 0) {
+                throw new IllegalArgumentException("Invalid next token: " + token);
+            }
+            cursor = token.substring(separator + 1);
         }
 
         Set<MetadataBase> resultMetadata = new HashSet<>();
-        for (ResourceDescriptor resource : shareResources) {
-            String sharedResource = resourceService.getResource(resource);
-            SharedByMeDto resourceToUsers = ProxyUtil.convertToObject(sharedResource, SharedByMeDto.class);
-            if (resourceToUsers != null) {
-                Map<String, Set<ResourceAccessType>> links = resourceToUsers.getAggregatedPermissions();
-                resultMetadata.addAll(linksToMetadata(links));
+        for (int i = start; i < resourceTypes.size(); i++) {
+            ResourceDescriptor shareResource = getShareResource(shareType, resourceTypes.get(i), bucket, location);
+            ShareIndex.Page page = index.scan(shareResource, cursor, limit);
+            if (page == null) {
+                Map<String, String> entries = buildIndex(shareType, shareResource);
+                page = Objects.requireNonNullElse(index.scan(shareResource, cursor, limit), new ShareIndex.Page(entries, null));
+            }
+
+            Map<String, Set<ResourceAccessType>> links = new HashMap<>();
+            page.entries().forEach((url, value) -> links.put(url, decodePermissions(shareType, value)));
+            resultMetadata.addAll(linksToMetadata(links));
+
+            if (page.nextToken() != null) {
+                return new SharedResourcesResponse(resultMetadata, resourceTypes.get(i).group() + ":" + page.nextToken());
+            }
+
+            cursor = null;
+            if (resultMetadata.size() >= limit && i + 1 < resourceTypes.size()) {
+                return new SharedResourcesResponse(resultMetadata, resourceTypes.get(i + 1).group() + ":0");
             }
         }
 
@@ -168,8 +204,8 @@ public class ShareService {
 
             // write user location to the resource owner
             ResourceDescriptor sharedByMe = getShareResource(ResourceTypes.SHARED_BY_ME, resourceType, ownerBucket, ownerLocation);
-            resourceService.computeResource(sharedByMe, state -> {
-                SharedByMeDto dto = ProxyUtil.convertToObject(state, SharedByMeDto.class);
+            List<String> urls = links.stream().map(SharedResource::url).toList();
+            computeSharedByMe(sharedByMe, urls, dto -> {
                 if (dto == null) {
                     dto = new SharedByMeDto(new HashMap<>(), new HashMap<>());
                 }
@@ -179,12 +215,11 @@ public class ShareService {
                     dto.addUserToResource(resource, location);
                 }
 
-                return ProxyUtil.convertToString(dto);
+                return dto;
             });
 
             ResourceDescriptor sharedWithMe = getShareResource(ResourceTypes.SHARED_WITH_ME, resourceType, bucket, location);
-            resourceService.computeResource(sharedWithMe, state -> {
-                SharedResources sharedResources = ProxyUtil.convertToObject(state, SharedResources.class);
+            computeSharedWithMe(sharedWithMe, urls, sharedResources -> {
                 if (sharedResources == null) {
                     sharedResources = new SharedResources(new ArrayList<>());
                 }
@@ -192,7 +227,7 @@ public class ShareService {
                 // add all links to the user
                 sharedResources.addSharedResources(sharedResourcesToMap(links));
 
-                return ProxyUtil.convertToString(sharedResources);
+                return sharedResources;
             });
         });
     }
@@ -206,15 +241,19 @@ public class ShareService {
         privateResourcesByTypes.forEach((type, resources) -> {
             ResourceDescriptor shareResource = getShareResource(ResourceTypes.SHARED_WITH_ME, type, bucket, location);
 
-            String state = resourceService.getResource(shareResource);
-            SharedResources sharedResources = ProxyUtil.convertToObject(state, SharedResources.class);
-            if (sharedResources == null) {
+            Set<String> urls = new HashSet<>();
+            for (ResourceDescriptor resource : resources) {
+                for (ResourceDescriptor parent = resource; parent != null; parent = parent.getParent()) {
+                    urls.add(parent.getUrl());
+                }
+            }
+
+            Map<String, Set<ResourceAccessType>> resourcePermissions = lookupShareResource(ResourceTypes.SHARED_WITH_ME, shareResource, urls);
+            if (resourcePermissions == null) {
                 log.debug("No state found for share access");
                 return;
             }
 
-            Map<String, Set<ResourceAccessType>> resourcePermissions =
-                    sharedResourcesToMap(sharedResources.getResources());
             for (ResourceDescriptor resource : resources) {
                 result.put(resource, lookupPermissions(resource, resourcePermissions, new HashMap<>()));
             }
@@ -274,34 +313,44 @@ public class ShareService {
             }
         });
 
-        permissionsToRevoke.forEach((resource, permissionsToRemove) -> {
-            ResourceType resourceType = resource.getType();
-            String resourceUrl = resource.getUrl();
+        // the share documents are updated once for all the resources of the same type
+        Map<ResourceType, Map<String, Set<ResourceAccessType>>> typeToPermissions = new HashMap<>();
+        permissionsToRevoke.forEach((resource, permissions) -> typeToPermissions
+                .computeIfAbsent(resource.getType(), type -> new HashMap<>())
+                .put(resource.getUrl(), permissions));
+
+        typeToPermissions.forEach((resourceType, urlToPermissions) -> {
             ResourceDescriptor sharedByMeResource = getShareResource(ResourceTypes.SHARED_BY_ME, resourceType, bucket, location);
-            String state = resourceService.getResource(sharedByMeResource);
-            SharedByMeDto dto = ProxyUtil.convertToObject(state, SharedByMeDto.class);
-            if (dto != null) {
-                Set<String> userLocations = dto.collectUsersForPermissions(resourceUrl, permissionsToRemove);
+            Map<String, Map<String, Set<ResourceAccessType>>> userToPermissions = new HashMap<>();
+            getUserPermissions(sharedByMeResource, urlToPermissions.keySet()).forEach((url, users) -> {
+                Set<ResourceAccessType> permissionsToRemove = urlToPermissions.get(url);
+                users.forEach((user, permissions) -> {
+                    if (!Collections.disjoint(permissions, permissionsToRemove)) {
+                        userToPermissions.computeIfAbsent(user, key -> new HashMap<>()).put(url, permissionsToRemove);
+                    }
+                });
+            });
 
-                // if userLocations is empty - this means that provided resource wasn't shared
-                if (userLocations.isEmpty()) {
-                    return;
-                }
+            // if userToPermissions is empty - this means that provided resources weren't shared
+            if (userToPermissions.isEmpty()) {
+                return;
+            }
 
-                userLocations.forEach(user -> {
-                    String userBucket = encryptionService.encrypt(user);
-                    removeSharedResourcePermissions(userBucket, user, resourceUrl, resourceType, permissionsToRemove);
-                });
+            userToPermissions.forEach((user, permissions) -> {
+                String userBucket = encryptionService.encrypt(user);
+                removeSharedResourcePermissions(userBucket, user, resourceType, permissions);
+            });
 
-                resourceService.computeResource(sharedByMeResource, ownerState -> {
-                    SharedByMeDto sharedByMeDto = ProxyUtil.convertToObject(state, SharedByMeDto.class);
-                    if (sharedByMeDto != null) {
-                        sharedByMeDto.removePermissionsFromResource(resourceUrl, permissionsToRemove);
-                    }
+            Set<String> sharedUrls = userToPermissions.values().stream()
+                    .flatMap(permissions -> permissions.keySet().stream())
+                    .collect(Collectors.toUnmodifiableSet());
+            computeSharedByMe(sharedByMeResource, sharedUrls, sharedByMeDto -> {
+                if (sharedByMeDto != null) {
+                    sharedUrls.forEach(url -> sharedByMeDto.removePermissionsFromResource(url, urlToPermissions.get(url)));
+                }
 
-                    return ProxyUtil.convertToString(sharedByMeDto);
-                });
-            }
+                return sharedByMeDto;
+            });
         });
     }
 
@@ -319,19 +368,18 @@ public class ShareService {
         for (ResourceDescriptor resource : resources) {
             ResourceType resourceType = resource.getType();
             String resourceUrl = resource.getUrl();
-            removeSharedResourcePermissions(bucket, location, resourceUrl, resourceType, ResourceAccessType.ALL);
+            removeSharedResourcePermissions(bucket, location, resourceType, Map.of(resourceUrl, ResourceAccessType.ALL));
 
             String ownerBucket = resource.getBucketName();
             String ownerLocation = encryptionService.decrypt(ownerBucket);
 
             ResourceDescriptor sharedWithMe = getShareResource(ResourceTypes.SHARED_BY_ME, resourceType, ownerBucket, ownerLocation);
-            resourceService.computeResource(sharedWithMe, ownerState -> {
-                SharedByMeDto sharedByMeDto = ProxyUtil.convertToObject(ownerState, SharedByMeDto.class);
+            computeSharedByMe(sharedWithMe, List.of(resourceUrl), sharedByMeDto -> {
                 if (sharedByMeDto != null) {
                     sharedByMeDto.removeUserFromResource(resourceUrl, location);
                 }
 
-                return ProxyUtil.convertToString(sharedByMeDto);
+                return sharedByMeDto;
             });
         }
     }
@@ -347,86 +395,301 @@ public class ShareService {
 
         ResourceType sourceResourceType = source.getType();
         ResourceDescriptor sharedByMeResource = getShareResource(ResourceTypes.SHARED_BY_ME, sourceResourceType, bucket, location);
-        SharedByMeDto sharedByMeDto = ProxyUtil.convertToObject(resourceService.getResource(sharedByMeResource), SharedByMeDto.class);
-        if (sharedByMeDto == null) {
+        Map<String, Set<ResourceAccessType>> userPermissions = getUserPermissions(sharedByMeResource, source.getUrl());
+        if (userPermissions.isEmpty()) {
             return;
         }
 
-        Map<String, Set<ResourceAccessType>> userPermissions = sharedByMeDto.getUserPermissions(source.getUrl());
-
-        ResourceType destinationResourceType = destination.getType();
-        String destinationResourceLink = destination.getUrl();
         // source and destination resource type might be different
-        sharedByMeResource = getShareResource(ResourceTypes.SHARED_BY_ME, destinationResourceType, bucket, location);
+        copyUserPermissions(bucket, location, destination.getType(), Map.of(destination.getUrl(), userPermissions));
+    }
+
+    /**
+     * Moves shared access from the source resources to the destination ones within the bucket, e.g. of a moved folder.
+     * The share documents are read and updated once for all the resources of the same type.
+     * The resources are not checked to exist, because the sources might be deleted already.
+     *
+     * @param resources - the destination resources by the source ones.
+     */
+    public void moveSharedAccess(String bucket, String location, Map<ResourceDescriptor, ResourceDescriptor> resources) {
+        if (resources.isEmpty()) {
+            return;
+        }
+
+        Map<ResourceType, Map<String, ResourceDescriptor>> typeToResources = new HashMap<>();
+        resources.forEach((source, destination) -> typeToResources
+                .computeIfAbsent(source.getType(), type -> new HashMap<>())
+                .put(source.getUrl(), destination));
+
+        typeToResources.forEach((sourceType, urlToDestination) -> {
+            ResourceDescriptor sharedByMeResource = getShareResource(ResourceTypes.SHARED_BY_ME, sourceType, bucket, location);
+            // source and destination resource type might be different
+            Map<ResourceType, Map<String, Map<String, Set<ResourceAccessType>>>> destinations = new HashMap<>();
+            getUserPermissions(sharedByMeResource, urlToDestination.keySet()).forEach((url, userPermissions) -> {
+                ResourceDescriptor destination = urlToDestination.get(url);
+                destinations.computeIfAbsent(destination.getType(), type -> new HashMap<>())
+                        .put(destination.getUrl(), userPermissions);
+            });
+
+            destinations.forEach((destinationType, urlToUsers) -> copyUserPermissions(bucket, location, destinationType, urlToUsers));
+        });
+
+        Map<ResourceDescriptor, Set<ResourceAccessType>> sources = new HashMap<>();
+        resources.keySet().forEach(source -> sources.put(source, ResourceAccessType.ALL));
+        revokeSharedAccess(bucket, location, sources);
+    }
+
+    /**
+     * Adds the users and their permissions to the resources of the same type.
+     *
+     * @param urlToUsers - the permissions by the user location by the resource url.
+     */
+    private void copyUserPermissions(String bucket, String location, ResourceType resourceType,
+                                     Map<String, Map<String, Set<ResourceAccessType>>> urlToUsers) {
+        ResourceDescriptor sharedByMeResource = getShareResource(ResourceTypes.SHARED_BY_ME, resourceType, bucket, location);
 
         // copy user locations from source to destination
-        resourceService.computeResource(sharedByMeResource, state -> {
-            SharedByMeDto dto = ProxyUtil.convertToObject(state, SharedByMeDto.class);
+        computeSharedByMe(sharedByMeResource, urlToUsers.keySet(), dto -> {
             if (dto == null) {
                 dto = new SharedByMeDto(new HashMap<>(), new HashMap<>());
             }
 
-            // add shared access to the destination resource
-            dto.addUserPermissionsToResource(destinationResourceLink, userPermissions);
+            // add shared access to the destination resources
+            urlToUsers.forEach(dto::addUserPermissionsToResource);
 
-            return ProxyUtil.convertToString(dto);
+            return dto;
         });
 
-        // add each user shared access to the destination resource
-        userPermissions.forEach((userLocation, permissions) -> {
+        // add each user shared access to the destination resources
+        Map<String, Map<String, Set<ResourceAccessType>>> userToPermissions = new HashMap<>();
+        urlToUsers.forEach((url, users) -> users.forEach((user, permissions) ->
+                userToPermissions.computeIfAbsent(user, key -> new HashMap<>()).put(url, permissions)));
+
+        userToPermissions.forEach((userLocation, permissions) -> {
             String userBucket = encryptionService.encrypt(userLocation);
-            addSharedResource(userBucket, userLocation, destinationResourceLink, destinationResourceType, permissions);
+            addSharedResources(userBucket, userLocation, resourceType, permissions);
         });
     }
 
-    public void moveSharedAccess(String bucket, String location, ResourceDescriptor source, ResourceDescriptor destination) {
-        // copy shared access from source to destination
-        copySharedAccess(bucket, location, source, destination);
-        // revoke shared access from source
-        revokeSharedAccess(bucket, location, Map.of(source, ResourceAccessType.ALL));
-    }
-
     private void removeSharedResourcePermissions(
-            String bucket, String location, String link, ResourceType resourceType, Set<ResourceAccessType> permissionsToRemove) {
-        ResourceDescriptor sharedByMeResource = getShareResource(ResourceTypes.SHARED_WITH_ME, resourceType, bucket, location);
-        resourceService.computeResource(sharedByMeResource, state -> {
-            SharedResources sharedWithMe = ProxyUtil.convertToObject(state, SharedResources.class);
+            String bucket, String location, ResourceType resourceType, Map<String, Set<ResourceAccessType>> permissionsToRemove) {
+        ResourceDescriptor sharedWithMeResource = getShareResource(ResourceTypes.SHARED_WITH_ME, resourceType, bucket, location);
+        computeSharedWithMe(sharedWithMeResource, permissionsToRemove.keySet(), sharedWithMe -> {
             if (sharedWithMe != null) {
-                Set<ResourceAccessType> permissions = EnumSet.noneOf(ResourceAccessType.class);
-                permissions.addAll(sharedWithMe.findPermissions(link));
-                permissions.removeAll(permissionsToRemove);
-                sharedWithMe.getResources().removeIf(resource -> link.equals(resource.url()));
-                if (!permissions.isEmpty()) {
-                    sharedWithMe.getResources().add(new SharedResource(link, permissions));
-                }
+                Map<String, Set<ResourceAccessType>> linkToPermissions = removeSharedResources(sharedWithMe, permissionsToRemove.keySet());
+                linkToPermissions.forEach((link, permissions) -> {
+                    permissions.removeAll(permissionsToRemove.get(link));
+                    if (!permissions.isEmpty()) {
+                        sharedWithMe.getResources().add(new SharedResource(link, permissions));
+                    }
+                });
             }
 
-            return ProxyUtil.convertToString(sharedWithMe);
+            return sharedWithMe;
         });
     }
 
-    private void addSharedResource(
-            String bucket,
-            String location,
-            String link,
-            ResourceType resourceType,
-            Set<ResourceAccessType> permissionsToAdd) {
-        ResourceDescriptor sharedByMeResource = getShareResource(ResourceTypes.SHARED_WITH_ME, resourceType, bucket, location);
-        resourceService.computeResource(sharedByMeResource, state -> {
-            SharedResources sharedWithMe = ProxyUtil.convertToObject(state, SharedResources.class);
+    private void addSharedResources(
+            String bucket, String location, ResourceType resourceType, Map<String, Set<ResourceAccessType>> permissionsToAdd) {
+        ResourceDescriptor sharedWithMeResource = getShareResource(ResourceTypes.SHARED_WITH_ME, resourceType, bucket, location);
+        computeSharedWithMe(sharedWithMeResource, permissionsToAdd.keySet(), sharedWithMe -> {
             if (sharedWithMe == null) {
                 sharedWithMe = new SharedResources(new ArrayList<>());
             }
-            Set<ResourceAccessType> permissions = EnumSet.noneOf(ResourceAccessType.class);
-            permissions.addAll(sharedWithMe.findPermissions(link));
-            permissions.addAll(permissionsToAdd);
-            sharedWithMe.getResources().removeIf(resource -> link.equals(resource.url()));
-            sharedWithMe.getResources().add(new SharedResource(link, permissions));
 
-            return ProxyUtil.convertToString(sharedWithMe);
+            Map<String, Set<ResourceAccessType>> linkToPermissions = removeSharedResources(sharedWithMe, permissionsToAdd.keySet());
+            for (Map.Entry<String, Set<ResourceAccessType>> entry : permissionsToAdd.entrySet()) {
+                Set<ResourceAccessType> permissions = linkToPermissions.getOrDefault(entry.getKey(), EnumSet.noneOf(ResourceAccessType.class));
+                permissions.addAll(entry.getValue());
+                sharedWithMe.getResources().add(new SharedResource(entry.getKey(), permissions));
+            }
+
+            return sharedWithMe;
         });
     }
 
+    /**
+     * Removes the links from the shared resources in one pass.
+     *
+     * @return the merged permissions of the removed links.
+     */
+    private static Map<String, Set<ResourceAccessType>> removeSharedResources(SharedResources sharedResources, Set<String> links) {
+        Map<String, Set<ResourceAccessType>> linkToPermissions = new HashMap<>();
+        sharedResources.getResources().removeIf(resource -> {
+            if (!links.contains(resource.url())) {
+                return false;
+            }
+
+            linkToPermissions.computeIfAbsent(resource.url(), link -> EnumSet.noneOf(ResourceAccessType.class))
+                    .addAll(resource.permissions());
+            return true;
+        });
+
+        return linkToPermissions;
+    }
+
+    private void computeSharedWithMe(ResourceDescriptor shareResource, Collection<String> urls, UnaryOperator<SharedResources> fn) {
+        computeShareResource(shareResource, state -> {
+            SharedResources sharedResources = fn.apply(ProxyUtil.convertToObject(state, SharedResources.class));
+            if (index != null) {
+                Map<String, String> entries = new HashMap<>();
+                for (String url : urls) {
+                    Set<ResourceAccessType> permissions = (sharedResources == null) ? Set.of() : sharedResources.findPermissions(url);
+                    entries.put(url, permissions.isEmpty() ? null : encodePermissions(permissions));
+                }
+                index.update(shareResource, entries);
+            }
+
+            return ProxyUtil.convertToString(sharedResources);
+        });
+    }
+
+    private void computeSharedByMe(ResourceDescriptor shareResource, Collection<String> urls, UnaryOperator<SharedByMeDto> fn) {
+        computeShareResource(shareResource, state -> {
+            SharedByMeDto dto = fn.apply(ProxyUtil.convertToObject(state, SharedByMeDto.class));
+            if (index != null) {
+                Map<String, String> entries = new HashMap<>();
+                for (String url : urls) {
+                    Map<String, Set<ResourceAccessType>> users = (dto == null) ? Map.of() : dto.getUserPermissions(url);
+                    entries.put(url, users.isEmpty() ? null : ProxyUtil.convertToString(users));
+                }
+                index.update(shareResource, entries);
+            }
+
+            return ProxyUtil.convertToString(dto);
+        });
+    }
+
+    private void computeShareResource(ResourceDescriptor shareResource, Function<String, String> fn) {
+        try {
+            resourceService.computeResource(shareResource, fn);
+        } catch (Throwable e) {
+            // the index might be updated, but the document is not
+            if (index != null) {
+                index.evict(shareResource);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return the permissions of the resources found in the share document or null if there is no document.
+     */
+    @Nullable
+    private Map<String, Set<ResourceAccessType>> lookupShareResource(
+            ResourceTypes shareType, ResourceDescriptor shareResource, Collection<String> urls) {
+        if (index == null) {
+            String state = resourceService.getResource(shareResource);
+            return (state == null) ? null : toPermissions(shareType, state);
+        }
+
+        Map<String, String> entries = index.get(shareResource, urls);
+        if (entries == null) {
+            entries = buildIndex(shareType, shareResource);
+        }
+
+        Map<String, Set<ResourceAccessType>> result = new HashMap<>();
+        entries.forEach((url, value) -> result.put(url, decodePermissions(shareType, value)));
+        return result;
+    }
+
+    private Map<String, Set<ResourceAccessType>> getUserPermissions(ResourceDescriptor sharedByMeResource, String url) {
+        return getUserPermissions(sharedByMeResource, List.of(url)).getOrDefault(url, Map.of());
+    }
+
+    /**
+     * @return the permissions by the user location by the resource url, the resources which are not shared are omitted.
+     */
+    private Map<String, Map<String, Set<ResourceAccessType>>> getUserPermissions(ResourceDescriptor sharedByMeResource,
+                                                                              Collection<String> urls) {
+        Map<String, Map<String, Set<ResourceAccessType>>> result = new HashMap<>();
+        if (index == null) {
+            SharedByMeDto dto = ProxyUtil.convertToObject(resourceService.getResource(sharedByMeResource), SharedByMeDto.class);
+            if (dto != null) {
+                for (String url : urls) {
+                    Map<String, Set<ResourceAccessType>> users = dto.getUserPermissions(url);
+                    if (!users.isEmpty()) {
+                        result.put(url, users);
+                    }
+                }
+            }
+
+            return result;
+        }
+
+        Map<String, String> entries = index.get(sharedByMeResource, urls);
+        if (entries == null) {
+            entries = buildIndex(ResourceTypes.SHARED_BY_ME, sharedByMeResource);
+        }
+
+        for (String url : urls) {
+            String users = entries.get(url);
+            if (users != null) {
+                result.put(url, decodeUserPermissions(users));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds the index from the share document under its lock, so no change is missed.
+     *
+     * @return all the entries of the index.
+     */
+    private Map<String, String> buildIndex(ResourceTypes shareType, ResourceDescriptor shareResource) {
+        Map<String, String> entries = new HashMap<>();
+        resourceService.computeResource(shareResource, state -> {
+            if (shareType == ResourceTypes.SHARED_WITH_ME) {
+                toPermissions(shareType, state).forEach((url, permissions) -> entries.put(url, encodePermissions(permissions)));
+            } else {
+                SharedByMeDto dto = ProxyUtil.convertToObject(state, SharedByMeDto.class);
+                if (dto != null) {
+                    dto.getAggregatedPermissions().keySet()
+                            .forEach(url -> entries.put(url, ProxyUtil.convertToString(dto.getUserPermissions(url))));
+                }
+            }
+
+            index.build(shareResource, entries);
+            return state;
+        });
+
+        return entries;
+    }
+
+    private static Map<String, Set<ResourceAccessType>> toPermissions(ResourceTypes shareType, @Nullable String state) {
+        if (shareType == ResourceTypes.SHARED_WITH_ME) {
+            SharedResources sharedResources = ProxyUtil.convertToObject(state, SharedResources.class);
+            return (sharedResources == null) ? Map.of() : sharedResourcesToMap(sharedResources.getResources());
+        }
+
+        SharedByMeDto dto = ProxyUtil.convertToObject(state, SharedByMeDto.class);
+        return (dto == null) ? Map.of() : dto.getAggregatedPermissions();
+    }
+
+    private static Set<ResourceAccessType> decodePermissions(ResourceTypes shareType, String value) {
+        if (shareType == ResourceTypes.SHARED_WITH_ME) {
+            Set<ResourceAccessType> permissions = EnumSet.noneOf(ResourceAccessType.class);
+            for (String permission : value.split(",")) {
+                permissions.add(ResourceAccessType.valueOf(permission));
+            }
+            return permissions;
+        }
+
+        // the permissions shared by the user with anyone
+        Set<ResourceAccessType> permissions = EnumSet.noneOf(ResourceAccessType.class);
+        decodeUserPermissions(value).values().forEach(permissions::addAll);
+        return permissions;
+    }
+
+    private static String encodePermissions(Set<ResourceAccessType> permissions) {
+        return permissions.stream().map(Enum::name).collect(Collectors.joining(","));
+    }
+
+    private static Map<String, Set<ResourceAccessType>> decodeUserPermissions(String value) {
+        return ProxyUtil.convertToObject(value, USER_PERMISSIONS_TYPE);
+    }
+
     private List<MetadataBase> linksToMetadata(Map<String, Set<ResourceAccessType>> links) {
         return links.entrySet().stream()
                 .map(entry -> {
@@ -464,6 +727,15 @@ public class ShareService {
         return ResourceTypes.of(paths[0]);
     }
 
+    @Nullable
+    private static ResourceTypes getResourceTypeOrNull(String group) {
+        try {
+            return ResourceTypes.of(group);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     private String getBucket(String url) {
         if (url == null) {
             throw new IllegalStateException("Resource link can not be null");
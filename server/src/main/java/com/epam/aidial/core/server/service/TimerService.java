@@ -18,5 +18,7 @@ public interface TimerService {
     Timer scheduleWithFixedDelay(long initialDelay, long delay, Runnable task);
 
     interface Timer extends AutoCloseable {
+        @Override
+        void close();
     }
 }
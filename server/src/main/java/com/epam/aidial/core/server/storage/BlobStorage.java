@@ -1,9 +1,12 @@
 package com.epam.aidial.core.server.storage;
 
+import com.epam.aidial.core.server.metric.IoMetrics;
 import com.epam.aidial.core.server.resource.ResourceDescriptor;
 import com.epam.aidial.core.server.storage.credential.CredentialProvider;
 import com.epam.aidial.core.server.storage.credential.CredentialProviderFactory;
+import com.google.common.io.ByteSource;
 import lombok.Getter;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.jclouds.ContextBuilder;
 import org.jclouds.blobstore.BlobStore;
@@ -27,7 +30,7 @@ import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.ContentMetadataBuilder;
 import org.jclouds.io.Payload;
 import org.jclouds.io.payloads.BaseMutableContentMetadata;
-import org.jclouds.io.payloads.ByteArrayPayload;
+import org.jclouds.io.payloads.ByteSourcePayload;
 import org.jclouds.s3.domain.ObjectMetadataBuilder;
 
 import java.io.Closeable;
@@ -82,7 +85,8 @@ public class BlobStorage implements Closeable {
     public MultipartUpload initMultipartUpload(String absoluteFilePath, String contentType) {
         String storageLocation = getStorageLocation(absoluteFilePath);
         BlobMetadata metadata = buildBlobMetadata(storageLocation, contentType, bucketName);
-        return blobStore.initiateMultipartUpload(bucketName, metadata, PutOptions.NONE);
+        return IoMetrics.record(IoMetrics.BLOB, "initMultipartUpload",
+                () -> blobStore.initiateMultipartUpload(bucketName, metadata, PutOptions.NONE));
     }
 
     /**
@@ -94,7 +98,7 @@ public class BlobStorage implements Closeable {
      */
     @SuppressWarnings("UnstableApiUsage") // multipart upload uses beta API
     public MultipartPart storeMultipartPart(MultipartUpload multipart, int part, Payload payload) {
-        return blobStore.uploadMultipartPart(multipart, part, payload);
+        return IoMetrics.record(IoMetrics.BLOB, "storeMultipartPart", () -> blobStore.uploadMultipartPart(multipart, part, payload));
     }
 
     /**
@@ -103,7 +107,7 @@ public class BlobStorage implements Closeable {
      */
     @SuppressWarnings("UnstableApiUsage") // multipart upload uses beta API
     public void completeMultipartUpload(MultipartUpload multipart, List<MultipartPart> parts) {
-        blobStore.completeMultipartUpload(multipart, parts);
+        IoMetrics.record(IoMetrics.BLOB, "completeMultipartUpload", () -> blobStore.completeMultipartUpload(multipart, parts));
     }
 
     /**
@@ -112,7 +116,7 @@ public class BlobStorage implements Closeable {
      */
     @SuppressWarnings("UnstableApiUsage") // multipart upload uses beta API
     public void abortMultipartUpload(MultipartUpload multipart) {
-        blobStore.abortMultipartUpload(multipart);
+        IoMetrics.record(IoMetrics.BLOB, "abortMultipartUpload", () -> blobStore.abortMultipartUpload(multipart));
     }
 
     /**
@@ -120,25 +124,26 @@ public class BlobStorage implements Closeable {
      *
      * @param absoluteFilePath absolute path according to the bucket, for example: Users/user1/files/input/file.txt
      * @param contentType      MIME type of the content, for example: text/csv
-     * @param contentEncoding  content encoding, e.g. gzip/brotli/deflate
+     * @param contentEncoding  content encoding, e.g. gzip/zstd/lz4
      * @param data             whole content data
      */
+    @SneakyThrows
     public void store(
             String absoluteFilePath,
             String contentType,
             String contentEncoding,
             Map<String, String> metadata,
-            byte[] data) {
+            ByteSource data) {
         String storageLocation = getStorageLocation(absoluteFilePath);
         Blob blob = blobStore.blobBuilder(storageLocation)
-                .payload(new ByteArrayPayload(data))
-                .contentLength(data.length)
+                .payload(new ByteSourcePayload(data))
+                .contentLength(data.size())
                 .contentType(contentType)
                 .contentEncoding(contentEncoding)
                 .userMetadata(metadata)
                 .build();
 
-        blobStore.putBlob(bucketName, blob);
+        IoMetrics.record(IoMetrics.BLOB, "store", () -> blobStore.putBlob(bucketName, blob));
     }
 
     /**
@@ -149,17 +154,17 @@ public class BlobStorage implements Closeable {
      */
     public Blob load(String filePath) {
         String storageLocation = getStorageLocation(filePath);
-        return blobStore.getBlob(bucketName, storageLocation);
+        return IoMetrics.record(IoMetrics.BLOB, "load", () -> blobStore.getBlob(bucketName, storageLocation));
     }
 
     public boolean exists(String filePath) {
         String storageLocation = getStorageLocation(filePath);
-        return blobStore.blobExists(bucketName, storageLocation);
+        return IoMetrics.record(IoMetrics.BLOB, "exists", () -> blobStore.blobExists(bucketName, storageLocation));
     }
 
     public BlobMetadata meta(String filePath) {
         String storageLocation = getStorageLocation(filePath);
-        return blobStore.blobMetadata(bucketName, storageLocation);
+        return IoMetrics.record(IoMetrics.BLOB, "meta", () -> blobStore.blobMetadata(bucketName, storageLocation));
     }
 
     /**
@@ -169,18 +174,20 @@ public class BlobStorage implements Closeable {
      */
     public void delete(String filePath) {
         String storageLocation = getStorageLocation(filePath);
-        blobStore.removeBlob(bucketName, storageLocation);
+        IoMetrics.record(IoMetrics.BLOB, "delete", () -> blobStore.removeBlob(bucketName, storageLocation));
     }
 
     public boolean copy(String fromPath, String toPath) {
-        blobStore.copyBlob(bucketName, getStorageLocation(fromPath), bucketName, getStorageLocation(toPath), CopyOptions.NONE);
+        String from = getStorageLocation(fromPath);
+        String to = getStorageLocation(toPath);
+        IoMetrics.record(IoMetrics.BLOB, "copy", () -> blobStore.copyBlob(bucketName, from, bucketName, to, CopyOptions.NONE));
         return true;
     }
 
     public PageSet<? extends StorageMetadata> list(String absoluteFilePath, String afterMarker, int maxResults, boolean recursive) {
         ListContainerOptions options = buildListContainerOptions(absoluteFilePath, maxResults, recursive, afterMarker);
 
-        PageSet<? extends StorageMetadata> originalSet = blobStore.list(bucketName, options);
+        PageSet<? extends StorageMetadata> originalSet = IoMetrics.record(IoMetrics.BLOB, "list", () -> blobStore.list(bucketName, options));
         if (prefix == null) {
             return originalSet;
         }
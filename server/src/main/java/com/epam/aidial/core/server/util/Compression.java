@@ -1,44 +1,208 @@
 package com.epam.aidial.core.server.util;
 
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteSource;
 import lombok.SneakyThrows;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
-import java.util.zip.ZipException;
+import javax.annotation.Nullable;
 
 @UtilityClass
 @Slf4j
 public class Compression {
 
-    @SneakyThrows
-    public byte[] compress(String type, byte[] data) {
-        if (!type.equals("gzip")) {
+    public static final String GZIP = "gzip";
+    public static final String ZSTD = "zstd";
+    public static final String LZ4 = "lz4";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final Map<String, CompressionCodec> CODECS = Map.of(
+            GZIP, new GzipCodec(null),
+            ZSTD, new ZstdCodec(null, null, ZSTD),
+            LZ4, new Lz4Codec());
+
+    /**
+     * Returns the default codec for the given Content-Encoding.
+     */
+    public CompressionCodec codec(String type) {
+        CompressionCodec codec = CODECS.get(type);
+        if (codec == null) {
             throw new IllegalArgumentException("Unsupported compression: " + type);
         }
+        return codec;
+    }
+
+    /**
+     * Creates a codec for the given Content-Encoding.
+     *
+     * @param level      - compression level, codec default if null. Ignored by lz4.
+     * @param dictionary - trained dictionary, supported by zstd only. The encoding of the codec identifies the dictionary,
+     *                   e.g. "zstd;dict=0123456789abcdef", since the content compressed with it can't be decompressed without it.
+     */
+    public CompressionCodec codec(String type, @Nullable Integer level, @Nullable byte[] dictionary) {
+        if (dictionary != null && !type.equals(ZSTD)) {
+            throw new IllegalArgumentException("Dictionary is supported for zstd compression only");
+        }
+
+        return switch (type) {
+            case GZIP -> new GzipCodec(level);
+            case ZSTD -> new ZstdCodec(level, dictionary, (dictionary == null) ? ZSTD : dictionaryEncoding(dictionary));
+            case LZ4 -> codec(LZ4);
+            default -> throw new IllegalArgumentException("Unsupported compression: " + type);
+        };
+    }
+
+    private String dictionaryEncoding(byte[] dictionary) {
+        return ZSTD + ";dict=" + Hashing.sha256().hashBytes(dictionary).toString().substring(0, 16);
+    }
+
+    @SneakyThrows
+    public byte[] compress(String type, byte[] data) {
+        return compress(codec(type), data).read();
+    }
 
-        ByteArrayOutputStream output = new ByteArrayOutputStream();
-        try (GZIPOutputStream stream = new GZIPOutputStream(output)) {
+    /**
+     * Compresses the data without copying the compressed output into a new array.
+     */
+    @SneakyThrows
+    public ByteSource compress(CompressionCodec codec, byte[] data) {
+        Output output = new Output(data.length / 4 + 64);
+        try (OutputStream stream = codec.compress(output)) {
             stream.write(data);
         }
-        return output.toByteArray();
+        return output.toByteSource();
+    }
+
+    /**
+     * @return true if the input labelled with the encoding is not actually encoded.
+     *     GCP cloud storage serves gzip objects decompressed, but keeps their Content-Encoding.
+     */
+    public boolean isDecoded(String encoding, byte[] input) {
+        return GZIP.equals(encoding) && !GzipCodec.hasMagic(input);
     }
 
     @SneakyThrows
     public byte[] decompress(String type, byte[] input) {
-        if (!type.equals("gzip")) {
-            throw new IllegalArgumentException("Unsupported compression: " + type);
-        }
-        try (InputStream decompressed = new GZIPInputStream(new ByteArrayInputStream(input))) {
-            return decompressed.readAllBytes();
-        } catch (ZipException e) {
+        CompressionCodec codec = codec(type);
+        if (isDecoded(type, input)) {
             // special case for GCP cloud storage, due to jclouds bug https://issues.apache.org/jira/projects/JCLOUDS/issues/JCLOUDS-1633
-            log.warn("Failed to decompress provided input: {}", e.getMessage());
+            log.warn("Failed to decompress provided input: Not in GZIP format");
             return input;
         }
+
+        try (InputStream decompressed = codec.decompress(new ByteArrayInputStream(input))) {
+            return decompressed.readAllBytes();
+        }
+    }
+
+    private static class Output extends ByteArrayOutputStream {
+        Output(int size) {
+            super(size);
+        }
+
+        ByteSource toByteSource() {
+            return ByteSource.wrap(buf).slice(0, count);
+        }
+    }
+
+    private record GzipCodec(Integer level) implements CompressionCodec {
+
+        static boolean hasMagic(byte[] input) {
+            return input.length >= 2
+                    && (input[0] & 0xff) == (GZIPInputStream.GZIP_MAGIC & 0xff)
+                    && (input[1] & 0xff) == (GZIPInputStream.GZIP_MAGIC >>> 8);
+        }
+
+        @Override
+        public String encoding() {
+            return GZIP;
+        }
+
+        @Override
+        public OutputStream compress(OutputStream output) throws IOException {
+            return new LeveledGzipOutputStream(output, level);
+        }
+
+        @Override
+        public InputStream decompress(InputStream input) throws IOException {
+            BufferedInputStream stream = new BufferedInputStream(input, BUFFER_SIZE);
+            stream.mark(2);
+            byte[] magic = stream.readNBytes(2);
+            stream.reset();
+
+            if (!hasMagic(magic)) {
+                // special case for GCP cloud storage, due to jclouds bug https://issues.apache.org/jira/projects/JCLOUDS/issues/JCLOUDS-1633
+                log.warn("Failed to decompress provided input: Not in GZIP format");
+                return stream;
+            }
+
+            return new GZIPInputStream(stream, BUFFER_SIZE);
+        }
+    }
+
+    private static class LeveledGzipOutputStream extends GZIPOutputStream {
+        LeveledGzipOutputStream(OutputStream output, Integer level) throws IOException {
+            super(output, BUFFER_SIZE);
+            if (level != null) {
+                def.setLevel(level);
+            }
+        }
+    }
+
+    private record ZstdCodec(Integer level, byte[] dictionary, String encoding) implements CompressionCodec {
+
+        @Override
+        public OutputStream compress(OutputStream output) throws IOException {
+            ZstdOutputStream stream = new ZstdOutputStream(output);
+            if (level != null) {
+                stream.setLevel(level);
+            }
+            if (dictionary != null) {
+                stream.setDict(dictionary);
+            }
+            return stream;
+        }
+
+        @Override
+        public InputStream decompress(InputStream input) throws IOException {
+            ZstdInputStream stream = new ZstdInputStream(input);
+            if (dictionary != null) {
+                stream.setDict(dictionary);
+            }
+            return stream;
+        }
+    }
+
+    private record Lz4Codec() implements CompressionCodec {
+
+        @Override
+        public String encoding() {
+            return LZ4;
+        }
+
+        @Override
+        public OutputStream compress(OutputStream output) throws IOException {
+            return new LZ4FrameOutputStream(output);
+        }
+
+        @Override
+        public InputStream decompress(InputStream input) throws IOException {
+            return new LZ4FrameInputStream(input);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package com.epam.aidial.core.server.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Streaming compression codec. The codec is identified by its HTTP Content-Encoding token
+ * which is stored along with the compressed content, so it can be decompressed later.
+ */
+public interface CompressionCodec {
+
+    /**
+     * @return Content-Encoding token, e.g. gzip, zstd, lz4.
+     */
+    String encoding();
+
+    /**
+     * Wraps the output. The caller must close the returned stream to flush the trailing frame.
+     */
+    OutputStream compress(OutputStream output) throws IOException;
+
+    /**
+     * Wraps the input. Closing the returned stream closes the input.
+     */
+    InputStream decompress(InputStream input) throws IOException;
+}
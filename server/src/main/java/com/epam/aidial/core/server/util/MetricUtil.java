@@ -0,0 +1,18 @@
+package com.epam.aidial.core.server.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.vertx.micrometer.backends.BackendRegistries;
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class MetricUtil {
+
+    /**
+     * Returns the registry Vert.x exports metrics to (Prometheus/OTLP) or a no-op registry if metrics are disabled.
+     */
+    public static MeterRegistry registry() {
+        MeterRegistry registry = BackendRegistries.getDefaultNow();
+        return (registry == null) ? Metrics.globalRegistry : registry;
+    }
+}
@@ -0,0 +1,211 @@
+package com.epam.aidial.core.server.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Matches request paths against templates in a single pass over the path segments without regular expressions.
+ * Templates consist of segments separated by slashes:
+ * <ul>
+ *     <li>{@code name} - the literal segment.</li>
+ *     <li>{@code {name}} - any non-empty segment.</li>
+ *     <li>{@code {name:alnum}} - the segment of letters and digits.</li>
+ *     <li>{@code {name+}} - one or more characters up to the end of the path or the literal segments following it,
+ *     slashes included.</li>
+ *     <li>{@code {name*}} - the same, but can be empty. Must be the last segment.</li>
+ * </ul>
+ * The template which starts with {@code /+} accepts the path with several leading slashes.
+ *
+ * <p>Literal segments take precedence over single segment captures and the latter over the rest captures.
+ * The rest captures take the shortest match, like lazy regular expression groups.
+ * The path is matched as is, captured values are not decoded.
+ */
+public class PathTrie<T> {
+
+    private final Node<T> root = new Node<>();
+
+    public PathTrie<T> add(String template, T value) {
+        boolean slashes = template.startsWith("/+");
+        String[] segments = template.substring(slashes ? 2 : 1).split("/", -1);
+        Node<T> node = root;
+
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+
+            if (segment.startsWith("{") && (segment.endsWith("+}") || segment.endsWith("*}"))) {
+                String name = segment.substring(1, segment.length() - 2);
+                String suffix = (i + 1 == segments.length) ? ""
+                        : "/" + String.join("/", List.of(segments).subList(i + 1, segments.length));
+
+                if (segment.endsWith("*}") && !suffix.isEmpty()) {
+                    throw new IllegalArgumentException("Optional rest capture must be the last segment: " + template);
+                }
+
+                node.tails.add(new Tail<>(name, suffix, segment.endsWith("+}") ? 1 : 0, new Entry<>(template, value, slashes)));
+                node.tails.sort((a, b) -> Integer.compare(b.suffix.length(), a.suffix.length()));
+                return this;
+            }
+
+            if (segment.startsWith("{")) {
+                boolean alnum = segment.endsWith(":alnum}");
+                String name = segment.substring(1, segment.length() - (alnum ? 7 : 1));
+
+                if (node.param == null) {
+                    node.param = new Param<>(name, alnum, new Node<>());
+                } else if (!node.param.name.equals(name) || node.param.alnum != alnum) {
+                    throw new IllegalArgumentException("Conflicting capture " + segment + " in template: " + template);
+                }
+
+                node = node.param.node;
+            } else {
+                node = node.children.computeIfAbsent(segment, key -> new Node<>());
+            }
+        }
+
+        if (node.entry != null) {
+            throw new IllegalArgumentException("Duplicate template: " + template);
+        }
+
+        node.entry = new Entry<>(template, value, slashes);
+        return this;
+    }
+
+    /**
+     * @return the match or null if no template matches the path.
+     */
+    @Nullable
+    public Match<T> match(String path) {
+        if (path.isEmpty() || path.charAt(0) != '/') {
+            return null;
+        }
+
+        int start = 1;
+        while (start < path.length() && path.charAt(start) == '/') {
+            start++;
+        }
+
+        // several leading slashes are accepted by some templates only, it is checked once matched
+        boolean slashes = start > 1;
+        List<Capture> captures = new ArrayList<>(2);
+        Entry<T> entry = match(root, path, start, captures);
+
+        if (entry == null || (slashes && !entry.slashes)) {
+            return null;
+        }
+
+        return new Match<>(entry.value, entry.template, path, captures);
+    }
+
+    /**
+     * Matches the rest of the path starting right after a slash.
+     */
+    @Nullable
+    private static <T> Entry<T> match(Node<T> node, String path, int start, List<Capture> captures) {
+        int end = path.indexOf('/', start);
+        end = (end < 0) ? path.length() : end;
+
+        Node<T> child = node.children.isEmpty() ? null : node.children.get(path.substring(start, end));
+        if (child != null) {
+            Entry<T> entry = next(child, path, end, captures);
+            if (entry != null) {
+                return entry;
+            }
+        }
+
+        Param<T> param = node.param;
+        if (param != null && end > start && (!param.alnum || isAlphanumeric(path, start, end))) {
+            int size = captures.size();
+            captures.add(new Capture(param.name, start, end));
+
+            Entry<T> entry = next(param.node, path, end, captures);
+            if (entry != null) {
+                return entry;
+            }
+
+            captures.remove(size);
+        }
+
+        for (Tail<T> tail : node.tails) {
+            int length = path.length() - start - tail.suffix.length();
+            if (length >= tail.minLength && path.endsWith(tail.suffix)) {
+                captures.add(new Capture(tail.name, start, start + length));
+                return tail.entry;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Continues matching after the segment which ends at the given position.
+     */
+    @Nullable
+    private static <T> Entry<T> next(Node<T> node, String path, int end, List<Capture> captures) {
+        return (end == path.length()) ? node.entry : match(node, path, end + 1, captures);
+    }
+
+    private static boolean isAlphanumeric(String path, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9')) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public record Match<T>(T value, String template, String path, List<Capture> captures) {
+
+        /**
+         * @return the captured value or null if the template has no such capture.
+         */
+        @Nullable
+        public String get(String name) {
+            for (Capture capture : captures) {
+                if (capture.name().equals(name)) {
+                    return path.substring(capture.start(), capture.end());
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * @return the path with the captured values replaced by their names, e.g. /openai/deployments/{id}/chat/completions.
+         */
+        public String name() {
+            StringBuilder builder = new StringBuilder(path.length());
+            int position = 0;
+
+            for (Capture capture : captures) {
+                builder.append(path, position, capture.start()).append('{').append(capture.name()).append('}');
+                position = capture.end();
+            }
+
+            return builder.append(path, position, path.length()).toString();
+        }
+    }
+
+    public record Capture(String name, int start, int end) {
+    }
+
+    private static class Node<T> {
+        final Map<String, Node<T>> children = new HashMap<>();
+        final List<Tail<T>> tails = new ArrayList<>();
+        Param<T> param;
+        Entry<T> entry;
+    }
+
+    private record Param<T>(String name, boolean alnum, Node<T> node) {
+    }
+
+    private record Tail<T>(String name, String suffix, int minLength, Entry<T> entry) {
+    }
+
+    private record Entry<T>(String template, T value, boolean slashes) {
+    }
+}
@@ -3,16 +3,13 @@ package com.epam.aidial.core.server.util;
 import io.opentelemetry.api.trace.Span;
 import lombok.experimental.UtilityClass;
 
-import java.util.List;
-import java.util.regex.Pattern;
-
 @UtilityClass
 public class SpanUtil {
 
-    private static final List<String> GROUPS = List.of("id", "bucket", "path");
-
-    public static void updateName(Pattern pathPattern, String path, String httpMethod) {
-        String spanName = RegexUtil.replaceNamedGroups(pathPattern, path, GROUPS);
-        Span.current().updateName(httpMethod + " " + spanName);
+    /**
+     * @param pathName - the request path with the ids replaced by placeholders, e.g. /openai/deployments/{id}/chat/completions.
+     */
+    public static void updateName(String pathName, String httpMethod) {
+        Span.current().updateName(httpMethod + " " + pathName);
     }
 }
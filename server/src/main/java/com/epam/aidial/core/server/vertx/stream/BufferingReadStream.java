@@ -1,6 +1,7 @@
 package com.epam.aidial.core.server.vertx.stream;
 
 import com.epam.aidial.core.server.function.BaseResponseFunction;
+import com.epam.aidial.core.server.metric.StreamingMetrics;
 import com.epam.aidial.core.server.util.EventStreamParser;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
@@ -12,6 +13,8 @@ import io.vertx.core.streams.impl.PipeImpl;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 @Slf4j
 @Getter
 public class BufferingReadStream implements ReadStream<Buffer> {
@@ -30,6 +33,8 @@ public class BufferingReadStream implements ReadStream<Buffer> {
     private int lastChunkPos = -1;
     private final EventStreamParser eventStreamParser;
     private Future<Boolean> streamHandlerFuture;
+    @Nullable
+    private final StreamingMetrics streamingMetrics;
 
     public BufferingReadStream(ReadStream<Buffer> stream) {
         this(stream, 512, null);
@@ -40,7 +45,13 @@ public class BufferingReadStream implements ReadStream<Buffer> {
     }
 
     public BufferingReadStream(ReadStream<Buffer> stream, int initialSize, BaseResponseFunction streamHandler) {
+        this(stream, initialSize, streamHandler, null);
+    }
+
+    public BufferingReadStream(ReadStream<Buffer> stream, int initialSize, BaseResponseFunction streamHandler,
+                               @Nullable StreamingMetrics streamingMetrics) {
         this.stream = stream;
+        this.streamingMetrics = streamingMetrics;
         this.content = Buffer.buffer(initialSize);
         if (streamHandler == null) {
             this.eventStreamParser = null;
@@ -136,6 +147,9 @@ public class BufferingReadStream implements ReadStream<Buffer> {
     }
 
     private synchronized void handleChunk(Buffer chunk) {
+        if (streamingMetrics != null) {
+            streamingMetrics.onChunk(chunk);
+        }
         int pos = content.length();
         content.appendBuffer(chunk);
         if (lastChunkPos != -1) {
@@ -172,6 +186,7 @@ public class BufferingReadStream implements ReadStream<Buffer> {
 
     private synchronized void handleEnd(Void ignored) {
         ended = true;
+        stopStreamingMetrics();
         if (streamHandlerFuture == null) {
             notifyOnEnd(ignored);
         } else {
@@ -182,9 +197,16 @@ public class BufferingReadStream implements ReadStream<Buffer> {
     private synchronized void handleException(Throwable exception) {
         error = exception;
         ended = true;
+        stopStreamingMetrics();
         notifyOnException(exception);
     }
 
+    private void stopStreamingMetrics() {
+        if (streamingMetrics != null) {
+            streamingMetrics.stop();
+        }
+    }
+
     private synchronized void notifyOnChunk(Buffer chunk) {
         if (chunkHandler != null) {
             try {
@@ -1,6 +1,7 @@
 package com.epam.aidial.core.server;
 
 import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -11,6 +12,12 @@ class ApplicationDeploymentApiTest extends ResourceBaseTest {
 
     private TestWebServer webServer;
 
+    @Override
+    void configure(JsonObject settings) {
+        // a single bulk thread detects the bulk operations waiting for the same executor
+        settings.getJsonObject("resources").put("bulkParallelism", 1);
+    }
+
     @BeforeEach
     void initWebServer() {
         webServer = new TestWebServer(17321);
@@ -707,6 +714,80 @@ class ApplicationDeploymentApiTest extends ResourceBaseTest {
         verify(response, 400, "Target application has a different author: applications/public/my-app");
     }
 
+    @Test
+    void testMoveAndDeletePublicFolder() {
+        Response response = upload(HttpMethod.PUT, "/v1/files/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/my-app/app.py", null, """
+                some python code
+                """);
+        verify(response, 200);
+
+        for (String name : new String[] {"my-app1", "my-app2"}) {
+            response = send(HttpMethod.PUT, "/v1/applications/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/" + name, null, """
+                    {
+                      "display_name": "My App",
+                      "function": {
+                        "runtime": "python3.11",
+                        "source_folder": "files/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/my-app/",
+                        "mapping" : {
+                          "completion" : "/application"
+                        }
+                      }
+                    }
+                    """);
+            verify(response, 200);
+        }
+
+        response = operationRequest("/v1/ops/publication/create", """
+                {
+                  "targetFolder": "public/folder/",
+                  "resources": [
+                    {
+                      "action": "ADD",
+                      "sourceUrl": "applications/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/my-app1",
+                      "targetUrl": "applications/public/folder/my-app1"
+                    },
+                    {
+                      "action": "ADD",
+                      "sourceUrl": "applications/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/my-app2",
+                      "targetUrl": "applications/public/folder/my-app2"
+                    }
+                  ]
+                }
+                """);
+        verify(response, 200);
+        String publication = new JsonObject(response.body()).getString("url");
+
+        response = operationRequest("/v1/ops/publication/approve", """
+                {"url": "%s"}
+                """.formatted(publication), "authorization", "admin");
+        verifyNotExact(response, 200, "\"status\":\"APPROVED\"");
+
+        // the function source folders are copied and deleted while the applications are moved
+        response = operationRequest("/v1/ops/resource/move", """
+                {
+                  "sourceUrl": "applications/public/folder/",
+                  "destinationUrl": "applications/public/moved/"
+                }
+                """, "authorization", "admin");
+        verify(response, 200);
+
+        response = send(HttpMethod.GET, "/v1/applications/public/moved/my-app2", null, null, "authorization", "admin");
+        verify(response, 200);
+
+        response = send(HttpMethod.GET, "/v1/applications/public/folder/my-app2", null, null, "authorization", "admin");
+        verify(response, 404);
+
+        response = operationRequest("/v1/ops/resource/delete", """
+                {
+                  "url": "applications/public/moved/"
+                }
+                """, "authorization", "admin");
+        verify(response, 200);
+
+        response = send(HttpMethod.GET, "/v1/applications/public/moved/my-app1", null, null, "authorization", "admin");
+        verify(response, 404);
+    }
+
     @Test
     void testLogs() {
         testApplicationStarted();
@@ -2,13 +2,21 @@ package com.epam.aidial.core.server;
 
 import com.epam.aidial.core.config.Application;
 import com.epam.aidial.core.server.data.InvitationLink;
+import com.epam.aidial.core.server.resource.ResourceDescriptor;
+import com.epam.aidial.core.server.resource.ResourceDescriptorFactory;
 import com.epam.aidial.core.server.util.ProxyUtil;
 import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class CustomApplicationApiTest extends ResourceBaseTest {
 
@@ -774,6 +782,99 @@ public class CustomApplicationApiTest extends ResourceBaseTest {
                 """);
     }
 
+    @Test
+    void testOpenAiApplicationPages() {
+        String folder = "applications/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/";
+        List<String> urls = List.of(folder + "app1", folder + "app2", folder + "folder/app3");
+        for (String url : urls) {
+            Response response = send(HttpMethod.PUT, "/v1/" + url, null, """
+                    {
+                    "endpoint": "http://application1/v1/completions",
+                    "display_name": "My Custom Application"
+                    }
+                    """);
+            verify(response, 200);
+        }
+
+        List<String> ids = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+
+        do {
+            Response response = send(HttpMethod.GET, "/openai/applications", "limit=2" + (token == null ? "" : "&token=" + token), null);
+            verify(response, 200);
+
+            JsonObject page = new JsonObject(response.body());
+            page.getJsonArray("data").forEach(data -> {
+                JsonObject application = (JsonObject) data;
+                ids.add(application.getString("id"));
+                assertEquals(application.getString("id").equals("app") ? "10k" : "My Custom Application", application.getString("display_name"));
+            });
+            token = page.getString("next_token");
+            pages++;
+        } while (token != null);
+
+        // the applications from the config are listed in the first page
+        assertEquals("app", ids.get(0));
+        assertEquals(urls, ids.subList(1, ids.size()).stream().sorted().toList());
+        assertTrue(pages > 1);
+
+        // the listed applications are not cached for the deployment lookup
+        ResourceDescriptor resource = ResourceDescriptorFactory.fromAnyUrl(urls.get(0), encryptionService);
+        assertNull(dial.getProxy().getApplicationService().peekCachedApplication(resource));
+
+        Response response = send(HttpMethod.GET, "/openai/applications", "limit=10&metadata=true", null);
+        verify(response, 200);
+        JsonObject page = new JsonObject(response.body());
+        JsonObject metadata = page.getJsonArray("data").getJsonObject(1);
+        assertTrue(urls.contains(metadata.getString("id")));
+        assertNull(metadata.getString("display_name"));
+
+        response = send(HttpMethod.GET, "/openai/applications", "limit=0", null);
+        verify(response, 400);
+
+        response = send(HttpMethod.GET, "/openai/applications", "limit=2&token=unknown", null);
+        verify(response, 400);
+    }
+
+    @Test
+    void testCachedApplicationLookup() {
+        String url = "applications/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/my-custom-application";
+        Response response = send(HttpMethod.PUT, "/v1/" + url, null, """
+                {
+                "endpoint": "http://application1/v1/completions",
+                "display_name": "My Custom Application"
+                }
+                """);
+        verify(response, 200);
+
+        response = send(HttpMethod.GET, "/openai/applications/" + url);
+        verify(response, 200);
+        assertEquals("My Custom Application", new JsonObject(response.body()).getString("display_name"));
+
+        // the cached application is replaced once it is changed
+        response = send(HttpMethod.PUT, "/v1/" + url, null, """
+                {
+                "endpoint": "http://application1/v1/completions",
+                "display_name": "My Updated Application"
+                }
+                """);
+        verify(response, 200);
+
+        response = send(HttpMethod.GET, "/openai/applications/" + url);
+        verify(response, 200);
+        assertEquals("My Updated Application", new JsonObject(response.body()).getString("display_name"));
+
+        response = send(HttpMethod.GET, "/openai/applications/" + url, null, null, "Api-key", "proxyKey2");
+        verify(response, 403);
+
+        response = send(HttpMethod.DELETE, "/v1/" + url);
+        verify(response, 200);
+
+        response = send(HttpMethod.GET, "/openai/applications/" + url);
+        verify(response, 404);
+    }
+
     @Test
     void testMoveCustomApplication() {
         Response response = send(HttpMethod.PUT, "/v1/applications/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/my-custom-application1", null, """
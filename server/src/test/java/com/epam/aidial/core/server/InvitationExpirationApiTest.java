@@ -0,0 +1,72 @@
+package com.epam.aidial.core.server;
+
+import com.epam.aidial.core.server.data.InvitationLink;
+import com.epam.aidial.core.server.data.ResourceTypes;
+import com.epam.aidial.core.server.resource.ResourceDescriptor;
+import com.epam.aidial.core.server.resource.ResourceDescriptorFactory;
+import com.epam.aidial.core.server.service.ResourceService;
+import com.epam.aidial.core.server.util.ProxyUtil;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class InvitationExpirationApiTest extends ResourceBaseTest {
+
+    @Override
+    void configure(JsonObject settings) {
+        settings.put("invitations", new JsonObject()
+                .put("ttlInSeconds", 1)
+                .put("shardPeriod", 1000)
+                .put("sweepPeriod", 100));
+    }
+
+    @Test
+    public void testExpiredInvitationsSwept() throws InterruptedException {
+        Response response = resourceRequest(HttpMethod.PUT, "/folder/conversation", CONVERSATION_BODY_1);
+        verify(response, 200);
+
+        response = operationRequest("/v1/ops/resource/share/create", """
+                {
+                  "invitationType": "link",
+                  "resources": [
+                    {"url": "conversations/%s/folder/conversation"}
+                  ]
+                }
+                """.formatted(bucket));
+        verify(response, 200);
+        InvitationLink invitationLink = ProxyUtil.convertToObject(response.body(), InvitationLink.class);
+        assertNotNull(invitationLink);
+
+        String[] elements = invitationLink.invitationLink().split(ResourceDescriptor.PATH_SEPARATOR);
+        String invitationId = elements[elements.length - 1];
+
+        response = send(HttpMethod.GET, "/v1/invitations", null, null);
+        verifyNotExact(response, 200, "\"id\":\"" + invitationId + "\"");
+
+        ResourceService resourceService = dial.getProxy().getResourceService();
+        ResourceDescriptor folder = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.INVITATION, bucket, encryptionService.decrypt(bucket), null);
+        assertEquals(1, resourceService.getFolderMetadata(folder, null, 100, false).getItems().size());
+
+        // the shard expires with its last invitation and is deleted by the sweeper
+        for (int i = 0; i < 50 && !resourceService.getFolderMetadata(folder, null, 100, false).getItems().isEmpty(); i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(List.of(), resourceService.getFolderMetadata(folder, null, 100, false).getItems());
+
+        response = send(HttpMethod.GET, "/v1/invitations", null, null);
+        verifyJson(response, 200, """
+                {
+                  "invitations": []
+                }
+                """);
+
+        response = send(HttpMethod.GET, "/v1/invitations/" + invitationId, null, null);
+        verify(response, 404);
+    }
+}
@@ -0,0 +1,456 @@
+package com.epam.aidial.core.server;
+
+import com.epam.aidial.core.server.security.AccessTokenValidator;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.redisson.api.redisnode.RedisNode;
+import org.redisson.api.redisnode.RedisNodes;
+import redis.embedded.RedisServer;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test harness measuring the overhead the proxy adds to requests. It is excluded from the regular test run:
+ * <pre>
+ * ./gradlew :server:loadTest -PloadTest.requests=5000 -PloadTest.concurrency=64 -PloadTest.chunkDelay=5
+ * </pre>
+ *
+ * <p>Starts the proxy with the filesystem storage and embedded Redis in front of a mock OpenAI-compatible upstream.
+ * The model workloads run directly against the upstream and then through the proxy, the difference is the added
+ * latency and allocations. The file workloads are served by the proxy only.
+ *
+ * <p>Parameters are system properties with the "loadTest." prefix:
+ * <ul>
+ *     <li>workloads - comma separated: chat, streaming, embeddings, upload, download. All by default.</li>
+ *     <li>requests - requests per workload.</li>
+ *     <li>warmup - warm-up requests per workload, not measured.</li>
+ *     <li>concurrency - concurrent clients.</li>
+ *     <li>latency - upstream delay in milliseconds before the response headers.</li>
+ *     <li>chunks - chunks in a streaming response.</li>
+ *     <li>chunkDelay - upstream delay in milliseconds between streaming chunks.</li>
+ *     <li>fileSize - size of uploaded files in bytes.</li>
+ *     <li>maxAddedP99 - fails the test if p99 latency added by the proxy exceeds the limit in milliseconds.</li>
+ * </ul>
+ *
+ * <p>Allocations are sampled from all threads of the JVM, so they include the client and the mock upstream.
+ * That is why only the difference between the proxied and the direct runs is meaningful.
+ */
+@Slf4j
+@Tag("load")
+public class LoadTest {
+
+    private static final Set<String> WORKLOADS = Set.of(System.getProperty("loadTest.workloads",
+            "chat,streaming,embeddings,upload,download").split(","));
+    private static final int REQUESTS = Integer.getInteger("loadTest.requests", 1000);
+    private static final int WARMUP = Integer.getInteger("loadTest.warmup", 200);
+    private static final int CONCURRENCY = Integer.getInteger("loadTest.concurrency", 16);
+    private static final long LATENCY = Long.getLong("loadTest.latency", 0);
+    private static final int CHUNKS = Integer.getInteger("loadTest.chunks", 100);
+    private static final long CHUNK_DELAY = Long.getLong("loadTest.chunkDelay", 0);
+    private static final int FILE_SIZE = Integer.getInteger("loadTest.fileSize", 64 * 1024);
+    private static final long MAX_ADDED_P99 = Long.getLong("loadTest.maxAddedP99", -1);
+
+    private static final String API_KEY = "loadKey";
+    private static final String BOUNDARY = "load-test-boundary";
+    private static final String CHAT_PATH = "/openai/deployments/load-chat/chat/completions";
+    private static final String EMBEDDINGS_PATH = "/openai/deployments/load-embeddings/embeddings";
+
+    private static final String CHAT_REQUEST = """
+            {"messages":[{"role":"system","content":"You are a helpful assistant."},
+            {"role":"user","content":"Tell me a story about a proxy."}],"stream":%s}""";
+
+    private static final String EMBEDDINGS_REQUEST = """
+            {"input":["The quick brown fox jumps over the lazy dog"]}""";
+
+    private static final String CHAT_RESPONSE = """
+            {"id":"chatcmpl-1","object":"chat.completion","created":1700000000,"model":"gpt-4",
+            "choices":[{"index":0,"message":{"role":"assistant","content":"%s"},"finish_reason":"stop"}],
+            "usage":{"completion_tokens":%d,"prompt_tokens":20,"total_tokens":%d}}""";
+
+    private static final String CHAT_CHUNK = """
+            data: {"id":"chatcmpl-1","object":"chat.completion.chunk","created":1700000000,"model":"gpt-4",\
+            "choices":[{"index":0,"delta":{"content":"token "},"finish_reason":null}]}
+
+            """;
+
+    private static final String CHAT_LAST_CHUNK = """
+            data: {"id":"chatcmpl-1","object":"chat.completion.chunk","created":1700000000,"model":"gpt-4",\
+            "choices":[{"index":0,"delta":{},"finish_reason":"stop"}],\
+            "usage":{"completion_tokens":%d,"prompt_tokens":20,"total_tokens":%d}}
+
+            data: [DONE]
+
+            """;
+
+    private RedisServer redis;
+    private MockWebServer upstream;
+    private AiDial dial;
+    private Path testDir;
+    private HttpClient client;
+    private String proxyUri;
+    private String upstreamUri;
+    private String bucket;
+    private byte[] file;
+
+    @BeforeEach
+    void init() throws Exception {
+        try {
+            testDir = FileUtil.baseTestPath(LoadTest.class);
+            FileUtil.createDir(testDir.resolve("test"));
+
+            redis = RedisServer.newRedisServer()
+                    .port(16370)
+                    .bind("127.0.0.1")
+                    .setting("maxmemory 256M")
+                    .setting("maxmemory-policy volatile-lfu")
+                    .build();
+            redis.start();
+
+            upstream = new MockWebServer();
+            upstream.setDispatcher(new Upstream());
+            upstream.start();
+            upstreamUri = "http://localhost:" + upstream.getPort();
+
+            Path config = testDir.resolve("aidial.config.json");
+            Files.writeString(config, """
+                    {
+                      "models": {
+                        "load-chat": {
+                          "type": "chat",
+                          "endpoint": "%1$s%2$s"
+                        },
+                        "load-embeddings": {
+                          "type": "embedding",
+                          "endpoint": "%1$s%3$s"
+                        }
+                      },
+                      "keys": {
+                        "%4$s": {
+                          "project": "load-test",
+                          "role": "default"
+                        }
+                      },
+                      "roles": {
+                        "default": {
+                          "limits": {
+                            "load-chat": {},
+                            "load-embeddings": {}
+                          }
+                        }
+                      }
+                    }
+                    """.formatted(upstreamUri, CHAT_PATH, EMBEDDINGS_PATH, API_KEY));
+
+            String overrides = """
+                    {
+                      "config": {
+                        "files": [%s]
+                      },
+                      "storage": {
+                        "bucket": "test",
+                        "provider": "filesystem",
+                        "identity": "access-key",
+                        "credential": "secret-key",
+                        "overrides": {
+                          "jclouds.filesystem.basedir": %s
+                        }
+                      },
+                      "redis": {
+                        "singleServerConfig": {
+                          "address": "redis://localhost:16370"
+                        }
+                      }
+                    }
+                    """.formatted(Json.encode(config.toString()), Json.encode(testDir.toString()));
+
+            AccessTokenValidator validator = Mockito.mock(AccessTokenValidator.class);
+            Mockito.when(validator.extractClaims(Mockito.any())).thenReturn(io.vertx.core.Future.succeededFuture());
+
+            dial = new AiDial();
+            dial.setSettings(AiDial.settings().mergeIn(new JsonObject(overrides), true));
+            dial.setAccessTokenValidator(validator);
+            dial.start();
+            proxyUri = "http://localhost:" + dial.getServer().actualPort();
+
+            client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newFixedThreadPool(CONCURRENCY))
+                    .build();
+
+            HttpResponse<String> response = client.send(request(proxyUri + "/v1/bucket").GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode(), response.body());
+            bucket = new JsonObject(response.body()).getString("bucket");
+
+            file = new byte[FILE_SIZE];
+            Arrays.fill(file, (byte) 'a');
+        } catch (Throwable e) {
+            destroy();
+            throw e;
+        }
+    }
+
+    @AfterEach
+    void destroy() throws Exception {
+        try {
+            if (dial != null) {
+                dial.stop();
+            }
+        } finally {
+            if (upstream != null) {
+                upstream.close();
+            }
+
+            if (redis != null) {
+                redis.stop();
+            }
+
+            FileUtil.deleteDir(testDir);
+        }
+    }
+
+    @Test
+    void testLoad() throws Exception {
+        List<String> report = new ArrayList<>();
+        report.add("%-12s %-8s %10s %10s %10s %14s %12s".formatted(
+                "workload", "target", "p50 ms", "p99 ms", "req/s", "alloc KB/req", "redis/req"));
+
+        long maxAddedP99 = 0;
+        maxAddedP99 = Math.max(maxAddedP99, compare(report, "chat",
+                (base, i) -> request(base + CHAT_PATH, CHAT_REQUEST.formatted(false)).build()));
+        maxAddedP99 = Math.max(maxAddedP99, compare(report, "streaming",
+                (base, i) -> request(base + CHAT_PATH, CHAT_REQUEST.formatted(true)).build()));
+        maxAddedP99 = Math.max(maxAddedP99, compare(report, "embeddings",
+                (base, i) -> request(base + EMBEDDINGS_PATH, EMBEDDINGS_REQUEST).build()));
+
+        if (WORKLOADS.contains("upload") || WORKLOADS.contains("download")) {
+            BiFunction<String, Integer, HttpRequest> upload = (base, i) -> request(fileUri(base, i))
+                    .header("content-type", "multipart/form-data; boundary=" + BOUNDARY)
+                    .PUT(HttpRequest.BodyPublishers.ofByteArray(multipart(file)))
+                    .build();
+
+            // the warm-up files are downloaded if uploads are not measured
+            run("upload", "proxy", proxyUri, WARMUP, upload);
+            if (WORKLOADS.contains("upload")) {
+                report.add(run("upload", "proxy", proxyUri, REQUESTS, upload).toString());
+            }
+
+            if (WORKLOADS.contains("download")) {
+                int files = WORKLOADS.contains("upload") ? REQUESTS : WARMUP;
+                BiFunction<String, Integer, HttpRequest> download = (base, i) -> request(fileUri(base, i % files)).GET().build();
+                run("download", "proxy", proxyUri, WARMUP, download);
+                report.add(run("download", "proxy", proxyUri, REQUESTS, download).toString());
+            }
+        }
+
+        log.info("Load test: requests={}, concurrency={}, latency={}ms, chunks={}, chunkDelay={}ms, fileSize={}\n{}",
+                REQUESTS, CONCURRENCY, LATENCY, CHUNKS, CHUNK_DELAY, FILE_SIZE, String.join("\n", report));
+
+        if (MAX_ADDED_P99 >= 0) {
+            long limit = TimeUnit.MILLISECONDS.toNanos(MAX_ADDED_P99);
+            assertTrue(maxAddedP99 <= limit, "Added p99 latency exceeds " + MAX_ADDED_P99 + " ms: "
+                    + TimeUnit.NANOSECONDS.toMillis(maxAddedP99) + " ms");
+        }
+    }
+
+    /**
+     * Runs the model workload directly against the upstream and through the proxy.
+     *
+     * @return p99 latency added by the proxy in nanoseconds.
+     */
+    private long compare(List<String> report, String workload,
+                         BiFunction<String, Integer, HttpRequest> request) throws Exception {
+        if (!WORKLOADS.contains(workload)) {
+            return 0;
+        }
+
+        run(workload, "direct", upstreamUri, WARMUP, request);
+        Stats direct = run(workload, "direct", upstreamUri, REQUESTS, request);
+        run(workload, "proxy", proxyUri, WARMUP, request);
+        Stats proxy = run(workload, "proxy", proxyUri, REQUESTS, request);
+
+        long p50 = proxy.percentile(0.5) - direct.percentile(0.5);
+        long p99 = proxy.percentile(0.99) - direct.percentile(0.99);
+        report.add(direct.toString());
+        report.add(proxy.toString());
+        report.add("%-12s %-8s %10.2f %10.2f %10s %14.1f %12s".formatted(workload, "added",
+                p50 / 1e6, p99 / 1e6, "", (proxy.allocated() - direct.allocated()) / 1024.0 / REQUESTS, ""));
+
+        return p99;
+    }
+
+    private Stats run(String workload, String target, String base, int requests,
+                      BiFunction<String, Integer, HttpRequest> request) throws Exception {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+
+        try {
+            List<Callable<Void>> clients = new ArrayList<>();
+            for (int i = 0; i < CONCURRENCY; i++) {
+                clients.add(() -> {
+                    for (int index = next.getAndIncrement(); index < requests; index = next.getAndIncrement()) {
+                        latencies[index] = send(request.apply(base, index));
+                    }
+                    return null;
+                });
+            }
+
+            long commands = redisCommands();
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+
+            for (Future<Void> future : executor.invokeAll(clients)) {
+                future.get();
+            }
+
+            long elapsed = System.nanoTime() - start;
+            allocated = allocatedBytes() - allocated;
+            // the second INFO command is excluded
+            commands = redisCommands() - commands - 1;
+
+            Arrays.sort(latencies);
+            return new Stats(workload, target, latencies, elapsed, allocated, commands);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long send(HttpRequest request) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+        try (InputStream body = response.body()) {
+            body.transferTo(OutputStream.nullOutputStream());
+        }
+
+        long latency = System.nanoTime() - start;
+        assertEquals(200, response.statusCode(), () -> request.method() + " " + request.uri());
+        return latency;
+    }
+
+    private String fileUri(String base, int index) {
+        return base + "/v1/files/" + bucket + "/load/file-" + index + ".txt";
+    }
+
+    private long redisCommands() {
+        RedisNode node = dial.getRedis().getRedisNodes(RedisNodes.SINGLE).getInstance();
+        return Long.parseLong(node.info(RedisNode.InfoSection.STATS).get("total_commands_processed"));
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            total += Math.max(allocated, 0);
+        }
+        return total;
+    }
+
+    private static HttpRequest.Builder request(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).header("api-key", API_KEY);
+    }
+
+    private static HttpRequest.Builder request(String uri, String json) {
+        return request(uri).header("content-type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8));
+    }
+
+    private static byte[] multipart(byte[] content) {
+        byte[] head = ("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"attachment\"; filename=\"file.txt\""
+                + "\r\nContent-Type: text/plain\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] body = Arrays.copyOf(head, head.length + content.length + tail.length);
+        System.arraycopy(content, 0, body, head.length, content.length);
+        System.arraycopy(tail, 0, body, head.length + content.length, tail.length);
+        return body;
+    }
+
+    private record Stats(String workload, String target, long[] latencies, long elapsed, long allocated, long commands) {
+
+        long percentile(double percentile) {
+            return latencies[(int) Math.min(latencies.length - 1, Math.ceil(percentile * latencies.length) - 1)];
+        }
+
+        @Override
+        public String toString() {
+            int requests = latencies.length;
+            return "%-12s %-8s %10.2f %10.2f %10.0f %14.1f %12.2f".formatted(workload, target,
+                    percentile(0.5) / 1e6, percentile(0.99) / 1e6, requests * 1e9 / elapsed,
+                    allocated / 1024.0 / requests, (double) commands / requests);
+        }
+    }
+
+    /**
+     * Mock OpenAI-compatible upstream. Streams chat completions if requested with the configured chunk rate.
+     */
+    private static class Upstream extends Dispatcher {
+
+        private static final String EMBEDDING = "0.0123456789,".repeat(1535) + "0.0123456789";
+
+        @NotNull
+        @Override
+        public MockResponse dispatch(@NotNull RecordedRequest request) {
+            MockResponse response = new MockResponse().setHeadersDelay(LATENCY, TimeUnit.MILLISECONDS);
+            String path = request.getPath();
+
+            if (CHAT_PATH.equals(path) && request.getBody().readUtf8().contains("\"stream\":true")) {
+                response.setHeader("content-type", "text/event-stream")
+                        .setBody(CHAT_CHUNK.repeat(CHUNKS) + CHAT_LAST_CHUNK.formatted(CHUNKS, CHUNKS + 20));
+                if (CHUNK_DELAY > 0) {
+                    response.throttleBody(CHAT_CHUNK.length(), CHUNK_DELAY, TimeUnit.MILLISECONDS);
+                }
+                return response;
+            }
+
+            if (CHAT_PATH.equals(path)) {
+                return response.setHeader("content-type", "application/json")
+                        .setBody(CHAT_RESPONSE.formatted("token ".repeat(CHUNKS), CHUNKS, CHUNKS + 20));
+            }
+
+            if (EMBEDDINGS_PATH.equals(path)) {
+                return response.setHeader("content-type", "application/json")
+                        .setBody("""
+                                {"object":"list","data":[{"object":"embedding","index":0,"embedding":[%s]}],
+                                "model":"ada","usage":{"prompt_tokens":9,"total_tokens":9}}""".formatted(EMBEDDING));
+            }
+
+            return response.setResponseCode(404);
+        }
+    }
+}
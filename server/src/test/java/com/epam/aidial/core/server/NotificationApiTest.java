@@ -1,9 +1,17 @@
 package com.epam.aidial.core.server;
 
 import com.epam.aidial.core.server.data.Notification;
+import com.epam.aidial.core.server.data.ResourceTypes;
+import com.epam.aidial.core.server.resource.ResourceDescriptor;
+import com.epam.aidial.core.server.resource.ResourceDescriptorFactory;
+import com.epam.aidial.core.server.util.EtagHeader;
+import com.epam.aidial.core.server.util.ProxyUtil;
 import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class NotificationApiTest extends ResourceBaseTest {
 
@@ -16,30 +24,33 @@ public class NotificationApiTest extends ResourceBaseTest {
                 }
                 """);
 
-        createNotification("id1", Instant.parse("2023-03-14T12:59:00Z").toEpochMilli(), "message1");
-        createNotification("id2", Instant.parse("2023-03-14T11:59:00Z").toEpochMilli(), "message2");
-        createNotification("id3", Instant.parse("2023-04-14T12:00:00Z").toEpochMilli(), "message3");
+        String id1 = createNotification("id1", Instant.parse("2023-03-14T12:59:00Z").toEpochMilli(), "message1");
+        String id2 = createNotification("id2", Instant.parse("2023-03-14T11:59:00Z").toEpochMilli(), "message2");
+        String id3 = createNotification("id3", Instant.parse("2023-04-14T12:00:00Z").toEpochMilli(), "message3");
+
+        // the notification id is prefixed with its shard
+        assertTrue(id1.endsWith(":id1"));
 
         response = operationRequest("/v1/ops/notification/list", "");
         verifyJson(response, 200, """
                 {
                    "notifications":[
                       {
-                      "id":"id2",
+                      "id":"%s",
                       "url":"url",
                       "type":"PUBLICATION",
                       "message":"message2",
                       "timestamp":1678795140000
                       },
                       {
-                      "id":"id1",
+                      "id":"%s",
                       "url":"url",
                       "type":"PUBLICATION",
                       "message":"message1",
                       "timestamp":1678798740000
                       },
                       {
-                      "id":"id3",
+                      "id":"%s",
                       "url":"url",
                       "type":"PUBLICATION",
                       "message":"message3",
@@ -47,13 +58,13 @@ public class NotificationApiTest extends ResourceBaseTest {
                       }
                    ]
                 }
-                """);
+                """.formatted(id2, id1, id3));
 
         response = operationRequest("/v1/ops/notification/delete", """
                 {
-                   "ids": ["id2", "id3"]
+                   "ids": ["%s", "%s"]
                 }
-                """);
+                """.formatted(id2, id3));
         verify(response, 200);
 
         response = operationRequest("/v1/ops/notification/list", "");
@@ -61,7 +72,7 @@ public class NotificationApiTest extends ResourceBaseTest {
                 {
                    "notifications":[
                       {
-                      "id":"id1",
+                      "id":"%s",
                       "url":"url",
                       "type":"PUBLICATION",
                       "message":"message1",
@@ -69,11 +80,76 @@ public class NotificationApiTest extends ResourceBaseTest {
                       }
                    ]
                 }
-                """);
+                """.formatted(id1));
+    }
+
+    @Test
+    void testNotificationsWrittenBeforeShards() {
+        ResourceDescriptor document = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.NOTIFICATION, bucket, encryptionService.decrypt(bucket), "notifications");
+        long now = System.currentTimeMillis();
+        Map<String, Notification> notifications = Map.of(
+                "id1", new Notification("id1", "url", Notification.NotificationType.PUBLICATION, "message1", now),
+                "id2", new Notification("id2", "url", Notification.NotificationType.PUBLICATION, "message2", now - 1),
+                "id3", new Notification("id3", "url", Notification.NotificationType.PUBLICATION, "expired", 0));
+        dial.getProxy().getResourceService().putResource(document, ProxyUtil.convertToString(notifications), EtagHeader.ANY);
+        String id4 = createNotification("id4", now + 1, "message4");
+
+        // the expired notification is not listed
+        Response response = operationRequest("/v1/ops/notification/list", "");
+        verifyJson(response, 200, """
+                {
+                   "notifications":[
+                      {
+                      "id":"id2",
+                      "url":"url",
+                      "type":"PUBLICATION",
+                      "message":"message2",
+                      "timestamp":%d
+                      },
+                      {
+                      "id":"id1",
+                      "url":"url",
+                      "type":"PUBLICATION",
+                      "message":"message1",
+                      "timestamp":%d
+                      },
+                      {
+                      "id":"%s",
+                      "url":"url",
+                      "type":"PUBLICATION",
+                      "message":"message4",
+                      "timestamp":%d
+                      }
+                   ]
+                }
+                """.formatted(now - 1, now, id4, now + 1));
+
+        response = operationRequest("/v1/ops/notification/delete", """
+                {
+                   "ids": ["id2", "%s"]
+                }
+                """.formatted(id4));
+        verify(response, 200);
+
+        response = operationRequest("/v1/ops/notification/list", "");
+        verifyJson(response, 200, """
+                {
+                   "notifications":[
+                      {
+                      "id":"id1",
+                      "url":"url",
+                      "type":"PUBLICATION",
+                      "message":"message1",
+                      "timestamp":%d
+                      }
+                   ]
+                }
+                """.formatted(now));
     }
 
-    private void createNotification(String id, long time, String content) {
+    private String createNotification(String id, long time, String content) {
         Notification notification = new Notification(id, "url", Notification.NotificationType.PUBLICATION, content, time);
-        notificationService.createNotification(bucket, encryptionService.decrypt(bucket), notification);
+        return notificationService.createNotification(bucket, encryptionService.decrypt(bucket), notification).getId();
     }
 }
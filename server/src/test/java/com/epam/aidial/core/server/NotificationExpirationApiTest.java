@@ -0,0 +1,51 @@
+package com.epam.aidial.core.server;
+
+import com.epam.aidial.core.server.data.Notification;
+import com.epam.aidial.core.server.data.ResourceTypes;
+import com.epam.aidial.core.server.resource.ResourceDescriptor;
+import com.epam.aidial.core.server.resource.ResourceDescriptorFactory;
+import com.epam.aidial.core.server.service.ResourceService;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class NotificationExpirationApiTest extends ResourceBaseTest {
+
+    @Override
+    void configure(JsonObject settings) {
+        settings.put("notifications", new JsonObject()
+                .put("ttlInSeconds", 1)
+                .put("shardPeriod", 1000)
+                .put("sweepPeriod", 100));
+    }
+
+    @Test
+    public void testExpiredNotificationsSwept() throws InterruptedException {
+        Notification notification = new Notification("id1", "url", Notification.NotificationType.PUBLICATION, "message", 0);
+        String id = notificationService.createNotification(bucket, encryptionService.decrypt(bucket), notification).getId();
+
+        Response response = operationRequest("/v1/ops/notification/list", "");
+        verifyNotExact(response, 200, "\"id\":\"" + id + "\"");
+
+        ResourceService resourceService = dial.getProxy().getResourceService();
+        ResourceDescriptor folder = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.NOTIFICATION, bucket, encryptionService.decrypt(bucket), null);
+        assertEquals(1, resourceService.getFolderMetadata(folder, null, 100, false).getItems().size());
+
+        // the shard expires with its last notification and is deleted by the sweeper
+        for (int i = 0; i < 50 && !resourceService.getFolderMetadata(folder, null, 100, false).getItems().isEmpty(); i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(List.of(), resourceService.getFolderMetadata(folder, null, 100, false).getItems());
+
+        response = operationRequest("/v1/ops/notification/list", "");
+        verifyJson(response, 200, """
+                {
+                 "notifications": []
+                }
+                """);
+    }
+}
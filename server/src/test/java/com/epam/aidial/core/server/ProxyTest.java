@@ -10,6 +10,7 @@ import com.epam.aidial.core.server.log.LogStore;
 import com.epam.aidial.core.server.security.AccessTokenValidator;
 import com.epam.aidial.core.server.security.ApiKeyStore;
 import com.epam.aidial.core.server.security.ExtractedClaims;
+import com.epam.aidial.core.server.service.ReadinessService;
 import com.epam.aidial.core.server.storage.BlobStorage;
 import com.epam.aidial.core.server.util.HttpException;
 import io.vertx.core.Future;
@@ -39,11 +40,13 @@ import java.util.regex.Pattern;
 import static com.epam.aidial.core.server.Proxy.FILES_REQUEST_BODY_MAX_SIZE_BYTES;
 import static com.epam.aidial.core.server.Proxy.HEADER_API_KEY;
 import static com.epam.aidial.core.server.Proxy.HEALTH_CHECK_PATH;
+import static com.epam.aidial.core.server.Proxy.READY_PATH;
 import static com.epam.aidial.core.server.util.HttpStatus.BAD_REQUEST;
 import static com.epam.aidial.core.server.util.HttpStatus.HTTP_VERSION_NOT_SUPPORTED;
 import static com.epam.aidial.core.server.util.HttpStatus.METHOD_NOT_ALLOWED;
 import static com.epam.aidial.core.server.util.HttpStatus.OK;
 import static com.epam.aidial.core.server.util.HttpStatus.REQUEST_ENTITY_TOO_LARGE;
+import static com.epam.aidial.core.server.util.HttpStatus.SERVICE_UNAVAILABLE;
 import static com.epam.aidial.core.server.util.HttpStatus.UNAUTHORIZED;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -72,6 +75,8 @@ public class ProxyTest {
     private AccessTokenValidator accessTokenValidator;
     @Mock
     private BlobStorage storage;
+    @Mock
+    private ReadinessService readinessService;
 
     @Mock(answer = Answers.RETURNS_DEEP_STUBS)
     private HttpServerRequest request;
@@ -154,6 +159,34 @@ public class ProxyTest {
         verify(response).setStatusCode(OK.getCode());
     }
 
+    @Test
+    public void testHandle_Ready() {
+        when(request.version()).thenReturn(HttpVersion.HTTP_1_1);
+        when(request.method()).thenReturn(HttpMethod.GET);
+        when(request.path()).thenReturn(READY_PATH);
+        MultiMap headers = mock(MultiMap.class);
+        when(request.headers()).thenReturn(headers);
+        when(readinessService.isReady()).thenReturn(true);
+
+        proxy.handle(request);
+
+        verify(response).setStatusCode(OK.getCode());
+    }
+
+    @Test
+    public void testHandle_NotReady() {
+        when(request.version()).thenReturn(HttpVersion.HTTP_1_1);
+        when(request.method()).thenReturn(HttpMethod.GET);
+        when(request.path()).thenReturn(READY_PATH);
+        MultiMap headers = mock(MultiMap.class);
+        when(request.headers()).thenReturn(headers);
+        when(readinessService.isReady()).thenReturn(false);
+
+        proxy.handle(request);
+
+        verify(response).setStatusCode(SERVICE_UNAVAILABLE.getCode());
+    }
+
     @Test
     public void testHandle_MissingApiKeyAndToken() {
         when(request.version()).thenReturn(HttpVersion.HTTP_1_1);
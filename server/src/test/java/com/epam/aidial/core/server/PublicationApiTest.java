@@ -1,8 +1,13 @@
 package com.epam.aidial.core.server;
 
+import com.epam.aidial.core.server.data.ResourceJob;
+import com.epam.aidial.core.server.util.ProxyUtil;
 import io.vertx.core.http.HttpMethod;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
 class PublicationApiTest extends ResourceBaseTest {
 
     private static final String PUBLICATION_REQUEST = """
@@ -617,6 +622,54 @@ class PublicationApiTest extends ResourceBaseTest {
         verify(response, 403);
     }
 
+    @Test
+    void testPublicationApproveAsync() throws InterruptedException {
+        Response response = resourceRequest(HttpMethod.PUT, "/my/folder/conversation", CONVERSATION_BODY_1);
+        verify(response, 200);
+
+        response = operationRequest("/v1/ops/publication/create", PUBLICATION_REQUEST.formatted(bucket));
+        verify(response, 200);
+
+        response = operationRequest("/v1/ops/publication/approve", """
+                {
+                  "url": "publications/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/0123",
+                  "async": true
+                }
+                """, "authorization", "admin");
+        verify(response, 200);
+        ResourceJob job = ProxyUtil.convertToObject(response.body(), ResourceJob.class);
+        assertNotNull(job);
+        assertEquals(ResourceJob.Operation.PUBLISH, job.getOperation());
+
+        String request = """
+                {
+                   "id": "%s"
+                }
+                """.formatted(job.getId());
+
+        for (int attempt = 0; attempt < 100 && job.getStatus() == ResourceJob.Status.RUNNING; attempt++) {
+            Thread.sleep(100);
+            response = send(HttpMethod.POST, "/v1/ops/resource/job", null, request, "authorization", "admin");
+            verify(response, 200);
+            job = ProxyUtil.convertToObject(response.body(), ResourceJob.class);
+        }
+
+        // the conversation is copied and its review copy is deleted
+        assertEquals(ResourceJob.Status.COMPLETED, job.getStatus());
+        assertEquals(2, job.getProcessed());
+
+        response = operationRequest("/v1/ops/publication/get", PUBLICATION_URL, "authorization", "admin");
+        verifyNotExact(response, 200, "\"status\":\"APPROVED\"");
+
+        response = send(HttpMethod.GET, "/v1/conversations/public/folder/conversation",
+                null, null, "authorization", "user");
+        verify(response, 200);
+
+        response = send(HttpMethod.GET, "/v1/conversations/2CZ9i2bcBACFts8JbBu3MdTHfU5imDZBmDVomBuDCkbhEstv1KXNzCiw693js8BLmo/conversation",
+                null, null, "authorization", "admin");
+        verify(response, 404);
+    }
+
     @Test
     void testPublicationReject() {
         Response response = resourceRequest(HttpMethod.PUT, "/my/folder/conversation", CONVERSATION_BODY_1);
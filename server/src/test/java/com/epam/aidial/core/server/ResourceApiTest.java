@@ -231,18 +231,6 @@ class ResourceApiTest extends ResourceBaseTest {
 
         verify(response, 400, "resource type is not supported: publications/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/folder/conversation");
 
-        response = operationRequest("/v1/ops/resource/subscribe", """
-                 {
-                  "resources": [
-                    {
-                      "url": "conversations/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/folder/"
-                    }
-                  ]
-                 }
-                """);
-
-        verify(response, 400, "resource folder is not supported: conversations/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/folder/");
-
         response = operationRequest("/v1/ops/resource/subscribe", """
                  {
                   "resources": [
@@ -148,7 +148,8 @@ public class ResourceBaseTest {
                         "syncPeriod": 1000,
                         "syncDelay": 1000,
                         "cacheExpiration": 1000,
-                        "heartbeatPeriod": 1000
+                        "heartbeatPeriod": 1000,
+                        "subscriptionWindow": 0
                       },
                       "applications": {
                         "controllerEndpoint": "http://localhost:17321",
@@ -160,6 +161,7 @@ public class ResourceBaseTest {
 
             JsonObject settings = AiDial.settings()
                     .mergeIn(new JsonObject(overrides), true);
+            configure(settings);
 
             Mockito.when(validator.extractClaims(Mockito.any()))
                     .thenAnswer(invocation -> {
@@ -196,6 +198,12 @@ public class ResourceBaseTest {
         }
     }
 
+    /**
+     * Overrides the settings of the server for the tests.
+     */
+    void configure(JsonObject settings) {
+    }
+
     @AfterEach
     void destroy() throws Exception {
         try {
@@ -406,16 +414,18 @@ public class ResourceBaseTest {
             this.response = response;
         }
 
-        private void add(String event) {
+        private void add(String chunk) {
             if (active.get()) {
-                if (event.startsWith("data:")) {
-                    Assertions.assertTrue(event.endsWith("\n\n"));
-                    String message = event.substring("data:".length(), event.length() - "\n\n".length()).trim();
-                    events.add(message);
-                } else if (event.startsWith(":")) {
-                    heartbeats.release();
-                } else {
-                    Assertions.fail("Expected either a data chunk or a comment, but got: " + event);
+                // the events can be written in a batch
+                Assertions.assertTrue(chunk.endsWith("\n\n"));
+                for (String event : chunk.split("\n\n")) {
+                    if (event.startsWith("data:")) {
+                        events.add(event.substring("data:".length()).trim());
+                    } else if (event.startsWith(":")) {
+                        heartbeats.release();
+                    } else {
+                        Assertions.fail("Expected either a data chunk or a comment, but got: " + event);
+                    }
                 }
             }
         }
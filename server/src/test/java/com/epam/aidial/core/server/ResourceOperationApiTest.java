@@ -1,10 +1,12 @@
 package com.epam.aidial.core.server;
 
 import com.epam.aidial.core.server.data.InvitationLink;
+import com.epam.aidial.core.server.data.ResourceJob;
 import com.epam.aidial.core.server.util.ProxyUtil;
 import io.vertx.core.http.HttpMethod;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 public class ResourceOperationApiTest extends ResourceBaseTest {
@@ -355,4 +357,176 @@ public class ResourceOperationApiTest extends ResourceBaseTest {
                 null, null, "authorization", "admin");
         verify(response, 200, CONVERSATION_BODY_1);
     }
+
+    @Test
+    void testMoveFolder() {
+        for (int i = 0; i < 10; i++) {
+            Response response = resourceRequest(HttpMethod.PUT, "/folder/sub/conversation" + i, CONVERSATION_BODY_1);
+            verify(response, 200);
+        }
+
+        // verify folder cannot be moved into itself
+        Response response = send(HttpMethod.POST, "/v1/ops/resource/move", null, """
+                {
+                   "sourceUrl": "conversations/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/folder/",
+                   "destinationUrl": "conversations/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/folder/sub2/"
+                }
+                """);
+        verify(response, 400);
+
+        response = send(HttpMethod.POST, "/v1/ops/resource/move", null, """
+                {
+                   "sourceUrl": "conversations/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/folder/",
+                   "destinationUrl": "conversations/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/folder2/"
+                }
+                """);
+        verify(response, 200);
+
+        for (int i = 0; i < 10; i++) {
+            response = resourceRequest(HttpMethod.GET, "/folder/sub/conversation" + i);
+            verify(response, 404);
+
+            response = resourceRequest(HttpMethod.GET, "/folder2/sub/conversation" + i);
+            verifyJson(response, 200, CONVERSATION_BODY_1);
+        }
+
+        // verify source folder does not exist anymore
+        response = send(HttpMethod.POST, "/v1/ops/resource/move", null, """
+                {
+                   "sourceUrl": "conversations/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/folder/",
+                   "destinationUrl": "conversations/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/folder3/"
+                }
+                """);
+        verify(response, 400);
+    }
+
+    @Test
+    void testMoveFolderSharedAccess() {
+        for (int i = 0; i < 3; i++) {
+            Response response = resourceRequest(HttpMethod.PUT, "/folder/conversation" + i, CONVERSATION_BODY_1);
+            verify(response, 200);
+        }
+
+        Response response = operationRequest("/v1/ops/resource/share/create", """
+                {
+                  "invitationType": "link",
+                  "resources": [
+                    {"url": "conversations/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/folder/conversation0"},
+                    {"url": "conversations/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/folder/conversation1"}
+                  ]
+                }
+                """);
+        verify(response, 200);
+        InvitationLink invitationLink = ProxyUtil.convertToObject(response.body(), InvitationLink.class);
+
+        response = send(HttpMethod.GET, invitationLink.invitationLink(), "accept=true", null, "Api-key", "proxyKey2");
+        verify(response, 200);
+
+        response = send(HttpMethod.POST, "/v1/ops/resource/move", null, """
+                {
+                   "sourceUrl": "conversations/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/folder/",
+                   "destinationUrl": "conversations/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/folder2/"
+                }
+                """);
+        verify(response, 200);
+
+        // the shared access of all the moved resources is moved
+        for (int i = 0; i < 2; i++) {
+            response = resourceRequest(HttpMethod.GET, "/folder2/conversation" + i, null, "Api-key", "proxyKey2");
+            verify(response, 200, CONVERSATION_BODY_1);
+        }
+
+        response = resourceRequest(HttpMethod.GET, "/folder2/conversation2", null, "Api-key", "proxyKey2");
+        verify(response, 403);
+
+        response = send(HttpMethod.GET, invitationLink.invitationLink(), null, null);
+        verifyNotExact(response, 200, "\"url\":\"conversations/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/folder2/conversation1\"");
+
+        response = send(HttpMethod.POST, "/v1/ops/resource/delete", null, """
+                {
+                   "url": "conversations/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/folder2/"
+                }
+                """);
+        verify(response, 200);
+
+        // the shared access of all the deleted resources is revoked
+        response = operationRequest("/v1/ops/resource/share/list", """
+                {
+                  "resourceTypes": ["CONVERSATION"],
+                  "with": "me"
+                }
+                """, "Api-key", "proxyKey2");
+        verifyJson(response, 200, """
+                {
+                  "resources": []
+                }
+                """);
+
+        response = send(HttpMethod.GET, invitationLink.invitationLink(), null, null);
+        verify(response, 404);
+    }
+
+    @Test
+    void testDeleteFolderAsync() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            Response response = resourceRequest(HttpMethod.PUT, "/folder/sub/conversation" + i, CONVERSATION_BODY_1);
+            verify(response, 200);
+        }
+
+        // verify user2 cannot delete the folder
+        Response response = send(HttpMethod.POST, "/v1/ops/resource/delete", null, """
+                {
+                   "url": "conversations/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/folder/",
+                   "async": true
+                }
+                """, "Api-key", "proxyKey2");
+        verify(response, 403);
+
+        response = send(HttpMethod.POST, "/v1/ops/resource/delete", null, """
+                {
+                   "url": "conversations/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/folder/",
+                   "async": true
+                }
+                """);
+        verify(response, 200);
+        ResourceJob job = ProxyUtil.convertToObject(response.body(), ResourceJob.class);
+        assertNotNull(job);
+        assertNotNull(job.getId());
+
+        // verify only the initiator can get the job
+        String request = """
+                {
+                   "id": "%s"
+                }
+                """.formatted(job.getId());
+        response = send(HttpMethod.POST, "/v1/ops/resource/job", null, request, "Api-key", "proxyKey2");
+        verify(response, 404);
+
+        for (int attempt = 0; attempt < 100 && job.getStatus() == ResourceJob.Status.RUNNING; attempt++) {
+            Thread.sleep(100);
+            response = send(HttpMethod.POST, "/v1/ops/resource/job", null, request);
+            verify(response, 200);
+            job = ProxyUtil.convertToObject(response.body(), ResourceJob.class);
+        }
+
+        assertEquals(ResourceJob.Status.COMPLETED, job.getStatus());
+        assertEquals(10, job.getProcessed());
+
+        for (int i = 0; i < 10; i++) {
+            response = resourceRequest(HttpMethod.GET, "/folder/sub/conversation" + i);
+            verify(response, 404);
+        }
+
+        // verify the initiator is notified
+        response = send(HttpMethod.POST, "/v1/ops/notification/list", null, null);
+        verifyNotExact(response, 200, "\"type\":\"RESOURCE_JOB\"");
+
+        // verify deleting missing folder fails
+        response = send(HttpMethod.POST, "/v1/ops/resource/delete", null, """
+                {
+                   "url": "conversations/3CcedGxCx23EwiVbVmscVktScRyf46KypuBQ65miviST/folder/"
+                }
+                """);
+        verify(response, 404);
+    }
 }
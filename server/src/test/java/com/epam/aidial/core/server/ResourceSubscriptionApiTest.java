@@ -0,0 +1,57 @@
+package com.epam.aidial.core.server;
+
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+public class ResourceSubscriptionApiTest extends ResourceBaseTest {
+
+    @Override
+    void configure(JsonObject settings) {
+        settings.getJsonObject("resources").put("subscriptionWindow", 1000);
+    }
+
+    @Test
+    void testFolderSubscriptionCoalesced() {
+        try (EventStream events = subscribe("""
+                 {
+                  "resources": [
+                    {
+                      "url": "conversations/%s/folder/"
+                    }
+                  ]
+                 }
+                """.formatted(bucket))) {
+            Response response = resourceRequest(HttpMethod.PUT, "/other/conversation", CONVERSATION_BODY_1);
+            verify(response, 200);
+
+            response = resourceRequest(HttpMethod.PUT, "/folder/conversation", CONVERSATION_BODY_1);
+            verify(response, 200);
+
+            response = resourceRequest(HttpMethod.PUT, "/folder/nested/conversation", CONVERSATION_BODY_1);
+            verify(response, 200);
+
+            response = resourceRequest(HttpMethod.PUT, "/folder/conversation", CONVERSATION_BODY_2);
+            verify(response, 200);
+
+            // the creation is superseded by the update within the window
+            verifyJsonNotExact("""
+                    {
+                      "url" : "conversations/%s/folder/conversation",
+                      "action" : "UPDATE",
+                      "timestamp" : "@ignore",
+                      "etag" : "82833ed7a10a4f99253fccdef4091ad9"
+                    }
+                    """.formatted(bucket), events.take());
+
+            verifyJsonNotExact("""
+                    {
+                      "url" : "conversations/%s/folder/nested/conversation",
+                      "action" : "CREATE",
+                      "timestamp" : "@ignore",
+                      "etag" : "70edd26b3686de5efcdae93fcc87c2bb"
+                    }
+                    """.formatted(bucket), events.take());
+        }
+    }
+}
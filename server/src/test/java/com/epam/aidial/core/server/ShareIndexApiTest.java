@@ -0,0 +1,115 @@
+package com.epam.aidial.core.server;
+
+import com.epam.aidial.core.server.data.InvitationLink;
+import com.epam.aidial.core.server.data.ResourceTypes;
+import com.epam.aidial.core.server.resource.ResourceDescriptor;
+import com.epam.aidial.core.server.resource.ResourceDescriptorFactory;
+import com.epam.aidial.core.server.service.ShareIndex;
+import com.epam.aidial.core.server.util.ProxyUtil;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the share tests against the share index.
+ */
+public class ShareIndexApiTest extends ShareApiTest {
+
+    @Override
+    void configure(JsonObject settings) {
+        settings.put("share", new JsonObject().put("index", true));
+    }
+
+    @Test
+    public void testListPages() {
+        Response response = resourceRequest(HttpMethod.PUT, "/folder/conversation", CONVERSATION_BODY_1);
+        verify(response, 200);
+        response = send(HttpMethod.PUT, "/v1/prompts/" + bucket + "/folder/prompt", null, PROMPT_BODY);
+        verify(response, 200);
+
+        response = operationRequest("/v1/ops/resource/share/create", """
+                {
+                  "invitationType": "link",
+                  "resources": [
+                    {"url": "conversations/%1$s/folder/conversation"},
+                    {"url": "prompts/%1$s/folder/prompt"}
+                  ]
+                }
+                """.formatted(bucket));
+        verify(response, 200);
+        InvitationLink invitationLink = ProxyUtil.convertToObject(response.body(), InvitationLink.class);
+        assertNotNull(invitationLink);
+
+        response = send(HttpMethod.GET, invitationLink.invitationLink(), "accept=true", null, "Api-key", "proxyKey2");
+        verify(response, 200);
+
+        assertEquals(List.of("conversations/%s/folder/conversation".formatted(bucket), "prompts/%s/folder/prompt".formatted(bucket)),
+                listPages("me", "proxyKey2"));
+        assertEquals(List.of("conversations/%s/folder/conversation".formatted(bucket), "prompts/%s/folder/prompt".formatted(bucket)),
+                listPages("others", "proxyKey1"));
+
+        response = operationRequest("/v1/ops/resource/share/list", """
+                {
+                  "resourceTypes": ["PROMPT"],
+                  "with": "me",
+                  "limit": 1,
+                  "nextToken": "conversations:0"
+                }
+                """, "Api-key", "proxyKey2");
+        verify(response, 400);
+    }
+
+    @Test
+    public void testGetManyResources() {
+        ShareIndex index = new ShareIndex(dial.getRedis(), "test", 60000);
+        ResourceDescriptor document = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.SHARED_WITH_ME, bucket, "Users/user/", "conversations");
+
+        Map<String, String> entries = new HashMap<>();
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            String url = "conversations/%s/folder/conversation%d".formatted(bucket, i);
+            entries.put(url, "READ");
+            urls.add(url);
+        }
+        urls.add("conversations/%s/folder/unknown".formatted(bucket));
+
+        index.build(document, entries);
+        assertEquals(entries, index.get(document, urls));
+    }
+
+    private List<String> listPages(String with, String apiKey) {
+        List<String> urls = new ArrayList<>();
+        String nextToken = null;
+        int pages = 0;
+
+        do {
+            JsonObject request = new JsonObject()
+                    .put("resourceTypes", new JsonArray().add("PROMPT").add("CONVERSATION"))
+                    .put("with", with)
+                    .put("limit", 1)
+                    .put("nextToken", nextToken);
+            Response response = operationRequest("/v1/ops/resource/share/list", request.encode(), "Api-key", apiKey);
+            verify(response, 200);
+
+            JsonObject page = new JsonObject(response.body());
+            page.getJsonArray("resources").forEach(resource -> urls.add(((JsonObject) resource).getString("url")));
+            nextToken = page.getString("nextToken");
+            pages++;
+        } while (nextToken != null);
+
+        // the resource types are listed one by one
+        assertTrue(pages > 1);
+        return urls;
+    }
+}
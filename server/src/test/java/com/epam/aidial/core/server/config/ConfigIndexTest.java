@@ -0,0 +1,88 @@
+package com.epam.aidial.core.server.config;
+
+import com.epam.aidial.core.config.Application;
+import com.epam.aidial.core.config.Config;
+import com.epam.aidial.core.config.Limit;
+import com.epam.aidial.core.config.Model;
+import com.epam.aidial.core.config.Role;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConfigIndexTest {
+
+    @Test
+    public void testUserLimit() {
+        Config config = new Config();
+        Model model = model("chat", null);
+        Model restricted = model("restricted", Set.of("role2"));
+        config.setModels(Map.of("chat", model, "restricted", restricted));
+        config.getRoles().put("default", role(Map.of("chat", limit(10), "restricted", limit(10))));
+        config.getRoles().put("role1", role(Map.of("chat", limit(100), "restricted", limit(100))));
+        config.getRoles().put("role2", role(Map.of("chat", limit(200))));
+
+        ConfigIndex index = ConfigIndex.of(config);
+
+        Limit limit = index.limit(new ArrayList<>(List.of("role1", "role2")), model);
+        assertEquals(200, limit.getMinute());
+        assertSame(limit, index.limit(List.of("role1", "role2"), model));
+
+        assertEquals(100, index.limit(List.of("role1"), model).getMinute());
+        assertEquals(10, index.limit(List.of("unknown"), model).getMinute());
+        assertEquals(10, index.limit(List.of("role1"), restricted).getMinute());
+        assertEquals(Long.MAX_VALUE, index.limit(List.of("role1"), model("unknown", null)).getMinute());
+
+        // not the config deployment with the same name
+        Model custom = model("chat", Set.of("role1"));
+        assertEquals(100, index.limit(List.of("role1", "role2"), custom).getMinute());
+        assertNotSame(index.limit(List.of("role1", "role2"), custom), index.limit(List.of("role1", "role2"), custom));
+    }
+
+    @Test
+    public void testHasAccess() {
+        Config config = new Config();
+        Application application = new Application();
+        application.setName("app");
+        application.setUserRoles(Set.of("role1", "role3"));
+        config.setApplications(Map.of("app", application));
+        Model model = model("chat", Set.of());
+        config.setModels(Map.of("chat", model));
+
+        ConfigIndex index = ConfigIndex.of(config);
+
+        assertTrue(index.hasAccess(List.of("role2", "role3"), application));
+        assertTrue(index.hasAccess(List.of("role2", "role3"), application));
+        assertFalse(index.hasAccess(List.of("role2"), application));
+        assertFalse(index.hasAccess(List.of(), application));
+        assertFalse(index.hasAccess(List.of("role1"), model));
+        assertTrue(index.hasAccess(List.of(), model("custom", null)));
+    }
+
+    private static Model model(String name, Set<String> userRoles) {
+        Model model = new Model();
+        model.setName(name);
+        model.setUserRoles(userRoles);
+        return model;
+    }
+
+    private static Role role(Map<String, Limit> limits) {
+        Role role = new Role();
+        role.setLimits(limits);
+        return role;
+    }
+
+    private static Limit limit(long minute) {
+        Limit limit = new Limit();
+        limit.setMinute(minute);
+        return limit;
+    }
+}
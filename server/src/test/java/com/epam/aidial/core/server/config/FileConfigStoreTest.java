@@ -0,0 +1,117 @@
+package com.epam.aidial.core.server.config;
+
+import com.epam.aidial.core.config.Config;
+import com.epam.aidial.core.server.security.ApiKeyStore;
+import com.epam.aidial.core.server.upstream.UpstreamRouteProvider;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class FileConfigStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    private final Vertx vertx = mock(Vertx.class);
+    private final ApiKeyStore apiKeyStore = mock(ApiKeyStore.class);
+    private final UpstreamRouteProvider upstreamRouteProvider = mock(UpstreamRouteProvider.class);
+
+    private File file;
+    private Handler<Long> reload;
+    private FileConfigStore store;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void beforeEach() throws Exception {
+        file = directory.resolve("aidial.config.json").toFile();
+        write("""
+                {
+                  "models": {"chat": {"endpoint": "http://localhost/chat"}},
+                  "applications": {"chat": {"endpoint": "http://localhost/app"}},
+                  "roles": {"default": {"limits": {"chat": {"minute": 100}}}}
+                }
+                """);
+
+        JsonObject settings = new JsonObject()
+                .put("files", new JsonArray().add(file.getAbsolutePath()))
+                .put("reload", 1000)
+                .put("watch", false);
+        store = new FileConfigStore(vertx, settings, apiKeyStore, upstreamRouteProvider);
+
+        ArgumentCaptor<Handler<Long>> captor = ArgumentCaptor.forClass(Handler.class);
+        verify(vertx).setPeriodic(anyLong(), anyLong(), captor.capture());
+        reload = captor.getValue();
+    }
+
+    @Test
+    public void testReloadOnlyChanged() throws Exception {
+        Config config = store.load();
+        long modified = file.lastModified();
+
+        reload.handle(0L);
+        assertSame(config, store.load());
+
+        // touched, but the content is the same
+        file.setLastModified(modified + 2000);
+        reload.handle(0L);
+        assertSame(config, store.load());
+        verify(upstreamRouteProvider, times(1)).onUpdate(any());
+
+        write("""
+                {
+                  "models": {"chat": {"endpoint": "http://localhost/chat"}},
+                  "roles": {"default": {"limits": {"chat": {"minute": 200}}}}
+                }
+                """);
+        file.setLastModified(modified + 4000);
+        reload.handle(0L);
+
+        Config updated = store.load();
+        assertNotSame(config, updated);
+        assertEquals(200, ConfigIndex.of(updated).limit("default", "chat").getMinute());
+        verify(upstreamRouteProvider).onUpdate(updated);
+    }
+
+    @Test
+    public void testIndex() {
+        Config config = store.load();
+        ConfigIndex index = ConfigIndex.of(config);
+        assertSame(index, ConfigIndex.of(config));
+
+        assertSame(config.getApplications().get("chat"), index.deployment("chat"));
+        assertNull(index.deployment("unknown"));
+        assertEquals(100, index.limit("default", "chat").getMinute());
+        assertNull(index.limit("default", "unknown"));
+        assertNull(index.limit("unknown", "chat"));
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        store.close();
+        // the mocked vertx returns 0 as the id of the reload timer
+        verify(vertx).cancelTimer(0L);
+    }
+
+    private void write(String content) throws Exception {
+        Files.writeString(file.toPath(), content);
+    }
+}
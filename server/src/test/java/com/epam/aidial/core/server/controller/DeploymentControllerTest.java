@@ -1,5 +1,6 @@
 package com.epam.aidial.core.server.controller;
 
+import com.epam.aidial.core.config.Config;
 import com.epam.aidial.core.config.Deployment;
 import com.epam.aidial.core.server.ProxyContext;
 import org.junit.jupiter.api.Test;
@@ -18,6 +19,7 @@ public class DeploymentControllerTest {
     @Test
     public void testHasAssessByRole_DeploymentRolesEmpty() {
         ProxyContext proxyContext = mock(ProxyContext.class);
+        when(proxyContext.getConfig()).thenReturn(new Config());
         Deployment deployment = mock(Deployment.class);
 
         when(deployment.getUserRoles()).thenReturn(Collections.emptySet());
@@ -28,6 +30,7 @@ public class DeploymentControllerTest {
     @Test
     public void testHasAssessByRole_DeploymentRolesIsNull() {
         ProxyContext proxyContext = mock(ProxyContext.class);
+        when(proxyContext.getConfig()).thenReturn(new Config());
         Deployment deployment = mock(Deployment.class);
 
         when(deployment.getUserRoles()).thenReturn(null);
@@ -38,6 +41,7 @@ public class DeploymentControllerTest {
     @Test
     public void testHasAssessByRole_RoleMismatch() {
         ProxyContext proxyContext = mock(ProxyContext.class);
+        when(proxyContext.getConfig()).thenReturn(new Config());
         Deployment deployment = mock(Deployment.class);
 
         when(deployment.getUserRoles()).thenReturn(Set.of("role1"));
@@ -49,6 +53,7 @@ public class DeploymentControllerTest {
     @Test
     public void testHasAssessByRole_Success() {
         ProxyContext proxyContext = mock(ProxyContext.class);
+        when(proxyContext.getConfig()).thenReturn(new Config());
         Deployment deployment = mock(Deployment.class);
 
         when(deployment.getUserRoles()).thenReturn(Set.of("role1", "role3"));
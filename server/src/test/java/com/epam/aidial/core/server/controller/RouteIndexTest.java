@@ -0,0 +1,55 @@
+package com.epam.aidial.core.server.controller;
+
+import com.epam.aidial.core.config.Config;
+import com.epam.aidial.core.config.Route;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class RouteIndexTest {
+
+    @Test
+    public void testSelect() {
+        Config config = new Config();
+        config.getRoutes().put("plugin", route("plugin", Set.of("POST"), "/v1/plugin/.*"));
+        config.getRoutes().put("wildcard", route("wildcard", Set.of(), ".*/wildcard"));
+        config.getRoutes().put("versions", route("versions", Set.of("GET"), "/v1/plugin/versions", "/v2/plugin/versions"));
+        config.getRoutes().put("any", route("any", Set.of("PUT")));
+
+        RouteIndex index = RouteIndex.of(config);
+        assertSame(index, RouteIndex.of(config));
+
+        assertEquals("plugin", index.select("POST", "/v1/plugin/versions").getName());
+        assertEquals("versions", index.select("GET", "/v1/plugin/versions").getName());
+        assertEquals("versions", index.select("GET", "/v2/plugin/versions").getName());
+        assertEquals("plugin", index.select("POST", "/v1/plugin/wildcard").getName());
+        assertEquals("wildcard", index.select("GET", "/v1/plugin/wildcard").getName());
+        assertEquals("wildcard", index.select("GET", "/v1/wildcard").getName());
+        assertEquals("any", index.select("PUT", "/v3/something").getName());
+        assertNull(index.select("GET", "/v1/plugin/unknown"));
+        assertNull(index.select("GET", "/v1?plugin/versions"));
+    }
+
+    @Test
+    public void testLiteralPrefix() {
+        assertEquals("/v1/plugin/", RouteIndex.literalPrefix(Pattern.compile("^/v1/plugin/.*")));
+        assertEquals("/v1/plugin", RouteIndex.literalPrefix(Pattern.compile("/v1/plugins?")));
+        assertEquals("/v1/", RouteIndex.literalPrefix(Pattern.compile("/v1/\\w+")));
+        assertEquals("", RouteIndex.literalPrefix(Pattern.compile("/v1/a|/v2/b")));
+        assertEquals("", RouteIndex.literalPrefix(Pattern.compile("/v1/a", Pattern.CASE_INSENSITIVE)));
+    }
+
+    private static Route route(String name, Set<String> methods, String... paths) {
+        Route route = new Route();
+        route.setName(name);
+        route.setMethods(methods);
+        route.setPaths(Stream.of(paths).map(Pattern::compile).toList());
+        return route;
+    }
+}
@@ -0,0 +1,109 @@
+package com.epam.aidial.core.server.metric;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RBucket;
+import org.redisson.api.RMap;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.config.Config;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class InstrumentedRedisTest {
+
+    private static RedisServer redisServer;
+
+    private static RedissonClient redis;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeAll
+    public static void beforeAll() throws IOException {
+        redisServer = RedisServer.newRedisServer()
+                .port(16372)
+                .bind("127.0.0.1")
+                .build();
+        redisServer.start();
+
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://localhost:16372");
+        redis = Redisson.create(InstrumentedRedis.instrument(config));
+    }
+
+    @AfterAll
+    public static void afterAll() throws IOException {
+        if (redis != null) {
+            redis.shutdown();
+        }
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @BeforeEach
+    public void beforeEach() {
+        Metrics.addRegistry(registry);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        Metrics.removeRegistry(registry);
+        registry.close();
+    }
+
+    @Test
+    public void testCommands() {
+        RBucket<String> bucket = redis.getBucket("bucket", StringCodec.INSTANCE);
+        bucket.set("value");
+        assertEquals("value", bucket.get());
+        assertEquals("value", bucket.get());
+
+        // the errors of the commands are thrown as is
+        RMap<String, String> map = redis.getMap("bucket", StringCodec.INSTANCE);
+        assertThrows(RedisException.class, () -> map.get("key"));
+
+        assertCount(1, "SET", "success");
+        assertCount(2, "GET", "success");
+        assertCount(1, "HGET", "error");
+    }
+
+    @Test
+    public void testLock() {
+        IoMetrics.recordLock(TimeUnit.MILLISECONDS.toNanos(1), 1, true);
+        IoMetrics.recordLock(TimeUnit.MILLISECONDS.toNanos(5), 3, true);
+        IoMetrics.recordLock(TimeUnit.MILLISECONDS.toNanos(1), 1, false);
+
+        assertEquals(3, registry.get(IoMetrics.LOCK_WAIT_NAME).timer().count());
+        assertEquals(2, registry.get(IoMetrics.LOCK_CONTENTION_NAME).counter().count());
+    }
+
+    private void assertCount(long expected, String operation, String outcome) {
+        // the commands are recorded once they are completed on the connection
+        long deadline = System.currentTimeMillis() + 5000;
+        while (count(operation, outcome) < expected && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(expected, count(operation, outcome));
+    }
+
+    private long count(String operation, String outcome) {
+        Timer timer = registry.find(IoMetrics.IO_NAME)
+                .tags("system", IoMetrics.REDIS, "operation", operation, "outcome", outcome)
+                .timer();
+        return (timer == null) ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,141 @@
+package com.epam.aidial.core.server.metric;
+
+import com.epam.aidial.core.config.Model;
+import com.epam.aidial.core.config.Upstream;
+import com.epam.aidial.core.server.ProxyContext;
+import com.epam.aidial.core.server.upstream.UpstreamRoute;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RequestMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void beforeEach() {
+        RequestMetrics.reset();
+        Metrics.addRegistry(registry);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        RequestMetrics.reset();
+        Metrics.removeRegistry(registry);
+        registry.close();
+    }
+
+    @Test
+    public void testTags() {
+        RequestMetrics.record(RequestMetrics.Phase.AUTH, null, 5, TimeUnit.MILLISECONDS);
+        RequestMetrics.record(RequestMetrics.Phase.UPSTREAM_TTFB, context("gpt-4", "http://upstream:8080/openai/chat"),
+                10, TimeUnit.MILLISECONDS);
+
+        Timer auth = registry.find(RequestMetrics.NAME)
+                .tags("phase", "auth", "deployment", RequestMetrics.NONE).timer();
+        assertNotNull(auth);
+        assertEquals(1, auth.count());
+        assertNull(auth.getId().getTag("upstream"));
+
+        Timer ttfb = registry.find(RequestMetrics.NAME)
+                .tags("phase", "upstream_ttfb", "deployment", "gpt-4").timer();
+        assertNotNull(ttfb);
+        assertEquals(10, ttfb.totalTime(TimeUnit.MILLISECONDS));
+
+        // the streaming metrics are still tagged by the upstream
+        assertEquals("upstream:8080", RequestMetrics.tags(context("gpt-4", "http://upstream:8080/openai/chat")).stream()
+                .filter(tag -> tag.getKey().equals("upstream")).findFirst().orElseThrow().getValue());
+    }
+
+    @Test
+    public void testCardinalityGuard() {
+        for (int i = 0; i < RequestMetrics.MAX_TAG_VALUES + 10; i++) {
+            ProxyContext context = context("deployment-" + i, "http://upstream-" + i);
+            RequestMetrics.record(RequestMetrics.Phase.RATE_LIMIT, context, 1, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(registry.find(RequestMetrics.NAME).tag("phase", "rate_limit").timers().size()
+                <= RequestMetrics.MAX_TAG_VALUES + 1);
+
+        Timer other = registry.find(RequestMetrics.NAME)
+                .tags("phase", "rate_limit", "deployment", RequestMetrics.OTHER).timer();
+        assertNotNull(other);
+        assertTrue(other.count() >= 10);
+    }
+
+    @Test
+    public void testHistogram() {
+        PrometheusMeterRegistry prometheus = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        Metrics.addRegistry(prometheus);
+        try {
+            RequestMetrics.record(RequestMetrics.Phase.STREAMING, null, 5, TimeUnit.MILLISECONDS);
+            RequestMetrics.record(RequestMetrics.Phase.UPSTREAM_TTFB, null, 10, TimeUnit.MILLISECONDS);
+
+            // only the upstream time to first byte publishes the histogram
+            Timer ttfb = prometheus.find(RequestMetrics.NAME).tag("phase", "upstream_ttfb").timer();
+            Timer streaming = prometheus.find(RequestMetrics.NAME).tag("phase", "streaming").timer();
+            assertTrue(ttfb.takeSnapshot().histogramCounts().length > 0);
+            assertEquals(0, streaming.takeSnapshot().histogramCounts().length);
+        } finally {
+            Metrics.removeRegistry(prometheus);
+            prometheus.close();
+        }
+    }
+
+    @Test
+    public void testConcurrentCardinalityGuard() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = IntStream.range(0, 4 * RequestMetrics.MAX_TAG_VALUES)
+                    .<Future<?>>mapToObj(i -> executor.submit(() -> RequestMetrics.record(RequestMetrics.Phase.API_KEY,
+                            context("deployment-" + i, "http://upstream-" + i), 1, TimeUnit.MILLISECONDS)))
+                    .toList();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // the global registry might have the timers of the other tests
+        List<Timer> timers = registry.find(RequestMetrics.NAME).tag("phase", "api_key").timers().stream()
+                .filter(timer -> timer.getId().getTag("deployment").startsWith("deployment-"))
+                .toList();
+        Timer other = registry.find(RequestMetrics.NAME).tags("phase", "api_key", "deployment", RequestMetrics.OTHER).timer();
+        assertEquals(RequestMetrics.MAX_TAG_VALUES, timers.size());
+        assertNotNull(other);
+        assertEquals(4 * RequestMetrics.MAX_TAG_VALUES, timers.stream().mapToLong(Timer::count).sum() + other.count());
+    }
+
+    private static ProxyContext context(String deployment, String endpoint) {
+        Model model = new Model();
+        model.setName(deployment);
+
+        UpstreamRoute route = mock(UpstreamRoute.class);
+        when(route.get()).thenReturn(new Upstream(endpoint, null, null, 1, 0));
+
+        ProxyContext context = mock(ProxyContext.class);
+        when(context.getDeployment()).thenReturn(model);
+        when(context.getUpstreamRoute()).thenReturn(route);
+        return context;
+    }
+}
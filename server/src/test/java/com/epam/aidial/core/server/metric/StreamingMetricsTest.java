@@ -0,0 +1,123 @@
+package com.epam.aidial.core.server.metric;
+
+import com.epam.aidial.core.config.Model;
+import com.epam.aidial.core.config.Upstream;
+import com.epam.aidial.core.server.ProxyContext;
+import com.epam.aidial.core.server.token.TokenUsage;
+import com.epam.aidial.core.server.upstream.UpstreamRoute;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StreamingMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final Vertx vertx = Vertx.vertx();
+
+    @BeforeEach
+    public void beforeEach() {
+        Metrics.addRegistry(registry);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        RequestMetrics.reset();
+        StreamingMetrics.setStallThreshold(10000);
+        Metrics.removeRegistry(registry);
+        registry.close();
+        vertx.close();
+    }
+
+    @Test
+    public void testEvents() throws InterruptedException {
+        long start = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(100);
+        StreamingMetrics metrics = new StreamingMetrics(vertx, context("gpt-4"), start);
+
+        // the events are counted regardless of how they are split into chunks, the comments and [DONE] are not events
+        metrics.onChunk(Buffer.buffer(": keep-alive\n\n"));
+        metrics.onChunk(Buffer.buffer("data: {\"id\":1}\n\nda"));
+        Thread.sleep(5);
+        metrics.onChunk(Buffer.buffer("ta: {\"id\":2}\n\ndata: {\"id\":3}\n\n"));
+        Thread.sleep(5);
+        metrics.onChunk(Buffer.buffer("data:{\"id\":4}\r\n\r\ndata: [DONE]\n\n"));
+
+        TokenUsage usage = new TokenUsage();
+        usage.setCompletionTokens(10);
+        metrics.onEnd(usage);
+        metrics.onEnd(usage);
+
+        Timer ttft = registry.get(StreamingMetrics.TTFT_NAME).tags("deployment", "gpt-4", "upstream", "upstream:8080").timer();
+        assertEquals(1, ttft.count());
+        assertTrue(ttft.totalTime(TimeUnit.MILLISECONDS) >= 100);
+
+        Timer gap = registry.get(StreamingMetrics.GAP_NAME).tag("deployment", "gpt-4").timer();
+        assertEquals(3, gap.count());
+        assertTrue(gap.totalTime(TimeUnit.MILLISECONDS) >= 10);
+
+        DistributionSummary speed = registry.get(StreamingMetrics.TOKENS_PER_SECOND_NAME).tag("deployment", "gpt-4").summary();
+        assertEquals(1, speed.count());
+        assertTrue(speed.totalAmount() > 0 && speed.totalAmount() <= 10 * 1000 / 10.0);
+
+        assertNull(registry.find(StreamingMetrics.STALL_NAME).tag("deployment", "gpt-4").counter());
+    }
+
+    @Test
+    public void testStall() throws InterruptedException {
+        StreamingMetrics.setStallThreshold(50);
+        StreamingMetrics metrics = new StreamingMetrics(vertx, context("gpt-4-stalled"), System.nanoTime());
+
+        // the stall is counted without waiting for the next event
+        metrics.onChunk(Buffer.buffer("data: {}\n\n"));
+        assertEquals(1, awaitStalls("gpt-4-stalled", 1));
+
+        metrics.onChunk(Buffer.buffer("data: {}\n\n"));
+        assertEquals(2, awaitStalls("gpt-4-stalled", 2));
+
+        metrics.onChunk(Buffer.buffer("data: {}\n\n"));
+        metrics.onEnd(null);
+        Thread.sleep(200);
+
+        assertEquals(2, awaitStalls("gpt-4-stalled", 2));
+        assertNull(registry.find(StreamingMetrics.TOKENS_PER_SECOND_NAME).tag("deployment", "gpt-4-stalled").summary());
+    }
+
+    private double awaitStalls(String deployment, double expected) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            Counter stalls = registry.find(StreamingMetrics.STALL_NAME).tag("deployment", deployment).counter();
+            if (stalls != null && stalls.count() >= expected) {
+                return stalls.count();
+            }
+            Thread.sleep(50);
+        }
+        return 0;
+    }
+
+    private static ProxyContext context(String deployment) {
+        Model model = new Model();
+        model.setName(deployment);
+
+        UpstreamRoute route = mock(UpstreamRoute.class);
+        when(route.get()).thenReturn(new Upstream("http://upstream:8080/openai/chat", null, null, 1, 0));
+
+        ProxyContext context = mock(ProxyContext.class);
+        when(context.getDeployment()).thenReturn(model);
+        when(context.getUpstreamRoute()).thenReturn(route);
+        return context;
+    }
+}
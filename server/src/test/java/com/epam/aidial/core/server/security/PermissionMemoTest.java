@@ -0,0 +1,46 @@
+package com.epam.aidial.core.server.security;
+
+import com.epam.aidial.core.server.data.ResourceAccessType;
+import com.epam.aidial.core.server.data.ResourceTypes;
+import com.epam.aidial.core.server.resource.ResourceDescriptor;
+import com.epam.aidial.core.server.resource.ResourceDescriptorFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class PermissionMemoTest {
+
+    private final ResourceDescriptor resource = ResourceDescriptorFactory.fromDecoded(
+            ResourceTypes.FILE, "bucket", "Users/user/", "folder/file.txt");
+
+    @Test
+    public void testPartialLookup() {
+        PermissionMemo memo = new PermissionMemo();
+        assertNull(memo.get(resource, ResourceAccessType.READ_ONLY));
+
+        // the read lookup stops once the read permission is found
+        memo.put(resource, ResourceAccessType.READ_ONLY, ResourceAccessType.READ_ONLY);
+        assertEquals(ResourceAccessType.READ_ONLY, memo.get(resource, ResourceAccessType.READ_ONLY));
+        assertNull(memo.get(resource, ResourceAccessType.ALL));
+
+        memo.put(resource, ResourceAccessType.READ_ONLY, ResourceAccessType.ALL);
+        assertEquals(ResourceAccessType.READ_ONLY, memo.get(resource, ResourceAccessType.ALL));
+
+        // the complete lookup is not replaced by the partial one
+        memo.put(resource, ResourceAccessType.READ_ONLY, ResourceAccessType.READ_ONLY);
+        assertEquals(ResourceAccessType.READ_ONLY, memo.get(resource, ResourceAccessType.ALL));
+    }
+
+    @Test
+    public void testCompleteLookup() {
+        PermissionMemo memo = new PermissionMemo();
+
+        // no permission is found after all the rules
+        memo.put(resource, Set.of(), ResourceAccessType.READ_ONLY);
+        assertEquals(Set.of(), memo.get(resource, ResourceAccessType.READ_ONLY));
+        assertEquals(Set.of(), memo.get(resource, ResourceAccessType.ALL));
+    }
+}
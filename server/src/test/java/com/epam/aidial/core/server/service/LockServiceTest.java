@@ -10,6 +10,7 @@ import org.redisson.config.Config;
 import redis.embedded.RedisServer;
 
 import java.io.IOException;
+import java.util.List;
 
 class LockServiceTest {
 
@@ -64,4 +65,18 @@ class LockServiceTest {
             lock.close();
         }
     }
+
+    @Test
+    void testRenew() {
+        LockService.Lock lock = service.lockBuckets(List.of("bucket1/", "bucket2/"));
+        Assertions.assertTrue(lock.renew());
+        Assertions.assertNull(service.tryLock("bucket2/"));
+        lock.close();
+
+        // the released lock is not owned anymore
+        Assertions.assertFalse(lock.renew());
+        lock = service.tryLock("bucket2/");
+        Assertions.assertNotNull(lock);
+        lock.close();
+    }
 }
\ No newline at end of file
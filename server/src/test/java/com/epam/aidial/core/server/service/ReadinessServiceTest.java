@@ -0,0 +1,58 @@
+package com.epam.aidial.core.server.service;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReadinessServiceTest {
+
+    @Test
+    public void testReadyAfterWarmUps() {
+        ReadinessService service = new ReadinessService();
+        Promise<Void> jwks = Promise.promise();
+        Promise<Void> storage = Promise.promise();
+
+        service.warmUp("jwks", jwks.future());
+        service.warmUp("storage", storage.future());
+        service.started();
+        assertFalse(service.isReady());
+
+        jwks.complete();
+        assertFalse(service.isReady());
+
+        // the failed warm-up does not block the readiness
+        storage.fail("unavailable");
+        assertTrue(service.isReady());
+    }
+
+    @Test
+    public void testReadyWithoutWarmUps() {
+        ReadinessService service = new ReadinessService();
+        assertFalse(service.isReady());
+
+        service.warmUp("noop", Future.succeededFuture());
+        service.started();
+        assertTrue(service.isReady());
+    }
+
+    @Test
+    public void testPhases() throws Exception {
+        ReadinessService service = new ReadinessService();
+        assertEquals("value", service.phase("sync", () -> "value"));
+
+        CompletableFuture<String> future = service.phaseAsync("async", () -> {
+            throw new IllegalStateException("failed");
+        }, Runnable::run);
+
+        ExecutionException error = assertThrows(ExecutionException.class, future::get);
+        assertEquals(IllegalStateException.class, error.getCause().getClass());
+    }
+}
@@ -0,0 +1,117 @@
+package com.epam.aidial.core.server.service;
+
+import com.epam.aidial.core.server.data.Notification;
+import com.epam.aidial.core.server.data.ResourceJob;
+import com.epam.aidial.core.server.util.HttpException;
+import com.epam.aidial.core.server.util.HttpStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ResourceJobServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final Consumer<Runnable> blockingTask = progress -> {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    };
+
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final LockService.Lock lock = mock(LockService.Lock.class);
+    private final TimerService timerService = mock(TimerService.class);
+
+    private ResourceJobService service;
+
+    @BeforeEach
+    public void beforeEach() {
+        when(timerService.scheduleWithFixedDelay(anyLong(), anyLong(), any())).thenReturn(mock(TimerService.Timer.class));
+    }
+
+    @AfterEach
+    public void afterEach() {
+        release.countDown();
+        service.close();
+    }
+
+    @Test
+    public void testBucketLimit() {
+        service = createService(4, 4, 2);
+
+        assertNotNull(start("bucket1", blockingTask));
+        assertNotNull(start("bucket1", blockingTask));
+        HttpException error = assertThrows(HttpException.class, () -> start("bucket1", blockingTask));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, error.getStatus());
+
+        assertNotNull(start("bucket2", blockingTask));
+    }
+
+    @Test
+    public void testQueueLimit() {
+        service = createService(1, 1, 2);
+
+        assertNotNull(start("bucket1", blockingTask));
+        assertNotNull(start("bucket2", blockingTask));
+        HttpException error = assertThrows(HttpException.class, () -> start("bucket3", blockingTask));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, error.getStatus());
+
+        // the rejected job does not hold the slot of its bucket
+        error = assertThrows(HttpException.class, () -> start("bucket3", blockingTask));
+        assertEquals("Too many resource jobs are running", error.getMessage());
+    }
+
+    @Test
+    public void testLostLock() {
+        // the lease is renewed at once and the renewal fails
+        when(lock.renew()).thenReturn(false);
+        when(timerService.scheduleWithFixedDelay(anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+            invocation.getArgument(2, Runnable.class).run();
+            return mock(TimerService.Timer.class);
+        });
+
+        service = createService(1, 1, 1);
+        ResourceJob job = start("bucket1", progress -> progress.run());
+
+        ArgumentCaptor<Notification> notification = ArgumentCaptor.forClass(Notification.class);
+        verify(notificationService, timeout(5000)).createNotification(eq("bucket1"), eq("bucket1/"), notification.capture());
+        assertEquals("Resource delete %s is failed: Lock of the job is lost".formatted(job.getId()),
+                notification.getValue().getMessage());
+        verify(lock, timeout(5000)).close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ResourceJobService createService(int parallelism, int queueSize, int maxBucketJobs) {
+        RedissonClient redis = mock(RedissonClient.class);
+        when(redis.getBucket(anyString(), any())).thenReturn(mock(RBucket.class));
+        LockService lockService = mock(LockService.class);
+        when(lockService.lockBuckets(any())).thenReturn(lock);
+        return new ResourceJobService(redis, notificationService, lockService, timerService, "test",
+                60000, 100, parallelism, queueSize, maxBucketJobs);
+    }
+
+    private ResourceJob start(String bucket, Consumer<Runnable> task) {
+        return service.start(bucket, bucket + "/", ResourceJob.Operation.DELETE, "files/" + bucket + "/folder/", null,
+                List.of(bucket + "/"), task);
+    }
+}
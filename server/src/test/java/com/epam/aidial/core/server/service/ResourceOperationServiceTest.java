@@ -0,0 +1,61 @@
+package com.epam.aidial.core.server.service;
+
+import com.epam.aidial.core.server.data.ResourceTypes;
+import com.epam.aidial.core.server.resource.ResourceDescriptor;
+import com.epam.aidial.core.server.resource.ResourceDescriptorFactory;
+import com.epam.aidial.core.server.util.EtagHeader;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ResourceOperationServiceTest {
+
+    private final ResourceService resourceService = mock(ResourceService.class);
+    private final InvitationService invitationService = mock(InvitationService.class);
+    private final ShareService shareService = mock(ShareService.class);
+    private final ResourceOperationService service = new ResourceOperationService(
+            mock(ApplicationService.class), resourceService, invitationService, shareService);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDeleteFolderWithMissingItem() {
+        ResourceDescriptor folder = conversation("folder/");
+        ResourceDescriptor deleted = conversation("folder/deleted");
+        ResourceDescriptor existing = conversation("folder/existing");
+
+        when(resourceService.forEachResource(eq(folder), any())).thenAnswer(invocation -> {
+            List.of(deleted, existing).forEach(invocation.getArgument(1, Consumer.class));
+            return true;
+        });
+        when(resourceService.deleteResource(deleted, EtagHeader.ANY)).thenReturn(false);
+        when(resourceService.deleteResource(existing, EtagHeader.ANY)).thenReturn(true);
+
+        // the item deleted since the folder is listed does not stop the folder delete
+        AtomicInteger progress = new AtomicInteger();
+        service.deleteResource(folder, progress::incrementAndGet);
+        assertEquals(2, progress.get());
+
+        // the access is cleaned up once for the folder
+        verify(invitationService, times(1)).cleanUpPermissions(any(), any(), anyMap());
+        verify(shareService, times(1)).revokeSharedAccess(any(), any(), anyMap());
+
+        // a missing single resource is still not found
+        assertThrows(ResourceNotFoundException.class, () -> service.deleteResource(deleted));
+    }
+
+    private static ResourceDescriptor conversation(String path) {
+        return ResourceDescriptorFactory.fromDecoded(ResourceTypes.CONVERSATION, "bucket", "Users/user/", path);
+    }
+}
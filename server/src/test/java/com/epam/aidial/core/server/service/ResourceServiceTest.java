@@ -0,0 +1,467 @@
+package com.epam.aidial.core.server.service;
+
+import com.epam.aidial.core.server.FileUtil;
+import com.epam.aidial.core.server.data.ResourceEvent;
+import com.epam.aidial.core.server.data.ResourceFolderMetadata;
+import com.epam.aidial.core.server.data.ResourceTypes;
+import com.epam.aidial.core.server.resource.ResourceDescriptor;
+import com.epam.aidial.core.server.resource.ResourceDescriptorFactory;
+import com.epam.aidial.core.server.storage.BlobStorage;
+import com.epam.aidial.core.server.storage.Storage;
+import com.epam.aidial.core.server.util.EtagHeader;
+import com.google.common.io.ByteSource;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.redisson.Redisson;
+import org.redisson.api.RKeys;
+import org.redisson.api.RMap;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.config.ConfigSupport;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ResourceServiceTest {
+
+    private static final String BODY = "{\"messages\":[{\"role\":\"user\",\"content\":\"Hello world!\"}]}".repeat(50);
+
+    private static RedisServer redisServer;
+
+    private static RedissonClient redissonClient;
+
+    private Path testDir;
+
+    private BlobStorage blobStorage;
+
+    private ResourceService resourceService;
+
+    private JsonObject settings;
+
+    private List<Runnable> tasks;
+
+    @BeforeAll
+    public static void beforeAll() throws IOException {
+        redisServer = RedisServer.newRedisServer()
+                .port(16370)
+                .bind("127.0.0.1")
+                .setting("maxmemory 16M")
+                .setting("maxmemory-policy volatile-lfu")
+                .build();
+        redisServer.start();
+        ConfigSupport configSupport = new ConfigSupport();
+        org.redisson.config.Config redisClientConfig = configSupport.fromJSON("""
+                {
+                  "singleServerConfig": {
+                     "address": "redis://localhost:16370"
+                  }
+                }
+                """, org.redisson.config.Config.class);
+
+        redissonClient = Redisson.create(redisClientConfig);
+    }
+
+    @AfterAll
+    public static void afterAll() throws IOException {
+        if (redissonClient != null) {
+            redissonClient.shutdown();
+        }
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @BeforeEach
+    public void beforeEach() {
+        RKeys keys = redissonClient.getKeys();
+        for (String key : keys.getKeys()) {
+            keys.delete(key);
+        }
+
+        testDir = FileUtil.baseTestPath(ResourceServiceTest.class);
+        FileUtil.createDir(testDir);
+        String storageConfig = """
+                {
+                  "provider": "filesystem",
+                  "bucket": "test",
+                  "createBucket": true,
+                  "overrides": {
+                    "jclouds.filesystem.basedir": %s
+                  }
+                }
+                """.formatted(Json.encode(testDir.toString()));
+        blobStorage = new BlobStorage(Json.decodeValue(storageConfig, Storage.class));
+
+        settings = new JsonObject("""
+                  {
+                    "maxSize" : 1048576,
+                    "syncPeriod": 60000,
+                    "syncDelay": 0,
+                    "syncBatch": 4096,
+                    "cacheExpiration": 300000,
+                    "compressionMinSize": 256,
+                    "compressionType": "zstd",
+                    "cacheCompression": true,
+                    "listingIndex": true,
+                    "persistence": {
+                      "PROMPT": {"policy": "WRITE_THROUGH"},
+                      "LIMIT": {"policy": "REDIS_ONLY", "expiration": 172800000}
+                    }
+                  }
+                """);
+        createResourceService(settings);
+    }
+
+    private void createResourceService(JsonObject settings) {
+        if (resourceService != null) {
+            resourceService.close();
+        }
+
+        TimerService timerService = mock(TimerService.class);
+        when(timerService.scheduleWithFixedDelay(anyLong(), anyLong(), any())).thenReturn(mock(TimerService.Timer.class));
+        LockService lockService = new LockService(redissonClient, null);
+        resourceService = new ResourceService(timerService, redissonClient, blobStorage,
+                lockService, settings, null);
+
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(timerService, times(2)).scheduleWithFixedDelay(anyLong(), anyLong(), task.capture());
+        tasks = task.getAllValues();
+    }
+
+    @AfterEach
+    public void afterEach() {
+        resourceService.close();
+        blobStorage.close();
+        FileUtil.deleteDir(testDir);
+    }
+
+    @Test
+    public void testNestedBulkOperations() {
+        List<Integer> items = IntStream.range(0, 32).boxed().toList();
+        AtomicInteger processed = new AtomicInteger();
+
+        // the outer items occupy all the bulk threads, the nested items would wait for them
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> resourceService.forEachParallel(items,
+                item -> resourceService.forEachParallel(items, nested -> processed.incrementAndGet())));
+        assertEquals(items.size() * items.size(), processed.get());
+    }
+
+    @Test
+    public void testCacheCompression() {
+        ResourceDescriptor descriptor = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.CONVERSATION, "bucket", "Users/user/", "folder/conversation");
+        String redisKey = "conversation:" + descriptor.getAbsoluteFilePath();
+
+        assertNotNull(resourceService.putResource(descriptor, BODY, EtagHeader.ANY));
+        assertCompressed(redisKey);
+        assertEquals(BODY, resourceService.getResource(descriptor));
+        assertNotNull(resourceService.getResourceMetadata(descriptor));
+
+        // write-behind uploads the cached compressed body as is
+        tasks.forEach(Runnable::run);
+        redissonClient.getKeys().delete(redisKey);
+
+        // the blob body is put back into the cache without recompression
+        assertEquals(BODY, resourceService.getResource(descriptor));
+        assertCompressed(redisKey);
+        assertEquals(BODY, resourceService.getResource(descriptor));
+    }
+
+    @Test
+    public void testContentLengthOfCompressedBlob() {
+        ResourceDescriptor source = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.CONVERSATION, "bucket", "Users/user/", "folder/source");
+        ResourceDescriptor target = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.CONVERSATION, "bucket", "Users/user/", "folder/target");
+        String sourceKey = "conversation:" + source.getAbsoluteFilePath();
+
+        resourceService.putResource(source, BODY, EtagHeader.ANY);
+        tasks.forEach(Runnable::run);
+        redissonClient.getKeys().delete(sourceKey);
+
+        // the blob is compressed, but the cached result reports the size of the body
+        assertTrue(blobStorage.meta(source.getAbsoluteFilePath()).getContentMetadata().getContentLength() < BODY.length());
+        assertEquals(BODY, resourceService.getResource(source));
+        assertCompressed(sourceKey);
+        assertEquals(String.valueOf(BODY.length()), redissonClient.getMap(sourceKey, StringCodec.INSTANCE).get("content_length"));
+
+        createResourceService(settings.copy().put("maxSize", BODY.length()));
+        assertTrue(resourceService.copyResource(source, target));
+        assertCompressed("conversation:" + target.getAbsoluteFilePath());
+    }
+
+    @Test
+    public void testTranscodedGzipBlob() {
+        ResourceDescriptor source = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.CONVERSATION, "bucket", "Users/user/", "folder/source");
+        ResourceDescriptor target = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.CONVERSATION, "bucket", "Users/user/", "folder/target");
+        createResourceService(settings.copy().put("compressionType", "gzip"));
+
+        // GCP cloud storage serves the gzip objects decompressed with the gzip encoding
+        blobStorage.store(source.getAbsoluteFilePath(), "application/json", "gzip", Map.of("etag", "etag"),
+                ByteSource.wrap(BODY.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(BODY, resourceService.getResource(source));
+        assertNotEquals("gzip", redissonClient.getMap("conversation:" + source.getAbsoluteFilePath(), StringCodec.INSTANCE).get("body_encoding"));
+
+        assertTrue(resourceService.copyResource(source, target));
+        tasks.forEach(Runnable::run);
+        redissonClient.getKeys().delete("conversation:" + target.getAbsoluteFilePath());
+        assertEquals(BODY, resourceService.getResource(target));
+    }
+
+    @Test
+    public void testShardedTopic() throws InterruptedException {
+        ResourceDescriptor descriptor = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.CONVERSATION, "bucket", "Users/user/", "folder/conversation");
+        RTopic shard = redissonClient.getTopic("resource:topic:" + Math.floorMod("bucket".hashCode(), 16));
+        assertEquals(0, shard.countSubscribers());
+
+        BlockingQueue<ResourceEvent> events = new LinkedBlockingQueue<>();
+        ResourceTopic.Subscription subscription = resourceService.subscribeResources(List.of(descriptor), events::add);
+        assertEquals(1, shard.countSubscribers());
+
+        resourceService.putResource(descriptor, BODY, EtagHeader.ANY);
+        ResourceEvent event = events.poll(10, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals(descriptor.getUrl(), event.getUrl());
+        assertEquals(ResourceEvent.Action.CREATE, event.getAction());
+
+        // the shard is not listened to without the subscriptions
+        subscription.close();
+        for (int i = 0; i < 50 && shard.countSubscribers() > 0; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(0, shard.countSubscribers());
+
+        ResourceDescriptor limit = ResourceDescriptorFactory.fromDecoded(ResourceTypes.LIMIT, "bucket", "Users/user/", "limits");
+        assertThrows(IllegalArgumentException.class, () -> resourceService.subscribeResources(List.of(limit), events::add));
+    }
+
+    @Test
+    public void testRedisOnlyPersistence() {
+        ResourceDescriptor descriptor = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.LIMIT, "bucket", "Users/user/", "limits");
+        String redisKey = "limit:" + descriptor.getAbsoluteFilePath();
+
+        assertNotNull(resourceService.putResource(descriptor, BODY, EtagHeader.ANY));
+        tasks.forEach(Runnable::run);
+        assertEquals(BODY, resourceService.getResource(descriptor));
+        assertTrue(redissonClient.getMap(redisKey).remainTimeToLive() > 0);
+        assertNull(blobStorage.meta(descriptor.getAbsoluteFilePath()));
+
+        assertTrue(resourceService.deleteResource(descriptor, EtagHeader.ANY));
+        assertNull(resourceService.getResource(descriptor));
+        assertEquals(0, redissonClient.getKeys().countExists(redisKey));
+        assertNull(blobStorage.meta(descriptor.getAbsoluteFilePath()));
+    }
+
+    @Test
+    public void testWriteThroughPersistence() {
+        ResourceDescriptor descriptor = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.PROMPT, "bucket", "Users/user/", "folder/prompt");
+
+        // written to the blob store as a whole without waiting for sync
+        assertNotNull(resourceService.putResource(descriptor, BODY, EtagHeader.ANY));
+        assertEquals(0, redissonClient.getKeys().countExists("prompt:" + descriptor.getAbsoluteFilePath()));
+        assertTrue(blobStorage.meta(descriptor.getAbsoluteFilePath()).getContentMetadata().getContentLength() > 0);
+        assertEquals(BODY, resourceService.getResource(descriptor));
+    }
+
+    @Test
+    public void testCompressionDictionaryChanged() throws IOException {
+        Path first = testDir.resolve("first.dict");
+        Path second = testDir.resolve("second.dict");
+        Files.writeString(first, "{\"messages\":[{\"role\":\"user\",\"content\":\"Hello world!\"}]}".repeat(10));
+        Files.writeString(second, "{\"role\":\"assistant\",\"content\":\"\"}".repeat(10));
+
+        ResourceDescriptor descriptor = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.CONVERSATION, "bucket", "Users/user/", "folder/conversation");
+        String redisKey = "conversation:" + descriptor.getAbsoluteFilePath();
+
+        createResourceService(settings.copy().put("compressionDictionary", first.toString()));
+        assertNotNull(resourceService.putResource(descriptor, BODY, EtagHeader.ANY));
+        tasks.forEach(Runnable::run);
+        assertTrue(blobStorage.meta(descriptor.getAbsoluteFilePath()).getContentMetadata().getContentEncoding().startsWith("zstd;dict="));
+
+        // the body compressed with an unknown dictionary is not read as a plain one
+        createResourceService(settings.copy().put("compressionDictionary", second.toString()));
+        assertThrows(IllegalArgumentException.class, () -> resourceService.getResource(descriptor));
+
+        createResourceService(settings.copy()
+                .put("compressionDictionary", second.toString())
+                .put("compressionDictionaries", new JsonArray().add(first.toString())));
+        assertEquals(BODY, resourceService.getResource(descriptor));
+
+        redissonClient.getKeys().delete(redisKey);
+        assertEquals(BODY, resourceService.getResource(descriptor));
+    }
+
+    @Test
+    public void testListingIndex() {
+        ResourceDescriptor root = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.CONVERSATION, "bucket", "Users/user/", null);
+        for (String path : List.of("a", "b.txt", "b/c", "b/d/e", "b/d/f", "g")) {
+            resourceService.putResource(root.resolveByUrl(root.getUrl() + path), BODY, EtagHeader.ANY);
+        }
+
+        // the first listing is served by the blob store
+        List<String> expected = List.of("a", "b.txt", "b/", "g");
+        assertEquals(expected, list(root, 10, false));
+        assertEquals(List.of("b/c", "b/d/e", "b/d/f"), list(root.resolveByUrl(root.getUrl() + "b/"), 10, true));
+
+        // the next ones by the index
+        tasks.forEach(Runnable::run);
+        assertEquals(expected, list(root, 10, false));
+        assertEquals(expected, list(root, 1, false));
+        assertEquals(List.of("a", "b.txt", "b/c", "b/d/e", "b/d/f", "g"), list(root, 2, true));
+        assertEquals(List.of("b/c", "b/d/"), list(root.resolveByUrl(root.getUrl() + "b/"), 1, false));
+
+        ResourceDescriptor folder = root.resolveByUrl(root.getUrl() + "b/d/");
+        resourceService.deleteResource(folder.resolveByUrl(folder.getUrl() + "e"), EtagHeader.ANY);
+        resourceService.putResource(folder.resolveByUrl(folder.getUrl() + "h"), BODY, EtagHeader.ANY);
+        assertEquals(List.of("b/d/f", "b/d/h"), list(folder, 10, false));
+
+        resourceService.deleteFolder(folder);
+        assertNull(resourceService.getFolderMetadata(folder, null, 10, false));
+        assertEquals(List.of("a", "b.txt", "b/", "g"), list(root, 10, false));
+    }
+
+    @Test
+    public void testStaleListingIndexBuild() {
+        ResourceDescriptor root = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.CONVERSATION, "bucket", "Users/user/", null);
+        resourceService.putResource(root.resolveByUrl(root.getUrl() + "a"), BODY, EtagHeader.ANY);
+
+        // both nodes schedule the index to build, the second one builds it first
+        List<Runnable> staleTasks = tasks;
+        assertEquals(List.of("a"), list(root, 10, false));
+        createResourceService(settings);
+        assertEquals(List.of("a"), list(root, 10, false));
+        tasks.forEach(Runnable::run);
+
+        String key = redissonClient.getKeys().getKeysStreamByPattern("index:*").findFirst().orElseThrow();
+        redissonClient.getScoredSortedSet(key, StringCodec.INSTANCE).add(0, "b\0{}");
+        assertEquals(List.of("a", "b"), list(root, 10, false));
+
+        // the ready index is not rebuilt by the other node
+        staleTasks.forEach(Runnable::run);
+        assertEquals(List.of("a", "b"), list(root, 10, false));
+    }
+
+    @Test
+    public void testCopyCachedResource() {
+        ResourceDescriptor source = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.CONVERSATION, "bucket", "Users/user/", "folder/source");
+        ResourceDescriptor target = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.CONVERSATION, "bucket", "Users/user/", "folder/target");
+        String sourceKey = "conversation:" + source.getAbsoluteFilePath();
+        String targetKey = "conversation:" + target.getAbsoluteFilePath();
+
+        String etag = resourceService.putResource(source, BODY, EtagHeader.ANY).getEtag();
+        assertTrue(resourceService.copyResource(source, target));
+
+        // the copy is made within Redis, the blob store has a stub for listing only
+        assertCompressed(sourceKey);
+        assertCompressed(targetKey);
+        assertEquals(0, blobStorage.meta(target.getAbsoluteFilePath()).getContentMetadata().getContentLength());
+        assertEquals(BODY, resourceService.getResource(target));
+        assertEquals(etag, resourceService.getResourceMetadata(target).getEtag());
+
+        // write-behind persists the copy
+        tasks.forEach(Runnable::run);
+        redissonClient.getKeys().delete(sourceKey, targetKey);
+        assertEquals(BODY, resourceService.getResource(target));
+        assertEquals(etag, resourceService.getResourceMetadata(target).getEtag());
+    }
+
+    @Test
+    public void testCopyTransformedResource() throws InterruptedException {
+        ResourceDescriptor source = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.CONVERSATION, "bucket", "Users/user/", "folder/source");
+        ResourceDescriptor target = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.CONVERSATION, "bucket", "Users/user/", "folder/target");
+
+        Long createdAt = resourceService.putResource(source, BODY, EtagHeader.ANY).getCreatedAt();
+        Thread.sleep(10);
+        assertTrue(resourceService.copyResource(source, target, body -> body.replace("Hello", "Copied")));
+
+        // the copy has the transformed body and the creation time of the source
+        assertEquals(BODY.replace("Hello", "Copied"), resourceService.getResource(target));
+        assertEquals(createdAt, resourceService.getResourceMetadata(target).getCreatedAt());
+
+        ResourceDescriptor missing = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.CONVERSATION, "bucket", "Users/user/", "folder/missing");
+        assertFalse(resourceService.copyResource(missing, target, body -> body));
+    }
+
+    @Test
+    public void testCopyFile() {
+        ResourceDescriptor source = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.FILE, "bucket", "Users/user/", "folder/source");
+        ResourceDescriptor target = ResourceDescriptorFactory.fromDecoded(
+                ResourceTypes.FILE, "bucket", "Users/user/", "folder/target");
+        byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+
+        // files are copied in the blob store even if they are cached
+        resourceService.putFile(source, body, EtagHeader.ANY, "application/json");
+        assertTrue(resourceService.copyResource(source, target));
+        assertEquals(0, redissonClient.getKeys().countExists("file:" + target.getAbsoluteFilePath()));
+        assertEquals(body.length, blobStorage.meta(target.getAbsoluteFilePath()).getContentMetadata().getContentLength());
+    }
+
+    private List<String> list(ResourceDescriptor folder, int limit, boolean recursive) {
+        String prefix = ResourceDescriptorFactory.fromDecoded(ResourceTypes.CONVERSATION, "bucket", "Users/user/", null).getUrl();
+        List<String> urls = new ArrayList<>();
+        String token = null;
+        do {
+            ResourceFolderMetadata metadata = resourceService.getFolderMetadata(folder, token, limit, recursive);
+            assertNotNull(metadata);
+            assertTrue(metadata.getItems().size() <= limit);
+            metadata.getItems().forEach(item -> urls.add(item.getUrl().substring(prefix.length())));
+            token = metadata.getNextToken();
+        } while (token != null);
+        return urls;
+    }
+
+    private static void assertCompressed(String redisKey) {
+        RMap<String, String> map = redissonClient.getMap(redisKey, StringCodec.INSTANCE);
+        assertEquals("zstd", map.get("body_encoding"));
+        assertTrue(map.get("body").length() < BODY.length());
+    }
+}
@@ -0,0 +1,104 @@
+package com.epam.aidial.core.server.service;
+
+import com.epam.aidial.core.server.ProxyContext;
+import com.epam.aidial.core.server.data.ResourceEvent;
+import com.epam.aidial.core.server.data.ResourceItemMetadata;
+import com.epam.aidial.core.server.data.Rule;
+import com.epam.aidial.core.server.resource.ResourceDescriptor;
+import com.epam.aidial.core.server.resource.ResourceDescriptorFactory;
+import com.epam.aidial.core.server.security.ExtractedClaims;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RuleServiceTest {
+
+    private final ResourceService resources = mock(ResourceService.class);
+    private final ResourceDescriptor root = ResourceDescriptorFactory.fromPublicUrl("prompts/public/prompt");
+    private final ResourceDescriptor folder = ResourceDescriptorFactory.fromPublicUrl("prompts/public/folder/prompt");
+    private final ResourceDescriptor nested = ResourceDescriptorFactory.fromPublicUrl("prompts/public/folder/nested/prompt");
+    private final ResourceDescriptor other = ResourceDescriptorFactory.fromPublicUrl("prompts/public/other/prompt");
+
+    private RuleService service;
+    private Consumer<ResourceEvent> subscriber;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void beforeEach() {
+        rules("""
+                {
+                  "public/folder/": [{"function": "EQUAL", "source": "roles", "targets": ["manager"]}],
+                  "public/folder/nested/": [{"function": "EQUAL", "source": "title", "targets": ["lead"]}]
+                }
+                """);
+
+        service = new RuleService(resources);
+        ArgumentCaptor<Consumer<ResourceEvent>> captor = ArgumentCaptor.forClass(Consumer.class);
+        verify(resources).subscribeResources(any(), captor.capture());
+        subscriber = captor.getValue();
+    }
+
+    @Test
+    public void testAllowedPublicResources() {
+        Set<ResourceDescriptor> all = Set.of(root, folder, nested, other);
+
+        assertEquals(Set.of(root, other), service.getAllowedPublicResources(context(List.of("user"), List.of("lead")), all));
+        assertEquals(Set.of(root, folder, other), service.getAllowedPublicResources(context(List.of("manager"), List.of()), all));
+        assertEquals(all, service.getAllowedPublicResources(context(List.of("manager"), List.of("lead")), all));
+        assertEquals(Set.of(root, other), service.getAllowedPublicResources(mock(ProxyContext.class), all));
+
+        // the rules are loaded once until changed
+        verify(resources, times(1)).getResourceWithMetadata(any());
+    }
+
+    @Test
+    public void testReloadOnChange() {
+        ProxyContext context = context(List.of("user"), List.of());
+        assertEquals(Set.of(), service.getAllowedPublicResources(context, Set.of(folder)));
+
+        rules("""
+                {
+                  "public/folder/": [{"function": "EQUAL", "source": "roles", "targets": ["user"]}]
+                }
+                """);
+        assertEquals(Set.of(), service.getAllowedPublicResources(context, Set.of(folder)));
+
+        subscriber.accept(new ResourceEvent().setUrl("rules/public/rules"));
+        assertEquals(Set.of(folder), service.getAllowedPublicResources(context, Set.of(folder)));
+        assertEquals(Map.of("public/folder/", List.of(rule("user"))),
+                service.listRules(ResourceDescriptorFactory.fromPublicUrl("prompts/public/folder/nested/")));
+    }
+
+    private void rules(String json) {
+        ResourceItemMetadata metadata = new ResourceItemMetadata().setUpdatedAt(System.nanoTime());
+        when(resources.getResourceWithMetadata(any())).thenReturn(Pair.of(metadata, json));
+        when(resources.getResourceMetadata(any())).thenReturn(metadata);
+    }
+
+    private static ProxyContext context(List<String> roles, List<String> titles) {
+        ProxyContext context = mock(ProxyContext.class);
+        when(context.getExtractedClaims()).thenReturn(new ExtractedClaims("sub", roles, "hash", Map.of("title", titles)));
+        return context;
+    }
+
+    private static Rule rule(String role) {
+        Rule rule = new Rule();
+        rule.setFunction(Rule.Function.EQUAL);
+        rule.setSource("roles");
+        rule.setTargets(List.of(role));
+        return rule;
+    }
+}
@@ -1,9 +1,16 @@
 package com.epam.aidial.core.server.util;
 
+import com.google.common.io.ByteSource;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -35,4 +42,48 @@ public class CompressionTest {
 
         assertEquals(content, actual);
     }
+
+    @Test
+    public void testCodecs() throws Exception {
+        byte[] content = "{\"messages\":[{\"role\":\"user\",\"content\":\"Hello world!\"}]}".repeat(100).getBytes();
+
+        for (String type : List.of(Compression.GZIP, Compression.ZSTD, Compression.LZ4)) {
+            CompressionCodec codec = Compression.codec(type);
+            assertEquals(type, codec.encoding());
+
+            byte[] compressed = Compression.compress(codec, content).read();
+            assertTrue(compressed.length < content.length);
+            assertArrayEquals(content, Compression.decompress(type, compressed));
+
+            try (InputStream stream = codec.decompress(new ByteArrayInputStream(compressed))) {
+                assertArrayEquals(content, stream.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    public void testZstdDictionary() {
+        byte[] dictionary = "{\"messages\":[{\"role\":\"user\",\"content\":\"\"}]}".repeat(10).getBytes();
+        byte[] content = "{\"messages\":[{\"role\":\"user\",\"content\":\"Hello world!\"}]}".getBytes();
+
+        CompressionCodec codec = Compression.codec(Compression.ZSTD, 3, dictionary);
+        ByteSource compressed = Compression.compress(codec, content);
+
+        // the encoding identifies the dictionary
+        assertTrue(codec.encoding().startsWith("zstd;dict="));
+        assertEquals(codec.encoding(), Compression.codec(Compression.ZSTD, null, dictionary).encoding());
+        assertNotEquals(codec.encoding(), Compression.codec(Compression.ZSTD, null, content).encoding());
+
+        assertArrayEquals(content, assertDoesNotThrow(() -> codec.decompress(compressed.openStream()).readAllBytes()));
+        assertThrows(IllegalArgumentException.class, () -> Compression.codec(Compression.GZIP, null, dictionary));
+    }
+
+    @Test
+    public void testGcpWorkaroundStreaming() throws Exception {
+        byte[] content = "Hello world!".getBytes();
+
+        try (InputStream stream = Compression.codec(Compression.GZIP).decompress(new ByteArrayInputStream(content))) {
+            assertArrayEquals(content, stream.readAllBytes());
+        }
+    }
 }
@@ -0,0 +1,83 @@
+package com.epam.aidial.core.server.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PathTrieTest {
+
+    private static final PathTrie<String> TRIE = new PathTrie<String>()
+            .add("/+openai/deployments/{id+}/chat/completions", "chat")
+            .add("/+openai/deployments/{id+}/completions", "completions")
+            .add("/+openai/deployments/{id+}", "deployment")
+            .add("/+openai/deployments", "deployments")
+            .add("/v1/files/{bucket:alnum}/{path*}", "file")
+            .add("/v1/metadata/files/{bucket:alnum}/{path*}", "metadata")
+            .add("/v1/invitations/{id:alnum}", "invitation")
+            .add("/+v1/{id+}/rate", "rate")
+            .add("/+v1/deployments/{id+}/tokenize", "tokenize");
+
+    @ParameterizedTest
+    @MethodSource("datasource")
+    void testMatch(String path, String value, String name) {
+        PathTrie.Match<String> match = TRIE.match(path);
+
+        if (value == null) {
+            assertNull(match);
+        } else {
+            assertEquals(value, match.value());
+            assertEquals(name, match.name());
+        }
+    }
+
+    @Test
+    void testCaptures() {
+        PathTrie.Match<String> match = TRIE.match("/v1/files/bucket/fol%2Fder/file.txt");
+        assertEquals("bucket", match.get("bucket"));
+        assertEquals("fol%2Fder/file.txt", match.get("path"));
+        assertNull(match.get("id"));
+
+        assertEquals("applications/bucket/app", TRIE.match("/openai/deployments/applications/bucket/app/chat/completions").get("id"));
+        assertEquals("deployments/app", TRIE.match("/v1/deployments/app/rate").get("id"));
+    }
+
+    @Test
+    void testInvalidTemplates() {
+        assertThrows(IllegalArgumentException.class, () -> new PathTrie<String>().add("/a", "1").add("/a", "2"));
+        assertThrows(IllegalArgumentException.class, () -> new PathTrie<String>().add("/a/{path*}/b", "1"));
+        assertThrows(IllegalArgumentException.class, () -> new PathTrie<String>().add("/a/{id}", "1").add("/a/{name}/b", "2"));
+    }
+
+    public static List<Arguments> datasource() {
+        return List.of(
+                Arguments.of("/openai/deployments/gpt/chat/completions", "chat", "/openai/deployments/{id}/chat/completions"),
+                Arguments.of("/openai/deployments/gpt/chat/completions/completions", "completions",
+                        "/openai/deployments/{id}/completions"),
+                Arguments.of("//openai/deployments/gpt/completions", "completions", "//openai/deployments/{id}/completions"),
+                Arguments.of("/openai/deployments/a/b", "deployment", "/openai/deployments/{id}"),
+                Arguments.of("/openai/deployments", "deployments", "/openai/deployments"),
+                Arguments.of("/openai/deployments/", null, null),
+                Arguments.of("/openai/deployments/chat/completions", "completions", "/openai/deployments/{id}/completions"),
+                Arguments.of("/v1/files/bucket/", "file", "/v1/files/{bucket}/{path}"),
+                Arguments.of("/v1/files/bucket/a/b.txt", "file", "/v1/files/{bucket}/{path}"),
+                Arguments.of("/v1/files/bucket", null, null),
+                Arguments.of("/v1/files/buc-ket/a", null, null),
+                Arguments.of("//v1/files/bucket/a", null, null),
+                Arguments.of("/v1/metadata/files/bucket/a", "metadata", "/v1/metadata/files/{bucket}/{path}"),
+                Arguments.of("/v1/invitations/abc", "invitation", "/v1/invitations/{id}"),
+                Arguments.of("/v1/invitations/abc/", null, null),
+                Arguments.of("/v1/deployments/app/tokenize", "tokenize", "/v1/deployments/{id}/tokenize"),
+                Arguments.of("/v1/deployments/app/rate", "rate", "/v1/{id}/rate"),
+                Arguments.of("/prefix/openai/deployments", null, null),
+                Arguments.of("", null, null),
+                Arguments.of("/", null, null)
+        );
+    }
+}